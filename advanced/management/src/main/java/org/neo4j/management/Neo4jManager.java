@@ -268,6 +268,11 @@ public final class Neo4jManager extends KernelProxy implements Kernel
         return getBean( PageCache.class );
     }
 
+    public QueryPlanCache getQueryPlanCacheBean()
+    {
+        return getBean( QueryPlanCache.class );
+    }
+
     public HighAvailability getHighAvailabilityBean()
     {
         return getBean( HighAvailability.class );
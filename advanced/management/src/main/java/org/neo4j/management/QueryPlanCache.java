@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management;
+
+import org.neo4j.jmx.Description;
+import org.neo4j.jmx.ManagementInterface;
+
+@ManagementInterface( name = QueryPlanCache.NAME )
+@Description( "Information about the cache of Cypher query plans" )
+public interface QueryPlanCache
+{
+    final String NAME = "Query plan cache";
+
+    @Description( "Number of queries that were executed with a cached plan" )
+    long getHits();
+
+    @Description( "Number of queries that had to be planned because their plan was not cached" )
+    long getMisses();
+
+    @Description( "Number of plans that were evicted to make room for plans of other queries" )
+    long getEvictions();
+
+    @Description( "Number of times a cached plan was checked against the statistics of the graph" )
+    long getStalenessChecks();
+
+    @Description( "Number of cached plans that were planned again because the statistics of the graph had changed" )
+    long getReplans();
+
+    @Description( "Number of times all cached plans were discarded because the schema changed" )
+    long getFlushes();
+
+    @Description( "Number of queries that were planned when the database started, because their plans were cached " +
+                  "when it last shut down" )
+    long getWarmUps();
+}
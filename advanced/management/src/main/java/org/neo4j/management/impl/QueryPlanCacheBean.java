@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotCompliantMBeanException;
+
+import org.neo4j.helpers.Service;
+import org.neo4j.jmx.impl.ManagementBeanProvider;
+import org.neo4j.jmx.impl.ManagementData;
+import org.neo4j.jmx.impl.Neo4jMBean;
+import org.neo4j.kernel.impl.query.QueryPlanCacheMonitor;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.management.QueryPlanCache;
+
+@Service.Implementation(ManagementBeanProvider.class)
+public final class QueryPlanCacheBean extends ManagementBeanProvider
+{
+    public QueryPlanCacheBean()
+    {
+        super( QueryPlanCache.class );
+    }
+
+    @Override
+    protected Neo4jMBean createMBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new QueryPlanCacheImpl( management );
+    }
+
+    private static class QueryPlanCacheImpl extends Neo4jMBean implements QueryPlanCache
+    {
+        private final Counters counters = new Counters();
+
+        QueryPlanCacheImpl( ManagementData management ) throws NotCompliantMBeanException
+        {
+            super( management );
+            management.resolveDependency( Monitors.class ).addMonitorListener( counters );
+        }
+
+        @Override
+        public long getHits()
+        {
+            return counters.hits.get();
+        }
+
+        @Override
+        public long getMisses()
+        {
+            return counters.misses.get();
+        }
+
+        @Override
+        public long getEvictions()
+        {
+            return counters.evictions.get();
+        }
+
+        @Override
+        public long getStalenessChecks()
+        {
+            return counters.stalenessChecks.get();
+        }
+
+        @Override
+        public long getReplans()
+        {
+            return counters.replans.get();
+        }
+
+        @Override
+        public long getFlushes()
+        {
+            return counters.flushes.get();
+        }
+
+        @Override
+        public long getWarmUps()
+        {
+            return counters.warmUps.get();
+        }
+    }
+
+    static class Counters implements QueryPlanCacheMonitor
+    {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+        final AtomicLong stalenessChecks = new AtomicLong();
+        final AtomicLong replans = new AtomicLong();
+        final AtomicLong flushes = new AtomicLong();
+        final AtomicLong warmUps = new AtomicLong();
+
+        @Override
+        public void cacheHit( String query )
+        {
+            hits.incrementAndGet();
+        }
+
+        @Override
+        public void cacheMiss( String query )
+        {
+            misses.incrementAndGet();
+        }
+
+        @Override
+        public void cacheEviction( String query )
+        {
+            evictions.incrementAndGet();
+        }
+
+        @Override
+        public void cacheStalenessCheck( String query, boolean stale )
+        {
+            stalenessChecks.incrementAndGet();
+            if ( stale )
+            {
+                replans.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void cacheFlush()
+        {
+            flushes.incrementAndGet();
+        }
+
+        @Override
+        public void cacheWarmUp( String query )
+        {
+            warmUps.incrementAndGet();
+        }
+    }
+}
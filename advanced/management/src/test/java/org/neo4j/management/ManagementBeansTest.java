@@ -129,6 +129,12 @@ public class ManagementBeansTest
         assertNotNull( getManager().getPageCacheBean() );
     }
 
+    @Test
+    public void canGetQueryPlanCacheBean() throws Exception
+    {
+        assertNotNull( getManager().getQueryPlanCacheBean() );
+    }
+
     @Test
     public void canAccessMemoryMappingCompositData() throws Exception
     {
@@ -233,6 +233,19 @@ public class NodeCorrectlyIndexedCheckTest
                     throw new UnsupportedOperationException();
                 }
 
+                @Override
+                public PrimitiveLongIterator rangeSeekByNumberInclusiveInOrder( Number lower, Number upper )
+                {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public PrimitiveLongIterator rangeSeekByStringInOrder( String lower, boolean includeLower,
+                                                                       String upper, boolean includeUpper )
+                {
+                    throw new UnsupportedOperationException();
+                }
+
                 @Override
                 public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
                 {
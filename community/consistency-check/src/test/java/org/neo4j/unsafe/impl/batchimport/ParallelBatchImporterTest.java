@@ -31,6 +31,7 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -65,15 +66,20 @@ import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdGenerator;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
 import org.neo4j.unsafe.impl.batchimport.input.Group;
 import org.neo4j.unsafe.impl.batchimport.input.InputEntity;
+import org.neo4j.unsafe.impl.batchimport.input.InputIndex;
 import org.neo4j.unsafe.impl.batchimport.input.InputNode;
 import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
 import org.neo4j.unsafe.impl.batchimport.input.Inputs;
 import org.neo4j.unsafe.impl.batchimport.input.SimpleInputIterator;
 import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitor;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 import static org.neo4j.helpers.collection.MapUtil.stringMap;
@@ -113,7 +119,14 @@ public class ParallelBatchImporterTest
             int cores = Runtime.getRuntime().availableProcessors();
             return random.intBetween( cores, cores + 100 );
         }
+
+        @Override
+        public boolean checkpoints()
+        {
+            return checkpoints;
+        }
     };
+    private boolean checkpoints;
     private final InputIdGenerator inputIdGenerator;
     private final IdMapper idMapper;
     private final IdGenerator idGenerator;
@@ -210,6 +223,104 @@ public class ParallelBatchImporterTest
         }
     }
 
+    @Test
+    public void shouldResumeFailedImportFromItsLastCheckpoint() throws Exception
+    {
+        // Relationships are read again when resuming
+        assumeTrue( multiPassIterators );
+
+        // GIVEN an import failing half way through importing relationships
+        // Parameters are shared between tests, so fresh instances of the stateful ones
+        checkpoints = true;
+        inputIdGenerator.reset();
+        IdGenerator idGenerator = this.idGenerator.dependsOnInput() ? fromInput() : startingFromTheBeginning();
+        DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+        IdGroupDistribution groups = new IdGroupDistribution( NODE_COUNT, 5, random.random() );
+        long nodeRandomSeed = random.nextLong(), relationshipRandomSeed = random.nextLong();
+        InputIterable<InputRelationship> relationships =
+                relationships( relationshipRandomSeed, RELATIONSHIP_COUNT, inputIdGenerator, groups );
+        try
+        {
+            new ParallelBatchImporter( directory.graphDbDir(), fs, config, NullLogService.getInstance(),
+                    ExecutionMonitors.invisible(), EMPTY ).doImport( Inputs.input(
+                            nodes( nodeRandomSeed, NODE_COUNT, inputIdGenerator, groups ),
+                            failingOnSecondPass( relationships, RELATIONSHIP_COUNT / 2 ),
+                            newIdMapper(), idGenerator, false, RELATIONSHIP_COUNT ) );
+            fail( "Should have failed" );
+        }
+        catch ( Exception e )
+        {   // Expected
+        }
+        assertTrue( ImportCheckpoint.exists( fs, directory.graphDbDir() ) );
+
+        // WHEN resuming it with the same input, which doesn't fail this time
+        new ParallelBatchImporter( directory.graphDbDir(), fs, config, NullLogService.getInstance(),
+                ExecutionMonitors.invisible(), EMPTY, Collections.<InputIndex>emptyList(), ImportMode.RESUME )
+                .doImport( Inputs.input(
+                        nodes( nodeRandomSeed, NODE_COUNT, inputIdGenerator, groups ), relationships,
+                        newIdMapper(), idGenerator, false, RELATIONSHIP_COUNT ) );
+
+        // THEN
+        assertFalse( ImportCheckpoint.exists( fs, directory.graphDbDir() ) );
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabase( directory.graphDbDir() );
+        try ( Transaction tx = db.beginTx() )
+        {
+            inputIdGenerator.reset();
+            verifyData( NODE_COUNT, RELATIONSHIP_COUNT, db, groups, nodeRandomSeed, relationshipRandomSeed );
+            tx.success();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+        assertConsistent( directory.graphDbDir() );
+    }
+
+    private IdMapper newIdMapper()
+    {
+        return idMapper.needsPreparation() ? strings( AUTO ) : actual();
+    }
+
+    private static InputIterable<InputRelationship> failingOnSecondPass(
+            final InputIterable<InputRelationship> actual, final int failAfter )
+    {
+        return new InputIterable<InputRelationship>()
+        {
+            private int passes;
+
+            @Override
+            public InputIterator<InputRelationship> iterator()
+            {
+                final InputIterator<InputRelationship> iterator = actual.iterator();
+                final boolean fail = ++passes == 2;
+                return new SimpleInputIterator<InputRelationship>( "failing relationships" )
+                {
+                    @Override
+                    protected InputRelationship fetchNextOrNull()
+                    {
+                        if ( fail && itemNumber == failAfter )
+                        {
+                            throw new IllegalStateException( "Simulated failure" );
+                        }
+                        return iterator.hasNext() ? iterator.next() : null;
+                    }
+
+                    @Override
+                    public void close()
+                    {
+                        iterator.close();
+                    }
+                };
+            }
+
+            @Override
+            public boolean supportsMultiplePasses()
+            {
+                return actual.supportsMultiplePasses();
+            }
+        };
+    }
+
     private void assertConsistent( File storeDir ) throws ConsistencyCheckIncompleteException, IOException
     {
         ConsistencyCheckService consistencyChecker = new ConsistencyCheckService();
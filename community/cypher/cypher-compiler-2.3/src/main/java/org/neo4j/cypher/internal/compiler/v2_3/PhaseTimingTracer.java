@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Adds up the time spent in each phase of compiling a query, while passing the phases on to another tracer.
+ */
+public class PhaseTimingTracer implements CompilationPhaseTracer
+{
+    private final CompilationPhaseTracer inner;
+    private final Map<CompilationPhase, Long> nanos = new EnumMap<>( CompilationPhase.class );
+
+    public PhaseTimingTracer( CompilationPhaseTracer inner )
+    {
+        this.inner = inner;
+    }
+
+    @Override
+    public CompilationPhaseEvent beginPhase( final CompilationPhase phase )
+    {
+        final CompilationPhaseEvent innerEvent = inner.beginPhase( phase );
+        final long start = System.nanoTime();
+        return new CompilationPhaseEvent()
+        {
+            @Override
+            public void close()
+            {
+                long elapsed = System.nanoTime() - start;
+                synchronized ( nanos )
+                {
+                    Long before = nanos.get( phase );
+                    nanos.put( phase, before == null ? elapsed : before + elapsed );
+                }
+                innerEvent.close();
+            }
+        };
+    }
+
+    /**
+     * @return nanoseconds spent in each phase that was traced, in the order the phases run
+     */
+    public Map<CompilationPhase, Long> phaseTimes()
+    {
+        synchronized ( nanos )
+        {
+            return new EnumMap<>( nanos );
+        }
+    }
+}
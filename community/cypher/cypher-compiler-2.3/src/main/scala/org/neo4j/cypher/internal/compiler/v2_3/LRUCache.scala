@@ -19,12 +19,17 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_3
 
-import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap
+import com.googlecode.concurrentlinkedhashmap.{ConcurrentLinkedHashMap, EvictionListener}
 
-class LRUCache[K, V](cacheSize: Int) extends ((K, => V) => V) {
+import scala.collection.JavaConverters._
+
+class LRUCache[K, V](cacheSize: Int, evicted: K => Unit = (_: K) => ()) extends ((K, => V) => V) {
 
   val inner = new ConcurrentLinkedHashMap.Builder[K, V]
     .maximumWeightedCapacity(cacheSize)
+    .listener(new EvictionListener[K, V] {
+      def onEviction(key: K, value: V) = evicted(key)
+    })
     .build()
 
   def getOrElseUpdate(key: K, f: => V): V = {
@@ -61,5 +66,8 @@ class LRUCache[K, V](cacheSize: Int) extends ((K, => V) => V) {
 
   def containsKey(key: K) = inner.containsKey(key)
 
+  // the keys of the cache, from the most to the least recently used
+  def keys: Seq[K] = inner.descendingKeySet().asScala.toSeq
+
   def apply(key: K, value: => V): V = getOrElseUpdate(key, value)
 }
@@ -24,6 +24,7 @@ import org.neo4j.cypher.internal.compiler.v2_3.codegen.{CodeStructure, CodeGener
 import org.neo4j.cypher.internal.compiler.v2_3.executionplan.{GeneratedQuery, CompiledPlan, NewRuntimeSuccessRateMonitor, PipeInfo}
 import org.neo4j.cypher.internal.compiler.v2_3.helpers._
 import org.neo4j.cypher.internal.compiler.v2_3.notification.RuntimeUnsupportedNotification
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.ParallelPipe
 import org.neo4j.cypher.internal.compiler.v2_3.planner.execution.{PipeExecutionBuilderContext, PipeExecutionPlanBuilder}
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.plans.LogicalPlan
 import org.neo4j.cypher.internal.compiler.v2_3.planner.{CantCompileQueryException, SemanticTable}
@@ -36,6 +37,7 @@ object RuntimeBuilder {
     case None | Some(InterpretedRuntimeName) => InterpretedRuntimeBuilder(interpretedProducer)
     case Some(CompiledRuntimeName) if useErrorsOverWarnings => ErrorReportingRuntimeBuilder(compiledProducer)
     case Some(CompiledRuntimeName) => WarningFallbackRuntimeBuilder(interpretedProducer, compiledProducer)
+    case Some(ParallelRuntimeName) => ParallelRuntimeBuilder(interpretedProducer, useErrorsOverWarnings)
   }
 }
 trait RuntimeBuilder {
@@ -96,6 +98,36 @@ case class ErrorReportingRuntimeBuilder(compiledProducer: CompiledPlanBuilder) e
       InvalidArgumentException("The given query is not currently supported in the selected runtime")
 }
 
+/*
+Builds the pipes of a plan like the interpreted runtime does, and then has the part of them that can run on several
+threads at once run on workers. Plans that have no such part fall back to the interpreted runtime.
+ */
+case class ParallelRuntimeBuilder(interpretedProducer: InterpretedPlanBuilder, useErrorsOverWarnings: Boolean)
+  extends RuntimeBuilder {
+
+  override def apply(logicalPlan: LogicalPlan, pipeBuildContext: PipeExecutionBuilderContext, planContext: PlanContext,
+                     tracer: CompilationPhaseTracer, semanticTable: SemanticTable,
+                     monitor: NewRuntimeSuccessRateMonitor, plannerName: PlannerName,
+                     preparedQuery: PreparedQuery): Either[CompiledPlan, PipeInfo] = {
+    val pipeInfo = interpretedProducer.apply(logicalPlan, pipeBuildContext, planContext, tracer)
+    try {
+      Right(pipeInfo.copy(pipe = ParallelPipe.parallelize(pipeInfo.pipe), runtimeUsed = ParallelRuntimeName))
+    } catch {
+      case e: CantCompileQueryException =>
+        fallback(preparedQuery)
+        Right(pipeInfo)
+    }
+  }
+
+  override def compiledProducer = throw new InternalException("This should never be called")
+
+  override def fallback(preparedQuery: PreparedQuery) =
+    if (useErrorsOverWarnings)
+      throw new InvalidArgumentException("The given query is not currently supported in the selected runtime")
+    else
+      preparedQuery.notificationLogger.log(RuntimeUnsupportedNotification)
+}
+
 case class InterpretedPlanBuilder(clock: Clock, monitors: Monitors) {
 
   def apply(logicalPlan: LogicalPlan, pipeBuildContext: PipeExecutionBuilderContext,
@@ -42,6 +42,29 @@ case object LongsToCountTable extends CountingJoinTableType
 case class LongToListTable(structure: Map[String, CypherType], localMap: Map[String, String]) extends RecordingJoinTableType
 case class LongsToListTable(structure: Map[String, CypherType], localMap: Map[String, String]) extends RecordingJoinTableType
 
+/*
+Tables of rows that a breaking operator collects in full before handing anything on, like aggregations and sorts.
+Rows are added as a sequence of values and read back in the same column order.
+ */
+sealed trait RowTableType extends JoinTableType
+
+case class GroupingTable(keyCount: Int, aggregations: Seq[AggregationKind]) extends RowTableType
+case class SortTable(sortColumns: Seq[SortColumn], limitVar: Option[String] = None) extends RowTableType
+case object DistinctTable extends RowTableType
+
+case class SortColumn(column: Int, ascending: Boolean)
+
+sealed trait AggregationKind
+
+object AggregationKind {
+  case object CountStar extends AggregationKind
+  case object Count extends AggregationKind
+  case object Sum extends AggregationKind
+  case object Min extends AggregationKind
+  case object Max extends AggregationKind
+  case object Collect extends AggregationKind
+}
+
 trait MethodStructure[E] {
 
   // misc
@@ -57,6 +80,9 @@ trait MethodStructure[E] {
   def updateProbeTableCount(tableVar: String, tableType: CountingJoinTableType, keyVar: Seq[String]): Unit
   def allocateProbeTable(tableVar: String, tableType: JoinTableType): Unit
   def method(resultType: JoinTableType, resultVar: String, methodName: String)(block: MethodStructure[E]=>Unit): Unit
+  def addToRowTable(tableVar: String, tableType: RowTableType, values: Seq[E]): Unit
+  def forEachRow(tableVar: String, tableType: RowTableType, columns: Seq[Variable])(block: MethodStructure[E]=>Unit): Unit
+  def ifDistinct(setVar: String, values: Seq[E])(block: MethodStructure[E]=>Unit): Unit
   def coerceToBoolean(propertyExpression: E): E
 
   // expressions
@@ -71,6 +97,8 @@ trait MethodStructure[E] {
 
   def castToCollection(value: E): E
 
+  def makeTraversable(value: E): E
+
   def load(varName: String): E
 
   // arithmetic
@@ -111,6 +139,9 @@ trait MethodStructure[E] {
   def nodeGetRelationships(iterVar: String, nodeVar: String, direction: Direction, typeVars: Seq[String]): Unit
   def connectingRelationships(iterVar: String, fromNode: String, dir: Direction, toNode:String)
   def connectingRelationships(iterVar: String, fromNode: String, dir: Direction, types: Seq[String], toNode: String)
+  def varLengthExpand(iterVar: String, fromNodeVar: String, dir: Direction, typeVars: Seq[String], minLength: Int,
+                      maxLength: Option[Int], reverseRelationships: Boolean): Unit
+  def nextVarLengthPath(iterVar: String, toNodeVar: String, relsVar: String): Unit
   def nextNode(targetVar: String, iterVar: String): Unit
   def nextRelationshipAndNode(toNodeVar: String, iterVar: String, direction: Direction, fromNodeVar: String, relVar: String): Unit
   def nextRelationship(iterVar: String, direction: Direction, relVar: String): Unit
@@ -27,7 +27,10 @@ import org.neo4j.cypher.internal.compiler.v2_3.helpers.Eagerly
 import org.neo4j.cypher.internal.compiler.v2_3.planner.CantCompileQueryException
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.plans
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.plans._
-import org.neo4j.cypher.internal.compiler.v2_3.{InternalException, ast, symbols}
+import org.neo4j.cypher.internal.compiler.v2_3.pipes
+import org.neo4j.cypher.internal.compiler.v2_3.symbols.CypherType
+import org.neo4j.cypher.internal.compiler.v2_3.{InternalException, ast, functions, symbols}
+import org.neo4j.graphdb.Direction
 
 object LogicalPlanConverter {
 
@@ -47,6 +50,12 @@ object LogicalPlanConverter {
       case p: plans.Limit => p.asCodeGenPlan
       case p: ProduceResult => p.asCodeGenPlan
       case p: plans.Projection => p.asCodeGenPlan
+      case p: Aggregation => p.asCodeGenPlan
+      case p: Sort => p.asCodeGenPlan
+      case p: SortedLimit => p.asCodeGenPlan
+      case p: plans.Skip => p.asCodeGenPlan
+      case p: UnwindCollection => p.asCodeGenPlan
+      case p: VarExpand => p.asCodeGenPlan
 
       case _ =>
         throw new CantCompileQueryException(s"$logicalPlan is not yet supported")
@@ -76,8 +85,17 @@ object LogicalPlanConverter {
 
       override def consume(context: CodeGenContext, child: CodeGenPlan) = {
         val projectionOpName = context.registerOperator(projection)
-        val columns = Eagerly.immutableMapValues(projection.expressions,
+        // nodes and relationships are passed on as they are, so that later operators still see their ids
+        val (entities, others) = projection.expressions.partition {
+          case (_, ast.Identifier(name)) => isEntity(name)(context)
+          case _ => false
+        }
+        val aliases = Eagerly.immutableMapValues(entities, (e: ast.Expression) => context.getVariable(e.asInstanceOf[ast.Identifier].name))
+        val columns = Eagerly.immutableMapValues(others,
           (e:ast.Expression) => ExpressionConverter.createProjection(e)(context))
+        aliases.foreach {
+          case (name, variable) => context.addVariable(name, variable)
+        }
         val vars = columns.map {
           case (name, expr) =>
             val variable = Variable(context.namer.newVarName(), expr.cypherType(context), expr.nullable(context))
@@ -102,12 +120,7 @@ object LogicalPlanConverter {
 
       override def consume(context: CodeGenContext, child: CodeGenPlan) = {
         val produceResultOpName = context.registerOperator(produceResults)
-        val projections = (produceResults.lhs.get match {
-          // if lhs is projection than we can simply load things that it projected
-          case _: plans.Projection => produceResults.columns.map(c => c -> LoadVariable(context.getVariable(c).name))
-          // else we have to evaluate all expressions ourselves
-          case _ => produceResults.columns.map(c => c -> ExpressionConverter.createExpressionForVariable(c)(context))
-        }).toMap
+        val projections = produceResults.columns.map(c => c -> ExpressionConverter.createExpressionForVariable(c)(context)).toMap
 
         (None, AcceptVisitor(produceResultOpName, projections))
       }
@@ -402,7 +415,12 @@ object LogicalPlanConverter {
         if (child.logicalPlan eq cartesianProduct.lhs.get) {
           context.pushParent(this)
           val (m, actions) = cartesianProduct.rhs.get.asCodeGenPlan.produce(context)
-          (m, actions.headOption.getOrElse(throw new InternalException("Illegal call chain")))
+          (m, actions match {
+            case Seq(action) => action
+            case Seq() => throw new InternalException("Illegal call chain")
+            // the right hand side is run once per row on the left, so it cannot build tables in methods of its own
+            case _ => throw new CantCompileQueryException(s"${cartesianProduct.rhs.get} below a cartesian product not yet supported")
+          })
         } else if (child.logicalPlan eq cartesianProduct.rhs.get) {
           val opName = context.registerOperator(cartesianProduct)
           val (m, instruction) = context.popParent().consume(context, this)
@@ -455,6 +473,261 @@ object LogicalPlanConverter {
     }
   }
 
+  private implicit class SkipCodeGen(skip: plans.Skip) {
+    def asCodeGenPlan = new CodeGenPlan with SingleChildPlan {
+
+      override val logicalPlan: LogicalPlan = skip
+
+      override def consume(context: CodeGenContext, child: CodeGenPlan): (Option[JoinTableMethod], Instruction) = {
+        val opName = context.registerOperator(skip)
+        val count = ExpressionConverter.createExpression(skip.count)(context)
+        val counterName = context.namer.newVarName()
+
+        val (methodHandle, innerBlock) = context.popParent().consume(context, this)
+
+        (methodHandle, SkipInstruction(opName, counterName, innerBlock, count))
+      }
+    }
+  }
+
+  private implicit class UnwindCollectionCodeGen(unwind: UnwindCollection) {
+    def asCodeGenPlan = new CodeGenPlan with SingleChildPlan {
+
+      override val logicalPlan: LogicalPlan = unwind
+
+      override def consume(context: CodeGenContext, child: CodeGenPlan): (Option[JoinTableMethod], Instruction) = {
+        val opName = context.registerOperator(unwind)
+        val collection = ExpressionConverter.createProjection(unwind.expression)(context)
+        val variable = Variable(context.namer.newVarName(), symbols.CTAny, nullable = true)
+        context.addVariable(unwind.identifier.name, variable)
+
+        val (methodHandle, action) = context.popParent().consume(context, this)
+
+        (methodHandle, UnwindInstruction(opName, variable, collection, action))
+      }
+    }
+  }
+
+  private implicit class VarExpandCodeGen(varExpand: VarExpand) {
+    def asCodeGenPlan = new CodeGenPlan with SingleChildPlan {
+
+      override val logicalPlan: LogicalPlan = varExpand
+
+      override def consume(context: CodeGenContext, child: CodeGenPlan): (Option[JoinTableMethod], Instruction) = {
+        if (varExpand.mode != ExpandAll)
+          throw new CantCompileQueryException(s"Variable length expand into a known node not yet supported")
+        if (varExpand.predicates.nonEmpty)
+          throw new CantCompileQueryException(s"Predicates on variable length expand not yet supported")
+        val fromNodeVar = context.getVariable(varExpand.from.name)
+        if (fromNodeVar.nullable)
+          throw new CantCompileQueryException(s"Variable length expand from an optional node not yet supported")
+
+        val relsVar = Variable(context.namer.newVarName(), symbols.CTAny)
+        val toNodeVar = Variable(context.namer.newVarName(), symbols.CTNode)
+        context.addVariable(varExpand.relName.name, relsVar)
+        context.addVariable(varExpand.to.name, toNodeVar)
+
+        val (methodHandle, action) = context.popParent().consume(context, this)
+        val typeVar2TypeName = varExpand.types.map(t => context.namer.newVarName() -> t.name).toMap
+        val opName = context.registerOperator(varExpand)
+        // the relationships of a path are listed in the direction of the pattern, not the direction of the expansion
+        val reverseRelationships =
+          if (varExpand.dir == Direction.BOTH) varExpand.projectedDir == Direction.INCOMING
+          else varExpand.dir != varExpand.projectedDir
+        val expandGenerator = VarLengthExpandLoopDataGenerator(opName, fromNodeVar, varExpand.dir, typeVar2TypeName,
+          varExpand.length.min, varExpand.length.max, reverseRelationships, toNodeVar)
+
+        (methodHandle, WhileLoop(relsVar, expandGenerator, action))
+      }
+    }
+  }
+
+  private implicit class AggregationCodeGen(aggregation: Aggregation) {
+    def asCodeGenPlan: CodeGenPlan =
+      if (aggregation.aggregationExpression.isEmpty) distinct
+      else grouping
+
+    // DISTINCT is an aggregation without aggregation functions, and does not have to wait for the end of its input
+    private def distinct = new CodeGenPlan with SingleChildPlan {
+
+      override val logicalPlan: LogicalPlan = aggregation
+
+      override def consume(context: CodeGenContext, child: CodeGenPlan): (Option[JoinTableMethod], Instruction) = {
+        val opName = context.registerOperator(aggregation)
+        val keys = aggregation.groupingExpressions.toSeq.map {
+          case (name, ast.Identifier(identifier)) if isEntity(identifier)(context) =>
+            (name, context.getVariable(identifier), None)
+          case (name, expression) =>
+            val projection = ExpressionConverter.createProjection(expression)(context)
+            (name, Variable(context.namer.newVarName(), symbols.CTAny, nullable = true), Some(projection))
+        }
+        keys.foreach {
+          case (name, variable, _) => context.addVariable(name, variable)
+        }
+        val projections = keys.collect {
+          case (_, variable, Some(projection)) => variable -> projection
+        }.toMap
+
+        val (methodHandle, action) = context.popParent().consume(context, this)
+
+        (methodHandle, DistinctInstruction(opName, context.namer.newVarName(), projections, keys.map(_._2), action))
+      }
+    }
+
+    private def grouping = new BreakingCodeGenPlan(aggregation) {
+
+      override protected def rowTable(context: CodeGenContext): RowTable = {
+        val keys = aggregation.groupingExpressions.toSeq.map {
+          case (name, ast.Identifier(identifier)) if isEntity(identifier)(context) =>
+            val variable = context.getVariable(identifier)
+            (VariableExpression(variable), Column(name, variable.cypherType, variable.nullable))
+          case (name, expression) =>
+            (ExpressionConverter.createProjection(expression)(context), Column(name))
+        }
+        val aggregations = aggregation.aggregationExpression.toSeq.map {
+          case (name, expression) =>
+            val (kind, argument) = aggregationFunction(expression)
+            (kind, argument.map(ExpressionConverter.createProjection(_)(context)).getOrElse(Literal(null)), Column(name))
+        }
+        RowTable(GroupingTable(keys.size, aggregations.map(_._1)),
+          keys.map(_._1) ++ aggregations.map(_._2), keys.map(_._2) ++ aggregations.map(_._3))
+      }
+
+      private def aggregationFunction(expression: ast.Expression): (AggregationKind, Option[ast.Expression]) = expression match {
+        case ast.CountStar() => (AggregationKind.CountStar, None)
+        case f@ast.FunctionInvocation(_, false, IndexedSeq(argument)) => f.function match {
+          case Some(functions.Count) => (AggregationKind.Count, Some(argument))
+          case Some(functions.Sum) => (AggregationKind.Sum, Some(argument))
+          case Some(functions.Min) => (AggregationKind.Min, Some(argument))
+          case Some(functions.Max) => (AggregationKind.Max, Some(argument))
+          case Some(functions.Collect) => (AggregationKind.Collect, Some(argument))
+          case _ => throw new CantCompileQueryException(s"Aggregation of $expression not yet supported")
+        }
+        case _ => throw new CantCompileQueryException(s"Aggregation of $expression not yet supported")
+      }
+    }
+  }
+
+  private implicit class SortCodeGen(sort: Sort) {
+    def asCodeGenPlan = new BreakingCodeGenPlan(sort) {
+
+      override protected def rowTable(context: CodeGenContext): RowTable = {
+        val columns = passedOnColumns(sort.left, context)
+        val sortColumns = sort.sortItems.map {
+          case pipes.Ascending(identifier) => SortColumn(columnIndex(columns, identifier, context), ascending = true)
+          case pipes.Descending(identifier) => SortColumn(columnIndex(columns, identifier, context), ascending = false)
+        }
+        RowTable(SortTable(sortColumns), columns.map(_._1), columns.map(_._2))
+      }
+    }
+  }
+
+  private implicit class SortedLimitCodeGen(sortedLimit: SortedLimit) {
+    def asCodeGenPlan = new BreakingCodeGenPlan(sortedLimit) {
+
+      override protected def rowTable(context: CodeGenContext): RowTable = {
+        val columns = passedOnColumns(sortedLimit.left, context)
+        // sort items that are not plain identifiers are computed into extra columns, that are dropped afterwards
+        val sortKeys = sortedLimit.sortItems.zipWithIndex.map {
+          case (item, i) => item.expression match {
+            case ast.Identifier(identifier) if context.variableQueryIdentifiers().contains(identifier) =>
+              (columnIndex(columns, identifier, context), None)
+            case expression =>
+              (columns.size + i, Some(ExpressionConverter.createExpression(expression)(context)))
+          }
+        }
+        val extraColumns = sortKeys.map(_._2.getOrElse(Literal(null)))
+        val sortColumns = sortedLimit.sortItems.zip(sortKeys).map {
+          case (_: ast.AscSortItem, (column, _)) => SortColumn(column, ascending = true)
+          case (_: ast.DescSortItem, (column, _)) => SortColumn(column, ascending = false)
+        }
+        val limit = ExpressionConverter.createExpression(sortedLimit.limit)(context)
+        val limitVar = context.namer.newVarName()
+        RowTable(SortTable(sortColumns, Some(limitVar)), columns.map(_._1) ++ extraColumns, columns.map(_._2),
+          Some(limitVar -> limit))
+      }
+    }
+  }
+
+  /*
+  The values of all the variables in scope below a sort, which are passed on unchanged.
+   */
+  private def passedOnColumns(left: LogicalPlan, context: CodeGenContext): Seq[(CodeGenExpression, Column)] = {
+    val identifiers = left.availableSymbols.map(_.name).filter(context.variableQueryIdentifiers().contains).toSeq.sorted
+    identifiers.map { identifier =>
+      val variable = context.getVariable(identifier)
+      (VariableExpression(variable), variable.cypherType match {
+        case symbols.CTNode | symbols.CTRelationship => Column(identifier, variable.cypherType, variable.nullable)
+        case _ => Column(identifier)
+      })
+    }
+  }
+
+  private def columnIndex(columns: Seq[(CodeGenExpression, Column)], identifier: String, context: CodeGenContext): Int = {
+    if (isEntity(identifier)(context))
+      throw new CantCompileQueryException(s"Sorting on nodes or relationships not supported")
+    val index = columns.indexWhere(_._2.identifier == identifier)
+    if (index < 0)
+      throw new CantCompileQueryException(s"Sorting on $identifier not yet supported")
+    index
+  }
+
+  private def isEntity(identifier: String)(implicit context: CodeGenContext) =
+    context.variableQueryIdentifiers().contains(identifier) && (context.getVariable(identifier).cypherType match {
+      case symbols.CTNode | symbols.CTRelationship => true
+      case _ => false
+    })
+
+  private case class Column(identifier: String, cypherType: CypherType = symbols.CTAny, nullable: Boolean = true)
+
+  private case class RowTable(tableType: RowTableType, values: Seq[CodeGenExpression], columns: Seq[Column],
+                              limit: Option[(String, CodeGenExpression)] = None)
+
+  /*
+  An operator that needs all of its input before it can produce any output, like an aggregation or a sort. The input
+  is consumed by a method of its own, that fills a row table and returns it, and the rows are then read back one by
+  one and handed on to the parent.
+   */
+  private abstract class BreakingCodeGenPlan(override val logicalPlan: LogicalPlan) extends CodeGenPlan {
+
+    protected def rowTable(context: CodeGenContext): RowTable
+
+    private var table: RowTable = null
+
+    override def produce(context: CodeGenContext): (Option[JoinTableMethod], Seq[Instruction]) = {
+      // a limit below returns from the method that builds the table, rather than from the query
+      if (containsLimit(logicalPlan.lhs.get))
+        throw new CantCompileQueryException(s"Limit below ${logicalPlan.getClass.getSimpleName} not yet supported")
+      context.pushParent(this)
+      val (Some(symbol), instructions) = logicalPlan.lhs.get.asCodeGenPlan.produce(context)
+      val opName = context.registerOperator(logicalPlan)
+      val buildMethod = MethodInvocation(Set(opName), symbol, context.namer.newMethodName(), instructions)
+
+      val variables = table.columns.map { column =>
+        val variable = Variable(context.namer.newVarName(), column.cypherType, column.nullable)
+        context.addVariable(column.identifier, variable)
+        variable
+      }
+      val (methodHandle, action) = context.popParent().consume(context, this)
+
+      (methodHandle, Seq(buildMethod, ReadRowTable(opName, symbol.name, table.tableType, variables, action)))
+    }
+
+    override def consume(context: CodeGenContext, child: CodeGenPlan): (Option[JoinTableMethod], Instruction) = {
+      val opName = context.registerOperator(logicalPlan)
+      table = rowTable(context)
+      val tableVar = context.namer.newVarName()
+
+      (Some(JoinTableMethod(tableVar, table.tableType)),
+        BuildRowTable(opName, tableVar, table.tableType, table.values, table.limit))
+    }
+
+    private def containsLimit(plan: LogicalPlan): Boolean = plan match {
+      case _: plans.Limit => true
+      case _ => plan.lhs.exists(containsLimit) || plan.rhs.exists(containsLimit)
+    }
+  }
+
   trait SingleChildPlan extends CodeGenPlan {
 
     final override def produce(context: CodeGenContext): (Option[JoinTableMethod], Seq[Instruction]) = {
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.codegen.ir
+
+import org.neo4j.cypher.internal.compiler.v2_3.codegen.ir.expressions.CodeGenExpression
+import org.neo4j.cypher.internal.compiler.v2_3.codegen.{CodeGenContext, MethodStructure, RowTableType}
+
+/*
+Adds a row to the table of a breaking operator. The table is allocated up front, together with any limit it needs.
+ */
+case class BuildRowTable(opName: String, name: String, tableType: RowTableType, values: Seq[CodeGenExpression],
+                         limit: Option[(String, CodeGenExpression)] = None) extends Instruction {
+
+  override def init[E](generator: MethodStructure[E])(implicit context: CodeGenContext) = {
+    values.foreach(_.init(generator))
+    limit.foreach {
+      case (limitVar, expression) =>
+        expression.init(generator)
+        generator.projectVariable(limitVar, expression.generateExpression(generator))
+    }
+    generator.allocateProbeTable(name, tableType)
+  }
+
+  override def body[E](generator: MethodStructure[E])(implicit context: CodeGenContext) =
+    generator.trace(opName) { body =>
+      body.addToRowTable(name, tableType, values.map(_.generateExpression(body)))
+    }
+
+  override protected def operatorId = Set(opName)
+
+  override protected def children = Seq.empty
+}
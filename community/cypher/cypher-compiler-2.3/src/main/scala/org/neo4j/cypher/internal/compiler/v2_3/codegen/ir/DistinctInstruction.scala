@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.codegen.ir
+
+import org.neo4j.cypher.internal.compiler.v2_3.codegen.ir.expressions.CodeGenExpression
+import org.neo4j.cypher.internal.compiler.v2_3.codegen.{CodeGenContext, DistinctTable, MethodStructure, Variable}
+
+/*
+Passes on the first row for each distinct combination of keys, without waiting for the rest of the input.
+ */
+case class DistinctInstruction(opName: String, setName: String, projections: Map[Variable, CodeGenExpression],
+                               keys: Seq[Variable], action: Instruction) extends Instruction {
+
+  override def init[E](generator: MethodStructure[E])(implicit context: CodeGenContext) = {
+    super.init(generator)
+    projections.values.foreach(_.init(generator))
+    generator.allocateProbeTable(setName, DistinctTable)
+  }
+
+  override def body[E](generator: MethodStructure[E])(implicit context: CodeGenContext) =
+    generator.trace(opName) { body =>
+      projections.foreach {
+        case (variable, expr) => body.projectVariable(variable.name, expr.generateExpression(body))
+      }
+      body.ifDistinct(setName, keys.map(key => body.load(key.name))) { distinct =>
+        distinct.incrementRows()
+        action.body(distinct)
+      }
+    }
+
+  override protected def operatorId = Set(opName)
+
+  override protected def children = Seq(action)
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.codegen.ir
+
+import org.neo4j.cypher.internal.compiler.v2_3.codegen.ir.expressions.CodeGenExpression
+import org.neo4j.cypher.internal.compiler.v2_3.codegen.{CodeGenContext, MethodStructure}
+
+case class SkipInstruction(opName: String, variableName: String, action: Instruction, numberToSkip: CodeGenExpression)
+  extends Instruction {
+
+  override def init[E](generator: MethodStructure[E])(implicit context: CodeGenContext): Unit = {
+    numberToSkip.init(generator)
+    generator.declareCounter(variableName, numberToSkip.generateExpression(generator))
+    action.init(generator)
+  }
+
+  override def body[E](generator: MethodStructure[E])(implicit context: CodeGenContext): Unit =
+    generator.trace(opName) { body =>
+      body.ifStatement(body.counterEqualsZero(variableName)) { onZero =>
+        onZero.incrementRows()
+        action.body(onZero)
+      }
+      body.ifStatement(body.not(body.counterEqualsZero(variableName))) { onNonZero =>
+        onNonZero.decreaseCounterAndCheckForZero(variableName)
+      }
+    }
+
+  override protected def children: Seq[Instruction] = Seq(action)
+
+  override protected def operatorId = Set(opName)
+}
@@ -20,7 +20,7 @@
 package org.neo4j.cypher.internal.compiler.v2_3.codegen.ir.expressions
 
 import org.neo4j.cypher.internal.compiler.v2_3.symbols.{CTRelationship, CTNode}
-import org.neo4j.cypher.internal.compiler.v2_3.{InternalException, symbols, ast}
+import org.neo4j.cypher.internal.compiler.v2_3.{symbols, ast}
 import org.neo4j.cypher.internal.compiler.v2_3.codegen.{Variable, MethodStructure, CodeGenContext}
 import org.neo4j.cypher.internal.compiler.v2_3.codegen.ir.expressions
 import org.neo4j.cypher.internal.compiler.v2_3.planner.CantCompileQueryException
@@ -81,6 +81,9 @@ object ExpressionConverter {
       case rel@ast.Identifier(name) if context.semanticTable.isRelationship(rel) =>
         RelationshipProjection(context.getVariable(name))
 
+      case ast.Identifier(name) if context.variableQueryIdentifiers().contains(name) =>
+        createExpressionForVariable(name)
+
       case e => expressionConverter(e, createProjection)
     }
   }
@@ -93,7 +96,7 @@ object ExpressionConverter {
     variable.cypherType match {
       case CTNode => NodeProjection(variable)
       case CTRelationship => RelationshipProjection(variable)
-      case _ => throw new InternalException("The compiled runtime only handles identifiers pointing to rels and nodes at this time")
+      case _ => VariableExpression(variable)
     }
   }
 
@@ -107,6 +110,14 @@ object ExpressionConverter {
       case rel@ast.Identifier(name) if context.semanticTable.isRelationship(rel) =>
         RelationshipExpression(context.getVariable(name))
 
+      case ast.Identifier(name) if context.variableQueryIdentifiers().contains(name) =>
+        val variable = context.getVariable(name)
+        variable.cypherType match {
+          case CTNode => NodeExpression(variable)
+          case CTRelationship => RelationshipExpression(variable)
+          case _ => VariableExpression(variable)
+        }
+
       case ast.Property(node@ast.Identifier(name), propKey) if context.semanticTable.isNode(node) =>
         val token = propKey.id(context.semanticTable).map(_.id)
         NodeProperty(token, propKey.name, context.getVariable(name), context.namer.newVarName())
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.codegen.ir.expressions
+
+import org.neo4j.cypher.internal.compiler.v2_3.codegen.{CodeGenContext, MethodStructure, Variable}
+
+/*
+A variable holding a value that is neither a node nor a relationship, like the result of an aggregation.
+ */
+case class VariableExpression(variable: Variable) extends CodeGenExpression {
+
+  override def init[E](generator: MethodStructure[E])(implicit context: CodeGenContext) = {}
+
+  override def generateExpression[E](structure: MethodStructure[E])(implicit context: CodeGenContext) =
+    structure.load(variable.name)
+
+  override def nullable(implicit context: CodeGenContext) = variable.nullable
+
+  override def cypherType(implicit context: CodeGenContext) = variable.cypherType
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.commands.expressions
+
+import java.util.concurrent.{ExecutionException, Future}
+
+import org.neo4j.collection.primitive.{Primitive, PrimitiveLongObjectMap}
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.QueryState
+import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
+import org.neo4j.graphdb.{Direction, Node, Path}
+
+/*
+Finds the shortest paths between two nodes with a breadth-first search from both ends at once, which every step takes
+one level further on the side with the smallest frontier. The search only deals in ids: it reads relationships through
+QueryContext.foreachRelationship, and every side keeps a primitive map from the nodes it has reached to the
+relationships it reached them over, which doubles as the set of visited nodes and is what the paths are built back
+from once the two sides meet. Only the nodes and relationships of the paths that are returned are looked up.
+
+All the nodes that are reached while taking a side one level further make paths of the same length with the other
+side, the shortest there are, so a single shortest path is done as soon as the sides meet, while all shortest paths
+finish the level to have every way of reaching the nodes where they meet.
+
+Frontiers of more than PARALLEL_FRONTIER_SIZE nodes are expanded by the workers of the query, each reading the
+relationships of a part of the frontier in a transaction of its own, unless the transaction of the query has changes
+those workers would not see. The workers only read the search, and what they find is only merged into it on the
+calling thread once every one of them is done, since the primitive maps of the search are not safe to read while
+being written to.
+ */
+class BidirectionalShortestPathSearch(dir: Direction, types: Option[Seq[Int]], maxDepth: Int, single: Boolean) {
+
+  import BidirectionalShortestPathSearch._
+
+  def find(startNode: Node, endNode: Node)(implicit state: QueryState): Stream[Path] = {
+    val start = startNode.getId
+    val end = endNode.getId
+    // the end points are used as they are given, only the nodes in between are looked up
+    def path(ids: List[Long]): Path = {
+      val entities = ids.zipWithIndex.map {
+        case (`start`, 0) => startNode
+        case (`end`, i) if i == ids.size - 1 => endNode
+        case (id, i) if i % 2 == 0 => state.query.nodeOps.getById(id)
+        case (id, _) => state.query.relationshipOps.getById(id)
+      }
+      PathImpl(entities: _*)
+    }
+
+    if (start == end) {
+      Stream(path(List(start)))
+    } else if (types.exists(_.isEmpty)) {
+      Stream.empty
+    } else {
+      val forward = new Side(start, dir)
+      val backward = new Side(end, dir.reverse())
+
+      var meetings = new LongBuffer
+      while (meetings.size == 0 && forward.depth + backward.depth < maxDepth &&
+             forward.frontier.size > 0 && backward.frontier.size > 0) {
+        meetings =
+          if (forward.frontier.size <= backward.frontier.size) forward.expand(backward)
+          else backward.expand(forward)
+      }
+
+      (0 until meetings.size).toStream.flatMap { i =>
+        val meeting = meetings(i)
+        for (fromStart <- walks(forward, meeting); toEnd <- walks(backward, meeting))
+          yield path(fromStart.reverse ++ toEnd.tail)
+      }
+    }
+  }
+
+  // The ways back from a node to the origin of a side, as alternating node and relationship ids
+  private def walks(side: Side, node: Long): Stream[List[Long]] = {
+    val steps = side.reached.get(node)
+    if (steps.size == 0)
+      Stream(List(node))
+    else
+      (0 until steps.size).toStream.flatMap { i =>
+        walks(side, steps.previous(i)).map(walk => node :: steps.relationship(i) :: walk)
+      }
+  }
+
+  private class Side(origin: Long, direction: Direction) {
+    val reached: PrimitiveLongObjectMap[Steps] = Primitive.longObjectMap()
+    var frontier = new LongBuffer
+    var depth = 0
+
+    reached.put(origin, new Steps(0))
+    frontier.add(origin)
+
+    // Takes this side one level further and returns the nodes where it met the other side
+    def expand(other: Side)(implicit state: QueryState): LongBuffer = {
+      val nextDepth = depth + 1
+      val next = new LongBuffer
+      val meetings = new LongBuffer
+
+      def visit(from: Long, relationship: Long, to: Long) {
+        val steps = reached.get(to)
+        if (steps == null) {
+          val reachedSteps = new Steps(nextDepth)
+          reachedSteps.add(relationship, from)
+          reached.put(to, reachedSteps)
+          next.add(to)
+          if (other.reached.containsKey(to))
+            meetings.add(to)
+        } else if (!single && steps.depth == nextDepth) {
+          steps.add(relationship, from)
+        }
+      }
+      def done = single && meetings.size > 0
+
+      state.workers match {
+        case Some(workers) if frontier.size > PARALLEL_FRONTIER_SIZE && !state.query.hasUncommittedChanges =>
+          val partSize = (frontier.size + workers.parallelism - 1) / workers.parallelism
+          val parts: Seq[Future[LongBuffer]] = (0 until frontier.size by partSize).map { from =>
+            workers.submit {
+              state.query.withWorkerQueryContext { context =>
+                unreachedNeighbours(context, from, math.min(from + partSize, frontier.size))
+              }
+            }
+          }
+          // Await every part before merging any, the workers read what this side has reached while they run
+          val results = parts.map { part =>
+            try {
+              part.get()
+            } catch {
+              case e: ExecutionException => throw e.getCause
+            }
+          }
+          results.foreach { found =>
+            var i = 0
+            while (i < found.size && !done) {
+              visit(found(i), found(i + 1), found(i + 2))
+              i += 3
+            }
+          }
+
+        case _ =>
+          var i = 0
+          while (i < frontier.size && !done) {
+            val node = frontier(i)
+            state.query.foreachRelationship(node, direction, types) { (relationship, otherNode) =>
+              if (!done)
+                visit(node, relationship, otherNode)
+            }
+            i += 1
+          }
+      }
+
+      frontier = next
+      depth = nextDepth
+      meetings
+    }
+
+    // Triples of frontier node, relationship and neighbour that this side had not reached before this level. Called by
+    // the workers, which only read while the calling thread waits for all of them.
+    private def unreachedNeighbours(context: QueryContext, from: Int, until: Int): LongBuffer = {
+      val found = new LongBuffer
+      var i = from
+      while (i < until) {
+        val node = frontier(i)
+        context.foreachRelationship(node, direction, types) { (relationship, otherNode) =>
+          if (!reached.containsKey(otherNode)) {
+            found.add(node)
+            found.add(relationship)
+            found.add(otherNode)
+          }
+        }
+        i += 1
+      }
+      found
+    }
+  }
+}
+
+object BidirectionalShortestPathSearch {
+  val PARALLEL_FRONTIER_SIZE = 1024
+
+  // The relationships a node was reached over, paired with the nodes they were taken from
+  private class Steps(val depth: Int) {
+    private val ids = new LongBuffer
+
+    def add(relationship: Long, previous: Long) {
+      ids.add(relationship)
+      ids.add(previous)
+    }
+
+    def size: Int = ids.size / 2
+
+    def relationship(i: Int): Long = ids(2 * i)
+
+    def previous(i: Int): Long = ids(2 * i + 1)
+  }
+
+  private class LongBuffer {
+    private var values = new Array[Long](4)
+    var size = 0
+
+    def add(value: Long) {
+      if (size == values.length)
+        values = java.util.Arrays.copyOf(values, size * 2)
+      values(size) = value
+      size += 1
+    }
+
+    def apply(i: Int): Long = values(i)
+  }
+}
@@ -24,11 +24,8 @@ import org.neo4j.cypher.internal.compiler.v2_3.commands.{PathExtractor, Pattern,
 import org.neo4j.cypher.internal.compiler.v2_3.executionplan.{Effects, ReadsNodes, ReadsRelationships}
 import org.neo4j.cypher.internal.compiler.v2_3.pipes.QueryState
 import org.neo4j.cypher.internal.compiler.v2_3.symbols._
-import org.neo4j.graphalgo.GraphAlgoFactory
-import org.neo4j.graphdb.{DynamicRelationshipType, Expander, Node, Path}
-import org.neo4j.kernel.Traversal
+import org.neo4j.graphdb.{Direction, Node, Path}
 
-import scala.collection.JavaConverters._
 import scala.collection.Map
 
 case class ShortestPathExpression(ast: ShortestPath) extends Expression with PathExtractor {
@@ -42,7 +39,7 @@ case class ShortestPathExpression(ast: ShortestPath) extends Expression with Pat
     }
   }
 
-  private def getMatches(m: Map[String, Any]): Any = {
+  private def getMatches(m: Map[String, Any])(implicit state: QueryState): Any = {
     val start = getEndPoint(m, ast.left)
     val end = getEndPoint(m, ast.right)
     shortestPathStrategy.findResult(start, end)
@@ -60,18 +57,10 @@ case class ShortestPathExpression(ast: ShortestPath) extends Expression with Pat
 
   def rewrite(f: (Expression) => Expression): Expression = f(ShortestPathExpression(ast.rewrite(f)))
 
-  private lazy val expander: Expander = if (ast.relTypes.isEmpty) {
-    Traversal.expanderForAllTypes(ast.dir)
-  } else {
-    ast.relTypes.foldLeft(Traversal.emptyExpander()) {
-      case (e, t) => e.add(DynamicRelationshipType.withName(t), ast.dir)
-    }
-  }
-
   val shortestPathStrategy = if (ast.single)
-    new SingleShortestPathStrategy(expander, ast.allowZeroLength, ast.maxDepth.getOrElse(15))
+    new SingleShortestPathStrategy(ast.dir, ast.relTypes, ast.allowZeroLength, ast.maxDepth.getOrElse(15))
   else
-    new AllShortestPathsStrategy(expander, ast.allowZeroLength, ast.maxDepth.getOrElse(15))
+    new AllShortestPathsStrategy(ast.dir, ast.relTypes, ast.allowZeroLength, ast.maxDepth.getOrElse(15))
 
   def calculateType(symbols: SymbolTable) =  shortestPathStrategy.typ
 
@@ -81,15 +70,21 @@ case class ShortestPathExpression(ast: ShortestPath) extends Expression with Pat
 }
 
 trait ShortestPathStrategy {
-  def findResult(start: Node, end: Node): Any
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Any
   def typ: CypherType
+
+  protected def search(dir: Direction, relTypes: Seq[String], depth: Int, single: Boolean)
+                      (implicit state: QueryState): BidirectionalShortestPathSearch = {
+    val types = if (relTypes.isEmpty) None else Some(relTypes.flatMap(state.query.getOptRelTypeId))
+    new BidirectionalShortestPathSearch(dir, types, depth, single)
+  }
 }
 
-class SingleShortestPathStrategy(expander: Expander, allowZeroLength: Boolean, depth: Int) extends ShortestPathStrategy {
-  private val finder = GraphAlgoFactory.shortestPath(expander, depth)
+class SingleShortestPathStrategy(dir: Direction, relTypes: Seq[String], allowZeroLength: Boolean, depth: Int)
+  extends ShortestPathStrategy {
 
-  def findResult(start: Node, end: Node): Path = {
-    val result = finder.findSinglePath(start, end)
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Path = {
+    val result = search(dir, relTypes, depth, single = true).find(start, end).headOption.orNull
     if (!allowZeroLength && result != null && result.length() == 0)
       null
     else
@@ -99,11 +94,11 @@ class SingleShortestPathStrategy(expander: Expander, allowZeroLength: Boolean, d
   def typ = CTPath
 }
 
-class AllShortestPathsStrategy(expander: Expander, allowZeroLength: Boolean, depth: Int) extends ShortestPathStrategy {
-  private val finder = GraphAlgoFactory.shortestPath(expander, depth)
+class AllShortestPathsStrategy(dir: Direction, relTypes: Seq[String], allowZeroLength: Boolean, depth: Int)
+  extends ShortestPathStrategy {
 
-  def findResult(start: Node, end: Node): Stream[Path] = {
-    finder.findAllPaths(start, end).asScala.toStream
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Stream[Path] = {
+    search(dir, relTypes, depth, single = false).find(start, end)
   }.filter { p => allowZeroLength || p.length() > 0 }
 
   def typ = CTCollection(CTPath)
@@ -21,13 +21,16 @@ package org.neo4j.cypher.internal.compiler.v2_3.executionplan
 
 import org.neo4j.cypher.internal.compiler.v2_3._
 import org.neo4j.cypher.internal.compiler.v2_3.pipes._
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.spill.SpillSpace
 import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription
 import org.neo4j.cypher.internal.compiler.v2_3.spi.{CSVResources, QueryContext}
-import org.neo4j.cypher.internal.compiler.v2_3.{ExplainMode, ExecutionMode}
+import org.neo4j.cypher.internal.compiler.v2_3.{ExecutionMode, ExplainMode, ProfileMode}
 import org.neo4j.graphdb.GraphDatabaseService
 import org.neo4j.graphdb.QueryExecutionType.QueryType
 
-case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: List[String]) extends ExecutionResultBuilderFactory {
+case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: List[String], spillThreshold: Int = 0,
+                                                workerPool: Option[WorkerPool] = None)
+  extends ExecutionResultBuilderFactory {
   def create(): ExecutionResultBuilder =
     ExecutionWorkflowBuilder()
 
@@ -58,7 +61,12 @@ case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: Lis
 
     def build(queryId: AnyRef, planType: ExecutionMode, params: Map[String, Any], notificationLogger: InternalNotificationLogger): InternalExecutionResult = {
       taskCloser.addTask(queryContext.close)
-      val state = new QueryState(queryContext, externalResource, params, pipeDecorator, queryId = queryId)
+      val spillSpace = new SpillSpace(spillThreshold)
+      taskCloser.addTask(_ => spillSpace.close())
+      // profiled queries run on the calling thread, so that the profiler sees all of their rows
+      val workers = if (planType == ProfileMode) None else workerPool
+      val state = new QueryState(queryContext, externalResource, params, pipeDecorator, queryId = queryId,
+                                 spillSpace = spillSpace, workers = workers)
       try {
         try {
           createResults(state, planType, notificationLogger)
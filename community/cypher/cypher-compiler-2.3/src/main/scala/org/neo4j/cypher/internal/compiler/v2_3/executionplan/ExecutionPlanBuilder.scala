@@ -26,6 +26,7 @@ import org.neo4j.cypher.internal.compiler.v2_3.commands._
 import org.neo4j.cypher.internal.compiler.v2_3.executionplan.ExecutionPlanBuilder.{DescriptionProvider, tracer}
 import org.neo4j.cypher.internal.compiler.v2_3.executionplan.builders._
 import org.neo4j.cypher.internal.compiler.v2_3.pipes._
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.batch.BatchPipe
 import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription
 import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription.Arguments
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.plans.LogicalPlan
@@ -38,9 +39,11 @@ import org.neo4j.function.Supplier
 import org.neo4j.function.Suppliers.singleton
 import org.neo4j.graphdb.GraphDatabaseService
 import org.neo4j.graphdb.QueryExecutionType.QueryType
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
 import org.neo4j.helpers.Clock
 import org.neo4j.kernel.GraphDatabaseAPI
 import org.neo4j.kernel.api.{Statement => KernelStatement}
+import org.neo4j.kernel.configuration.Config
 import org.neo4j.kernel.impl.core.NodeManager
 
 
@@ -65,7 +68,8 @@ case class PipeInfo(pipe: Pipe,
                     updating: Boolean,
                     periodicCommit: Option[PeriodicCommitInfo] = None,
                     fingerprint: Option[PlanFingerprint] = None,
-                    plannerUsed: PlannerName)
+                    plannerUsed: PlannerName,
+                    runtimeUsed: RuntimeName = InterpretedRuntimeName)
 
 case class PeriodicCommitInfo(size: Option[Long]) {
   def batchRowCount = size.getOrElse(/* defaultSize */ 1000L)
@@ -103,6 +107,22 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService, statsDivergenceThreshold
     gdapi.getDependencyResolver.resolveDependency(classOf[NodeManager])
   }
 
+  val spillThreshold: Int = {
+    val gdapi = graph.asInstanceOf[GraphDatabaseAPI]
+    gdapi.getDependencyResolver.resolveDependency(classOf[Config]).get(GraphDatabaseSettings.cypher_spill_threshold)
+  }
+
+  val workerPool: WorkerPool = {
+    val gdapi = graph.asInstanceOf[GraphDatabaseAPI]
+    val workers: Int = gdapi.getDependencyResolver.resolveDependency(classOf[Config]).get(GraphDatabaseSettings.cypher_parallel_workers)
+    new WorkerPool(if (workers > 0) workers else Runtime.getRuntime.availableProcessors())
+  }
+
+  val batchedRows: Boolean = {
+    val gdapi = graph.asInstanceOf[GraphDatabaseAPI]
+    gdapi.getDependencyResolver.resolveDependency(classOf[Config]).get(GraphDatabaseSettings.cypher_batched_rows)
+  }
+
   def build(planContext: PlanContext, inputQuery: PreparedQuery, tracer: CompilationPhaseTracer=CompilationPhaseTracer.NO_TRACING): ExecutionPlan = {
     val executablePlan = pipeBuilder.producePlan(inputQuery, planContext, tracer)
     executablePlan match {
@@ -146,10 +166,10 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService, statsDivergenceThreshold
 
   private def buildInterpreted(pipeInfo: PipeInfo, planContext: PlanContext, inputQuery: PreparedQuery) = {
     val abstractQuery = inputQuery.abstractQuery
-    val PipeInfo(pipe, updating, periodicCommitInfo, fp, planner) = pipeInfo
+    val PipeInfo(pipe, updating, periodicCommitInfo, fp, planner, runtime) = withBatchedRows(pipeInfo)
 
     val columns = getQueryResultColumns(abstractQuery, pipe.symbols)
-    val resultBuilderFactory = new DefaultExecutionResultBuilderFactory(pipeInfo, columns)
+    val resultBuilderFactory = new DefaultExecutionResultBuilderFactory(pipeInfo.copy(pipe = pipe), columns, spillThreshold, Some(workerPool))
     val func = getExecutionPlanFunction(periodicCommitInfo, abstractQuery.getQueryText, updating, resultBuilderFactory, inputQuery.notificationLogger)
 
     new ExecutionPlan {
@@ -162,11 +182,17 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService, statsDivergenceThreshold
       def plannerUsed = planner
       def isStale(lastTxId: () => Long, statistics: GraphStatistics) = fingerprint.isStale(lastTxId, statistics)
 
-      def runtimeUsed = InterpretedRuntimeName
+      def runtimeUsed = runtime
     }
 
   }
 
+  private def withBatchedRows(pipeInfo: PipeInfo): PipeInfo =
+    if (batchedRows && !pipeInfo.updating && pipeInfo.runtimeUsed == InterpretedRuntimeName)
+      pipeInfo.copy(pipe = BatchPipe.batch(pipeInfo.pipe))
+    else
+      pipeInfo
+
   private def getQueryResultColumns(q: AbstractQuery, currentSymbols: SymbolTable): List[String] = q match {
     case in: PeriodicCommitQuery =>
       getQueryResultColumns(in.query, currentSymbols)
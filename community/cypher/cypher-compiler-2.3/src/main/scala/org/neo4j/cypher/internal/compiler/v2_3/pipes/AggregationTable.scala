@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes
+
+import org.neo4j.collection.primitive.{Primitive, PrimitiveLongObjectMap}
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.aggregation.AggregationFunction
+import org.neo4j.graphdb.{Node, Relationship}
+
+import scala.collection.mutable
+
+final class AggregationGroup(val keyValues: Seq[Any], val context: ExecutionContext, val functions: Array[AggregationFunction]) {
+  def aggregate(row: ExecutionContext)(implicit state: QueryState) {
+    var i = 0
+    while (i < functions.length) {
+      functions(i)(row)
+      i += 1
+    }
+  }
+}
+
+/*
+The groups of an eager aggregation. When grouping on a single node, relationship or integer, the groups are kept in
+primitive maps keyed on the id or value, so that no key object has to be kept around for them. Every other grouping key
+is wrapped in a NiceHasher, like before. Integers of different widths group together, just like they do in a
+NiceHasher.
+ */
+class AggregationTable(keyNames: Seq[String]) {
+  private val singleKey = keyNames.size == 1
+  private val nodeGroups: PrimitiveLongObjectMap[AggregationGroup] = Primitive.longObjectMap()
+  private val relationshipGroups: PrimitiveLongObjectMap[AggregationGroup] = Primitive.longObjectMap()
+  private val integerGroups: PrimitiveLongObjectMap[AggregationGroup] = Primitive.longObjectMap()
+  private val otherGroups = mutable.HashMap.empty[NiceHasher, AggregationGroup]
+  private var _size = 0
+
+  def size = _size
+
+  def isEmpty = _size == 0
+
+  /*
+  The grouping key of a row: the node, relationship or long of a single primitive key, and a NiceHasher otherwise.
+   */
+  def keyOf(row: ExecutionContext): Any =
+    if (singleKey) row(keyNames.head) match {
+      case x: Node => x
+      case x: Relationship => x
+      case x: Long => x
+      case x: Int => x.toLong
+      case x: Short => x.toLong
+      case x: Byte => x.toLong
+      case x => new NiceHasher(Seq(x))
+    }
+    else new NiceHasher(keyNames.map(row))
+
+  def hash(key: Any): Int = key match {
+    case x: Node => longHash(x.getId)
+    case x: Relationship => longHash(x.getId)
+    case x: Long => longHash(x)
+    case x => x.hashCode()
+  }
+
+  def get(key: Any): AggregationGroup = key match {
+    case x: Node => nodeGroups.get(x.getId)
+    case x: Relationship => relationshipGroups.get(x.getId)
+    case x: Long => integerGroups.get(x)
+    case x: NiceHasher => otherGroups.getOrElse(x, null)
+  }
+
+  def put(key: Any, group: AggregationGroup) {
+    key match {
+      case x: Node => nodeGroups.put(x.getId, group)
+      case x: Relationship => relationshipGroups.put(x.getId, group)
+      case x: Long => integerGroups.put(x, group)
+      case x: NiceHasher => otherGroups.put(x, group)
+    }
+    _size += 1
+  }
+
+  def groups: Iterator[AggregationGroup] =
+    valuesOf(nodeGroups) ++ valuesOf(relationshipGroups) ++ valuesOf(integerGroups) ++ otherGroups.valuesIterator
+
+  private def valuesOf(groupsById: PrimitiveLongObjectMap[AggregationGroup]): Iterator[AggregationGroup] = new Iterator[AggregationGroup] {
+    private val keys = groupsById.iterator()
+
+    def hasNext = keys.hasNext
+
+    def next() = groupsById.get(keys.next())
+  }
+
+  private def longHash(value: Long) = (value ^ (value >>> 32)).toInt
+}
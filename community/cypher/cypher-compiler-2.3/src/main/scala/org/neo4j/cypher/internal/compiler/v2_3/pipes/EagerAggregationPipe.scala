@@ -21,12 +21,10 @@ package org.neo4j.cypher.internal.compiler.v2_3.pipes
 
 import org.neo4j.cypher.internal.compiler.v2_3._
 import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions.AggregationExpression
-import org.neo4j.cypher.internal.compiler.v2_3.pipes.aggregation.AggregationFunction
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.spill.{SpilledPartitions, UnspillableRowException}
 import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription.Arguments
 import org.neo4j.cypher.internal.compiler.v2_3.symbols._
 
-import scala.collection.mutable.{Map => MutableMap}
-
 // Eager aggregation means that this pipe will eagerly load the whole resulting sub graphs before starting
 // to emit aggregated results.
 // Cypher is lazy until it can't - this pipe will eagerly load the full match
@@ -45,53 +43,108 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Set[String], aggre
     SymbolTable(keyIdentifiers ++ aggrIdentifiers)
   }
 
+  private val keyNames: Seq[String] = keyExpressions.toSeq
+  private val (aggregationNames, aggregationExpressions) = aggregations.toSeq.unzip
+  private val mapSize = keyNames.size + aggregationNames.size
+
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
     //register as parent so that stats are associated with this pipe
     state.decorator.registerParentPipe(this)
 
-    // This is the temporary storage used while the aggregation is going on
-    val result = MutableMap[NiceHasher, (ExecutionContext, Seq[AggregationFunction])]()
-    val keyNames: Seq[String] = keyExpressions.toSeq
-    val aggregationNames: Seq[String] = aggregations.map(_._1).toSeq
-    val mapSize = keyNames.size + aggregationNames.size
-
-    def createResults(key: NiceHasher, aggregator: scala.Seq[AggregationFunction], ctx: ExecutionContext): ExecutionContext = {
-      val newMap = MutableMaps.create(mapSize)
-
-      //add key values
-      (keyNames zip key.original).foreach(newMap += _)
-
-      //add aggregated values
-      (aggregationNames zip aggregator.map(_.result)).foreach(newMap += _)
-
-      ctx.newFromMutableMap(newMap)
-    }
-
     def createEmptyResult(params: Map[String, Any]): Iterator[ExecutionContext] = {
       val newMap = MutableMaps.empty
-      val aggregationNamesAndFunctions = aggregationNames zip aggregations.map(_._2.createAggregationFunction.result)
+      val aggregationNamesAndFunctions = aggregationNames zip aggregationExpressions.map(_.createAggregationFunction.result)
 
       aggregationNamesAndFunctions.toMap
         .foreach { case (name, zeroValue) => newMap += name -> zeroValue}
       Iterator.single(ExecutionContext(newMap))
     }
 
-    input.foreach(ctx => {
-      val groupValues: NiceHasher = new NiceHasher(keyNames.map(ctx))
-      val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toSeq
-      val (_, functions) = result.getOrElseUpdate(groupValues, (ctx, aggregateFunctions))
-      functions.foreach(func => func(ctx)(state))
-    })
-
-    if (result.isEmpty && keyNames.isEmpty) {
-      createEmptyResult(state.params)
-    } else {
-      result.map {
-        case (key, (ctx, aggregator)) => createResults(key, aggregator, ctx)
-      }.toIterator
+    if (keyNames.isEmpty) {
+      val table = aggregate(input)(state)
+      if (table.isEmpty) createEmptyResult(state.params) else table.groups.map(createResults)
+    } else
+      aggregateAndSpill(input, level = 0)(state)
+  }
+
+  /*
+  Once the groups on the heap reach the spill threshold, rows of groups that are not on the heap are spilled to
+  partitions by the hash of their grouping key instead, and each partition is aggregated on its own after the groups on
+  the heap have been returned. All rows of a group are in the same partition, in the order they came in. Partitions
+  that are still too large are partitioned again, up to MAX_SPILL_LEVEL times. If a row cannot be spilled, the rows
+  spilled so far are taken back, and all groups are kept on the heap.
+   */
+  private def aggregateAndSpill(input: Iterator[ExecutionContext], level: Int)(implicit state: QueryState): Iterator[ExecutionContext] = {
+    val spillSpace = state.spillSpace
+    var mayStillSpill = spillSpace.isEnabled && level < EagerAggregationPipe.MAX_SPILL_LEVEL
+    var partitions: SpilledPartitions = null
+    val table = new AggregationTable(keyNames)
+
+    input.foreach {
+      row =>
+        val key = table.keyOf(row)
+        val group = table.get(key)
+        if (group != null)
+          group.aggregate(row)
+        else if (!mayStillSpill || table.size < spillSpace.rowsInMemory)
+          newGroup(table, key, row).aggregate(row)
+        else {
+          if (partitions == null)
+            partitions = new SpilledPartitions(spillSpace, state.query, level)
+          try {
+            partitions.write(table.hash(key), row)
+          } catch {
+            case e: UnspillableRowException =>
+              partitions.finish().foreach(_.rows.foreach(addRow(table, _)))
+              partitions = null
+              mayStillSpill = false
+              addRow(table, row)
+          }
+        }
+    }
+
+    val inMemory = table.groups.map(createResults)
+    if (partitions == null)
+      inMemory
+    else {
+      val spilled = partitions.finish()
+      state.decorator.registerSpill(this, spilled.size, spilled.map(_.bytes).sum)
+      inMemory ++ spilled.iterator.flatMap(partition => aggregateAndSpill(partition.rows, level + 1))
     }
   }
 
+  private def aggregate(input: Iterator[ExecutionContext])(implicit state: QueryState): AggregationTable = {
+    val table = new AggregationTable(keyNames)
+    input.foreach(addRow(table, _))
+    table
+  }
+
+  private def addRow(table: AggregationTable, row: ExecutionContext)(implicit state: QueryState) {
+    val key = table.keyOf(row)
+    val group = table.get(key)
+    (if (group == null) newGroup(table, key, row) else group).aggregate(row)
+  }
+
+  private def newGroup(table: AggregationTable, key: Any, row: ExecutionContext): AggregationGroup = {
+    // Only rows with pending updates need to be kept around, to carry their updates on to the result
+    val context = if (row.mutationCommands.isEmpty) null else row
+    val group = new AggregationGroup(keyNames.map(row), context, aggregationExpressions.map(_.createAggregationFunction).toArray)
+    table.put(key, group)
+    group
+  }
+
+  private def createResults(group: AggregationGroup): ExecutionContext = {
+    val newMap = MutableMaps.create(mapSize)
+
+    //add key values
+    (keyNames zip group.keyValues).foreach(newMap += _)
+
+    //add aggregated values
+    (aggregationNames zip group.functions.map(_.result)).foreach(newMap += _)
+
+    if (group.context == null) ExecutionContext(newMap) else group.context.newFromMutableMap(newMap)
+  }
+
   def planDescriptionWithoutCardinality = source.planDescription.
                         andThen(this.id, "EagerAggregation", identifiers, Arguments.KeyNames(keyExpressions.toSeq))
 
@@ -102,3 +155,8 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Set[String], aggre
 
   def withEstimatedCardinality(estimated: Double) = copy()(Some(estimated))
 }
+
+object EagerAggregationPipe {
+  // The number of times the rows of a partition that is too large to aggregate on the heap get partitioned again
+  val MAX_SPILL_LEVEL = 3
+}
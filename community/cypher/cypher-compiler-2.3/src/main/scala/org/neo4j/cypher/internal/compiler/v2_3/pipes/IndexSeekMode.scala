@@ -23,8 +23,10 @@ import org.neo4j.cypher.internal.compiler.v2_3.commands.{QueryExpression, RangeQ
 import org.neo4j.graphdb.Node
 import org.neo4j.kernel.api.index.IndexDescriptor
 
-case class IndexSeekModeFactory(unique: Boolean) {
+case class IndexSeekModeFactory(unique: Boolean, ordered: Boolean = false) {
   def fromQueryExpression[T](qexpr: QueryExpression[T]) = qexpr match {
+    case _: RangeQueryExpression[_] if unique && ordered => UniqueIndexSeekByRangeInOrder
+    case _: RangeQueryExpression[_] if ordered => IndexSeekByRangeInOrder
     case _: RangeQueryExpression[_] if unique => UniqueIndexSeekByRange
     case _: RangeQueryExpression[_] => IndexSeekByRange
     case _ if unique => UniqueIndexSeek
@@ -68,3 +70,23 @@ case object UniqueIndexSeekByRange extends IndexSeekMode {
 
   override def name: String = "NodeUniqueIndexSeekByRange"
 }
+
+/*
+Range seeks that produce nodes in ascending order of the indexed property, so that sorting on that property can be
+left out. They show up under the same operator names as the unordered seeks.
+ */
+case object IndexSeekByRangeInOrder extends IndexSeekMode {
+
+  override def indexFactory(descriptor: IndexDescriptor): (QueryState) => (Any) => Iterator[Node] =
+    (state: QueryState) => (x: Any) => state.query.indexSeekByRangeInOrder(descriptor, x)
+
+  override def name: String = "NodeIndexSeekByRange"
+}
+
+case object UniqueIndexSeekByRangeInOrder extends IndexSeekMode {
+
+  override def indexFactory(descriptor: IndexDescriptor): (QueryState) => (Any) => Iterator[Node] =
+    (state: QueryState) => (x: Any) => state.query.indexSeekByRangeInOrder(descriptor, x)
+
+  override def name: String = "NodeUniqueIndexSeekByRange"
+}
@@ -56,7 +56,7 @@ case class NodeIndexSeekPipe(ident: String,
   def planDescriptionWithoutCardinality = {
     val name = indexMode.name
     val indexDesc = indexMode match {
-      case IndexSeekByRange | UniqueIndexSeekByRange =>
+      case IndexSeekByRange | UniqueIndexSeekByRange | IndexSeekByRangeInOrder | UniqueIndexSeekByRangeInOrder =>
         valueExpr match {
           case RangeQueryExpression(PrefixSeekRangeExpression(PrefixRange(prefix))) =>
             PrefixIndex(label.name, propertyKey.name, prefix)
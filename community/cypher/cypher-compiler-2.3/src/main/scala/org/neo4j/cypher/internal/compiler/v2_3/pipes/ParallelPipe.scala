@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes
+
+import java.util.concurrent.{ArrayBlockingQueue, ExecutionException, ForkJoinPool, Future, TimeUnit}
+
+import org.neo4j.cypher.internal.compiler.v2_3._
+import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_3.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_3.planDescription.NoChildren
+import org.neo4j.cypher.internal.compiler.v2_3.planDescription.PlanDescriptionImpl
+import org.neo4j.cypher.internal.compiler.v2_3.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.compiler.v2_3.symbols._
+import org.neo4j.graphdb.{Node, NotFoundException}
+
+import scala.collection.mutable.ArrayBuffer
+
+/*
+Runs its source on the threads of a WorkerPool. The source is a pipeline of filters, projections and expansions over a
+node scan, usually with an aggregation or a distinct on top. The scan itself runs on the calling thread, which hands
+out the ids it finds in morsels of MORSEL_SIZE ids. A worker is started for each of the first morsels, up to the
+parallelism of the pool, so that queries over few nodes leave the threads of the pool to other queries. Every worker
+runs its own copy of the source over the morsels it takes, in a transaction of its own, so that each worker aggregates
+into state of its own. The rows of all workers are
+returned once all of them are done, and are merged by the pipe on top of this one.
+
+Without a worker pool, which is the case when profiling, or when the transaction of the query has changes that the
+transactions of the workers would not see, the source runs on the calling thread instead.
+ */
+case class ParallelPipe(source: Pipe)(val estimatedCardinality: Option[Double] = None)
+                       (implicit pipeMonitor: PipeMonitor) extends Pipe with RonjaPipe {
+
+  private val leaf: Pipe = ParallelPipe.leafOf(source)
+  private val ident: String = ParallelPipe.identOf(leaf)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = state.workers match {
+    case Some(workers) if !state.query.hasUncommittedChanges => runInParallel(workers, state)
+    case _ => source.createResults(state)
+  }
+
+  private def runInParallel(workers: WorkerPool, state: QueryState): Iterator[ExecutionContext] = {
+    val morsels = new MorselQueue(2 * workers.parallelism)
+    val workerSource = ParallelPipe.replaceLeaf(source, MorselScanPipe(ident, morsels))
+
+    val results = new ArrayBuffer[Future[Vector[ExecutionContext]]]
+    def startWorker() {
+      results += workers.submit {
+        try {
+          state.query.withWorkerQueryContext { context =>
+            workerSource.createResults(state.withQueryContext(context)).toVector
+          }
+        } catch {
+          case t: Throwable =>
+            morsels.abort()
+            throw t
+        }
+      }
+    }
+
+    try {
+      val nodes = leaf.createResults(state).map(_(ident).asInstanceOf[Node].getId)
+      while (nodes.hasNext && !morsels.isAborted) {
+        val morsel = new Array[Long](ParallelPipe.MORSEL_SIZE)
+        var size = 0
+        while (size < morsel.length && nodes.hasNext) {
+          morsel(size) = nodes.next()
+          size += 1
+        }
+        morsels.put(if (size == morsel.length) morsel else morsel.take(size))
+        if (results.size < workers.parallelism)
+          startWorker()
+      }
+    } catch {
+      case t: Throwable =>
+        morsels.abort()
+        throw t
+    } finally {
+      morsels.close()
+    }
+
+    results.iterator.flatMap { result =>
+      try {
+        result.get()
+      } catch {
+        case e: ExecutionException => throw e.getCause
+      }
+    }
+  }
+
+  def exists(pred: Pipe => Boolean) = pred(this) || source.exists(pred)
+
+  def planDescriptionWithoutCardinality = source.planDescription.andThen(this.id, "Parallel", identifiers)
+
+  def symbols: SymbolTable = source.symbols
+
+  override def monitor = pipeMonitor
+
+  def dup(sources: List[Pipe]): Pipe = {
+    val (head :: Nil) = sources
+    copy(head)(estimatedCardinality)
+  }
+
+  def sources: Seq[Pipe] = Seq(source)
+
+  override def localEffects = Effects()
+
+  override def effects = source.effects
+
+  def withEstimatedCardinality(estimated: Double) = copy()(Some(estimated))
+}
+
+object ParallelPipe {
+  val MORSEL_SIZE = 1024
+
+  /*
+  Puts the part of a pipe tree that can run on several threads at once on workers. That is the pipeline under the
+  lowest aggregation or distinct, if that pipeline ends in a node scan. An aggregation is split in a partial
+  aggregation, which each worker does on its own, and an aggregation that combines the partial results of all workers.
+  Anything else cannot run in parallel yet.
+   */
+  def parallelize(pipe: Pipe): Pipe = pipe match {
+    case aggregation: EagerAggregationPipe if isMorselPipeline(aggregation.source) =>
+      val combined = aggregation.aggregations.map {
+        case (name, aggregation) => name -> combining(name, aggregation)
+      }
+      val parallel = ParallelPipe(aggregation)(aggregation.estimatedCardinality)(aggregation.monitor)
+      EagerAggregationPipe(parallel, aggregation.keyExpressions, combined)(aggregation.estimatedCardinality)(aggregation.monitor)
+
+    case distinct: DistinctPipe if isMorselPipeline(distinct.source) =>
+      val identifiers = distinct.expressions.map { case (name, _) => name -> Identifier(name) }
+      val parallel = ParallelPipe(distinct)(distinct.estimatedCardinality)(distinct.monitor)
+      DistinctPipe(parallel, identifiers)(distinct.estimatedCardinality)(distinct.monitor)
+
+    case _ if pipe.sources.size == 1 =>
+      pipe.dup(List(parallelize(pipe.sources.head)))
+
+    case _ =>
+      throw new CantCompileQueryException("Only aggregations over node scans and expansions can run in parallel")
+  }
+
+  /*
+  The aggregation that combines the partial results of the workers into the result of the aggregation
+   */
+  private def combining(name: String, aggregation: AggregationExpression): AggregationExpression = aggregation match {
+    case _: CountStar | _: Count | _: Sum => Sum(Identifier(name))
+    case _: Min => Min(Identifier(name))
+    case _: Max => Max(Identifier(name))
+    case _ => throw new CantCompileQueryException(s"$aggregation can not be aggregated in parallel")
+  }
+
+  private def isMorselPipeline(pipe: Pipe): Boolean = pipe match {
+    case _: AllNodesScanPipe | _: NodeByLabelScanPipe | _: NodeIndexScanPipe => true
+    case _: FilterPipe | _: ProjectionPipe | _: ExpandAllPipe | _: ExpandIntoPipe | _: OptionalExpandAllPipe |
+         _: OptionalExpandIntoPipe | _: VarLengthExpandPipe => isMorselPipeline(pipe.sources.head)
+    case _ => false
+  }
+
+  private def leafOf(pipe: Pipe): Pipe = if (pipe.sources.isEmpty) pipe else leafOf(pipe.sources.head)
+
+  private def identOf(leaf: Pipe): String = leaf match {
+    case p: AllNodesScanPipe => p.ident
+    case p: NodeByLabelScanPipe => p.ident
+    case p: NodeIndexScanPipe => p.ident
+    case p => throw new CantCompileQueryException(s"$p can not be split in morsels")
+  }
+
+  private def replaceLeaf(pipe: Pipe, leaf: Pipe): Pipe =
+    if (pipe.sources.isEmpty) leaf else pipe.dup(pipe.sources.map(replaceLeaf(_, leaf)).toList)
+}
+
+/*
+The morsels of node ids of one parallel query, from the thread that scans the nodes to the workers. The queue is
+bounded, so the scan waits for the workers when they fall behind. Once a worker fails, the queue is aborted, and
+neither the scan nor the other workers wait for it any longer. Workers wait for morsels as managed blockers of their
+fork-join pool.
+ */
+class MorselQueue(capacity: Int) {
+  private val queue = new ArrayBlockingQueue[Array[Long]](capacity)
+  @volatile private var closed = false
+  @volatile private var aborted = false
+
+  def put(morsel: Array[Long]) {
+    while (!aborted && !queue.offer(morsel, MorselQueue.WAIT_MILLIS, TimeUnit.MILLISECONDS)) {}
+  }
+
+  def close() {
+    closed = true
+  }
+
+  def abort() {
+    aborted = true
+  }
+
+  def isAborted = aborted
+
+  // the next morsel, or null once there are no more
+  def nextMorsel(): Array[Long] = {
+    val taker = new MorselTaker
+    ForkJoinPool.managedBlock(taker)
+    if (aborted) null else taker.morsel
+  }
+
+  private class MorselTaker extends ForkJoinPool.ManagedBlocker {
+    var morsel: Array[Long] = null
+
+    def isReleasable: Boolean = {
+      if (morsel == null && !aborted)
+        morsel = queue.poll()
+      morsel != null || aborted || (closed && queue.isEmpty)
+    }
+
+    def block(): Boolean = {
+      if (morsel == null && !aborted)
+        morsel = queue.poll(MorselQueue.WAIT_MILLIS, TimeUnit.MILLISECONDS)
+      isReleasable
+    }
+  }
+
+  def ids: Iterator[Long] = new Iterator[Long] {
+    private var morsel: Array[Long] = Array.empty
+    private var position = 0
+
+    def hasNext = {
+      while (morsel != null && position == morsel.length) {
+        morsel = nextMorsel()
+        position = 0
+      }
+      morsel != null
+    }
+
+    def next() = {
+      if (!hasNext)
+        throw new NoSuchElementException
+      position += 1
+      morsel(position - 1)
+    }
+  }
+}
+
+object MorselQueue {
+  val WAIT_MILLIS = 10
+}
+
+/*
+The node scan of a worker of a parallel query, which reads the nodes of the morsels it takes from the queue.
+ */
+case class MorselScanPipe(ident: String, morsels: MorselQueue)(implicit pipeMonitor: PipeMonitor) extends Pipe {
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val baseContext = state.initialContext.getOrElse(ExecutionContext.empty)
+    morsels.ids.flatMap { id =>
+      try {
+        Some(baseContext.newWith1(ident, state.query.nodeOps.getById(id)))
+      } catch {
+        // deleted since the scan found it
+        case _: NotFoundException => None
+      }
+    }
+  }
+
+  def exists(predicate: Pipe => Boolean): Boolean = predicate(this)
+
+  def planDescription = PlanDescriptionImpl(this.id, "MorselScan", NoChildren, Seq(), identifiers)
+
+  def symbols: SymbolTable = new SymbolTable(Map(ident -> CTNode))
+
+  override def monitor = pipeMonitor
+
+  override def localEffects = Effects()
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+}
@@ -43,6 +43,11 @@ trait PipeDecorator {
    * the calling pipe.
    */
   def registerParentPipe(pipe: Pipe): Unit
+
+  /*
+   * Records that a pipe spilled rows to temporary files, because it held more rows than it may keep on the heap.
+   */
+  def registerSpill(pipe: Pipe, runs: Long, bytes: Long): Unit
 }
 
 object NullPipeDecorator extends PipeDecorator {
@@ -55,4 +60,6 @@ object NullPipeDecorator extends PipeDecorator {
   def innerDecorator: PipeDecorator = NullPipeDecorator
 
   def registerParentPipe(pipe: Pipe) {}
+
+  def registerSpill(pipe: Pipe, runs: Long, bytes: Long) {}
 }
@@ -24,6 +24,7 @@ import java.util.UUID
 import org.neo4j.collection.primitive.PrimitiveLongSet
 import org.neo4j.cypher.internal.compiler.v2_3._
 import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions.PathValueBuilder
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.spill.SpillSpace
 import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
 
 import scala.collection.mutable
@@ -35,7 +36,9 @@ class QueryState(val query: QueryContext,
                  val timeReader: TimeReader = new TimeReader,
                  var initialContext: Option[ExecutionContext] = None,
                  val queryId: AnyRef = UUID.randomUUID().toString,
-                 val triadicState: mutable.Map[String, PrimitiveLongSet] = new mutable.HashMap[String, PrimitiveLongSet]()) {
+                 val triadicState: mutable.Map[String, PrimitiveLongSet] = new mutable.HashMap[String, PrimitiveLongSet](),
+                 val spillSpace: SpillSpace = SpillSpace.NONE,
+                 val workers: Option[WorkerPool] = None) {
   private var _pathValueBuilder: PathValueBuilder = null
 
   def clearPathValueBuilder = {
@@ -53,13 +56,13 @@ class QueryState(val query: QueryContext,
   def getStatistics = query.getOptStatistics.getOrElse(QueryState.defaultStatistics)
 
   def withDecorator(decorator: PipeDecorator) =
-    new QueryState(query, resources, params, decorator, timeReader, initialContext, queryId, triadicState)
+    new QueryState(query, resources, params, decorator, timeReader, initialContext, queryId, triadicState, spillSpace, workers)
 
   def withInitialContext(initialContext: ExecutionContext) =
-    new QueryState(query, resources, params, decorator, timeReader, Some(initialContext), queryId, triadicState)
+    new QueryState(query, resources, params, decorator, timeReader, Some(initialContext), queryId, triadicState, spillSpace, workers)
 
   def withQueryContext(query: QueryContext) =
-    new QueryState(query, resources, params, decorator, timeReader, initialContext, queryId, triadicState)
+    new QueryState(query, resources, params, decorator, timeReader, initialContext, queryId, triadicState, spillSpace, workers)
 
 }
 
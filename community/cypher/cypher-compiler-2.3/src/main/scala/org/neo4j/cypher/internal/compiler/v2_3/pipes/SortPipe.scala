@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_3.pipes
 
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.spill.ExternalSorter
 import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription.Arguments.KeyNames
 import org.neo4j.cypher.internal.compiler.v2_3.{Comparer, ExecutionContext}
 
@@ -32,24 +33,31 @@ case class Descending(id:String) extends SortDescription
 case class SortPipe(source: Pipe, orderBy: Seq[SortDescription])
                    (val estimatedCardinality: Option[Double] = None)(implicit monitor: PipeMonitor)
   extends PipeWithSource(source, monitor) with Comparer with RonjaPipe with NoEffectsPipe {
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
-    input.toList.
-      sortWith((a, b) => compareBy(a, b, orderBy)(state)).iterator
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val ordering = new Ordering[ExecutionContext] {
+      def compare(a: ExecutionContext, b: ExecutionContext): Int = compareBy(a, b, orderBy)(state)
+    }
+    val sorter = new ExternalSorter(ordering, state.spillSpace, state.query)
+    val result = sorter.sort(input)
+    if (sorter.spilledRuns > 0)
+      state.decorator.registerSpill(this, sorter.spilledRuns, sorter.spilledBytes)
+    result
+  }
 
   def planDescriptionWithoutCardinality = source.planDescription.andThen(this.id, "Sort", identifiers, KeyNames(orderBy.map(_.id)))
 
   def symbols = source.symbols
 
-  private def compareBy(a: ExecutionContext, b: ExecutionContext, order: Seq[SortDescription])(implicit qtx: QueryState): Boolean = order match {
-    case Nil => false
+  private def compareBy(a: ExecutionContext, b: ExecutionContext, order: Seq[SortDescription])(implicit qtx: QueryState): Int = order match {
+    case Nil => 0
     case sort :: tail =>
       val column = sort.id
       val aVal = a(column)
       val bVal = b(column)
 
       Math.signum(compare(aVal, bVal)) match {
-        case 1 => sort.isInstanceOf[Descending]
-        case -1 => sort.isInstanceOf[Ascending]
+        case 1 => if (sort.isInstanceOf[Ascending]) 1 else -1
+        case -1 => if (sort.isInstanceOf[Ascending]) -1 else 1
         case 0 => compareBy(a, b, tail)
       }
   }
@@ -39,6 +39,9 @@ case class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpressio
   val sortItems = sortDescription.toArray
   val sortItemsCount = sortItems.size
 
+  // Limits above this use a bounded heap instead of a sorted array
+  val heapThreshold = 1024
+
   type SortDataWithContext = (Array[Any],ExecutionContext)
 
   class LessThanComparator(comparer: Comparer)(implicit qtx : QueryState) extends Ordering[SortDataWithContext] {
@@ -79,38 +82,83 @@ case class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpressio
 
       val first = input.next()
       val count = countExpression(first).asInstanceOf[Number].intValue()
-      var result = new Array[SortDataWithContext](count)
-      result(0) = arrayEntry(first)
-      var last : Int = 0
+      if (count > heapThreshold)
+        topWithHeap(first, input, count, lessThan)
+      else
+        topWithArray(first, input, count, lessThan)
+    }
+  }
 
-      while ( last < count - 1 && input.hasNext ) {
-        last += 1
-        result(last) = arrayEntry(input.next())
-      }
+  private def topWithArray(first: ExecutionContext, input: Iterator[ExecutionContext], count: Int,
+                           lessThan: LessThanComparator)(implicit qtx: QueryState): Iterator[ExecutionContext] = {
+    var result = new Array[SortDataWithContext](count)
+    result(0) = arrayEntry(first)
+    var last : Int = 0
 
-      if (input.isEmpty) {
-        result.slice(0,last + 1).sorted(lessThan).iterator.map(_._2)
-      } else {
-        result = result.sorted(lessThan)
-
-        val search = binarySearch(result, lessThan) _
-        input.foreach {
-          ctx =>
-            val next = arrayEntry(ctx)
-            if (lessThan.compare(next, result(last)) < 0) {
-              val idx = search(next)
-              val insertPosition = if (idx < 0 )  - idx - 1 else idx + 1
-              if (insertPosition >= 0 && insertPosition < count) {
-                Array.copy(result, insertPosition, result, insertPosition + 1, count - insertPosition - 1)
-                result(insertPosition) = next
-              }
+    while ( last < count - 1 && input.hasNext ) {
+      last += 1
+      result(last) = arrayEntry(input.next())
+    }
+
+    if (input.isEmpty) {
+      result.slice(0,last + 1).sorted(lessThan).iterator.map(_._2)
+    } else {
+      result = result.sorted(lessThan)
+
+      val search = binarySearch(result, lessThan) _
+      input.foreach {
+        ctx =>
+          val next = arrayEntry(ctx)
+          if (lessThan.compare(next, result(last)) < 0) {
+            val idx = search(next)
+            val insertPosition = if (idx < 0 )  - idx - 1 else idx + 1
+            if (insertPosition >= 0 && insertPosition < count) {
+              Array.copy(result, insertPosition, result, insertPosition + 1, count - insertPosition - 1)
+              result(insertPosition) = next
             }
-        }
-        result.toIterator.map(_._2)
+          }
       }
+      result.toIterator.map(_._2)
     }
   }
 
+  /*
+  With a large limit, keeping the top rows in a sorted array makes every row that makes it into the top move up to
+  count rows. Instead we keep at most count rows in a heap with the greatest row on top, which takes logarithmic time to
+  replace, and only sort the rows once the input is exhausted. Rows are numbered as they come in, so that equal rows
+  keep their order, like they do in the sorted array.
+   */
+  private def topWithHeap(first: ExecutionContext, input: Iterator[ExecutionContext], count: Int,
+                          lessThan: LessThanComparator)(implicit qtx: QueryState): Iterator[ExecutionContext] = {
+    type NumberedSortData = (SortDataWithContext, Long)
+
+    val ordering = new Ordering[NumberedSortData] {
+      override def compare(a: NumberedSortData, b: NumberedSortData): Int = {
+        val res = lessThan.compare(a._1, b._1)
+        if (res != 0) res else java.lang.Long.compare(a._2, b._2)
+      }
+    }
+    val heap = new java.util.PriorityQueue[NumberedSortData](heapThreshold, ordering.reverse)
+    var seen = 0L
+
+    heap.add((arrayEntry(first), seen))
+    input.foreach {
+      ctx =>
+        seen += 1
+        val next = (arrayEntry(ctx), seen)
+        if (heap.size < count)
+          heap.add(next)
+        else if (ordering.compare(next, heap.peek()) < 0) {
+          heap.poll()
+          heap.add(next)
+        }
+    }
+
+    val result = heap.toArray(new Array[NumberedSortData](heap.size))
+    java.util.Arrays.sort(result, ordering)
+    result.iterator.map(_._1._2)
+  }
+
   def planDescriptionWithoutCardinality =
     source.planDescription
       .andThen(this.id, "Top", identifiers, LegacyExpression(countExpression), KeyExpressions(sortDescription.map(_.expression)))
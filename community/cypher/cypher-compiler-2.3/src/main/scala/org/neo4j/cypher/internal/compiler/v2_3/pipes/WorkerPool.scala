@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes
+
+import java.util.concurrent.{Callable, ForkJoinPool, Future}
+
+/*
+The threads that the workers of parallel queries run on. All parallel queries of a database share the same fork-join
+pool, which is only started once the first of them runs. A parallel query runs at most `parallelism` workers, and
+only as many as it has morsels for. Workers that wait for morsels do so as managed blockers, so that the pool can
+start spare threads for the workers of other queries meanwhile.
+ */
+class WorkerPool(val parallelism: Int) {
+  private lazy val pool = new ForkJoinPool(parallelism)
+
+  def submit[T](work: => T): Future[T] = pool.submit(new Callable[T] {
+    def call() = work
+  })
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.{Pipe, QueryState}
+
+/*
+An operator that produces the rows of a query a batch at a time, instead of an execution context at a time.
+ */
+trait BatchOperator {
+  def slots: Slots
+
+  def batches(state: QueryState): Iterator[RowBatch]
+}
+
+/*
+Fills one batch at a time. A batch that comes back empty ends the iteration.
+ */
+abstract class BatchIterator extends Iterator[RowBatch] {
+  private var pending: RowBatch = null
+
+  protected def fill(): RowBatch
+
+  def hasNext = {
+    if (pending == null)
+      pending = fill()
+    !pending.isEmpty
+  }
+
+  def next() = {
+    if (!hasNext)
+      throw new NoSuchElementException
+    val batch = pending
+    pending = null
+    batch
+  }
+}
+
+/*
+The rows of a pipe that does not work on batches, which are kept as the arguments of the rows of the batches.
+ */
+case class PipeOperator(pipe: Pipe) extends BatchOperator {
+  val slots = Slots()
+
+  def batches(state: QueryState): Iterator[RowBatch] = {
+    val rows = pipe.createResults(state)
+    new BatchIterator {
+      protected def fill() = {
+        val batch = RowBatch(slots)
+        while (!batch.isFull && rows.hasNext) {
+          batch.arguments(batch.size) = rows.next()
+          batch.size += 1
+        }
+        batch
+      }
+    }
+  }
+}
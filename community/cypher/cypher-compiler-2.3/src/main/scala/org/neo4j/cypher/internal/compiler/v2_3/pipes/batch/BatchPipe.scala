@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.pipes._
+import org.neo4j.cypher.internal.compiler.v2_3.symbols.SymbolTable
+
+/*
+Runs the pipes it replaced as batch operators, and turns the batches back into execution contexts for the pipes on
+top of it. The plan description is the one of the pipes it replaced. When profiling, the pipes it replaced run
+instead, so that every one of them reports its own rows and database hits.
+ */
+case class BatchPipe(operator: BatchOperator, original: Pipe)(implicit pipeMonitor: PipeMonitor) extends Pipe {
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    if (state.decorator eq NullPipeDecorator)
+      rows(state)
+    else
+      original.createResults(state)
+
+  private def rows(state: QueryState): Iterator[ExecutionContext] = {
+    val slots = operator.slots
+    operator.batches(state).flatMap { batch =>
+      (0 until batch.size).iterator.map { row =>
+        val context = batch.arguments(row).clone()
+        var i = 0
+        while (i < slots.longs.length) {
+          context.put(slots.longs(i), batch.entity(i, row, state.query))
+          i += 1
+        }
+        i = 0
+        while (i < slots.values.length) {
+          context.put(slots.values(i), batch.values(i)(row))
+          i += 1
+        }
+        context
+      }
+    }
+  }
+
+  def exists(pred: Pipe => Boolean) = pred(this) || original.exists(pred)
+
+  def planDescription = original.planDescription
+
+  def symbols: SymbolTable = original.symbols
+
+  override def monitor = pipeMonitor
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+
+  def localEffects = original.effects
+}
+
+object BatchPipe {
+
+  /*
+  Replaces every part of a pipe tree that is made of scans, expands, filters, projections and hash joins with a batch
+  pipe. Pipes that can not work on batches are fed to the operators on top of them through a PipeOperator.
+   */
+  def batch(pipe: Pipe): Pipe = operatorFor(pipe) match {
+    case Some(operator) => BatchPipe(operator, pipe)(pipe.monitor)
+    case None if pipe.sources.isEmpty => pipe
+    case None => pipe.dup(pipe.sources.map(batch).toList)
+  }
+
+  private def operatorFor(pipe: Pipe): Option[BatchOperator] = pipe match {
+    case p: ExpandAllPipe if isNew(p.source, p.relName, p.toName) =>
+      Some(ExpandOperator(inputFor(p.source), p.fromName, p.relName, p.toName, p.dir, p.types))
+
+    case p: FilterPipe =>
+      batchedInputFor(p.source).map(FilterOperator(_, p.predicate))
+
+    case p: ProjectionPipe if isNew(p.source, p.expressions.keys.toSeq: _*) =>
+      batchedInputFor(p.source).map(ProjectionOperator(_, p.expressions))
+
+    case p: NodeHashJoinPipe =>
+      Some(HashJoinOperator(p.nodeIdentifiers, inputFor(p.left), inputFor(p.right)))
+
+    case _ =>
+      None
+  }
+
+  private def inputFor(pipe: Pipe): BatchOperator = batchedInputFor(pipe) getOrElse PipeOperator(batch(pipe))
+
+  // filters and projections are only worth batching on top of operators that are batched anyway
+  private def batchedInputFor(pipe: Pipe): Option[BatchOperator] = leafOperatorFor(pipe) orElse operatorFor(pipe)
+
+  private def leafOperatorFor(pipe: Pipe): Option[BatchOperator] = pipe match {
+    case p: AllNodesScanPipe => Some(AllNodesScanOperator(p.ident))
+    case p: NodeByLabelScanPipe => Some(NodeByLabelScanOperator(p.ident, p.label))
+    case _ => None
+  }
+
+  private def isNew(source: Pipe, names: String*) = names.forall(name => !source.symbols.hasIdentifierNamed(name))
+}
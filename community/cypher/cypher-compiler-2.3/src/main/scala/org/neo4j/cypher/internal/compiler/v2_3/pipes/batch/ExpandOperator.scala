@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.neo4j.cypher.internal.compiler.v2_3.InternalException
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.{LazyTypes, QueryState}
+import org.neo4j.graphdb.{Direction, Node, Relationship}
+
+/*
+The batched version of ExpandAllPipe. The relationships of the rows of one input batch usually fill several output
+batches, so the operator keeps track of the input row and the relationships it is expanding between batches.
+ */
+case class ExpandOperator(source: BatchOperator, fromName: String, relName: String, toName: String,
+                          dir: Direction, types: LazyTypes) extends BatchOperator {
+
+  val slots = source.slots.withRelationship(relName).withNode(toName)
+
+  private val fromOffset = source.slots.longOffset(fromName)
+  private val relOffset = slots.longOffset(relName)
+  private val toOffset = slots.longOffset(toName)
+
+  def batches(state: QueryState): Iterator[RowBatch] = {
+    val input = source.batches(state)
+    val view = new BatchRow(state.query)
+
+    new BatchIterator {
+      private var in: RowBatch = null
+      private var inRow = 0
+      private var from: Node = null
+      private var relationships: Iterator[Relationship] = Iterator.empty
+
+      protected def fill() = {
+        val out = RowBatch(slots)
+        while (!out.isFull && nextRelationship()) {
+          val relationship = relationships.next()
+          val to = relationship.getOtherNode(from)
+          out.copyRow(in, inRow, out.size)
+          out.setEntity(relOffset, out.size, relationship.getId, relationship)
+          out.setEntity(toOffset, out.size, to.getId, to)
+          out.size += 1
+        }
+        out
+      }
+
+      private def nextRelationship(): Boolean = {
+        while (!relationships.hasNext) {
+          if (!nextRow())
+            return false
+        }
+        true
+      }
+
+      private def nextRow(): Boolean = {
+        inRow += 1
+        while (in == null || inRow >= in.size) {
+          if (!input.hasNext)
+            return false
+          in = input.next()
+          inRow = 0
+        }
+        fromNode(in, inRow) match {
+          case n: Node =>
+            from = n
+            relationships = state.query.getRelationshipsForIds(n, dir, types.types(state.query))
+          case null =>
+            relationships = Iterator.empty
+          case value =>
+            throw new InternalException(s"Expected to find a node at $fromName but found $value instead")
+        }
+        true
+      }
+
+      private def fromNode(batch: RowBatch, row: Int): Any =
+        if (fromOffset >= 0)
+          batch.entity(fromOffset, row, state.query)
+        else
+          view.moveTo(batch, row).getOrElse(fromName, throw new InternalException(s"Expected to find a node at $fromName but found nothing"))
+    }
+  }
+}
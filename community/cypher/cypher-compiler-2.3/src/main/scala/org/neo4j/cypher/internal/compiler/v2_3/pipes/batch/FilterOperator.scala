@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.neo4j.cypher.internal.compiler.v2_3.commands.predicates.Predicate
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.QueryState
+
+/*
+The batched version of FilterPipe. The rows that pass the predicate are moved to the front of the batch they came in.
+ */
+case class FilterOperator(source: BatchOperator, predicate: Predicate) extends BatchOperator {
+  val slots = source.slots
+
+  def batches(state: QueryState): Iterator[RowBatch] = {
+    val view = new BatchRow(state.query)
+    source.batches(state).map { batch =>
+      var kept = 0
+      var row = 0
+      while (row < batch.size) {
+        if (predicate.isTrue(view.moveTo(batch, row))(state)) {
+          if (kept != row)
+            batch.moveRow(row, kept)
+          kept += 1
+        }
+        row += 1
+      }
+      batch.size = kept
+      batch
+    }.filterNot(_.isEmpty)
+  }
+}
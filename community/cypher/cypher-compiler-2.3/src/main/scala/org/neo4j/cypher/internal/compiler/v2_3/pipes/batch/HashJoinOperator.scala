@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.neo4j.collection.primitive.{Primitive, PrimitiveLongObjectMap}
+import org.neo4j.cypher.internal.compiler.v2_3.CypherTypeException
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.QueryState
+import org.neo4j.graphdb.Node
+
+import scala.collection.mutable
+
+/*
+The batched version of NodeHashJoinPipe. The batches of the left side are kept as they are, and the hash table points
+at their rows. Joins on a single node, which most of them are, use a primitive map from node id to rows; joins on
+several nodes use the ids of all of them as key.
+ */
+case class HashJoinOperator(nodeIdentifiers: Set[String], left: BatchOperator, right: BatchOperator) extends BatchOperator {
+
+  val slots = {
+    val fromLeft = left.slots.longs.filterNot(right.slots.longs.contains).foldLeft(right.slots) {
+      case (slots, name) if left.slots.nodes(name) => slots.withNode(name)
+      case (slots, name) => slots.withRelationship(name)
+    }
+    left.slots.values.filterNot(fromLeft.values.contains).foldLeft(fromLeft)(_ withValue _)
+  }
+
+  private val keys = nodeIdentifiers.toIndexedSeq
+
+  // the columns of the left side that are not columns of the right side, and where they go in the joined batch
+  private val leftLongs = columnsOf(left.slots.longs, right.slots.longs, slots.longOffset)
+  private val leftValues = columnsOf(left.slots.values, right.slots.values, slots.valueOffset)
+
+  def batches(state: QueryState): Iterator[RowBatch] = {
+    val table = buildTable(state)
+    if (table.isEmpty)
+      return Iterator.empty
+
+    val input = right.batches(state)
+    val keyOf = new JoinKey(right.slots, state)
+
+    new BatchIterator {
+      private var in: RowBatch = null
+      private var inRow = 0
+      private var matches: Iterator[Long] = Iterator.empty
+
+      protected def fill() = {
+        val out = RowBatch(slots)
+        while (!out.isFull && nextMatch()) {
+          val rowRef = matches.next()
+          val leftBatch = table.batches(batchOf(rowRef))
+          val leftRow = rowOf(rowRef)
+          out.copyRow(in, inRow, out.size)
+          out.copyColumns(leftBatch, leftRow, out.size, leftLongs, leftValues)
+          val rightArgument = in.arguments(inRow)
+          val leftArgument = leftBatch.arguments(leftRow)
+          if (!(rightArgument eq leftArgument))
+            out.arguments(out.size) = rightArgument ++ leftArgument
+          out.size += 1
+        }
+        out
+      }
+
+      private def nextMatch(): Boolean = {
+        while (!matches.hasNext) {
+          inRow += 1
+          while (in == null || inRow >= in.size) {
+            if (!input.hasNext)
+              return false
+            in = input.next()
+            inRow = 0
+          }
+          matches = table.rows(keyOf(in, inRow))
+        }
+        true
+      }
+    }
+  }
+
+  private def buildTable(state: QueryState): JoinTable = {
+    val table = new JoinTable(keys.size == 1)
+    val keyOf = new JoinKey(left.slots, state)
+    for (batch <- left.batches(state)) {
+      val batchIndex = table.batches.size
+      table.batches += batch
+      var row = 0
+      while (row < batch.size) {
+        val key = keyOf(batch, row)
+        if (key != null)
+          table.add(key, rowRef(batchIndex, row))
+        row += 1
+      }
+    }
+    table
+  }
+
+  private def columnsOf(columns: Seq[String], shared: Seq[String], offset: String => Int): Array[(Int, Int)] =
+    columns.indices.filterNot(i => shared.contains(columns(i))).map(i => i -> offset(columns(i))).toArray
+
+  // a row of a batch of the left side, as the index of the batch and the row in it
+  private def rowRef(batch: Int, row: Int): Long = (batch.toLong << 32) | row
+
+  private def batchOf(rowRef: Long): Int = (rowRef >>> 32).toInt
+
+  private def rowOf(rowRef: Long): Int = rowRef.toInt
+
+  /*
+  The join key of a row: the id of the node when joining on one node, the ids of all nodes otherwise, or null when
+  one of the nodes is null.
+   */
+  private class JoinKey(slots: Slots, state: QueryState) {
+    private val offsets = keys.map(slots.longOffset)
+    private val view = new BatchRow(state.query)
+
+    def apply(batch: RowBatch, row: Int): Any = {
+      val ids = new Array[Long](keys.size)
+      var i = 0
+      while (i < ids.length) {
+        val id = idOf(batch, row, i)
+        if (id == RowBatch.NULL)
+          return null
+        ids(i) = id
+        i += 1
+      }
+      if (ids.length == 1) ids(0) else ids.toVector
+    }
+
+    private def idOf(batch: RowBatch, row: Int, key: Int): Long =
+      if (offsets(key) >= 0)
+        batch.ids(offsets(key))(row)
+      else
+        view.moveTo(batch, row)(keys(key)) match {
+          case n: Node => n.getId
+          case null => RowBatch.NULL
+          case _ => throw new CypherTypeException("Created a plan that uses non-nodes when expecting a node")
+        }
+  }
+
+  private class JoinTable(singleNode: Boolean) {
+    val batches = mutable.ArrayBuffer[RowBatch]()
+    private val byNode: PrimitiveLongObjectMap[mutable.ArrayBuffer[Long]] = Primitive.longObjectMap()
+    private val byNodes = mutable.HashMap[Any, mutable.ArrayBuffer[Long]]()
+
+    def isEmpty = if (singleNode) byNode.isEmpty else byNodes.isEmpty
+
+    def add(key: Any, rowRef: Long) {
+      val rows = if (singleNode) {
+        val id = key.asInstanceOf[Long]
+        var rows = byNode.get(id)
+        if (rows == null) {
+          rows = mutable.ArrayBuffer[Long]()
+          byNode.put(id, rows)
+        }
+        rows
+      } else
+        byNodes.getOrElseUpdate(key, mutable.ArrayBuffer[Long]())
+      rows += rowRef
+    }
+
+    def rows(key: Any): Iterator[Long] = {
+      val rows = if (key == null) null
+      else if (singleNode) byNode.get(key.asInstanceOf[Long])
+      else byNodes.getOrElse(key, null)
+      if (rows == null) Iterator.empty else rows.iterator
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.{LazyLabel, QueryState}
+import org.neo4j.graphdb.Node
+
+/*
+Puts the nodes of a scan in a node column, a batch at a time.
+ */
+abstract class NodeScanOperator(ident: String) extends BatchOperator {
+  val slots = Slots().withNode(ident)
+
+  protected def nodes(state: QueryState): Iterator[Node]
+
+  def batches(state: QueryState): Iterator[RowBatch] = {
+    val nodes = this.nodes(state)
+    val argument = state.initialContext.getOrElse(ExecutionContext.empty)
+    new BatchIterator {
+      protected def fill() = {
+        val batch = RowBatch(slots)
+        while (!batch.isFull && nodes.hasNext) {
+          val node = nodes.next()
+          batch.setEntity(0, batch.size, node.getId, node)
+          batch.arguments(batch.size) = argument
+          batch.size += 1
+        }
+        batch
+      }
+    }
+  }
+}
+
+case class AllNodesScanOperator(ident: String) extends NodeScanOperator(ident) {
+  protected def nodes(state: QueryState) = state.query.nodeOps.all
+}
+
+case class NodeByLabelScanOperator(ident: String, label: LazyLabel) extends NodeScanOperator(ident) {
+  protected def nodes(state: QueryState) = label.id(state.query) match {
+    case Some(labelId) => state.query.getNodesByLabel(labelId.id)
+    case None => Iterator.empty
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions.Expression
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.QueryState
+
+/*
+The batched version of ProjectionPipe. The values of the expressions go in value columns that are added to the
+columns of the incoming batch, which are shared and not copied.
+ */
+case class ProjectionOperator(source: BatchOperator, expressions: Map[String, Expression]) extends BatchOperator {
+  private val projections = expressions.toIndexedSeq
+
+  val slots = projections.foldLeft(source.slots) {
+    case (slots, (name, _)) => slots.withValue(name)
+  }
+
+  private val offsets = projections.map { case (name, _) => slots.valueOffset(name) }
+
+  def batches(state: QueryState): Iterator[RowBatch] = {
+    val view = new BatchRow(state.query)
+    source.batches(state).map { in =>
+      val out = in.withSlots(slots)
+      var row = 0
+      while (row < out.size) {
+        val context = view.moveTo(in, row)
+        var i = 0
+        while (i < projections.length) {
+          out.values(offsets(i))(row) = projections(i)._2(context)(state)
+          i += 1
+        }
+        row += 1
+      }
+      out
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
+
+import scala.collection.mutable
+import scala.reflect.ClassTag
+
+/*
+The columns of a row batch. Nodes and relationships are kept as ids in long columns, all other values in value columns.
+Adding a column never moves the columns already there, so a batch can be copied into a batch with more columns
+column by column.
+ */
+case class Slots(longs: IndexedSeq[String] = IndexedSeq.empty,
+                 nodes: Set[String] = Set.empty,
+                 values: IndexedSeq[String] = IndexedSeq.empty) {
+
+  def withNode(name: String) = copy(longs = longs :+ name, nodes = nodes + name)
+
+  def withRelationship(name: String) = copy(longs = longs :+ name)
+
+  def withValue(name: String) = copy(values = values :+ name)
+
+  def longOffset(name: String): Int = longs.indexOf(name)
+
+  def valueOffset(name: String): Int = values.indexOf(name)
+
+  def isNode(offset: Int) = nodes.contains(longs(offset))
+
+  def names: Seq[String] = longs ++ values
+}
+
+/*
+Up to RowBatch.SIZE rows of a query, stored a column at a time. Every row also knows the execution context it was
+produced for: the argument of an apply, or a row of a pipe that does not work on batches. Nodes and relationships
+that were already read from the graph are kept next to their ids, so that they are only read once.
+ */
+class RowBatch(val slots: Slots,
+               val ids: Array[Array[Long]],
+               val entities: Array[Array[AnyRef]],
+               val values: Array[Array[Any]],
+               val arguments: Array[ExecutionContext]) {
+
+  var size = 0
+
+  def capacity = arguments.length
+
+  def isFull = size == capacity
+
+  def isEmpty = size == 0
+
+  /*
+  A batch with more columns, that shares the rows and the columns of this batch.
+   */
+  def withSlots(newSlots: Slots): RowBatch = {
+    val batch = new RowBatch(newSlots,
+      extend(ids, newSlots.longs.size)(new Array[Long](capacity)),
+      extend(entities, newSlots.longs.size)(new Array[AnyRef](capacity)),
+      extend(values, newSlots.values.size)(new Array[Any](capacity)),
+      arguments)
+    batch.size = size
+    batch
+  }
+
+  def setEntity(offset: Int, row: Int, id: Long, entity: AnyRef) {
+    ids(offset)(row) = id
+    entities(offset)(row) = entity
+  }
+
+  def setNull(offset: Int, row: Int) = setEntity(offset, row, RowBatch.NULL, null)
+
+  def entity(offset: Int, row: Int, query: QueryContext): AnyRef = {
+    var entity = entities(offset)(row)
+    if (entity == null && ids(offset)(row) != RowBatch.NULL) {
+      val id = ids(offset)(row)
+      entity = if (slots.isNode(offset)) query.nodeOps.getById(id) else query.relationshipOps.getById(id)
+      entities(offset)(row) = entity
+    }
+    entity
+  }
+
+  /*
+  Copies a row of a batch with the same or fewer columns to the same columns of this batch.
+   */
+  def copyRow(from: RowBatch, fromRow: Int, toRow: Int) {
+    var i = 0
+    while (i < from.ids.length) {
+      ids(i)(toRow) = from.ids(i)(fromRow)
+      entities(i)(toRow) = from.entities(i)(fromRow)
+      i += 1
+    }
+    i = 0
+    while (i < from.values.length) {
+      values(i)(toRow) = from.values(i)(fromRow)
+      i += 1
+    }
+    arguments(toRow) = from.arguments(fromRow)
+  }
+
+  /*
+  Copies the given columns of a row of another batch to the given columns of this batch.
+   */
+  def copyColumns(from: RowBatch, fromRow: Int, toRow: Int, longs: Array[(Int, Int)], vals: Array[(Int, Int)]) {
+    for ((fromOffset, toOffset) <- longs) {
+      ids(toOffset)(toRow) = from.ids(fromOffset)(fromRow)
+      entities(toOffset)(toRow) = from.entities(fromOffset)(fromRow)
+    }
+    for ((fromOffset, toOffset) <- vals)
+      values(toOffset)(toRow) = from.values(fromOffset)(fromRow)
+  }
+
+  def moveRow(from: Int, to: Int) = copyRow(this, from, to)
+
+  private def extend[T](columns: Array[Array[T]], length: Int)(column: => Array[T])
+                       (implicit tag: ClassTag[Array[T]]): Array[Array[T]] =
+    if (columns.length == length) columns else Array.tabulate(length)(i => if (i < columns.length) columns(i) else column)
+}
+
+object RowBatch {
+  val SIZE = 1024
+
+  // the id of a node or relationship that is null
+  val NULL = -1L
+
+  def apply(slots: Slots, capacity: Int = SIZE) = new RowBatch(slots,
+    Array.fill(slots.longs.size)(new Array[Long](capacity)),
+    Array.fill(slots.longs.size)(new Array[AnyRef](capacity)),
+    Array.fill(slots.values.size)(new Array[Any](capacity)),
+    new Array[ExecutionContext](capacity))
+}
+
+/*
+One row of a batch, seen as the map of an execution context, so that expressions and predicates can be evaluated
+against the rows of a batch without building an execution context for every row. The same view is moved from row to
+row. Values that an expression puts in the row are only kept until the view moves on.
+ */
+class BatchRow(query: QueryContext) extends mutable.Map[String, Any] {
+  private var batch: RowBatch = null
+  private var row = 0
+  private val added = mutable.Map[String, Any]()
+
+  val context = ExecutionContext(this)
+
+  def moveTo(batch: RowBatch, row: Int): ExecutionContext = {
+    this.batch = batch
+    this.row = row
+    if (added.nonEmpty)
+      added.clear()
+    context
+  }
+
+  def get(key: String): Option[Any] = added.get(key) orElse {
+    val long = batch.slots.longOffset(key)
+    if (long >= 0)
+      Some(batch.entity(long, row, query))
+    else {
+      val value = batch.slots.valueOffset(key)
+      if (value >= 0)
+        Some(batch.values(value)(row))
+      else
+        batch.arguments(row).get(key)
+    }
+  }
+
+  def iterator: Iterator[(String, Any)] = {
+    val slots = batch.slots
+    val longs = slots.longs.indices.iterator.map(i => slots.longs(i) -> batch.entity(i, row, query))
+    val values = slots.values.indices.iterator.map(i => slots.values(i) -> batch.values(i)(row))
+    val shadowed = slots.names.toSet ++ added.keySet
+    val arguments = batch.arguments(row).iterator.filterNot { case (key, _) => shadowed(key) }
+    added.iterator ++ (longs ++ values).filterNot { case (key, _) => added.contains(key) } ++ arguments
+  }
+
+  def +=(kv: (String, Any)) = {
+    added += kv
+    this
+  }
+
+  def -=(key: String) = throw new UnsupportedOperationException("Can not remove values from a batch")
+}
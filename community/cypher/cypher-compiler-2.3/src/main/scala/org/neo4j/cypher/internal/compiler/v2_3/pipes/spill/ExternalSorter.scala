@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.spill
+
+import java.util.{Comparator, PriorityQueue}
+
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
+
+import scala.collection.mutable.ArrayBuffer
+
+/*
+Sorts rows without holding more than spillSpace.rowsInMemory of them on the heap at a time. Rows are sorted in runs of
+that size, every full run is written to a file of its own, and the result is a lazy k-way merge of those files and the
+last run, which stays on the heap. Equal rows are taken from the earliest run first, so they keep the order they came
+in, like they would in an in-memory sort. If a row holds a value that cannot be spilled, the rest of the input is
+sorted on the heap.
+ */
+class ExternalSorter(ordering: Ordering[ExecutionContext], spillSpace: SpillSpace, query: QueryContext) {
+
+  import ExternalSorter.MAX_MERGE_WIDTH
+
+  private var _spilledRuns = 0L
+  private var _spilledBytes = 0L
+
+  def spilledRuns = _spilledRuns
+  def spilledBytes = _spilledBytes
+
+  def sort(input: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
+    var spilling = spillSpace.isEnabled
+    val runs = ArrayBuffer.empty[SpilledRows]
+    val buffer = ArrayBuffer.empty[ExecutionContext]
+
+    while (input.hasNext) {
+      buffer += input.next()
+      if (spilling && buffer.size >= spillSpace.rowsInMemory) {
+        spill(buffer.sorted(ordering).iterator) match {
+          case Some(run) =>
+            runs += run
+            buffer.clear()
+          case None =>
+            spilling = false
+        }
+      }
+    }
+
+    val last = buffer.sorted(ordering)
+    if (runs.isEmpty)
+      last.iterator
+    else {
+      // Merge the earliest runs into one until there are few enough runs left to keep them all open
+      while (runs.size > MAX_MERGE_WIDTH) {
+        val merging = runs.take(MAX_MERGE_WIDTH)
+        runs.remove(0, MAX_MERGE_WIDTH)
+        runs.insert(0, spill(merge(merging.map(_.rows))).get)
+      }
+      merge(runs.map(_.rows) :+ last.iterator)
+    }
+  }
+
+  private def spill(rows: Iterator[ExecutionContext]): Option[SpilledRows] = {
+    val run = new SpilledRows(spillSpace, query)
+    try {
+      rows.foreach(run.write)
+      run.finish()
+      _spilledRuns += 1
+      _spilledBytes += run.bytes
+      Some(run)
+    } catch {
+      case e: UnspillableRowException =>
+        run.delete()
+        None
+    }
+  }
+
+  private def merge(sources: Seq[Iterator[ExecutionContext]]): Iterator[ExecutionContext] = new Iterator[ExecutionContext] {
+    private val heads = new PriorityQueue[(ExecutionContext, Int)](math.max(sources.size, 1), new Comparator[(ExecutionContext, Int)] {
+      def compare(a: (ExecutionContext, Int), b: (ExecutionContext, Int)): Int = {
+        val res = ordering.compare(a._1, b._1)
+        if (res != 0) res else Integer.compare(a._2, b._2)
+      }
+    })
+    sources.zipWithIndex.foreach {
+      case (source, index) => if (source.hasNext) heads.add(source.next() -> index)
+    }
+
+    def hasNext = !heads.isEmpty
+
+    def next() = {
+      val (row, index) = heads.poll()
+      val source = sources(index)
+      if (source.hasNext)
+        heads.add(source.next() -> index)
+      row
+    }
+  }
+}
+
+object ExternalSorter {
+  // The number of runs merged at once, which is also the number of files kept open at once
+  val MAX_MERGE_WIDTH = 64
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.spill
+
+import java.io.{ByteArrayOutputStream, DataInputStream, DataOutputStream, OutputStream}
+import java.nio.charset.StandardCharsets.UTF_8
+
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions.PathImpl
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.MutableMaps
+import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
+import org.neo4j.graphdb.{Node, Path, PropertyContainer, Relationship}
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+/*
+The binary format rows are spilled in. Every file has its own dictionary of column names, so that a name is only
+written the first time a row in that file has it. Nodes and relationships are written as their ids, and are looked up
+again when the rows are read back.
+ */
+object RowFormat {
+  final val NULL = 0
+  final val TRUE = 1
+  final val FALSE = 2
+  final val LONG = 3
+  final val INT = 4
+  final val SHORT = 5
+  final val BYTE = 6
+  final val DOUBLE = 7
+  final val FLOAT = 8
+  final val CHAR = 9
+  final val STRING = 10
+  final val NODE = 11
+  final val RELATIONSHIP = 12
+  final val PATH = 13
+  final val LIST = 14
+  final val MAP = 15
+  final val ARRAY = 16
+}
+
+/*
+Thrown for rows that hold something the format has no way to write, like pending updates or values of types that
+only make sense on the heap. Pipes react to it by keeping their rows on the heap.
+ */
+class UnspillableRowException(message: String) extends RuntimeException(message)
+
+/*
+Writes every row whole or not at all: a row is written to a buffer first, and only copied to the target once all of
+it could be written. A row that turns out to be unspillable leaves nothing behind, so the rows written before it can
+still be read back.
+ */
+class RowWriter(target: OutputStream) {
+  import RowFormat._
+
+  private val columns = mutable.Map.empty[String, Int]
+  private val buffer = new ByteArrayOutputStream()
+  private val out = new DataOutputStream(buffer)
+
+  def write(row: ExecutionContext) {
+    if (row.mutationCommands.nonEmpty)
+      throw new UnspillableRowException("Rows with pending updates cannot be spilled")
+
+    buffer.reset()
+    val knownColumns = columns.size
+    try {
+      out.writeInt(row.size)
+      row.foreach {
+        case (column, value) =>
+          writeColumn(column)
+          writeValue(value)
+      }
+    } catch {
+      case e: UnspillableRowException =>
+        columns.retain((_, index) => index < knownColumns)
+        throw e
+    }
+    buffer.writeTo(target)
+  }
+
+  private def writeColumn(column: String) {
+    columns.get(column) match {
+      case Some(index) =>
+        out.writeInt(index)
+      case None =>
+        val index = columns.size
+        columns(column) = index
+        out.writeInt(index)
+        writeString(column)
+    }
+  }
+
+  private def writeValue(value: Any): Unit = value match {
+    case null => out.writeByte(NULL)
+    case true => out.writeByte(TRUE)
+    case false => out.writeByte(FALSE)
+    case x: Long => out.writeByte(LONG); out.writeLong(x)
+    case x: Int => out.writeByte(INT); out.writeInt(x)
+    case x: Short => out.writeByte(SHORT); out.writeShort(x)
+    case x: Byte => out.writeByte(BYTE); out.writeByte(x)
+    case x: Double => out.writeByte(DOUBLE); out.writeDouble(x)
+    case x: Float => out.writeByte(FLOAT); out.writeFloat(x)
+    case x: Char => out.writeByte(CHAR); out.writeChar(x)
+    case x: String => out.writeByte(STRING); writeString(x)
+    case x: Node => out.writeByte(NODE); out.writeLong(x.getId)
+    case x: Relationship => out.writeByte(RELATIONSHIP); out.writeLong(x.getId)
+    case x: Path =>
+      out.writeByte(PATH)
+      out.writeInt(x.length() * 2 + 1)
+      x.iterator().asScala.foreach(writeValue)
+    case x: Seq[_] =>
+      out.writeByte(LIST)
+      out.writeInt(x.size)
+      x.foreach(writeValue)
+    case x: collection.Map[_, _] =>
+      out.writeByte(MAP)
+      out.writeInt(x.size)
+      x.foreach {
+        case (key: String, v) =>
+          writeString(key)
+          writeValue(v)
+        case (key, _) =>
+          throw new UnspillableRowException(s"Maps with ${key.getClass.getName} keys cannot be spilled")
+      }
+    case x: Array[_] =>
+      out.writeByte(ARRAY)
+      out.writeByte(arrayType(x))
+      out.writeInt(x.length)
+      x.foreach(writeValue)
+    case x =>
+      throw new UnspillableRowException(s"Values of type ${x.getClass.getName} cannot be spilled")
+  }
+
+  private def arrayType(array: Array[_]) = array match {
+    case _: Array[Long] => LONG
+    case _: Array[Int] => INT
+    case _: Array[Short] => SHORT
+    case _: Array[Byte] => BYTE
+    case _: Array[Double] => DOUBLE
+    case _: Array[Float] => FLOAT
+    case _: Array[Char] => CHAR
+    case _: Array[Boolean] => TRUE
+    case _: Array[String] => STRING
+    case _ => throw new UnspillableRowException(s"Arrays of type ${array.getClass.getName} cannot be spilled")
+  }
+
+  private def writeString(value: String) {
+    val bytes = value.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+}
+
+class RowReader(in: DataInputStream, query: QueryContext) {
+  import RowFormat._
+
+  private val columns = mutable.ArrayBuffer.empty[String]
+
+  def read(): ExecutionContext = {
+    val size = in.readInt()
+    val row = MutableMaps.create(size)
+    var i = 0
+    while (i < size) {
+      val column = readColumn()
+      row(column) = readValue()
+      i += 1
+    }
+    ExecutionContext(row)
+  }
+
+  private def readColumn(): String = {
+    val index = in.readInt()
+    if (index == columns.size)
+      columns += readString()
+    columns(index)
+  }
+
+  private def readValue(): Any = in.readByte().toInt match {
+    case NULL => null
+    case TRUE => true
+    case FALSE => false
+    case LONG => in.readLong()
+    case INT => in.readInt()
+    case SHORT => in.readShort()
+    case BYTE => in.readByte()
+    case DOUBLE => in.readDouble()
+    case FLOAT => in.readFloat()
+    case CHAR => in.readChar()
+    case STRING => readString()
+    case NODE => query.nodeOps.getById(in.readLong())
+    case RELATIONSHIP => query.relationshipOps.getById(in.readLong())
+    case PATH =>
+      val length = in.readInt()
+      PathImpl(Vector.fill(length)(readValue().asInstanceOf[PropertyContainer]): _*)
+    case LIST =>
+      val size = in.readInt()
+      Vector.fill(size)(readValue())
+    case MAP =>
+      val size = in.readInt()
+      val builder = Map.newBuilder[String, Any]
+      var i = 0
+      while (i < size) {
+        builder += readString() -> readValue()
+        i += 1
+      }
+      builder.result()
+    case ARRAY =>
+      val elementType = in.readByte().toInt
+      val length = in.readInt()
+      elementType match {
+        case LONG => Array.fill(length)(readValue().asInstanceOf[Long])
+        case INT => Array.fill(length)(readValue().asInstanceOf[Int])
+        case SHORT => Array.fill(length)(readValue().asInstanceOf[Short])
+        case BYTE => Array.fill(length)(readValue().asInstanceOf[Byte])
+        case DOUBLE => Array.fill(length)(readValue().asInstanceOf[Double])
+        case FLOAT => Array.fill(length)(readValue().asInstanceOf[Float])
+        case CHAR => Array.fill(length)(readValue().asInstanceOf[Char])
+        case TRUE => Array.fill(length)(readValue().asInstanceOf[Boolean])
+        case STRING => Array.fill(length)(readValue().asInstanceOf[String])
+      }
+  }
+
+  private def readString(): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, UTF_8)
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.spill
+
+import java.io.{File, IOException}
+
+import org.neo4j.cypher.internal.compiler.v2_3.CypherExecutionException
+
+import scala.collection.mutable.ListBuffer
+
+/*
+The temporary files of a single query that pipes write rows to when they hold more rows than they may keep on the heap.
+Pipes hold at most rowsInMemory rows at a time; zero means they keep everything on the heap, as before. Files are
+deleted as soon as the pipe has read them back, and whatever is left is deleted when the query closes. The workers of a
+parallel query share the spill space of the query.
+ */
+class SpillSpace(val rowsInMemory: Int, directory: Option[File] = None) {
+  private val files = ListBuffer.empty[File]
+
+  def isEnabled = rowsInMemory > 0
+
+  def newFile(): File = synchronized {
+    try {
+      val file = File.createTempFile("cypher-spill", ".rows", directory.orNull)
+      files += file
+      file
+    } catch {
+      case e: IOException => throw new CypherExecutionException("Unable to create a file to spill query rows to", e)
+    }
+  }
+
+  def delete(file: File): Unit = synchronized {
+    files -= file
+    file.delete()
+  }
+
+  def close(): Unit = synchronized {
+    files.foreach(_.delete())
+    files.clear()
+  }
+}
+
+object SpillSpace {
+  val NONE = new SpillSpace(0)
+}
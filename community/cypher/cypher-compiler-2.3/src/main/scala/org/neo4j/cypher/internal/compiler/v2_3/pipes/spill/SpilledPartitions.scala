@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.spill
+
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
+
+import scala.util.hashing.byteswap32
+
+/*
+Rows spread over a fixed number of spill files by the hash of their grouping key, so that all rows of a group end up in
+the same file, in the order they were written. Every level of partitioning mixes the hash differently, so that a
+partition that is still too large to aggregate on the heap gets split up when it is partitioned again.
+ */
+class SpilledPartitions(spillSpace: SpillSpace, query: QueryContext, level: Int) {
+  import SpilledPartitions.COUNT
+
+  private val partitions = new Array[SpilledRows](COUNT)
+
+  /*
+  Throws UnspillableRowException for rows that cannot be spilled, but leaves the rows written before it intact.
+   */
+  def write(hash: Int, row: ExecutionContext) {
+    val partition = (byteswap32(hash + level * 0x9E3779B9) & Int.MaxValue) % COUNT
+    if (partitions(partition) == null)
+      partitions(partition) = new SpilledRows(spillSpace, query)
+    partitions(partition).write(row)
+  }
+
+  def finish(): Seq[SpilledRows] = partitions.filter(_ != null).map(_.finish())
+}
+
+object SpilledPartitions {
+  val COUNT = 16
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.spill
+
+import java.io._
+
+import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
+import org.neo4j.cypher.internal.compiler.v2_3.{CypherExecutionException, ExecutionContext}
+
+/*
+Rows written to a spill file of their own. Once finished, the rows can be read back once, in the order they were
+written, and the file is deleted when the last row has been read.
+ */
+class SpilledRows(spillSpace: SpillSpace, query: QueryContext) {
+  private val file = spillSpace.newFile()
+  private val out = try {
+    new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))
+  } catch {
+    case e: IOException => throw new CypherExecutionException("Unable to spill rows to " + file, e)
+  }
+  private val writer = new RowWriter(out)
+  private var _size = 0
+  private var _bytes = 0L
+
+  def size = _size
+  def bytes = _bytes
+
+  /*
+  Throws UnspillableRowException for rows that cannot be spilled, but leaves the rows written before it intact.
+   */
+  def write(row: ExecutionContext) {
+    try {
+      writer.write(row)
+      _size += 1
+    } catch {
+      case e: IOException => throw new CypherExecutionException("Unable to spill rows to " + file, e)
+    }
+  }
+
+  def finish(): SpilledRows = {
+    try {
+      out.close()
+      _bytes = file.length()
+      this
+    } catch {
+      case e: IOException => throw new CypherExecutionException("Unable to spill rows to " + file, e)
+    }
+  }
+
+  def delete() {
+    try {
+      out.close()
+    } finally {
+      spillSpace.delete(file)
+    }
+  }
+
+  def rows: Iterator[ExecutionContext] = if (_size == 0) {
+    spillSpace.delete(file)
+    Iterator.empty
+  } else new Iterator[ExecutionContext] {
+    private var remaining = _size
+    private var in: DataInputStream = null
+    private var reader: RowReader = null
+
+    def hasNext = remaining > 0
+
+    def next() = {
+      if (remaining <= 0)
+        throw new NoSuchElementException
+      try {
+        if (in == null) {
+          in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))
+          reader = new RowReader(in, query)
+        }
+        val row = reader.read()
+        remaining -= 1
+        if (remaining == 0) {
+          in.close()
+          spillSpace.delete(file)
+        }
+        row
+      } catch {
+        case e: IOException =>
+          throw new CypherExecutionException("Unable to read spilled rows from " + file, e)
+      }
+    }
+  }
+}
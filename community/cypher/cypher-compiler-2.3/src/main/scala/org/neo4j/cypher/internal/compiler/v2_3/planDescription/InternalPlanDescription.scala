@@ -77,6 +77,11 @@ object InternalPlanDescription {
     case class Time(value: Long) extends Argument
     case class Rows(value: Long) extends Argument
     case class DbHits(value: Long) extends Argument
+    case class PageCacheHits(value: Long) extends Argument
+    case class PageCacheMisses(value: Long) extends Argument
+    case class PageCacheBytesRead(value: Long) extends Argument
+    case class PageCacheEvictions(value: Long) extends Argument
+    case class Spills(runs: Long, bytes: Long) extends Argument
     case class ColumnsLeft(value: Seq[String]) extends Argument
     case class Expression(value: ast.Expression) extends Argument
     case class LegacyExpression(value: commands.expressions.Expression) extends Argument
@@ -105,6 +110,9 @@ object InternalPlanDescription {
     case class RuntimeImpl(value: String) extends Argument{
       override def name = "runtime-impl"
     }
+    case class PlanningTime(phaseNanos: Seq[(String, Long)]) extends Argument {
+      override def name = "planning-time"
+    }
     case class ExpandExpression(from: String, relName: String, relTypes:Seq[String], to: String, direction: Direction, varLength: Boolean = false) extends Argument
     case class SourceCode(className: String, sourceCode: String) extends Argument {
       override def name = className
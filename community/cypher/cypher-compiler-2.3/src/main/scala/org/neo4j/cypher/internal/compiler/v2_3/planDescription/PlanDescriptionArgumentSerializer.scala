@@ -43,6 +43,11 @@ object PlanDescriptionArgumentSerializer {
       case KeyNames(keys) => keys.map(removeGeneratedNames).mkString(SEPARATOR)
       case KeyExpressions(expressions) => expressions.mkString(SEPARATOR)
       case DbHits(value) => Long.box(value)
+      case PageCacheHits(value) => Long.box(value)
+      case PageCacheMisses(value) => Long.box(value)
+      case PageCacheBytesRead(value) => Long.box(value)
+      case PageCacheEvictions(value) => Long.box(value)
+      case Spills(runs, bytes) => s"spilled $runs runs, $bytes bytes"
       case _: EntityByIdRhs => arg.toString
       case Rows(value) => Long.box(value)
       case Time(value) => Long.box(value)
@@ -53,6 +58,10 @@ object PlanDescriptionArgumentSerializer {
       case Runtime(runtime) => runtime
       case SourceCode(className, sourceCode) => sourceCode
       case RuntimeImpl(runtimeName) => runtimeName
+      case PlanningTime(phaseNanos) =>
+        val millis = new java.util.LinkedHashMap[String, AnyRef]()
+        phaseNanos.foreach { case (phase, nanos) => millis.put(phase, Double.box(nanos / 1000000.0)) }
+        millis
       case ExpandExpression(from, rel, typeNames, to, dir: Direction, varLength) =>
         val left = if (dir == Direction.INCOMING) "<-" else "-"
         val right = if (dir == Direction.OUTGOING) "->" else "-"
@@ -30,10 +30,12 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
   private val ESTIMATED_ROWS = "Estimated Rows"
   private val ROWS = "Rows"
   private val HITS = "DB Hits"
+  private val PAGE_CACHE_HITS = "Page Cache Hits"
+  private val PAGE_CACHE_MISSES = "Page Cache Misses"
   private val TIME = "Time (ms)"
   private val IDENTIFIERS = "Identifiers"
   private val OTHER = "Other"
-  private val HEADERS = Seq(OPERATOR, ESTIMATED_ROWS, ROWS, HITS, TIME, IDENTIFIERS, OTHER)
+  private val HEADERS = Seq(OPERATOR, ESTIMATED_ROWS, ROWS, HITS, PAGE_CACHE_HITS, PAGE_CACHE_MISSES, TIME, IDENTIFIERS, OTHER)
 
   def apply(plan: InternalPlanDescription): String = {
 
@@ -102,6 +104,8 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
     case EstimatedRows(count) => mapping(ESTIMATED_ROWS, Right(format(count)))
     case Rows(count) => mapping(ROWS, Right(count.toString))
     case DbHits(count) => mapping(HITS, Right(count.toString))
+    case PageCacheHits(count) => mapping(PAGE_CACHE_HITS, Right(count.toString))
+    case PageCacheMisses(count) => mapping(PAGE_CACHE_MISSES, Right(count.toString))
     case Time(nanos) => mapping(TIME, Right("%.3f".format(nanos/1000000.0)))
     case _ => None
   }.toMap + (
@@ -128,6 +132,10 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
     val result: String = description.arguments.collect { case x
       if !x.isInstanceOf[Rows] &&
         !x.isInstanceOf[DbHits] &&
+        !x.isInstanceOf[PageCacheHits] &&
+        !x.isInstanceOf[PageCacheMisses] &&
+        !x.isInstanceOf[PageCacheBytesRead] &&
+        !x.isInstanceOf[PageCacheEvictions] &&
         !x.isInstanceOf[EstimatedRows] &&
         !x.isInstanceOf[Planner] &&
         !x.isInstanceOf[PlannerImpl] &&
@@ -135,6 +143,7 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
         !x.isInstanceOf[SourceCode] &&
         !x.isInstanceOf[Time] &&
         !x.isInstanceOf[RuntimeImpl] &&
+        !x.isInstanceOf[PlanningTime] &&
         !x.isInstanceOf[Version] => PlanDescriptionArgumentSerializer.serialize(x)
     }.mkString("; ").replaceAll(UNNAMED_PATTERN, "")
     if (result.nonEmpty) {
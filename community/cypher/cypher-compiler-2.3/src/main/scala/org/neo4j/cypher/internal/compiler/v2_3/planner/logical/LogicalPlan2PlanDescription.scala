@@ -39,10 +39,10 @@ object LogicalPlan2PlanDescription extends ((LogicalPlan, Map[LogicalPlan, Id])
       case NodeByIdSeek(IdName(id), nodeIds, arguments) =>
         PlanDescriptionImpl(id = idMap(plan), "NodeByIdSeek", NoChildren, Seq(), symbols)
 
-      case NodeIndexSeek(IdName(id), label, propKey, value, arguments) =>
+      case NodeIndexSeek(IdName(id), label, propKey, value, arguments, _) =>
         PlanDescriptionImpl(id = idMap(plan), "NodeIndexSeek", NoChildren, Seq(Index(label.name, propKey.name)), symbols)
 
-      case NodeUniqueIndexSeek(IdName(id), label, propKey, value, arguments) =>
+      case NodeUniqueIndexSeek(IdName(id), label, propKey, value, arguments, _) =>
         PlanDescriptionImpl(id = idMap(plan), "NodeUniqueIndexSeek", NoChildren, Seq(Index(label.name, propKey.name)), symbols)
 
       case ProduceResult(_, inner) =>
@@ -84,6 +84,36 @@ object LogicalPlan2PlanDescription extends ((LogicalPlan, Map[LogicalPlan, Id])
         PlanDescriptionImpl(id = idMap(plan), name = "Limit", children = SingleChild(apply(lhs, idMap)),
           Seq(Expression(count)), symbols)
 
+      case Skip(lhs, count) =>
+        PlanDescriptionImpl(id = idMap(plan), name = "Skip", children = SingleChild(apply(lhs, idMap)),
+          Seq(Expression(count)), symbols)
+
+      case Aggregation(lhs, groupingExpressions, aggregationExpressions) if aggregationExpressions.isEmpty =>
+        PlanDescriptionImpl(id = idMap(plan), "Distinct", SingleChild(apply(lhs, idMap)),
+          Seq(KeyNames(groupingExpressions.keys.toSeq)), symbols)
+
+      case Aggregation(lhs, groupingExpressions, _) =>
+        PlanDescriptionImpl(id = idMap(plan), "EagerAggregation", SingleChild(apply(lhs, idMap)),
+          Seq(KeyNames(groupingExpressions.keys.toSeq)), symbols)
+
+      case Sort(lhs, sortItems) =>
+        PlanDescriptionImpl(id = idMap(plan), "Sort", SingleChild(apply(lhs, idMap)), Seq(KeyNames(sortItems.map(_.id))), symbols)
+
+      case SortedLimit(lhs, limit, sortItems) =>
+        PlanDescriptionImpl(id = idMap(plan), "Top", SingleChild(apply(lhs, idMap)),
+          Expression(limit) +: sortItems.map(item => Expression(item.expression)), symbols)
+
+      case UnwindCollection(lhs, _, expression) =>
+        PlanDescriptionImpl(id = idMap(plan), "UNWIND", SingleChild(apply(lhs, idMap)), Seq(Expression(expression)), symbols)
+
+      case VarExpand(inner, IdName(fromName), dir, projectedDir, typeNames, IdName(toName), IdName(relName), _, mode, _) =>
+        val expression = ExpandExpression(fromName, relName, typeNames.map(_.name), toName, projectedDir, varLength = true)
+        val modeText = mode match {
+          case ExpandAll => "VarLengthExpand(All)"
+          case ExpandInto => "VarLengthExpand(Into)"
+        }
+        PlanDescriptionImpl(id = idMap(plan), modeText, SingleChild(apply(inner, idMap)), Seq(expression), symbols)
+
       case row: SingleRow =>
         new SingleRowPlanDescription(id = idMap(plan), Seq.empty, row.argumentIds.map(_.name))
 
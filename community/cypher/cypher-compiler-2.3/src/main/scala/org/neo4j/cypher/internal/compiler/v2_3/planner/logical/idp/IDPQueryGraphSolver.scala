@@ -49,6 +49,7 @@ trait IDPQueryGraphSolverMonitor extends IDPSolverMonitor {
  */
 case class IDPQueryGraphSolver(monitor: IDPQueryGraphSolverMonitor,
                                maxTableSize: Int = 256,
+                               timeLimit: Long = IDPSolver.NO_TIME_LIMIT,
                                leafPlanFinder: LogicalLeafPlan.Finder = leafPlanOptions,
                                config: QueryPlannerConfiguration = QueryPlannerConfiguration.default,
                                solvers: Seq[QueryGraph => IDPSolverStep[PatternRelationship, LogicalPlan, LogicalPlanningContext]] = Seq(joinSolverStep(_), expandSolverStep(_)),
@@ -108,7 +109,8 @@ case class IDPQueryGraphSolver(monitor: IDPQueryGraphSolverMonitor,
         generator = generator,
         projectingSelector = kit.pickBest,
         maxTableSize = maxTableSize,
-        monitor = monitor
+        monitor = monitor,
+        timeLimit = timeLimit
       )
 
       monitor.initTableFor(qg, component)
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_3.planner.logical.idp
 
 import org.neo4j.cypher.internal.compiler.v2_3.helpers.LazyIterable
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.{ProjectingSelector, Selector}
+import org.neo4j.helpers.Clock
 
 import scala.collection.immutable.BitSet
 
@@ -28,6 +29,7 @@ trait IDPSolverMonitor {
   def startIteration(iteration: Int)
   def endIteration(iteration: Int, depth: Int, tableSize: Int)
   def foundPlanAfter(iterations: Int)
+  def timeLimitReached(iteration: Int, timeLimit: Long)
 }
 
 /**
@@ -36,18 +38,33 @@ trait IDPSolverMonitor {
  *   "Iterative Dynamic Programming: A New Class of Query Optimization Algorithms"
  *
  * written by Donald Kossmann and Konrad Stocker
+ *
+ * Once the time limit has passed, every remaining iteration only combines pairs of the best plans found so far, which
+ * makes the rest of the search greedy.
  */
 class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Result, Context], // generates candidates at each step
                          projectingSelector: ProjectingSelector[Result], // pick best from a set of candidates
                          registryFactory: () => IdRegistry[Solvable] = () => IdRegistry[Solvable], // maps from Set[S] to BitSet
                          tableFactory: (IdRegistry[Solvable], Seed[Solvable, Result]) => IDPTable[Result] = (registry: IdRegistry[Solvable], seed: Seed[Solvable, Result]) => IDPTable(registry, seed),
                          maxTableSize: Int, // limits computation effort by reducing result quality
-                         monitor: IDPSolverMonitor) {
+                         monitor: IDPSolverMonitor,
+                         timeLimit: Long = IDPSolver.NO_TIME_LIMIT, // limits computation time in milliseconds by reducing result quality
+                         clock: Clock = Clock.SYSTEM_CLOCK) {
 
   def apply(seed: Seed[Solvable, Result], initialToDo: Set[Solvable])(implicit context: Context): Iterator[(Set[Solvable], Result)] = {
     val registry = registryFactory()
     val table = tableFactory(registry, seed)
     var toDo = registry.registerAll(initialToDo)
+    var iterations = 0
+
+    val deadline = if (timeLimit == IDPSolver.NO_TIME_LIMIT) Long.MaxValue else clock.currentTimeMillis() + timeLimit
+    var outOfTime = false
+
+    def timeIsUp = outOfTime || {
+      outOfTime = clock.currentTimeMillis() >= deadline
+      if (outOfTime) monitor.timeLimitReached(iterations, timeLimit)
+      outOfTime
+    }
 
     // utility functions
     val goalSelector: Selector[(Goal, Result)] = projectingSelector.apply[(Goal, Result)](_._2, _)
@@ -64,7 +81,7 @@ class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Re
           if (!table.contains(goal)) {
             val candidates = LazyIterable(generator(registry, goal, table))
             projectingSelector(candidates).foreach(table.put(goal, _))
-            keepGoing = lastStarted == 2 || table.size <= maxTableSize
+            keepGoing = lastStarted == 2 || (table.size <= maxTableSize && !timeIsUp)
           }
         }
       }
@@ -86,8 +103,6 @@ class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Re
 
     // actual algorithm
 
-    var iterations = 0
-
     while (toDo.size > 1) {
       iterations += 1
       monitor.startIteration(iterations)
@@ -102,3 +117,7 @@ class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Re
   }
 }
 
+object IDPSolver {
+  val NO_TIME_LIMIT = Long.MaxValue
+}
+
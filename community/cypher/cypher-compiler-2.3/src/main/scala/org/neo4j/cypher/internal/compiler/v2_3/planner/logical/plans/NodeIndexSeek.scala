@@ -27,7 +27,8 @@ case class NodeIndexSeek(idName: IdName,
                          label: LabelToken,
                          propertyKey: PropertyKeyToken,
                          valueExpr: QueryExpression[Expression],
-                         argumentIds: Set[IdName])
+                         argumentIds: Set[IdName],
+                         ordered: Boolean = false)
                         (val solved: PlannerQuery with CardinalityEstimation) extends LogicalLeafPlan {
 
   def availableSymbols = argumentIds + idName
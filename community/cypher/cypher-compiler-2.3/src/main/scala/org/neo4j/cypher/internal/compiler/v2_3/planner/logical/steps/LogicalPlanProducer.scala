@@ -353,6 +353,9 @@ case class LogicalPlanProducer(cardinalityModel: CardinalityModel) extends Colle
     Sort(inner, descriptions)(solved)
   }
 
+  def planSortedByIndex(inner: LogicalPlan, items: Seq[ast.SortItem])(implicit context: LogicalPlanningContext) =
+    inner.updateSolved(_.updateTailOrSelf(_.updateQueryProjection(_.updateShuffle(_.withSortItems(items)))))
+
   def planSortedLimit(inner: LogicalPlan, limit: Expression, items: Seq[ast.SortItem])
                      (implicit context: LogicalPlanningContext) = {
     val solved = inner.solved.updateTailOrSelf(_.updateQueryProjection(_.updateShuffle(
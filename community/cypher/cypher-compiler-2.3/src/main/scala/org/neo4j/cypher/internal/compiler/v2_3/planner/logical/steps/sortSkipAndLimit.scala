@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal.compiler.v2_3.planner.logical.steps
 
 import org.neo4j.cypher.internal.compiler.v2_3.ast.Identifier
+import org.neo4j.cypher.internal.compiler.v2_3.commands.{QueryExpression, RangeQueryExpression}
 import org.neo4j.cypher.internal.compiler.v2_3.pipes.{Ascending, Descending, SortDescription}
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical._
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.plans._
@@ -31,10 +32,15 @@ object sortSkipAndLimit extends PlanTransformer[PlannerQuery] {
   def apply(plan: LogicalPlan, query: PlannerQuery)(implicit context: LogicalPlanningContext): LogicalPlan = query.horizon match {
     case p: QueryProjection =>
       val shuffle = p.shuffle
+      lazy val indexOrderedPlan = orderedByIndex(plan, shuffle.sortItems)
       val producedPlan = (shuffle.sortItems.toList, shuffle.skip, shuffle.limit) match {
         case (Nil, s, l) =>
           addLimit(l, addSkip(s, plan))
 
+        case (sortItems, s, l) if indexOrderedPlan.nonEmpty =>
+          val sortedPlan = context.logicalPlanProducer.planSortedByIndex(indexOrderedPlan.get, sortItems)
+          addLimit(l, addSkip(s, sortedPlan))
+
         case (sortItems, None, Some(l)) =>
           context.logicalPlanProducer.planSortedLimit(plan, l, sortItems)
 
@@ -53,6 +59,61 @@ object sortSkipAndLimit extends PlanTransformer[PlannerQuery] {
     case _ => plan
   }
 
+  /*
+  When the rows are ordered on a single property by a range seek further down, the seek can produce its nodes in
+  index order instead, and no sorting is needed. Only projections, filters and the applies that tie a WITH to the rows
+  before it are allowed between the seek and the sort, since they keep the order of their input rows.
+   */
+  private def orderedByIndex(plan: LogicalPlan, sortItems: Seq[ast.SortItem]): Option[LogicalPlan] = sortItems match {
+    case Seq(ast.AscSortItem(key)) => orderedByIndex(plan, key)
+    case _ => None
+  }
+
+  private def orderedByIndex(plan: LogicalPlan, key: ast.Expression): Option[LogicalPlan] = (plan, key) match {
+    case (p@Projection(inner, expressions), _) =>
+      keyBeforeProjection(key, expressions).flatMap(orderedByIndex(inner, _)).map(ordered => p.copy(left = ordered)(p.solved))
+
+    case (s: Selection, _) =>
+      orderedByIndex(s.left, key).map(ordered => s.copy(left = ordered)(s.solved))
+
+    case (a@Apply(left, right), _) if isArgumentRow(right) =>
+      orderedByIndex(left, key).map(ordered => a.copy(left = ordered)(a.solved))
+
+    case (seek: NodeIndexSeek, ast.Property(ast.Identifier(node), ast.PropertyKeyName(property)))
+      if seek.idName.name == node && seek.propertyKey.name == property && isInequalityRange(seek.valueExpr) =>
+      Some(seek.copy(ordered = true)(seek.solved))
+
+    case (seek: NodeUniqueIndexSeek, ast.Property(ast.Identifier(node), ast.PropertyKeyName(property)))
+      if seek.idName.name == node && seek.propertyKey.name == property && isInequalityRange(seek.valueExpr) =>
+      Some(seek.copy(ordered = true)(seek.solved))
+
+    case _ => None
+  }
+
+  // The sort key in terms of the rows a projection was given; identifiers it does not project are passed through
+  private def keyBeforeProjection(key: ast.Expression, expressions: Map[String, ast.Expression]): Option[ast.Expression] = key match {
+    case ast.Identifier(name) =>
+      Some(expressions.getOrElse(name, key))
+    case property@ast.Property(ast.Identifier(name), propertyKey) =>
+      expressions.get(name) match {
+        case Some(identifier: ast.Identifier) => Some(ast.Property(identifier, propertyKey)(property.position))
+        case Some(_) => None
+        case None => Some(key)
+      }
+    case _ => None
+  }
+
+  private def isArgumentRow(plan: LogicalPlan): Boolean = plan match {
+    case _: Argument | _: SingleRow => true
+    case Selection(_, inner) => isArgumentRow(inner)
+    case _ => false
+  }
+
+  private def isInequalityRange(valueExpr: QueryExpression[ast.Expression]) = valueExpr match {
+    case RangeQueryExpression(_: ast.InequalitySeekRangeWrapper) => true
+    case _ => false
+  }
+
   private def sortDescription(in: ast.SortItem): SortDescription = in match {
     case ast.AscSortItem(ast.Identifier(key)) => Ascending(key)
     case ast.DescSortItem(ast.Identifier(key)) => Descending(key)
@@ -25,6 +25,7 @@ import org.neo4j.cypher.internal.compiler.v2_3._
 import org.neo4j.cypher.internal.compiler.v2_3.pipes.{Pipe, PipeDecorator, QueryState}
 import org.neo4j.cypher.internal.compiler.v2_3.spi.{DelegatingOperations, DelegatingQueryContext, Operations, QueryContext}
 import org.neo4j.graphdb.{Node, PropertyContainer, Relationship}
+import org.neo4j.io.pagecache.tracing.PageCursorCounters
 
 import scala.collection.mutable
 
@@ -33,6 +34,7 @@ class Profiler extends PipeDecorator {
 
   val dbHitsStats: mutable.Map[Object, ProfilingQueryContext] = mutable.Map.empty
   val rowStats: mutable.Map[Object, ProfilingIterator] = mutable.Map.empty
+  val spillStats: mutable.Map[Object, (Long, Long)] = mutable.Map.empty
   private var parentPipe: Option[Pipe] = None
 
 
@@ -62,11 +64,21 @@ class Profiler extends PipeDecorator {
     plan map {
       input: InternalPlanDescription =>
         val rows = rowStats.get(input.id).map(_.count).getOrElse(0L)
-        val dbHits = dbHitsStats.get(input.id).map(_.count).getOrElse(0L)
+        val context = dbHitsStats.get(input.id)
+        val dbHits = context.map(_.count).getOrElse(0L)
 
-        input
+        val described = input
           .addArgument(Arguments.Rows(rows))
           .addArgument(Arguments.DbHits(dbHits))
+          .addArgument(Arguments.PageCacheHits(context.map(_.pageCacheHits).getOrElse(0L)))
+          .addArgument(Arguments.PageCacheMisses(context.map(_.pageCacheMisses).getOrElse(0L)))
+          .addArgument(Arguments.PageCacheBytesRead(context.map(_.pageCacheBytesRead).getOrElse(0L)))
+          .addArgument(Arguments.PageCacheEvictions(context.map(_.pageCacheEvictions).getOrElse(0L)))
+
+        spillStats.get(input.id) match {
+          case Some((runs, bytes)) => described.addArgument(Arguments.Spills(runs, bytes))
+          case None => described
+        }
     }
   }
 
@@ -84,11 +96,19 @@ class Profiler extends PipeDecorator {
       outerProfiler.decorate(plan, isProfileReady)
 
     def registerParentPipe(pipe: Pipe) {}
+
+    def registerSpill(pipe: Pipe, runs: Long, bytes: Long) =
+      outerProfiler.registerSpill(parentPipe.getOrElse(throw new IllegalStateException("Missing parent pipe")), runs, bytes)
   }
 
   def registerParentPipe(pipe: Pipe) =
     parentPipe = Some(pipe)
 
+  def registerSpill(pipe: Pipe, runs: Long, bytes: Long) {
+    val (oldRuns, oldBytes) = spillStats.getOrElse(pipe.id, (0L, 0L))
+    spillStats(pipe.id) = (oldRuns + runs, oldBytes + bytes)
+  }
+
 }
 
 trait Counter {
@@ -100,27 +120,64 @@ trait Counter {
   }
 }
 
+/*
+Page cursors count what they do per thread, so the page cache use of a database access is the difference in the
+counters of the current thread from before to after the access. Iterators are measured on every call, since that is
+when they do their reading.
+ */
+trait PageCacheCounter {
+  private var _pageCacheHits = 0L
+  private var _pageCacheMisses = 0L
+  private var _pageCacheBytesRead = 0L
+  private var _pageCacheEvictions = 0L
+
+  def pageCacheHits = _pageCacheHits
+  def pageCacheMisses = _pageCacheMisses
+  def pageCacheBytesRead = _pageCacheBytesRead
+  def pageCacheEvictions = _pageCacheEvictions
+
+  def countPageCacheUse[A](work: => A): A = {
+    val counters = PageCursorCounters.forCurrentThread()
+    val hits = counters.hits()
+    val faults = counters.faults()
+    val bytesRead = counters.bytesRead()
+    val evictions = counters.evictions()
+    try {
+      work
+    } finally {
+      _pageCacheHits += counters.hits() - hits
+      _pageCacheMisses += counters.faults() - faults
+      _pageCacheBytesRead += counters.bytesRead() - bytesRead
+      _pageCacheEvictions += counters.evictions() - evictions
+    }
+  }
+}
+
 final class ProfilingQueryContext(val inner: QueryContext, val p: Pipe)
-  extends DelegatingQueryContext(inner) with Counter {
+  extends DelegatingQueryContext(inner) with Counter with PageCacheCounter {
   self =>
 
-  override protected def singleDbHit[A](value: A): A = {
+  override protected def singleDbHit[A](value: => A): A = {
     increment()
-    value
+    countPageCacheUse(value)
   }
 
-  override protected def manyDbHits[A](value: Iterator[A]): Iterator[A] = {
+  override protected def manyDbHits[A](value: => Iterator[A]): Iterator[A] = {
     increment()
-    value.map {
-      (v) =>
+    val iterator = countPageCacheUse(value)
+    new Iterator[A] {
+      def hasNext: Boolean = countPageCacheUse(iterator.hasNext)
+
+      def next(): A = {
         increment()
-        v
+        countPageCacheUse(iterator.next())
+      }
     }
   }
 
   class ProfilerOperations[T <: PropertyContainer](inner: Operations[T]) extends DelegatingOperations[T](inner) {
-    override protected def singleDbHit[A](value: A): A = self.singleDbHit(value)
-    override protected def manyDbHits[A](value: Iterator[A]): Iterator[A] = self.manyDbHits(value)
+    override protected def singleDbHit[A](value: => A): A = self.singleDbHit(value)
+    override protected def manyDbHits[A](value: => Iterator[A]): Iterator[A] = self.manyDbHits(value)
   }
 
   override def nodeOps: Operations[Node] = new ProfilerOperations(inner.nodeOps)
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_3.spi
 
 import java.io._
 import java.net.{CookieHandler, CookieManager, CookiePolicy, URL}
+import java.util.concurrent.{ArrayBlockingQueue, TimeUnit}
 
 import org.neo4j.csv.reader._
 import org.neo4j.cypher.internal.compiler.v2_3.{LoadExternalResourceException, TaskCloser}
@@ -34,7 +35,7 @@ object CSVResources {
   val DEFAULT_BUFFER_SIZE: Int =  2 * 1024 * 1024
   val DEFAULT_QUOTE_CHAR: Char = '"'
 
-  private val defaultConfig = new Configuration {
+  private[spi] val defaultConfig = new Configuration {
     override def quotationCharacter(): Char = DEFAULT_QUOTE_CHAR
 
     override def bufferSize(): Int = DEFAULT_BUFFER_SIZE
@@ -47,47 +48,14 @@ class CSVResources(cleaner: TaskCloser) extends ExternalResource {
 
   def getCsvIterator(url: URL, fieldTerminator: Option[String] = None): Iterator[Array[String]] = {
     val inputStream = openStream(url)
-    val reader = Readables.wrap(new InputStreamReader(inputStream, "UTF-8") {
-      override def toString = url.toString
-    })
     val delimiter: Char = fieldTerminator.map(_.charAt(0)).getOrElse(CSVResources.DEFAULT_FIELD_TERMINATOR)
-    val seeker = CharSeekers.charSeeker(reader, CSVResources.defaultConfig, true)
-    val extractor = new Extractors(delimiter).string()
-    val intDelimiter = delimiter.toInt
-    val mark = new Mark
+    val rows = new ParsingAheadRows(url, inputStream, delimiter)
 
     cleaner.addTask(_ => {
-      seeker.close()
+      rows.close()
     })
 
-    new Iterator[Array[String]] {
-      private def readNextRow: Array[String] = {
-        val buffer = new ArrayBuffer[String]
-        breakable {
-          while (seeker.seek(mark, intDelimiter)) {
-            val success = seeker.tryExtract(mark, extractor)
-            buffer += (if (success) extractor.value() else null)
-            if (mark.isEndOfLine) break
-        }}
-
-        if (buffer.isEmpty) {
-          null
-        } else {
-          buffer.toArray
-        }
-      }
-
-      var nextRow: Array[String] = readNextRow
-
-      def hasNext: Boolean = nextRow != null
-
-      def next(): Array[String] = {
-        if (!hasNext) Iterator.empty.next()
-        val row = nextRow
-        nextRow = readNextRow
-        row
-      }
-    }
+    rows
   }
 
   private def openStream(url: URL, connectionTimeout: Int = 2000, readTimeout: Int = 10 * 60 * 1000): InputStream = {
@@ -105,6 +73,113 @@ class CSVResources(cleaner: TaskCloser) extends ExternalResource {
   }
 }
 
+/*
+Parses the rows of a CSV file on a thread of its own, and hands them to the query in chunks of ROWS_PER_CHUNK rows
+through a queue that holds at most CHUNKS_AHEAD chunks, so that reading and parsing the file overlap with what the
+query does with the rows instead of adding to it. The parsing thread also owns the char seeker, whose read-ahead
+thread keeps a buffer of the file read for it. Failures to read or parse are handed over like rows, and thrown when
+the query gets to them.
+ */
+private class ParsingAheadRows(url: URL, inputStream: InputStream, delimiter: Char) extends Iterator[Array[String]] {
+
+  import ParsingAheadRows._
+
+  private val chunks = new ArrayBlockingQueue[Chunk](CHUNKS_AHEAD)
+  @volatile private var closed = false
+  private var current = new Chunk(null, 0, false, null)
+  private var index = 0
+
+  private val parser = new Thread(s"LOAD CSV parser for $url") {
+    override def run() {
+      try {
+        val reader = Readables.wrap(new InputStreamReader(inputStream, "UTF-8") {
+          override def toString = url.toString
+        })
+        val seeker = CharSeekers.charSeeker(reader, CSVResources.defaultConfig, true)
+        try {
+          parse(seeker)
+        } finally {
+          seeker.close()
+        }
+      } catch {
+        case e: Throwable => if (!closed) handOver(new Chunk(null, 0, true, e))
+      }
+    }
+  }
+  parser.setDaemon(true)
+  parser.start()
+
+  def hasNext: Boolean = {
+    while (index == current.size && !current.last) {
+      current = chunks.take()
+      index = 0
+      if (current.failure != null)
+        throw current.failure
+    }
+    index < current.size
+  }
+
+  def next(): Array[String] = {
+    if (!hasNext) Iterator.empty.next()
+    val row = current.rows(index)
+    current.rows(index) = null
+    index += 1
+    row
+  }
+
+  def close() {
+    closed = true
+    parser.interrupt()
+  }
+
+  private def parse(seeker: CharSeeker) {
+    val extractor = new Extractors(delimiter).string()
+    val intDelimiter = delimiter.toInt
+    val mark = new Mark
+    val fields = new ArrayBuffer[String]
+
+    def readNextRow: Array[String] = {
+      fields.clear()
+      breakable {
+        while (seeker.seek(mark, intDelimiter)) {
+          val success = seeker.tryExtract(mark, extractor)
+          fields += (if (success) extractor.value() else null)
+          if (mark.isEndOfLine) break
+      }}
+
+      if (fields.isEmpty) {
+        null
+      } else {
+        fields.toArray
+      }
+    }
+
+    var row = readNextRow
+    do {
+      val rows = new Array[Array[String]](ROWS_PER_CHUNK)
+      var size = 0
+      while (row != null && size < ROWS_PER_CHUNK) {
+        rows(size) = row
+        size += 1
+        row = readNextRow
+      }
+      handOver(new Chunk(rows, size, row == null, null))
+    } while (row != null && !closed)
+  }
+
+  private def handOver(chunk: Chunk) {
+    while (!closed && !chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {}
+  }
+
+}
+
+private object ParsingAheadRows {
+  val ROWS_PER_CHUNK = 1024
+  val CHUNKS_AHEAD = 4
+
+  class Chunk(val rows: Array[Array[String]], val size: Int, val last: Boolean, val failure: Throwable)
+}
+
 object TheCookieManager {
   private lazy val theCookieManager = create
 
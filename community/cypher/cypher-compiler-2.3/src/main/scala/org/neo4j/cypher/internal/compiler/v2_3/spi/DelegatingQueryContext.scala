@@ -24,8 +24,8 @@ import org.neo4j.kernel.api.index.IndexDescriptor
 
 class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
-  protected def singleDbHit[A](value: A): A = value
-  protected def manyDbHits[A](value: Iterator[A]): Iterator[A] = value
+  protected def singleDbHit[A](value: => A): A = value
+  protected def manyDbHits[A](value: => Iterator[A]): Iterator[A] = value
 
   def isOpen: Boolean = inner.isOpen
 
@@ -56,6 +56,9 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def getRelationshipsForIds(node: Node, dir: Direction, types: Option[Seq[Int]]): Iterator[Relationship] = manyDbHits(inner.getRelationshipsForIds(node, dir, types))
 
+  def foreachRelationship(node: Long, dir: Direction, types: Option[Seq[Int]])(f: (Long, Long) => Unit) =
+    inner.foreachRelationship(node, dir, types) { (relationship, otherNode) => f(relationship, singleDbHit(otherNode)) }
+
   def nodeOps = inner.nodeOps
 
   def relationshipOps = inner.relationshipOps
@@ -83,6 +86,8 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def indexSeekByRange(index: IndexDescriptor, value: Any): Iterator[Node] = manyDbHits(inner.indexSeekByRange(index, value))
 
+  def indexSeekByRangeInOrder(index: IndexDescriptor, value: Any): Iterator[Node] = manyDbHits(inner.indexSeekByRangeInOrder(index, value))
+
   def indexScan(index: IndexDescriptor): Iterator[Node] = manyDbHits(inner.indexScan(index))
 
   def getNodesByLabel(id: Int): Iterator[Node] = manyDbHits(inner.getNodesByLabel(id))
@@ -105,6 +110,10 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def withAnyOpenQueryContext[T](work: (QueryContext) => T): T = inner.withAnyOpenQueryContext(work)
 
+  def withWorkerQueryContext[T](work: (QueryContext) => T): T = inner.withWorkerQueryContext(work)
+
+  def hasUncommittedChanges: Boolean = inner.hasUncommittedChanges
+
   def uniqueIndexSeek(index: IndexDescriptor, value: Any): Option[Node] = singleDbHit(inner.uniqueIndexSeek(index, value))
 
   override def commitAndRestartTx() {
@@ -132,8 +141,8 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
 class DelegatingOperations[T <: PropertyContainer](protected val inner: Operations[T]) extends Operations[T] {
 
-  protected def singleDbHit[A](value: A): A = value
-  protected def manyDbHits[A](value: Iterator[A]): Iterator[A] = value
+  protected def singleDbHit[A](value: => A): A = value
+  protected def manyDbHits[A](value: => Iterator[A]): Iterator[A] = value
 
   def delete(obj: T): Unit = singleDbHit(inner.delete(obj))
 
@@ -49,6 +49,9 @@ trait QueryContext extends TokenContext {
 
   def getRelationshipsForIds(node: Node, dir: Direction, types: Option[Seq[Int]]): Iterator[Relationship]
 
+  // Calls f with the id and the other node of every relationship of a node, without creating any entity objects
+  def foreachRelationship(node: Long, dir: Direction, types: Option[Seq[Int]])(f: (Long, Long) => Unit)
+
   def getOrCreateLabelId(labelName: String): Int
 
   def getLabelsForNode(node: Long): Iterator[Int]
@@ -79,6 +82,9 @@ trait QueryContext extends TokenContext {
 
   def indexSeekByRange(index: IndexDescriptor, value: Any): Iterator[Node]
 
+  // Same as indexSeekByRange, but produces the nodes in ascending order of the indexed property
+  def indexSeekByRangeInOrder(index: IndexDescriptor, value: Any): Iterator[Node]
+
   def indexScan(index: IndexDescriptor): Iterator[Node]
 
   def uniqueIndexSeek(index: IndexDescriptor, value: Any): Option[Node]
@@ -112,6 +118,18 @@ trait QueryContext extends TokenContext {
    */
   def withAnyOpenQueryContext[T](work: (QueryContext) => T): T
 
+  /**
+   * Runs the work of a worker of a parallel query, with a query context of its own in a transaction of its own. Only
+   * meant for reading, on a thread that has no transaction yet.
+   */
+  def withWorkerQueryContext[T](work: (QueryContext) => T): T
+
+  /**
+   * Whether this context has changes that have not been committed yet, and that the workers of a parallel query would
+   * therefore not see.
+   */
+  def hasUncommittedChanges: Boolean
+
   def commitAndRestartTx()
 
   def relationshipStartNode(rel: Relationship): Node
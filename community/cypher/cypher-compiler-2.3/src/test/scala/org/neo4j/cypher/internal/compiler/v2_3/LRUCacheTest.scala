@@ -54,6 +54,27 @@ class LRUCacheTest extends CypherFunSuite {
     cache.containsKey("2") should equal(false);
   }
 
+  test("shouldTellAboutEvictedItems") {
+    var evicted = List.empty[String]
+    val cache = new v2_3.LRUCache[String, String](5, key => evicted = key :: evicted)
+    fillWithOneToFive(cache)
+
+    cache.get("1")
+    cache.put("6", "6")
+    cache.put("7", "7")
+
+    evicted should equal(List("3", "2"))
+  }
+
+  test("shouldListKeysFromMostToLeastRecentlyUsed") {
+    val cache = new v2_3.LRUCache[String, String](5)
+    fillWithOneToFive(cache)
+
+    cache.get("2")
+
+    cache.keys should equal(Seq("2", "5", "4", "3", "1"))
+  }
+
   def fillWithOneToFive(cache: v2_3.LRUCache[String, String]) {
     cache.put("1", "1")
     cache.put("2", "2")
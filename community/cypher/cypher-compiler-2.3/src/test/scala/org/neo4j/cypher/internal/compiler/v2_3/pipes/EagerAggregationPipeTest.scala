@@ -19,11 +19,18 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_3.pipes
 
+import java.nio.file.Files
+
+import org.mockito.Mockito._
 import org.neo4j.cypher.internal.compiler.v2_3.SyntaxException
 import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions._
 import org.neo4j.cypher.internal.compiler.v2_3.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.spill.SpillSpace
+import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription.Arguments.Spills
+import org.neo4j.cypher.internal.compiler.v2_3.profiler.Profiler
 import org.neo4j.cypher.internal.compiler.v2_3.symbols._
 import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.Node
 
 class EagerAggregationPipeTest extends CypherFunSuite {
 
@@ -102,6 +109,82 @@ class EagerAggregationPipeTest extends CypherFunSuite {
     getResults(aggregationPipe) should equal(List(Map("count(name)" -> 3)))
   }
 
+  test("groups integers of different widths together") {
+    val source = new FakePipe(List(
+      Map[String, Any]("x" -> 1),
+      Map[String, Any]("x" -> 1L),
+      Map[String, Any]("x" -> 2.toShort),
+      Map[String, Any]("x" -> 2.0)), "x" -> CTNumber)
+
+    val aggregationPipe = new EagerAggregationPipe(source, Set("x"), Map("count(*)" -> CountStar()))()
+
+    getResults(aggregationPipe) should contain theSameElementsAs List(
+      Map[String, Any]("x" -> 1, "count(*)" -> 2),
+      Map[String, Any]("x" -> 2.toShort, "count(*)" -> 1),
+      Map[String, Any]("x" -> 2.0, "count(*)" -> 1))
+  }
+
+  test("groups nodes by id") {
+    val node1 = mock[Node]
+    val node2 = mock[Node]
+    val node1Again = mock[Node]
+    when(node1.getId).thenReturn(1L)
+    when(node2.getId).thenReturn(2L)
+    when(node1Again.getId).thenReturn(1L)
+    val source = new FakePipe(List(
+      Map[String, Any]("n" -> node1),
+      Map[String, Any]("n" -> node2),
+      Map[String, Any]("n" -> node1Again)), "n" -> CTNode)
+
+    val aggregationPipe = new EagerAggregationPipe(source, Set("n"), Map("count(*)" -> CountStar()))()
+
+    getResults(aggregationPipe) should contain theSameElementsAs List(
+      Map[String, Any]("n" -> node1, "count(*)" -> 2),
+      Map[String, Any]("n" -> node2, "count(*)" -> 1))
+  }
+
+  test("spills rows of groups beyond the spill threshold and aggregates them afterwards") {
+    val directory = Files.createTempDirectory("aggregation-pipe-test").toFile
+    val spillSpace = new SpillSpace(2, Some(directory))
+    val source = new FakePipe((0 until 20).map(i => Map[String, Any]("x" -> i % 5, "y" -> i)), "x" -> CTInteger, "y" -> CTInteger)
+    val aggregationPipe = new EagerAggregationPipe(source, Set("x"), Map("collect(y)" -> Collect(Identifier("y"))))()
+    val profiler = new Profiler
+
+    val results = aggregationPipe.createResults(QueryStateHelper.emptyWith(decorator = profiler, spillSpace = spillSpace))
+      .map(_.m.toMap).toList
+
+    results should contain theSameElementsAs (0 until 5).map(
+      x => Map[String, Any]("x" -> x, "collect(y)" -> (x until 20 by 5).toList))
+    profiler.decorate(aggregationPipe.planDescription, isProfileReady = true).arguments.collect {
+      case Spills(runs, _) => runs
+    } should not be empty
+    directory.list() shouldBe empty
+    directory.delete()
+  }
+
+  test("keeps all groups on the heap when a row cannot be spilled") {
+    val directory = Files.createTempDirectory("aggregation-pipe-test").toFile
+    val spillSpace = new SpillSpace(1, Some(directory))
+    val unspillable = new Object
+    val source = new FakePipe(List(
+      Map[String, Any]("x" -> "a", "y" -> 1),
+      Map[String, Any]("x" -> "b", "y" -> 2),
+      Map[String, Any]("x" -> "c", "y" -> 3),
+      Map[String, Any]("x" -> "d", "y" -> unspillable),
+      Map[String, Any]("x" -> "b", "y" -> 4)), "x" -> CTString, "y" -> CTAny)
+    val aggregationPipe = new EagerAggregationPipe(source, Set("x"), Map("collect(y)" -> Collect(Identifier("y"))))()
+
+    val results = aggregationPipe.createResults(QueryStateHelper.emptyWith(spillSpace = spillSpace)).map(_.m.toMap).toList
+
+    results should contain theSameElementsAs List(
+      Map[String, Any]("x" -> "a", "collect(y)" -> List(1)),
+      Map[String, Any]("x" -> "b", "collect(y)" -> List(2, 4)),
+      Map[String, Any]("x" -> "c", "collect(y)" -> List(3)),
+      Map[String, Any]("x" -> "d", "collect(y)" -> List(unspillable)))
+    directory.list() shouldBe empty
+    directory.delete()
+  }
+
   private def createSymbolTableFor(name: String): (String, CypherType) = name -> CTNode
 
   private def getResults(p: Pipe) = p.createResults(QueryStateHelper.empty).map(_.m.toMap).toList
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes
+
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.mockito.Matchers._
+import org.mockito.Mockito._
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_3.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.compiler.v2_3.spi.{Operations, QueryContext}
+import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.Node
+
+class ParallelPipeTest extends CypherFunSuite {
+
+  private implicit val monitor = mock[PipeMonitor]
+
+  private val nodes: Seq[Node] = (0 until 2 * ParallelPipe.MORSEL_SIZE + 7).map { id =>
+    val node = mock[Node]
+    when(node.getId).thenReturn(id.toLong)
+    node
+  }
+
+  private val aggregations = Map(
+    "count" -> CountStar(),
+    "sum" -> Sum(IdFunction(Identifier("n"))),
+    "min" -> Min(IdFunction(Identifier("n"))),
+    "max" -> Max(IdFunction(Identifier("n"))))
+
+  test("splits an aggregation in a partial aggregation per worker and one that combines them") {
+    val pipe = ParallelPipe.parallelize(EagerAggregationPipe(AllNodesScanPipe("n")(), Set.empty, aggregations)())
+
+    pipe shouldBe an[EagerAggregationPipe]
+    pipe.sources.head shouldBe a[ParallelPipe]
+    pipe.asInstanceOf[EagerAggregationPipe].aggregations("count") should equal(Sum(Identifier("count")))
+  }
+
+  test("aggregates on several workers") {
+    val pipe = ParallelPipe.parallelize(EagerAggregationPipe(AllNodesScanPipe("n")(), Set.empty, aggregations)())
+
+    val result = pipe.createResults(stateWithWorkers(Some(new WorkerPool(4)))).toList
+
+    val ids = nodes.map(_.getId)
+    result should equal(List(Map("count" -> ids.size, "sum" -> ids.sum, "min" -> ids.min, "max" -> ids.max)))
+  }
+
+  test("starts no more workers than there are morsels") {
+    val pipe = ParallelPipe.parallelize(EagerAggregationPipe(AllNodesScanPipe("n")(), Set.empty, aggregations)())
+    val workers = new WorkerPool(8) {
+      val started = new AtomicInteger()
+
+      override def submit[T](work: => T): Future[T] = {
+        started.incrementAndGet()
+        super.submit(work)
+      }
+    }
+
+    val result = pipe.createResults(stateWithWorkers(Some(workers))).toList
+
+    result.map(_("count")) should equal(List(nodes.size))
+    workers.started.get() should equal(3)
+  }
+
+  test("aggregates on the calling thread without workers") {
+    val pipe = ParallelPipe.parallelize(EagerAggregationPipe(AllNodesScanPipe("n")(), Set.empty, aggregations)())
+
+    val result = pipe.createResults(stateWithWorkers(None)).toList
+
+    result.map(_("count")) should equal(List(nodes.size))
+  }
+
+  test("keeps rows distinct across workers") {
+    val projection = ProjectionPipe(AllNodesScanPipe("n")(), Map("odd" -> Literal(true)))()
+    val pipe = ParallelPipe.parallelize(DistinctPipe(projection, Map("odd" -> Identifier("odd")))())
+
+    pipe.createResults(stateWithWorkers(Some(new WorkerPool(3)))).toList should equal(List(Map("odd" -> true)))
+  }
+
+  test("does not run aggregations that cannot be combined in parallel") {
+    val collect = EagerAggregationPipe(AllNodesScanPipe("n")(), Set.empty, Map("c" -> Collect(Identifier("n"))))()
+
+    intercept[CantCompileQueryException](ParallelPipe.parallelize(collect))
+  }
+
+  test("does not run pipes without an aggregation in parallel") {
+    intercept[CantCompileQueryException](ParallelPipe.parallelize(AllNodesScanPipe("n")()))
+  }
+
+  test("morsel queue hands out every id once") {
+    val queue = new MorselQueue(2)
+    val reader = new Thread() {
+      var ids: List[Long] = Nil
+      override def run() {
+        ids = queue.ids.toList
+      }
+    }
+    reader.start()
+    queue.put(Array(1L, 2L))
+    queue.put(Array(3L))
+    queue.put(Array(4L, 5L, 6L))
+    queue.close()
+    reader.join()
+
+    reader.ids should equal(List(1L, 2L, 3L, 4L, 5L, 6L))
+  }
+
+  private def stateWithWorkers(workers: Option[WorkerPool]): QueryState = {
+    val nodeOps = mock[Operations[Node]]
+    when(nodeOps.all).thenAnswer(new Answer[Iterator[Node]] {
+      def answer(invocation: InvocationOnMock) = nodes.iterator
+    })
+    when(nodeOps.getById(anyLong())).thenAnswer(new Answer[Node] {
+      def answer(invocation: InvocationOnMock) = nodes(invocation.getArguments()(0).asInstanceOf[Long].toInt)
+    })
+    val query = mock[QueryContext]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(query.withWorkerQueryContext[Any](any[QueryContext => Any]())).thenAnswer(new Answer[Any] {
+      def answer(invocation: InvocationOnMock) =
+        invocation.getArguments()(0).asInstanceOf[QueryContext => Any].apply(query)
+    })
+    QueryStateHelper.emptyWith(query = query, workers = workers)
+  }
+}
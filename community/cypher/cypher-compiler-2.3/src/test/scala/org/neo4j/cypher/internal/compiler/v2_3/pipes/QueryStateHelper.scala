@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal.compiler.v2_3.pipes
 
 import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.spill.SpillSpace
 import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
 
 object QueryStateHelper {
@@ -27,7 +28,8 @@ object QueryStateHelper {
 
   def emptyWith(query: QueryContext = null, resources: ExternalResource = null,
                 params: Map[String, Any] = Map.empty, decorator: PipeDecorator = NullPipeDecorator,
-                initialContext: Option[ExecutionContext] = None) =
+                initialContext: Option[ExecutionContext] = None, spillSpace: SpillSpace = SpillSpace.NONE,
+                workers: Option[WorkerPool] = None) =
     new QueryState(query = query, resources = resources, params = params, decorator = decorator,
-      initialContext = initialContext)
+      initialContext = initialContext, spillSpace = spillSpace, workers = workers)
 }
@@ -19,7 +19,12 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_3.pipes
 
+import java.nio.file.Files
+
 import org.junit.Assert._
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.spill.SpillSpace
+import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription.Arguments.Spills
+import org.neo4j.cypher.internal.compiler.v2_3.profiler.Profiler
 import org.neo4j.cypher.internal.compiler.v2_3.symbols._
 import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
 import org.scalatest.mock.MockitoSugar
@@ -91,4 +96,64 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
       MutableMap("y" -> 2),
       MutableMap("y" -> null)), sortPipe.createResults(QueryStateHelper.empty).toList)
   }
+
+  test("sorts results larger than the spill threshold by merging spilled runs") {
+    val directory = Files.createTempDirectory("sort-pipe-test").toFile
+    val spillSpace = new SpillSpace(3, Some(directory))
+    val list: Seq[MutableMap[String, Any]] = List(5, 9, 1, 7, 3, 8, 2, 6, 4, 0).map(
+      i => MutableMap[String, Any]("x" -> i % 3, "y" -> s"row$i"))
+    val source = new FakePipe(list, "x" -> CTNumber, "y" -> CTString)
+    val sortPipe = new SortPipe(source, List(Descending("x")))()
+    val profiler = new Profiler
+
+    val result = sortPipe.createResults(QueryStateHelper.emptyWith(decorator = profiler, spillSpace = spillSpace)).toList
+
+    assertEquals(List(
+      MutableMap("x" -> 2, "y" -> "row5"),
+      MutableMap("x" -> 2, "y" -> "row8"),
+      MutableMap("x" -> 2, "y" -> "row2"),
+      MutableMap("x" -> 1, "y" -> "row1"),
+      MutableMap("x" -> 1, "y" -> "row7"),
+      MutableMap("x" -> 1, "y" -> "row4"),
+      MutableMap("x" -> 0, "y" -> "row9"),
+      MutableMap("x" -> 0, "y" -> "row3"),
+      MutableMap("x" -> 0, "y" -> "row6"),
+      MutableMap("x" -> 0, "y" -> "row0")), result)
+    profiler.decorate(sortPipe.planDescription, isProfileReady = true).arguments.collect {
+      case Spills(runs, _) => runs
+    } should equal(Seq(3L))
+    directory.list() shouldBe empty
+    directory.delete()
+  }
+
+  test("keeps rows that cannot be spilled on the heap") {
+    val directory = Files.createTempDirectory("sort-pipe-test").toFile
+    val spillSpace = new SpillSpace(2, Some(directory))
+    val list: Seq[MutableMap[String, Any]] = List(
+      MutableMap("x" -> 3, "y" -> new Object),
+      MutableMap("x" -> 1, "y" -> new Object),
+      MutableMap("x" -> 2, "y" -> new Object))
+    val source = new FakePipe(list, "x" -> CTNumber, "y" -> CTAny)
+    val sortPipe = new SortPipe(source, List(Ascending("x")))()
+
+    val result = sortPipe.createResults(QueryStateHelper.emptyWith(spillSpace = spillSpace)).toList
+
+    result.map(_("x")) should equal(List(1, 2, 3))
+    directory.list() shouldBe empty
+    directory.delete()
+  }
+
+  test("merges more spilled runs than it can keep open in several passes") {
+    val directory = Files.createTempDirectory("sort-pipe-test").toFile
+    val spillSpace = new SpillSpace(1, Some(directory))
+    val list: Seq[MutableMap[String, Any]] = (0 until 200).map(i => MutableMap[String, Any]("x" -> (i * 7919) % 200))
+    val source = new FakePipe(list, "x" -> CTNumber)
+    val sortPipe = new SortPipe(source, List(Ascending("x")))()
+
+    val result = sortPipe.createResults(QueryStateHelper.emptyWith(spillSpace = spillSpace)).toList
+
+    result.map(_("x")) should equal(0 until 200)
+    directory.list() shouldBe empty
+    directory.delete()
+  }
 }
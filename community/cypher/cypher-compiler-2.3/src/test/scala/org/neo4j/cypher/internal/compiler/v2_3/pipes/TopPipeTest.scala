@@ -110,6 +110,24 @@ class TopPipeTest extends CypherFunSuite {
     result should equal(List(10,null))
   }
 
+  test("top2000From5000ReturnsAll") {
+    val input = createFakePipeWith(5000)
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true)), Literal(2000))()
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("a")).toList
+
+    result should equal((0 until 2000).toList)
+  }
+
+  test("sortDuplicateValuesCorrectlyForLargeLimit") {
+    val in = (0 until 3000).map(i => Map("a" -> i % 3, "b" -> i))
+    val input = new FakePipe(in, "a" -> CTInteger, "b" -> CTInteger)
+
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = false)), Literal(1500))()
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("b")).toList
+
+    result should equal((2 until 3000 by 3).toList ++ (1 until 1500 by 3).toList)
+  }
+
   private def createFakePipeWith(count: Int): FakePipe = {
 
     val r = new Random(1337)
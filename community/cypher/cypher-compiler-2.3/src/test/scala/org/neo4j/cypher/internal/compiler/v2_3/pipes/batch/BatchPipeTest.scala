@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.batch
+
+import org.mockito.Matchers._
+import org.mockito.Mockito._
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions.{IdFunction, Identifier, Literal}
+import org.neo4j.cypher.internal.compiler.v2_3.commands.predicates.LessThan
+import org.neo4j.cypher.internal.compiler.v2_3.pipes._
+import org.neo4j.cypher.internal.compiler.v2_3.profiler.Profiler
+import org.neo4j.cypher.internal.compiler.v2_3.spi.{Operations, QueryContext}
+import org.neo4j.cypher.internal.compiler.v2_3.symbols._
+import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.{Direction, Node, Relationship}
+
+class BatchPipeTest extends CypherFunSuite {
+
+  private implicit val monitor = mock[PipeMonitor]
+
+  private val nodes: IndexedSeq[Node] = (0 until RowBatch.SIZE + 300).map { id =>
+    val node = mock[Node]
+    when(node.getId).thenReturn(id.toLong)
+    node
+  }
+
+  // every node has a relationship to the next node, and one to the node after that
+  private val relationships: IndexedSeq[Seq[Relationship]] = nodes.map { node =>
+    val id = node.getId.toInt
+    Seq(1, 2).map { step =>
+      val other = nodes((id + step) % nodes.size)
+      val relationship = mock[Relationship]
+      when(relationship.getId).thenReturn(2L * id + step)
+      when(relationship.getOtherNode(node)).thenReturn(other)
+      relationship
+    }
+  }
+
+  private val expand = ExpandAllPipe(AllNodesScanPipe("a")(), "a", "r", "b", Direction.OUTGOING, LazyTypes.empty)()
+
+  test("replaces scans, expands, filters and projections with one batch pipe") {
+    val filter = FilterPipe(expand, LessThan(IdFunction(Identifier("b")), Literal(100)))()
+    val projection = ProjectionPipe(filter, Map("id" -> IdFunction(Identifier("r"))))()
+
+    val batched = BatchPipe.batch(projection)
+
+    batched shouldBe a[BatchPipe]
+    batched.asInstanceOf[BatchPipe].operator should equal(
+      ProjectionOperator(
+        FilterOperator(
+          ExpandOperator(AllNodesScanOperator("a"), "a", "r", "b", Direction.OUTGOING, LazyTypes.empty),
+          filter.predicate),
+        projection.expressions))
+  }
+
+  test("does not batch a scan on its own") {
+    val scan = AllNodesScanPipe("a")()
+
+    BatchPipe.batch(scan) should be theSameInstanceAs scan
+  }
+
+  test("returns the rows of the pipes it replaced, over several batches") {
+    val filter = FilterPipe(expand, LessThan(IdFunction(Identifier("b")), Literal(nodes.size - 5)))()
+    val projection = ProjectionPipe(filter, Map("id" -> IdFunction(Identifier("r"))))()
+
+    val expected = projection.createResults(state()).map(_.toMap).toList
+    val result = BatchPipe.batch(projection).createResults(state()).map(_.toMap).toList
+
+    expected should have size (2 * nodes.size - 10)
+    result should equal(expected)
+  }
+
+  test("joins the batches of both sides on node ids") {
+    val right = ExpandAllPipe(AllNodesScanPipe("c")(), "c", "s", "b", Direction.OUTGOING, LazyTypes.empty)()
+    val join = NodeHashJoinPipe(Set("b"), expand, right)()
+
+    val expected = join.createResults(state()).map(_.toMap).toSet
+    val result = BatchPipe.batch(join).createResults(state()).map(_.toMap).toList
+
+    result should have size (4 * nodes.size)
+    result.toSet should equal(expected)
+  }
+
+  test("keeps the values of pipes that do not work on batches") {
+    val rows = new FakePipe(nodes.map(node => Map("a" -> node, "x" -> node.getId)), "a" -> CTNode, "x" -> CTInteger)
+    val operator = ExpandOperator(PipeOperator(rows), "a", "r", "b", Direction.OUTGOING, LazyTypes.empty)
+
+    val result = BatchPipe(operator, expand).createResults(state()).toList
+
+    result should have size (2 * nodes.size)
+    result.head.toMap should equal(
+      Map("a" -> nodes(0), "x" -> 0L, "r" -> relationships(0)(0), "b" -> nodes(1)))
+  }
+
+  test("runs the pipes it replaced when profiling") {
+    val original = mock[Pipe]
+    when(original.createResults(any())).thenReturn(Iterator(ExecutionContext.from("a" -> nodes(0))))
+    val operator = AllNodesScanOperator("a")
+
+    val result = BatchPipe(operator, original).createResults(state(new Profiler())).toList
+
+    result.map(_.toMap) should equal(List(Map("a" -> nodes(0))))
+  }
+
+  private def state(decorator: PipeDecorator = NullPipeDecorator): QueryState = {
+    val nodeOps = mock[Operations[Node]]
+    when(nodeOps.all).thenAnswer(new Answer[Iterator[Node]] {
+      def answer(invocation: InvocationOnMock) = nodes.iterator
+    })
+    val query = mock[QueryContext]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(query.getRelationshipsForIds(any(), any(), any())).thenAnswer(new Answer[Iterator[Relationship]] {
+      def answer(invocation: InvocationOnMock) =
+        relationships(invocation.getArguments()(0).asInstanceOf[Node].getId.toInt).iterator
+    })
+    QueryStateHelper.emptyWith(query = query, decorator = decorator)
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3.pipes.spill
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream, DataInputStream, DataOutputStream}
+
+import org.mockito.Mockito._
+import org.neo4j.cypher.internal.compiler.v2_3.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions.PathImpl
+import org.neo4j.cypher.internal.compiler.v2_3.spi.{Operations, QueryContext}
+import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.{Node, Relationship}
+
+class RowFormatTest extends CypherFunSuite {
+
+  test("reads back the rows it wrote") {
+    val node1 = mock[Node]
+    val node2 = mock[Node]
+    val relationship = mock[Relationship]
+    when(node1.getId).thenReturn(1L)
+    when(node2.getId).thenReturn(2L)
+    when(relationship.getId).thenReturn(3L)
+    val nodeOps = mock[Operations[Node]]
+    val relationshipOps = mock[Operations[Relationship]]
+    when(nodeOps.getById(1L)).thenReturn(node1)
+    when(nodeOps.getById(2L)).thenReturn(node2)
+    when(relationshipOps.getById(3L)).thenReturn(relationship)
+    val query = mock[QueryContext]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(query.relationshipOps).thenReturn(relationshipOps)
+    when(relationship.getStartNode).thenReturn(node1)
+    when(relationship.getEndNode).thenReturn(node2)
+
+    val rows = Seq(
+      ExecutionContext.from("n" -> node1, "r" -> relationship, "p" -> PathImpl(node1, relationship, node2)),
+      ExecutionContext.from("a" -> 1L, "b" -> 2, "c" -> 3.5, "d" -> "åäö", "e" -> true, "f" -> null),
+      ExecutionContext.from("a" -> List(1L, "x", List(node2)), "m" -> Map("k" -> 1L, "n" -> node1)))
+
+    val bytes = new ByteArrayOutputStream()
+    val writer = new RowWriter(new DataOutputStream(bytes))
+    rows.foreach(writer.write)
+    val reader = new RowReader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray)), query)
+
+    rows.foreach(row => reader.read() should equal(row))
+  }
+
+  test("reads back arrays with their element type") {
+    val bytes = new ByteArrayOutputStream()
+    val writer = new RowWriter(new DataOutputStream(bytes))
+    writer.write(ExecutionContext.from("i" -> Array(1, 2), "s" -> Array("a", "b")))
+    val reader = new RowReader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray)), mock[QueryContext])
+
+    val row = reader.read()
+
+    row("i") should equal(Array(1, 2))
+    row("s") should equal(Array("a", "b"))
+  }
+
+  test("refuses values it cannot read back") {
+    val writer = new RowWriter(new DataOutputStream(new ByteArrayOutputStream()))
+
+    an [UnspillableRowException] should be thrownBy writer.write(ExecutionContext.from("x" -> new Object))
+  }
+}
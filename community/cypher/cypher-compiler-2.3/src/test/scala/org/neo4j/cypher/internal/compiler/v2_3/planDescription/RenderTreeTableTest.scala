@@ -196,6 +196,32 @@ class RenderTreeTableTest extends CypherFunSuite with BeforeAndAfterAll {
         |""".stripMargin)
   }
 
+  test("page cache hits and misses get their own columns") {
+    val leaf = PlanDescriptionImpl(new Id, "LEAF", NoChildren, Seq(
+      Rows(42),
+      DbHits(33),
+      PageCacheHits(30),
+      PageCacheMisses(3),
+      PageCacheBytesRead(24576),
+      PageCacheEvictions(1)), Set())
+    val root = PlanDescriptionImpl(new Id, "ROOT", SingleChild(leaf), Seq(
+      Rows(3),
+      DbHits(0),
+      PageCacheHits(0),
+      PageCacheMisses(0),
+      PageCacheBytesRead(0),
+      PageCacheEvictions(0)), Set())
+
+    renderAsTreeTable(root) should equal(
+      """+----------+------+---------+-----------------+-------------------+
+        || Operator | Rows | DB Hits | Page Cache Hits | Page Cache Misses |
+        |+----------+------+---------+-----------------+-------------------+
+        || +ROOT    |    3 |       0 |               0 |                 0 |
+        || |        +------+---------+-----------------+-------------------+
+        || +LEAF    |   42 |      33 |              30 |                 3 |
+        |+----------+------+---------+-----------------+-------------------+
+        |""".stripMargin)
+  }
 
   val pipe = SingleRowPipe()(mock[PipeMonitor])
 
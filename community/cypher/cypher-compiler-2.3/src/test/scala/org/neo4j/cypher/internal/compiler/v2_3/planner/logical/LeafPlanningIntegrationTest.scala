@@ -23,6 +23,7 @@ import org.neo4j.cypher.internal.compiler.v2_3.ast._
 import org.neo4j.cypher.internal.compiler.v2_3.commands.{ManyQueryExpression, RangeQueryExpression, SingleQueryExpression}
 import org.neo4j.cypher.internal.compiler.v2_3.helpers.NonEmptyList
 import org.neo4j.cypher.internal.compiler.v2_3.pipes.LazyLabel
+import org.neo4j.cypher.internal.compiler.v2_3.Foldable._
 import org.neo4j.cypher.internal.compiler.v2_3.planner.BeLikeMatcher._
 import org.neo4j.cypher.internal.compiler.v2_3.planner.LogicalPlanningTestSupport2
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.Metrics.QueryGraphSolverInput
@@ -214,6 +215,26 @@ class LeafPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTes
     )
   }
 
+  test("should plan ordered index seek by range and drop the sort when ordering by the seeked property") {
+    val plan = (new given {
+      indexOn("Person", "age")
+      cost = nodeIndexScanCost
+    } planFor "MATCH (a:Person) WHERE a.age > 12 RETURN a ORDER BY a.age LIMIT 10").plan
+
+    plan.exists { case seek: NodeIndexSeek => seek.ordered } should be(true)
+    plan.exists { case _: Sort | _: SortedLimit => true } should be(false)
+  }
+
+  test("should keep the sort when ordering descending by the seeked property") {
+    val plan = (new given {
+      indexOn("Person", "age")
+      cost = nodeIndexScanCost
+    } planFor "MATCH (a:Person) WHERE a.age > 12 RETURN a ORDER BY a.age DESC LIMIT 10").plan
+
+    plan.exists { case seek: NodeIndexSeek => seek.ordered } should be(false)
+    plan.exists { case _: Sort | _: SortedLimit => true } should be(true)
+  }
+
   test("should plan all nodes scans") {
     (new given {
     } planFor "MATCH (n) RETURN n").plan should equal(
@@ -386,7 +407,7 @@ class LeafPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTes
               IdName("n"),
               LabelToken("Awesome", _),
               PropertyKeyToken("prop", _),
-              SingleQueryExpression(SignedDecimalIntegerLiteral("42")), _) => ()
+              SingleQueryExpression(SignedDecimalIntegerLiteral("42")), _, _) => ()
     }
   }
 
@@ -75,6 +75,12 @@ class LogicalPlan2PlanDescriptionTest extends CypherFunSuite with TableDrivenPro
 
       , NodeHashJoin(Set(IdName("a")), lhsLP, rhsLP)(2345) ->
         PlanDescriptionImpl(id, "NodeHashJoin", TwoChildren(lhsPD, rhsPD), Seq(KeyNames(Seq("a")), EstimatedRows(2345)), Set("a", "b"))
+
+      , Aggregation(lhsLP, Map("a" -> Identifier("a")(pos)), Map("c" -> CountStar()(pos)))(7) ->
+        PlanDescriptionImpl(id, "EagerAggregation", SingleChild(lhsPD), Seq(KeyNames(Seq("a")), EstimatedRows(7)), Set("a", "c"))
+
+      , Aggregation(lhsLP, Map("a" -> Identifier("a")(pos)), Map.empty)(5) ->
+        PlanDescriptionImpl(id, "Distinct", SingleChild(lhsPD), Seq(KeyNames(Seq("a")), EstimatedRows(5)), Set("a"))
     )
 
     forAll(modeCombinations) {
@@ -19,7 +19,9 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_3.planner.logical.idp
 
-import org.mockito.Mockito.{spy, verify, verifyNoMoreInteractions}
+import org.mockito.Matchers
+import org.mockito.Matchers.anyInt
+import org.mockito.Mockito.{spy, times, verify, verifyNoMoreInteractions}
 import org.neo4j.cypher.internal.compiler.v2_3.planner.SemanticTable
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.Metrics.CardinalityModel
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.steps.LogicalPlanProducer
@@ -105,6 +107,32 @@ class IDPSolverTest extends CypherFunSuite {
     verifyNoMoreInteractions(monitor)
   }
 
+  test("Combines pairs of plans once out of time") {
+    val monitor = mock[IDPSolverMonitor]
+    val solver = new IDPSolver[Char, String, Unit](
+      monitor = monitor,
+      generator = stringAppendingSolverStep,
+      projectingSelector = firstLongest,
+      maxTableSize = Int.MaxValue,
+      timeLimit = 0
+    )
+
+    val seed = Seq(
+      Set('a') -> "a",
+      Set('b') -> "b",
+      Set('c') -> "c",
+      Set('d') -> "d",
+      Set('e') -> "e"
+    )
+
+    val solution = solver(seed, Set('a', 'b', 'c', 'd', 'e'))
+
+    solution.toList should equal(List(Set('a', 'b', 'c', 'd', 'e') -> "abcde"))
+    verify(monitor).timeLimitReached(1, 0)
+    verify(monitor, times(4)).endIteration(anyInt(), Matchers.eq(2), anyInt())
+    verify(monitor).foundPlanAfter(4)
+  }
+
   private object firstLongest extends ProjectingSelector[String] {
     override def apply[X](projector: (X) => String, input: Iterable[X]): Option[X] = {
       val elements = input.iterator
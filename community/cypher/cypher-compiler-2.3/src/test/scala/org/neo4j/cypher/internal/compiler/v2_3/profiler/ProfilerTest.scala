@@ -23,11 +23,16 @@ import org.neo4j.cypher.internal.compiler.v2_3._
 import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions.{NestedPipeExpression, ProjectedPath}
 import org.neo4j.cypher.internal.compiler.v2_3.executionplan.{Effects, WritesNodes}
 import org.neo4j.cypher.internal.compiler.v2_3.pipes._
-import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription.Arguments.{DbHits, Rows}
+import org.neo4j.cypher.internal.compiler.v2_3.planDescription.InternalPlanDescription.Arguments._
 import org.neo4j.cypher.internal.compiler.v2_3.planDescription.{Argument, InternalPlanDescription}
 import org.neo4j.cypher.internal.compiler.v2_3.spi.QueryContext
 import org.neo4j.cypher.internal.compiler.v2_3.symbols.SymbolTable
 import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.Node
+import org.neo4j.io.pagecache.tracing.PageCursorCounters
+import org.mockito.Mockito._
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
 
 import scala.collection.immutable.::
 
@@ -180,6 +185,34 @@ class ProfilerTest extends CypherFunSuite {
     profiled2.query.asInstanceOf[ProfilingQueryContext].count should equal(1)
   }
 
+  test("should report the page cache use of the database accesses of each pipe") {
+    //GIVEN
+    val start = SingleRowPipe()
+    val pipe1 = new ProfilerTestPipe(start, "foo", rows = 1, dbAccess = 2)
+    val pipe2 = new ProfilerTestPipe(pipe1, "bar", rows = 1, dbAccess = 3)
+    val queryContext = mock[QueryContext]
+    when(queryContext.createNode()).thenAnswer(new Answer[Node] {
+      def answer(invocation: InvocationOnMock): Node = {
+        val counters = PageCursorCounters.forCurrentThread()
+        counters.hit()
+        counters.fault(8192)
+        null
+      }
+    })
+    val profiler = new Profiler
+    val queryState = QueryStateHelper.emptyWith(query = queryContext, decorator = profiler)
+
+    //WHEN
+    materialize(pipe2.createResults(queryState))
+    val decoratedResult = profiler.decorate(pipe2.planDescription, isProfileReady = true)
+
+    //THEN
+    decoratedResult.find("foo").flatMap(_.arguments) should contain allOf(
+      PageCacheHits(2), PageCacheMisses(2), PageCacheBytesRead(2 * 8192), PageCacheEvictions(0))
+    decoratedResult.find("bar").flatMap(_.arguments) should contain allOf(
+      PageCacheHits(3), PageCacheMisses(3), PageCacheBytesRead(3 * 8192), PageCacheEvictions(0))
+  }
+
   private def assertRecorded(result: InternalPlanDescription, name: String, expectedRows: Int, expectedDbHits: Int) {
     val pipeArgs: Seq[Argument] = result.find(name).flatMap(_.arguments)
     pipeArgs shouldNot be(empty)
@@ -188,10 +188,24 @@ class CSVResourcesTest extends CypherFunSuite with CreateTempFileTestSupport {
     }
 
     // when
-    val e = intercept[IllegalStateException](resources.getCsvIterator(new URL(url)))
+    val e = intercept[IllegalStateException](resources.getCsvIterator(new URL(url)).toList)
     e.getMessage should include(url)
   }
 
+  test("should read all rows in order when they are parsed ahead in several chunks") {
+    // given
+    val url = createCSVTempFileURL {
+      writer =>
+        (1 to 5000).foreach(i => writer.println(s"$i,row$i"))
+    }
+
+    //when
+    val result = resources.getCsvIterator(new URL(url)).toList
+
+    //then
+    result.map(_.toList) should equal((1 to 5000).map(i => List(i.toString, s"row$i")).toList)
+  }
+
   test("should parse multiline fields") {
     // given
     val url = createCSVTempFileURL {
@@ -20,15 +20,18 @@
 package org.neo4j.cypher.internal.codegen;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import org.neo4j.cypher.internal.compiler.v2_3.CypherTypeException;
 import org.neo4j.cypher.internal.compiler.v2_3.IncomparableValuesException;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.helpers.MathUtil;
+import org.neo4j.kernel.impl.api.PropertyValueComparison;
 
 // Class with static methods used by compiled execution plans
 public abstract class CompiledConversionUtils
@@ -64,6 +67,33 @@ public abstract class CompiledConversionUtils
         throw new CypherTypeException( "Don't know how to create an iterable out of " + value.getClass().getSimpleName(), null );
     }
 
+    /**
+     * The elements UNWIND produces for a value: the elements of a collection or array, nothing for null, and the value
+     * itself for anything else.
+     */
+    public static Iterable<?> makeTraversable( Object value )
+    {
+        if ( value == null )
+        {
+            return Collections.emptyList();
+        }
+        if ( value instanceof Iterable<?> )
+        {
+            return (Iterable<?>) value;
+        }
+        if ( value.getClass().isArray() )
+        {
+            int length = Array.getLength( value );
+            List<Object> elements = new ArrayList<>( length );
+            for ( int i = 0; i < length; i++ )
+            {
+                elements.add( Array.get( value, i ) );
+            }
+            return elements;
+        }
+        return Collections.singletonList( value );
+    }
+
     public static CompositeKey compositeKey( long... keys )
     {
         return new CompositeKey( keys );
@@ -188,6 +218,49 @@ public abstract class CompiledConversionUtils
         throw new CypherTypeException( "Don't know how to treat that as a boolean: " + predicate.toString(), null );
     }
 
+    /**
+     * Compares two values the way ORDER BY and MIN/MAX do: strings with strings and numbers with numbers, with nulls
+     * sorting after everything else.
+     */
+    public static int compare( Object lhs, Object rhs )
+    {
+        if ( (isString( lhs ) && isString( rhs )) || (isNumber( lhs ) && isNumber( rhs )) )
+        {
+            if ( lhs == null )
+            {
+                return rhs == null ? 0 : 1;
+            }
+            if ( rhs == null )
+            {
+                return -1;
+            }
+            try
+            {
+                return PropertyValueComparison.COMPARE_VALUES.compare( lhs, rhs );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // fall through to the incomparable case below
+            }
+        }
+        throw new IncomparableValuesException( typeName( lhs ), typeName( rhs ) );
+    }
+
+    private static boolean isString( Object value )
+    {
+        return value == null || value instanceof String || value instanceof Character;
+    }
+
+    private static boolean isNumber( Object value )
+    {
+        return value == null || value instanceof Number;
+    }
+
+    private static String typeName( Object value )
+    {
+        return value == null ? "null" : value.getClass().getSimpleName();
+    }
+
     public static Object loadParameter( Object value )
     {
         if ( value instanceof Node )
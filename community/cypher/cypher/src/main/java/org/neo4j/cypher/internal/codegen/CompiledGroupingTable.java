@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.codegen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.cypher.internal.compiler.v2_3.CypherTypeException;
+
+/**
+ * The groups of a compiled aggregation. Each row handed to {@link #aggregate(Object...)} holds the grouping keys
+ * followed by one argument per aggregation function, and each row read back holds the keys followed by the results.
+ * The aggregation functions are declared by chaining calls after construction, in the order of their arguments.
+ */
+public class CompiledGroupingTable extends CompiledRowTable
+{
+    private enum Function
+    {
+        COUNT_STAR, COUNT, SUM, MIN, MAX, COLLECT
+    }
+
+    private final int keyCount;
+    private final List<Function> functions = new ArrayList<>();
+    private final Map<GroupingKey,Group> groups = new LinkedHashMap<>();
+
+    public CompiledGroupingTable( int keyCount )
+    {
+        this.keyCount = keyCount;
+    }
+
+    public CompiledGroupingTable countStar()
+    {
+        return with( Function.COUNT_STAR );
+    }
+
+    public CompiledGroupingTable count()
+    {
+        return with( Function.COUNT );
+    }
+
+    public CompiledGroupingTable sum()
+    {
+        return with( Function.SUM );
+    }
+
+    public CompiledGroupingTable min()
+    {
+        return with( Function.MIN );
+    }
+
+    public CompiledGroupingTable max()
+    {
+        return with( Function.MAX );
+    }
+
+    public CompiledGroupingTable collect()
+    {
+        return with( Function.COLLECT );
+    }
+
+    private CompiledGroupingTable with( Function function )
+    {
+        functions.add( function );
+        return this;
+    }
+
+    public void aggregate( Object... values )
+    {
+        values = valuesOf( values );
+        Object[] keys = Arrays.copyOf( values, keyCount );
+        GroupingKey key = new GroupingKey( keys );
+        Group group = groups.get( key );
+        if ( group == null )
+        {
+            group = new Group( keys );
+            groups.put( key, group );
+        }
+        for ( int i = 0; i < group.aggregators.length; i++ )
+        {
+            group.aggregators[i].update( values[keyCount + i] );
+        }
+    }
+
+    @Override
+    protected Iterator<Object[]> rows()
+    {
+        // Without grouping keys there is always exactly one row, even when there was no input at all
+        final Iterator<Group> groups = this.groups.isEmpty() && keyCount == 0
+                                       ? Collections.singletonList( new Group( new Object[0] ) ).iterator()
+                                       : this.groups.values().iterator();
+        return new Iterator<Object[]>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return groups.hasNext();
+            }
+
+            @Override
+            public Object[] next()
+            {
+                return groups.next().row();
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private class Group
+    {
+        private final Object[] keys;
+        private final Aggregator[] aggregators;
+
+        Group( Object[] keys )
+        {
+            this.keys = keys;
+            this.aggregators = new Aggregator[functions.size()];
+            for ( int i = 0; i < aggregators.length; i++ )
+            {
+                aggregators[i] = newAggregator( functions.get( i ) );
+            }
+        }
+
+        Object[] row()
+        {
+            Object[] row = Arrays.copyOf( keys, keys.length + aggregators.length );
+            for ( int i = 0; i < aggregators.length; i++ )
+            {
+                row[keys.length + i] = aggregators[i].result();
+            }
+            return row;
+        }
+    }
+
+    private static Aggregator newAggregator( Function function )
+    {
+        switch ( function )
+        {
+        case COUNT_STAR:
+            return new Count( true );
+        case COUNT:
+            return new Count( false );
+        case SUM:
+            return new Sum();
+        case MIN:
+            return new MinMax( false );
+        case MAX:
+            return new MinMax( true );
+        case COLLECT:
+            return new Collect();
+        default:
+            throw new IllegalArgumentException( "Unknown aggregation function " + function );
+        }
+    }
+
+    private interface Aggregator
+    {
+        void update( Object value );
+
+        Object result();
+    }
+
+    private static class Count implements Aggregator
+    {
+        private final boolean countNulls;
+        private long count;
+
+        Count( boolean countNulls )
+        {
+            this.countNulls = countNulls;
+        }
+
+        @Override
+        public void update( Object value )
+        {
+            if ( countNulls || value != null )
+            {
+                count++;
+            }
+        }
+
+        @Override
+        public Object result()
+        {
+            return count;
+        }
+    }
+
+    private static class Sum implements Aggregator
+    {
+        private Object sum = 0L;
+
+        @Override
+        public void update( Object value )
+        {
+            if ( value == null )
+            {
+                return;
+            }
+            if ( !(value instanceof Number) )
+            {
+                throw new CypherTypeException( "SUM(" + value + ") can only handle numerical values, or null.", null );
+            }
+            sum = CompiledMathHelper.add( sum, value );
+        }
+
+        @Override
+        public Object result()
+        {
+            return sum;
+        }
+    }
+
+    private static class MinMax implements Aggregator
+    {
+        private final boolean max;
+        private Object seen;
+
+        MinMax( boolean max )
+        {
+            this.max = max;
+        }
+
+        @Override
+        public void update( Object value )
+        {
+            if ( value == null )
+            {
+                return;
+            }
+            if ( seen == null )
+            {
+                seen = value;
+                return;
+            }
+            int comparison = CompiledConversionUtils.compare( seen, value );
+            if ( max ? comparison < 0 : comparison > 0 )
+            {
+                seen = value;
+            }
+        }
+
+        @Override
+        public Object result()
+        {
+            return seen;
+        }
+    }
+
+    private static class Collect implements Aggregator
+    {
+        private final List<Object> values = new ArrayList<>();
+
+        @Override
+        public void update( Object value )
+        {
+            if ( value != null )
+            {
+                values.add( value );
+            }
+        }
+
+        @Override
+        public Object result()
+        {
+            return values;
+        }
+    }
+}
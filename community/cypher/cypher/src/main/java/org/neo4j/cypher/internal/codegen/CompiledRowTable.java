@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.codegen;
+
+import java.util.Iterator;
+
+/**
+ * Rows materialized by a compiled query, for operators that need all of their input before producing any output.
+ * Generated code reads the rows back like a cursor, using {@link #next()} and the column getters.
+ */
+public abstract class CompiledRowTable
+{
+    private Iterator<Object[]> rows;
+    private Object[] current;
+
+    protected abstract Iterator<Object[]> rows();
+
+    /**
+     * Generated code passes the values of a row as varargs, and a row holding only a {@code null} literal arrives as a
+     * {@code null} array.
+     */
+    protected static Object[] valuesOf( Object[] values )
+    {
+        return values == null ? new Object[]{null} : values;
+    }
+
+    public boolean next()
+    {
+        if ( rows == null )
+        {
+            rows = rows();
+        }
+        if ( rows.hasNext() )
+        {
+            current = rows.next();
+            return true;
+        }
+        current = null;
+        return false;
+    }
+
+    public Object get( int column )
+    {
+        return current[column];
+    }
+
+    /**
+     * Reads back a node or relationship id.
+     */
+    public long getLong( int column )
+    {
+        return ((Number) current[column]).longValue();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.codegen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The rows of a compiled ORDER BY, optionally bounded by a LIMIT. The sort columns are declared by chaining
+ * {@link #orderBy(int, boolean)} calls after construction, most significant column first. A bounded table never
+ * keeps more than twice its limit in memory, since it sorts and cuts off the tail whenever it reaches that size.
+ */
+public class CompiledSortTable extends CompiledRowTable
+{
+    private final long limit;
+    private final List<Object[]> rows = new ArrayList<>();
+    private final List<Integer> columns = new ArrayList<>();
+    private final List<Boolean> ascending = new ArrayList<>();
+    private final Comparator<Object[]> comparator = new Comparator<Object[]>()
+    {
+        @Override
+        public int compare( Object[] lhs, Object[] rhs )
+        {
+            for ( int i = 0; i < columns.size(); i++ )
+            {
+                int column = columns.get( i );
+                int comparison = CompiledConversionUtils.compare( lhs[column], rhs[column] );
+                if ( comparison != 0 )
+                {
+                    return ascending.get( i ) ? comparison : -comparison;
+                }
+            }
+            return 0;
+        }
+    };
+
+    public CompiledSortTable()
+    {
+        this.limit = -1;
+    }
+
+    public CompiledSortTable( int limit )
+    {
+        this.limit = Math.max( limit, 0 );
+    }
+
+    public CompiledSortTable orderBy( int column, boolean ascending )
+    {
+        this.columns.add( column );
+        this.ascending.add( ascending );
+        return this;
+    }
+
+    public void add( Object... row )
+    {
+        if ( limit == 0 )
+        {
+            return;
+        }
+        rows.add( valuesOf( row ) );
+        if ( limit > 0 && rows.size() >= 2 * limit )
+        {
+            sortAndCutOff();
+        }
+    }
+
+    @Override
+    protected Iterator<Object[]> rows()
+    {
+        sortAndCutOff();
+        return rows.iterator();
+    }
+
+    private void sortAndCutOff()
+    {
+        // Collections.sort is stable, so rows that compare equal keep their input order
+        Collections.sort( rows, comparator );
+        if ( limit > 0 && rows.size() > limit )
+        {
+            rows.subList( (int) limit, rows.size() ).clear();
+        }
+    }
+}
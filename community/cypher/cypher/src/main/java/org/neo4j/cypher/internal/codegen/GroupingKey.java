@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.codegen;
+
+import java.util.Arrays;
+
+/**
+ * The key of a group or distinct row in a compiled query. Values are compared the way the interpreted runtime groups
+ * them: integers of different widths are equal when they have the same value, and arrays are compared by content.
+ */
+final class GroupingKey
+{
+    private final Object[] values;
+    private final int hashCode;
+
+    GroupingKey( Object[] values )
+    {
+        this.values = new Object[values.length];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            this.values[i] = comparable( values[i] );
+        }
+        this.hashCode = Arrays.deepHashCode( this.values );
+    }
+
+    private static Object comparable( Object value )
+    {
+        if ( value instanceof Integer || value instanceof Short || value instanceof Byte )
+        {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        GroupingKey that = (GroupingKey) o;
+        return hashCode == that.hashCode && Arrays.deepEquals( values, that.values );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+}
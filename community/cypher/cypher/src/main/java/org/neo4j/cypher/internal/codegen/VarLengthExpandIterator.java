@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.codegen;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.cypher.internal.compiler.v2_3.CypherExecutionException;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.StatementTokenNameLookup;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.api.RelationshipDataExtractor;
+import org.neo4j.kernel.impl.api.store.RelationshipIterator;
+import org.neo4j.kernel.impl.core.NodeManager;
+
+/**
+ * The paths of a compiled variable length expand, found depth first like the interpreted VarLengthExpandPipe does,
+ * with no relationship appearing twice in the same path. {@link #next()} returns the end node of the next path, and
+ * {@link #relationships()} the relationships of that path, in projected order.
+ */
+public class VarLengthExpandIterator implements PrimitiveLongIterator
+{
+    private final ReadOperations readOperations;
+    private final NodeManager nodeManager;
+    private final Direction direction;
+    private final int minLength;
+    private final int maxLength;
+    private final boolean reverseRelationships;
+    private final int[] types;
+    private final RelationshipDataExtractor extractor = new RelationshipDataExtractor();
+    private final Deque<Path> stack = new ArrayDeque<>();
+    private Path next;
+    private Path current;
+
+    /**
+     * @param maxLength the maximum number of relationships in a path, or -1 for no maximum.
+     * @param reverseRelationships whether the relationships of a path should be returned from the end node back.
+     */
+    public VarLengthExpandIterator( ReadOperations readOperations, NodeManager nodeManager, long fromNode,
+            Direction direction, int minLength, int maxLength, boolean reverseRelationships, int... types )
+    {
+        this.readOperations = readOperations;
+        this.nodeManager = nodeManager;
+        this.direction = direction;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.reverseRelationships = reverseRelationships;
+        this.types = types;
+        stack.push( new Path( fromNode, new long[0] ) );
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while ( next == null && !stack.isEmpty() )
+        {
+            Path path = stack.pop();
+            if ( maxLength < 0 || path.relationships.length < maxLength )
+            {
+                expand( path );
+            }
+            if ( path.relationships.length >= minLength )
+            {
+                next = path;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public long next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+        current = next;
+        next = null;
+        return current.endNode;
+    }
+
+    public List<Relationship> relationships()
+    {
+        long[] ids = current.relationships;
+        List<Relationship> relationships = new ArrayList<>( ids.length );
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            long id = reverseRelationships ? ids[ids.length - 1 - i] : ids[i];
+            relationships.add( nodeManager.newRelationshipProxyById( id ) );
+        }
+        return relationships;
+    }
+
+    private void expand( Path path )
+    {
+        RelationshipIterator relationships;
+        try
+        {
+            relationships = types.length == 0
+                            ? readOperations.nodeGetRelationships( path.endNode, direction )
+                            : readOperations.nodeGetRelationships( path.endNode, direction, types );
+        }
+        catch ( EntityNotFoundException e )
+        {
+            throw new CypherExecutionException(
+                    e.getUserMessage( new StatementTokenNameLookup( readOperations ) ), e );
+        }
+        while ( relationships.hasNext() )
+        {
+            long relationship = relationships.next();
+            if ( path.contains( relationship ) )
+            {
+                continue;
+            }
+            relationships.relationshipVisit( relationship, extractor );
+            long[] extended = new long[path.relationships.length + 1];
+            System.arraycopy( path.relationships, 0, extended, 0, path.relationships.length );
+            extended[path.relationships.length] = relationship;
+            stack.push( new Path( extractor.otherNode( path.endNode ), extended ) );
+        }
+    }
+
+    private static class Path
+    {
+        private final long endNode;
+        private final long[] relationships;
+
+        Path( long endNode, long[] relationships )
+        {
+            this.endNode = endNode;
+            this.relationships = relationships;
+        }
+
+        boolean contains( long relationship )
+        {
+            for ( long id : relationships )
+            {
+                if ( id == relationship )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
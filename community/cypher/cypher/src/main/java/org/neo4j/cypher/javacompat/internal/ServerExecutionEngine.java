@@ -20,6 +20,7 @@
 package org.neo4j.cypher.javacompat.internal;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.cypher.CypherException;
 import org.neo4j.cypher.javacompat.ExecutionEngine;
@@ -85,4 +86,15 @@ public class ServerExecutionEngine extends ExecutionEngine implements QueryExecu
             throw new QueryExecutionKernelException( e );
         }
     }
+
+    /**
+     * Waits for the queries whose plans were cached when the database last shut down to be planned again, see
+     * {@link org.neo4j.graphdb.factory.GraphDatabaseSettings#query_cache_warmup}.
+     *
+     * @return {@code true} if they were planned, or there was nothing to plan, before the timeout passed
+     */
+    public boolean awaitQueryCacheWarmUp( long timeout, TimeUnit unit ) throws InterruptedException
+    {
+        return serverExecutionEngine.awaitQueryCacheWarmUp( timeout, unit );
+    }
 }
@@ -19,7 +19,9 @@
  */
 package org.neo4j.cypher
 
+import java.io.File
 import java.lang.Boolean.FALSE
+import java.util.concurrent.{CountDownLatch, TimeUnit}
 import java.util.{Map => JavaMap}
 
 import org.neo4j.cypher.internal.compiler.v2_3.helpers.using
@@ -30,10 +32,11 @@ import org.neo4j.cypher.internal.tracing.{TimingCompilationTracer, CompilationTr
 import org.neo4j.cypher.internal.{CypherCompiler, _}
 import org.neo4j.graphdb.GraphDatabaseService
 import org.neo4j.graphdb.config.Setting
+import org.neo4j.graphdb.event.{ErrorState, KernelEventHandler}
 import org.neo4j.graphdb.factory.GraphDatabaseSettings
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge
 import org.neo4j.kernel.impl.factory.GraphDatabaseFacade
-import org.neo4j.kernel.impl.query.{QueryEngineProvider, QueryExecutionMonitor, QuerySession}
+import org.neo4j.kernel.impl.query.{QueryEngineProvider, QueryExecutionMonitor, QueryPlanCacheMonitor, QuerySession}
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore
 import org.neo4j.kernel.{GraphDatabaseAPI, api, monitoring}
 import org.neo4j.logging.{LogProvider, NullLogProvider}
@@ -69,9 +72,32 @@ class ExecutionEngine(graph: GraphDatabaseService, logProvider: LogProvider = Nu
     }
   })
 
+  private val planCacheMonitor = kernelMonitors.newMonitor(classOf[QueryPlanCacheMonitor])
+  private val planCacheMonitors = new StringCacheMonitor {
+    override def cacheHit(query: String) {
+      cacheMonitor.cacheHit(query)
+      planCacheMonitor.cacheHit(query)
+    }
+    override def cacheMiss(query: String) {
+      cacheMonitor.cacheMiss(query)
+      planCacheMonitor.cacheMiss(query)
+    }
+    override def cacheDiscard(query: String) {
+      cacheMonitor.cacheDiscard(query)
+    }
+    override def cacheFlushDetected(justBeforeKey: api.Statement) {
+      cacheMonitor.cacheFlushDetected(justBeforeKey)
+      planCacheMonitor.cacheFlush()
+    }
+  }
+
   private val executionMonitor = kernelMonitors.newMonitor(classOf[QueryExecutionMonitor])
 
-  private val cacheAccessor = new MonitoringCacheAccessor[String, (ExecutionPlan, Map[String, Any])](cacheMonitor)
+  private val cacheAccessor = new MonitoringCacheAccessor[String, (ExecutionPlan, Map[String, Any])](planCacheMonitors)
+
+  // the plan cache lives in the schema state, this is the last one created so that its queries can be saved
+  @volatile private var planCache: Option[LRUCachev2_3[String, (ExecutionPlan, Map[String, Any])]] = None
+  private val warmUpDone = new CountDownLatch(1)
 
   private val preParsedQueries = new LRUCachev2_3[String, PreParsedQuery](getPlanCacheSize)
   private val parsedQueries = new LRUCachev2_3[String, ParsedQuery](getPlanCacheSize)
@@ -157,8 +183,10 @@ class ExecutionEngine(graph: GraphDatabaseService, logProvider: LogProvider = Nu
         val (plan: ExecutionPlan, extractedParameters) = try {
           // fetch plan cache
           val cache: LRUCachev2_3[String, (ExecutionPlan, Map[String, Any])] = getOrCreateFromSchemaState(kernelStatement, {
-            cacheMonitor.cacheFlushDetected(kernelStatement)
-            new LRUCachev2_3[String, (ExecutionPlan, Map[String, Any])](getPlanCacheSize)
+            planCacheMonitors.cacheFlushDetected(kernelStatement)
+            val created = new LRUCachev2_3[String, (ExecutionPlan, Map[String, Any])](getPlanCacheSize, planCacheMonitor.cacheEviction)
+            planCache = Some(created)
+            created
           })
 
           Iterator.continually {
@@ -168,7 +196,9 @@ class ExecutionEngine(graph: GraphDatabaseService, logProvider: LogProvider = Nu
               parsedQuery.plan(kernelStatement, phaseTracer)
             })
           }.flatMap { case (candidatePlan, params) =>
-            if (!touched && candidatePlan.isStale(lastTxId, kernelStatement)) {
+            val stale = !touched && candidatePlan.isStale(lastTxId, kernelStatement)
+            if (!touched) planCacheMonitor.cacheStalenessCheck(cacheKey, stale)
+            if (stale) {
               cacheAccessor.remove(cache)(cacheKey)
               None
             } else {
@@ -216,6 +246,64 @@ class ExecutionEngine(graph: GraphDatabaseService, logProvider: LogProvider = Nu
 
   def prettify(query: String): String = Prettifier(query)
 
+  /**
+   * Waits for the queries that were cached when the database last shut down to be planned again.
+   *
+   * @return true if they were planned, or warm-up is disabled, before the timeout passed
+   */
+  def awaitQueryCacheWarmUp(timeout: Long, unit: TimeUnit): Boolean = warmUpDone.await(timeout, unit)
+
+  private def queryCacheFile = new QueryCacheFile(new File(graphAPI.getStoreDir, QueryCacheFile.FILE_NAME))
+
+  private def warmUpQueryCache() {
+    if (optGraphSetting[java.lang.Boolean](graph, GraphDatabaseSettings.query_cache_warmup, FALSE)) {
+      graph.registerKernelEventHandler(new KernelEventHandler {
+        def beforeShutdown() {
+          try {
+            planCache.foreach(cache => queryCacheFile.write(cache.keys))
+          } catch {
+            case e: Exception => log.warn("Could not save the queries of the query cache", e)
+          }
+        }
+
+        def kernelPanic(error: ErrorState) {}
+
+        def getResource = null
+
+        def orderComparedTo(other: KernelEventHandler) = KernelEventHandler.ExecutionOrder.DOESNT_MATTER
+      })
+
+      val warmUp = new Thread(new Runnable {
+        def run() {
+          try {
+            // the least recently used queries are planned first, so that the cache ends up in the order it was saved in
+            if (graph.isAvailable(ExecutionEngine.WARM_UP_AVAILABILITY_TIMEOUT))
+              queryCacheFile.read().reverse.foreach(warmUpQuery)
+          } catch {
+            case e: Exception => log.warn("Could not read the queries of the query cache", e)
+          } finally {
+            warmUpDone.countDown()
+          }
+        }
+      }, "Cypher query cache warm-up")
+      warmUp.setDaemon(true)
+      warmUp.start()
+    } else {
+      warmUpDone.countDown()
+    }
+  }
+
+  private def warmUpQuery(query: String) {
+    try {
+      val (_, txInfo) = planQuery(query)
+      txInfo.statement.close()
+      txInfo.tx.close()
+      planCacheMonitor.cacheWarmUp(query)
+    } catch {
+      case e: Exception => log.warn(s"Could not plan query from the query cache: $query", e)
+    }
+  }
+
   private def createCompiler: CypherCompiler = {
     val version = CypherVersion(optGraphSetting[String](
       graph, GraphDatabaseSettings.cypher_parser_version, CypherVersion.default.name))
@@ -253,8 +341,11 @@ class ExecutionEngine(graph: GraphDatabaseService, logProvider: LogProvider = Nu
       .andThen(_.getOrElse(defaultValue))
       .applyOrElse(graph, (_: GraphDatabaseService) => defaultValue)
   }
+
+  warmUpQueryCache()
 }
 
 object ExecutionEngine {
   val PLAN_BUILDING_TRIES: Int = 20
+  val WARM_UP_AVAILABILITY_TIMEOUT: Long = TimeUnit.MINUTES.toMillis(5)
 }
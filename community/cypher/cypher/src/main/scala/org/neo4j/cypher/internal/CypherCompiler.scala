@@ -36,6 +36,7 @@ object CypherCompiler {
   val DEFAULT_QUERY_PLAN_TTL: Long = 1000 // 1 second
   val CLOCK = Clock.SYSTEM_CLOCK
   val DEFAULT_STATISTICS_DIVERGENCE_THRESHOLD = 0.1
+  val DEFAULT_IDP_TIME_LIMIT: Long = 1000 // 1 second
 
   def notificationLoggerBuilder(executionMode: CypherExecutionMode): InternalNotificationLogger = executionMode  match {
       case CypherExecutionMode.explain => new RecordingNotificationLogger()
@@ -75,6 +76,7 @@ class CypherCompiler(graph: GraphDatabaseService,
     private val queryCacheSize: Int = getQueryCacheSize
     private val queryPlanTTL: Long = getMinimumTimeBeforeReplanning
     private val statisticsDivergenceThreshold = getStatisticsDivergenceThreshold
+    private val idpTimeLimit: Long = getIDPTimeLimit
     override def create[S](spec: PlannerSpec { type SPI = S }): S = spec match {
       case PlannerSpec_v1_9 => CompatibilityFor1_9(graph, queryCacheSize, kernelMonitors)
       case PlannerSpec_v2_2(planner) => planner match {
@@ -83,7 +85,7 @@ class CypherCompiler(graph: GraphDatabaseService,
       }
       case PlannerSpec_v2_3(planner, runtime) => planner match {
         case CypherPlanner.rule => CompatibilityFor2_3Rule(graph, queryCacheSize, statisticsDivergenceThreshold, queryPlanTTL, CLOCK, kernelMonitors, kernelAPI)
-        case _ => CompatibilityFor2_3Cost(graph, queryCacheSize, statisticsDivergenceThreshold, queryPlanTTL, CLOCK, kernelMonitors, kernelAPI, log, planner, runtime, useErrorsOverWarnings)
+        case _ => CompatibilityFor2_3Cost(graph, queryCacheSize, statisticsDivergenceThreshold, queryPlanTTL, CLOCK, kernelMonitors, kernelAPI, log, planner, runtime, useErrorsOverWarnings, idpTimeLimit)
       }
     }
   }
@@ -93,7 +95,7 @@ class CypherCompiler(graph: GraphDatabaseService,
   private final val VERSIONS_WITH_FIXED_PLANNER: Set[CypherVersion] = Set(v1_9)
   private final val VERSIONS_WITH_FIXED_RUNTIME: Set[CypherVersion] = Set(v1_9, v2_2)
 
-  private final val ILLEGAL_PLANNER_RUNTIME_COMBINATIONS: Set[(CypherPlanner, CypherRuntime)] = Set((CypherPlanner.rule, CypherRuntime.compiled))
+  private final val ILLEGAL_PLANNER_RUNTIME_COMBINATIONS: Set[(CypherPlanner, CypherRuntime)] = Set((CypherPlanner.rule, CypherRuntime.compiled), (CypherPlanner.rule, CypherRuntime.parallel))
 
   @throws(classOf[SyntaxException])
   def preParseQuery(queryText: String): PreParsedQuery = {
@@ -168,6 +170,12 @@ class CypherCompiler(graph: GraphDatabaseService,
       .applyOrElse(graph, (_: GraphDatabaseService) => DEFAULT_QUERY_PLAN_TTL)
   }
 
+  private def getIDPTimeLimit: Long = {
+    optGraphAs[GraphDatabaseFacade]
+      .andThen(_.platformModule.config.get(GraphDatabaseSettings.cypher_idp_time_limit).longValue())
+      .applyOrElse(graph, (_: GraphDatabaseService) => DEFAULT_IDP_TIME_LIMIT)
+  }
+
 
   private def optGraphAs[T <: GraphDatabaseService : Manifest]: PartialFunction[GraphDatabaseService, T] = {
     case (db: T) => db
@@ -55,6 +55,7 @@ case object CypherPreParser extends Parser with Base {
   def RuntimeOption = rule("runtime option")(
     option("runtime", "interpreted") ~ push(InterpretedRuntimeOption)
       | option("runtime", "compiled") ~ push(CompiledRuntimeOption)
+      | option("runtime", "parallel") ~ push(ParallelRuntimeOption)
   )
 
   @deprecated
@@ -33,4 +33,5 @@ case object IDPPlannerOption extends PlannerPreParserOption("idp")
 case object DPPlannerOption extends PlannerPreParserOption("dp")
 case object InterpretedRuntimeOption extends RuntimePreParserOption("interpreted")
 case object CompiledRuntimeOption extends RuntimePreParserOption("compiled")
+case object ParallelRuntimeOption extends RuntimePreParserOption("parallel")
 case class ConfigurationOptions(version: Option[VersionOption], options: Seq[PreParserOption]) extends PreParserOption
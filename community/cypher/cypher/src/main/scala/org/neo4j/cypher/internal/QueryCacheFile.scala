@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io._
+
+import org.neo4j.cypher.internal.compiler.v2_3.helpers.using
+
+/*
+The queries whose plans were cached when the database shut down, kept next to the store so that they can be planned
+again when it starts. Queries are written as modified UTF-8, which is why a query longer than 64k bytes is left out.
+ */
+class QueryCacheFile(file: File) {
+
+  def write(queries: Seq[String]): Unit = {
+    val toWrite = queries.filter(fitsModifiedUtf8)
+    using(new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) { out =>
+      out.writeInt(toWrite.size)
+      toWrite.foreach(out.writeUTF)
+    }
+  }
+
+  def read(): Seq[String] =
+    if (!file.exists()) Seq.empty
+    else using(new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) { in =>
+      val count = in.readInt()
+      (0 until count).map(_ => in.readUTF())
+    }
+
+  private def fitsModifiedUtf8(query: String) =
+    query.length <= QueryCacheFile.MAX_UTF_LENGTH / 3 || encodedLength(query) <= QueryCacheFile.MAX_UTF_LENGTH
+
+  private def encodedLength(query: String) = query.foldLeft(0L) {
+    case (length, c) if c >= 0x0001 && c <= 0x007F => length + 1
+    case (length, c) if c > 0x07FF => length + 3
+    case (length, _) => length + 2
+  }
+}
+
+object QueryCacheFile {
+  val FILE_NAME = "cypher-query-cache"
+  val MAX_UTF_LENGTH = 65535
+}
@@ -155,21 +155,26 @@ trait CompatibilityFor2_3 {
   implicit val executionMonitor = kernelMonitors.newMonitor(classOf[QueryExecutionMonitor])
 
   def produceParsedQuery(preParsedQuery: PreParsedQuery, tracer: CompilationPhaseTracer) = {
-    val preparedQueryForV_2_3 = Try(compiler.prepareQuery(preParsedQuery.statement, preParsedQuery.rawStatement, preParsedQuery.notificationLogger, Some(preParsedQuery.offset), tracer))
+    val preparingTracer = new PhaseTimingTracer(tracer)
+    val preparedQueryForV_2_3 = Try(compiler.prepareQuery(preParsedQuery.statement, preParsedQuery.rawStatement, preParsedQuery.notificationLogger, Some(preParsedQuery.offset), preparingTracer))
     new ParsedQuery {
       def isPeriodicCommit = preparedQueryForV_2_3.map(_.isPeriodicCommit).getOrElse(false)
 
       def plan(statement: Statement, tracer: CompilationPhaseTracer): (ExecutionPlan, Map[String, Any]) = exceptionHandlerFor2_3.runSafely {
         val planContext = new TransactionBoundPlanContext(statement, graph)
-        val (planImpl, extractedParameters) = compiler.planPreparedQuery(preparedQueryForV_2_3.get, planContext, tracer)
-        (new ExecutionPlanWrapper(planImpl), extractedParameters)
+        val planningTracer = new PhaseTimingTracer(tracer)
+        val (planImpl, extractedParameters) = compiler.planPreparedQuery(preparedQueryForV_2_3.get, planContext, planningTracer)
+        (new ExecutionPlanWrapper(planImpl, phaseTimes(preparingTracer) ++ phaseTimes(planningTracer)), extractedParameters)
       }
 
       override def hasErrors = preparedQueryForV_2_3.isFailure
     }
   }
 
-  class ExecutionPlanWrapper(inner: ExecutionPlan_v2_3) extends ExecutionPlan {
+  private def phaseTimes(tracer: PhaseTimingTracer): Seq[(String, Long)] =
+    tracer.phaseTimes().asScala.toSeq.map { case (phase, nanos) => phase.name.toLowerCase -> nanos.longValue() }
+
+  class ExecutionPlanWrapper(inner: ExecutionPlan_v2_3, planningTimes: Seq[(String, Long)] = Seq.empty) extends ExecutionPlan {
 
     private def queryContext(graph: GraphDatabaseAPI, txInfo: TransactionInfo) = {
       val ctx = new TransactionBoundQueryContext(graph, txInfo.tx, txInfo.isTopLevelTx, txInfo.statement)
@@ -184,7 +189,7 @@ trait CompatibilityFor2_3 {
         case CypherExecutionMode.normal => NormalModev2_3
       }
       exceptionHandlerFor2_3.runSafely {
-        ExecutionResultWrapperFor2_3(inner.run(queryContext(graph, txInfo), txInfo.statement, innerExecutionMode, params), inner.plannerUsed, inner.runtimeUsed)
+        ExecutionResultWrapperFor2_3(inner.run(queryContext(graph, txInfo), txInfo.statement, innerExecutionMode, params), inner.plannerUsed, inner.runtimeUsed, planningTimes)
       }
     }
 
@@ -195,7 +200,8 @@ trait CompatibilityFor2_3 {
   }
 }
 
-case class ExecutionResultWrapperFor2_3(inner: InternalExecutionResult, planner: PlannerName, runtime: RuntimeName)
+case class ExecutionResultWrapperFor2_3(inner: InternalExecutionResult, planner: PlannerName, runtime: RuntimeName,
+                                        planningTimes: Seq[(String, Long)] = Seq.empty)
                                        (implicit monitor: QueryExecutionMonitor, session: QuerySession)
   extends ExtendedExecutionResult {
 
@@ -266,7 +272,8 @@ case class ExecutionResultWrapperFor2_3(inner: InternalExecutionResult, planner:
           addArgument(Planner(planner.toTextOutput)).
           addArgument(PlannerImpl(planner.name)).
           addArgument(Runtime(runtime.toTextOutput)).
-          addArgument(RuntimeImpl(runtime.name))
+          addArgument(RuntimeImpl(runtime.name)).
+          addArgument(PlanningTime(planningTimes))
     )
   }
 
@@ -389,7 +396,8 @@ case class CompatibilityFor2_3Cost(graph: GraphDatabaseService,
                                            log: Log,
                                            planner: CypherPlanner,
                                            runtime: CypherRuntime,
-                                           useErrorsOverWarnings: Boolean) extends CompatibilityFor2_3 {
+                                           useErrorsOverWarnings: Boolean,
+                                           idpTimeLimit: Long) extends CompatibilityFor2_3 {
   protected val compiler = {
     val plannerName = planner match {
       case CypherPlanner.default => None
@@ -403,11 +411,12 @@ case class CompatibilityFor2_3Cost(graph: GraphDatabaseService,
       case CypherRuntime.default => None
       case CypherRuntime.interpreted => Some(InterpretedRuntimeName)
       case CypherRuntime.compiled => Some(CompiledRuntimeName)
+      case CypherRuntime.parallel => Some(ParallelRuntimeName)
     }
 
     CypherCompilerFactory.costBasedCompiler(
       graph, queryCacheSize, statsDivergenceThreshold, queryPlanTTL, clock, GeneratedQueryStructure, new WrappedMonitors2_3( kernelMonitors ),
-      new StringInfoLogger2_3( log ), rewriterSequencer, plannerName, runtimeName, useErrorsOverWarnings
+      new StringInfoLogger2_3( log ), rewriterSequencer, plannerName, runtimeName, useErrorsOverWarnings, idpTimeLimit
     )
   }
 }
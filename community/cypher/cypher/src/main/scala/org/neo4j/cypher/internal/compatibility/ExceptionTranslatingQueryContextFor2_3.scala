@@ -94,6 +94,9 @@ class ExceptionTranslatingQueryContextFor2_3(inner: QueryContext) extends Delega
   override def getNodesByLabel(id: Int): Iterator[Node] =
     translateException(super.getNodesByLabel(id))
 
+  override def foreachRelationship(node: Long, dir: Direction, types: Option[Seq[Int]])(f: (Long, Long) => Unit) =
+    translateException(super.foreachRelationship(node, dir, types)(f))
+
   override def nodeGetDegree(node: Long, dir: Direction): Int =
     translateException(super.nodeGetDegree(node, dir))
 
@@ -130,6 +133,12 @@ class ExceptionTranslatingQueryContextFor2_3(inner: QueryContext) extends Delega
         work(new ExceptionTranslatingQueryContextFor2_3(qc))
       ))
 
+  override def withWorkerQueryContext[T](work: (QueryContext) => T): T =
+    super.withWorkerQueryContext(qc =>
+      translateException(
+        work(new ExceptionTranslatingQueryContextFor2_3(qc))
+      ))
+
   override def isLabelSetOnNode(label: Int, node: Long): Boolean =
     translateException(super.isLabelSetOnNode(label, node))
 
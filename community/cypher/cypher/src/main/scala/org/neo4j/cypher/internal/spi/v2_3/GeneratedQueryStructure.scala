@@ -32,7 +32,7 @@ import org.neo4j.codegen.source.SourceVisitor
 import org.neo4j.collection.primitive.hopscotch.LongKeyIntValueTable
 import org.neo4j.collection.primitive.{Primitive, PrimitiveLongIntMap, PrimitiveLongIterator, PrimitiveLongObjectMap}
 import org.neo4j.cypher.internal.codegen.CompiledConversionUtils.CompositeKey
-import org.neo4j.cypher.internal.codegen.{CompiledConversionUtils, CompiledExpandUtils, CompiledMathHelper, NodeIdWrapper, RelationshipIdWrapper}
+import org.neo4j.cypher.internal.codegen.{CompiledConversionUtils, CompiledDistinctSet, CompiledExpandUtils, CompiledGroupingTable, CompiledMathHelper, CompiledRowTable, CompiledSortTable, NodeIdWrapper, RelationshipIdWrapper, VarLengthExpandIterator}
 import org.neo4j.cypher.internal.compiler.v2_3.codegen._
 import org.neo4j.cypher.internal.compiler.v2_3.executionplan.{GeneratedQuery, GeneratedQueryExecution, SuccessfulCloseable}
 import org.neo4j.cypher.internal.compiler.v2_3.helpers._
@@ -425,6 +425,19 @@ private case class Method(fields: Fields, generator: CodeBlock, aux:AuxGenerator
     }
   }
 
+  override def varLengthExpand(iterVar: String, fromNodeVar: String, direction: Direction, typeVars: Seq[String],
+                               minLength: Int, maxLength: Option[Int], reverseRelationships: Boolean) = {
+    val arguments = Seq(readOperations, nodeManager, generator.load(fromNodeVar), dir(direction),
+      Expression.constant(minLength), Expression.constant(maxLength.getOrElse(-1)), Expression.constant(reverseRelationships)) ++
+      typeVars.map(generator.load)
+    generator.assign(typeRef[VarLengthExpandIterator], iterVar, Templates.newInstance(typeRef[VarLengthExpandIterator], arguments: _*))
+  }
+
+  override def nextVarLengthPath(iterVar: String, toNodeVar: String, relsVar: String) = {
+    generator.assign(typeRef[Long], toNodeVar, Expression.invoke(generator.load(iterVar), Methods.nextLong))
+    generator.assign(typeRef[Object], relsVar, Expression.invoke(generator.load(iterVar), Methods.varLengthPathRelationships))
+  }
+
   override def load(varName: String) = generator.load(varName)
 
   override def add(lhs: Expression, rhs: Expression) = math(Methods.mathAdd, lhs, rhs)
@@ -469,6 +482,8 @@ private case class Method(fields: Fields, generator: CodeBlock, aux:AuxGenerator
 
   override def castToCollection(value: Expression) = Expression.invoke(Methods.toCollection, value)
 
+  override def makeTraversable(value: Expression) = Expression.invoke(Methods.makeTraversable, value)
+
   override def asMap(map: Map[String, Expression]) = {
     Expression.invoke(Methods.arrayAsList, map.flatMap {
       case (key, value) => Seq(Expression.constant(key), value)
@@ -497,6 +512,9 @@ private case class Method(fields: Fields, generator: CodeBlock, aux:AuxGenerator
         TypeReference.parameterizedType(classOf[util.ArrayList[_]], aux.typeReference(structure)))
       case LongsToListTable(structure,_) => TypeReference.parameterizedType(classOf[util.HashMap[_,_]], typeRef[CompositeKey],
          TypeReference.parameterizedType(classOf[util.ArrayList[_]], aux.typeReference(structure)))
+      case _: GroupingTable => typeRef[CompiledGroupingTable]
+      case _: SortTable => typeRef[CompiledSortTable]
+      case DistinctTable => typeRef[CompiledDistinctSet]
     }
     returnType
   }
@@ -506,7 +524,46 @@ private case class Method(fields: Fields, generator: CodeBlock, aux:AuxGenerator
     case LongToListTable(_,_) => Templates.newLongObjectMap
     case LongsToCountTable => Templates.newInstance(joinTableType(LongsToCountTable))
     case typ: LongsToListTable => Templates.newInstance(joinTableType(typ))
-  }
+    case GroupingTable(keyCount, aggregations) =>
+      aggregations.foldLeft(Templates.newInstance(typeRef[CompiledGroupingTable], Expression.constant(keyCount))) {
+        case (table, kind) => Expression.invoke(table, Methods.aggregation(kind))
+      }
+    case SortTable(sortColumns, limitVar) =>
+      val table = limitVar.map(limit => Templates.newInstance(typeRef[CompiledSortTable],
+        Expression.invoke(Methods.mathCastToInt, generator.load(limit)))).getOrElse(Templates.newInstance(typeRef[CompiledSortTable]))
+      sortColumns.foldLeft(table) {
+        case (acc, SortColumn(column, ascending)) =>
+          Expression.invoke(acc, Methods.orderBy, Expression.constant(column), Expression.constant(ascending))
+      }
+    case DistinctTable => Templates.newInstance(typeRef[CompiledDistinctSet])
+  }
+
+  override def addToRowTable(tableVar: String, tableType: RowTableType, values: Seq[Expression]) = tableType match {
+    case _: GroupingTable =>
+      generator.expression(Expression.invoke(generator.load(tableVar), Methods.aggregate, values: _*))
+    case _: SortTable =>
+      generator.expression(Expression.invoke(generator.load(tableVar), Methods.sortTableAdd, values: _*))
+    case DistinctTable =>
+      throw new IllegalArgumentException("Rows are only added to a distinct table when checking them")
+  }
+
+  override def forEachRow(tableVar: String, tableType: RowTableType, columns: Seq[Variable])(block: MethodStructure[Expression] => Unit) =
+    using(generator.whileLoop(Expression.invoke(generator.load(tableVar), Methods.nextRow))) { body =>
+      columns.zipWithIndex.foreach {
+        case (column, i) => column.cypherType match {
+          case symbols.CTNode | symbols.CTRelationship =>
+            body.assign(typeRef[Long], column.name, Expression.invoke(body.load(tableVar), Methods.getLong, Expression.constant(i)))
+          case _ =>
+            body.assign(typeRef[Object], column.name, Expression.invoke(body.load(tableVar), Methods.get, Expression.constant(i)))
+        }
+      }
+      block(copy(generator = body))
+    }
+
+  override def ifDistinct(setVar: String, values: Seq[Expression])(block: MethodStructure[Expression] => Unit) =
+    using(generator.ifStatement(Expression.invoke(generator.load(setVar), Methods.distinctSetAdd, values: _*))) { body =>
+      block(copy(generator = body))
+    }
 
   override def updateProbeTableCount(tableVar: String, tableType: CountingJoinTableType,
                                      keyVars: Seq[String]) = tableType match {
@@ -778,6 +835,7 @@ private object Methods {
   val propertyKeyGetForName = method[ReadOperations, Int]("propertyKeyGetForName", typeRef[String])
   val coerceToPredicate = method[CompiledConversionUtils, Boolean]("coerceToPredicate", typeRef[Object])
   val toCollection = method[CompiledConversionUtils, java.util.Collection[Object]]("toCollection", typeRef[Object])
+  val makeTraversable = method[CompiledConversionUtils, java.lang.Iterable[Object]]("makeTraversable", typeRef[Object])
   val ternaryEquals = method[CompiledConversionUtils, java.lang.Boolean]("equals", typeRef[Object], typeRef[Object])
   val equals = method[Object, Boolean]("equals", typeRef[Object])
   val or = method[CompiledConversionUtils, java.lang.Boolean]("or", typeRef[Object], typeRef[Object])
@@ -801,6 +859,26 @@ private object Methods {
   val executeOperator = method[QueryExecutionTracer, QueryExecutionEvent]("executeOperator", typeRef[Id])
   val dbHit = method[QueryExecutionEvent, Unit]("dbHit")
   val row = method[QueryExecutionEvent, Unit]("row")
+  val aggregate = method[CompiledGroupingTable, Unit]("aggregate", typeRef[Array[Object]])
+  val sortTableAdd = method[CompiledSortTable, Unit]("add", typeRef[Array[Object]])
+  val orderBy = method[CompiledSortTable, CompiledSortTable]("orderBy", typeRef[Int], typeRef[Boolean])
+  val distinctSetAdd = method[CompiledDistinctSet, Boolean]("add", typeRef[Array[Object]])
+  val nextRow = method[CompiledRowTable, Boolean]("next")
+  val get = method[CompiledRowTable, Object]("get", typeRef[Int])
+  val getLong = method[CompiledRowTable, Long]("getLong", typeRef[Int])
+  val varLengthPathRelationships = method[VarLengthExpandIterator, util.List[Relationship]]("relationships")
+
+  def aggregation(kind: AggregationKind) = {
+    val name = kind match {
+      case AggregationKind.CountStar => "countStar"
+      case AggregationKind.Count => "count"
+      case AggregationKind.Sum => "sum"
+      case AggregationKind.Min => "min"
+      case AggregationKind.Max => "max"
+      case AggregationKind.Collect => "collect"
+    }
+    method[CompiledGroupingTable, CompiledGroupingTable](name)
+  }
 }
 
 private object Templates {
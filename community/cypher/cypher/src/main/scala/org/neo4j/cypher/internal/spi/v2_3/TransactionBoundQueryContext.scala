@@ -102,6 +102,29 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     }
   }
 
+  def withWorkerQueryContext[T](work: (QueryContext) => T): T = {
+    val workerTx = graph.beginTx()
+    try {
+      val workerStatement = txBridge.get()
+      val result = try {
+        work(new TransactionBoundQueryContext(graph, workerTx, isTopLevelTx = true, workerStatement))
+      }
+      finally {
+        workerStatement.close()
+      }
+      workerTx.success()
+      result
+    }
+    finally {
+      workerTx.close()
+    }
+  }
+
+  def hasUncommittedChanges: Boolean = statement match {
+    case kernelStatement: KernelStatement => kernelStatement.hasTxStateWithChanges
+    case _ => true
+  }
+
   def createNode(): Node =
     graph.createNode()
 
@@ -131,12 +154,38 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     case Some(typeIds) => new BeansAPIRelationshipIterator(statement.readOperations().nodeGetRelationships(node.getId, dir, typeIds: _* ), relationshipActions)
   }
 
+  def foreachRelationship(node: Long, dir: Direction, types: Option[Seq[Int]])(f: (Long, Long) => Unit) {
+    val nodeCursor = statement.readOperations().nodeCursor(node)
+    try {
+      if (nodeCursor.next()) {
+        val relationships = types match {
+          case None => nodeCursor.get().relationships(dir)
+          case Some(typeIds) => nodeCursor.get().relationships(dir, typeIds: _*)
+        }
+        try {
+          while (relationships.next()) {
+            val relationship = relationships.get()
+            f(relationship.id(), relationship.otherNode(node))
+          }
+        } finally {
+          relationships.close()
+        }
+      }
+    } finally {
+      nodeCursor.close()
+    }
+  }
+
   def indexSeek(index: IndexDescriptor, value: Any) =
     JavaConversionSupport.mapToScalaENFXSafe(statement.readOperations().nodesGetFromIndexSeek(index, value))(nodeOps.getById)
 
-  def indexSeekByRange(index: IndexDescriptor, value: Any) = value match {
+  def indexSeekByRange(index: IndexDescriptor, value: Any) = seekByRange(index, value, ordered = false)
+
+  def indexSeekByRangeInOrder(index: IndexDescriptor, value: Any) = seekByRange(index, value, ordered = true)
+
+  private def seekByRange(index: IndexDescriptor, value: Any, ordered: Boolean): Iterator[Node] = value match {
 
-    case PrefixRange(prefix) =>
+    case PrefixRange(prefix) if !ordered =>
       indexSeekByPrefixRange(index, prefix)
 
     case range: InequalitySeekRange[Any] =>
@@ -160,8 +209,8 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
         }.getOrElse(Iterator.empty)
       } else {
         (optNumericRange, optStringRange) match {
-          case (Some(numericRange), None) => indexSeekByNumericalRange(index, numericRange)
-          case (None, Some(stringRange)) => indexSeekByStringRange(index, stringRange)
+          case (Some(numericRange), None) => indexSeekByNumericalRange(index, numericRange, ordered)
+          case (None, Some(stringRange)) => indexSeekByStringRange(index, stringRange, ordered)
 
           case (Some(numericRange), Some(stringRange)) =>
             // Consider MATCH (n:Person) WHERE n.prop < 1 AND n.prop > "London":
@@ -173,8 +222,8 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
             //
             // Below we simulate this behaviour:
             //
-            if (indexSeekByNumericalRange( index, numericRange ).isEmpty
-                || indexSeekByStringRange(index, stringRange).isEmpty) {
+            if (indexSeekByNumericalRange( index, numericRange, ordered ).isEmpty
+                || indexSeekByStringRange(index, stringRange, ordered).isEmpty) {
               Iterator.empty
             } else {
               throw throw new IllegalArgumentException(s"Cannot compare a property against both numbers and strings. They are incomparable.")
@@ -195,25 +244,27 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     JavaConversionSupport.mapToScalaENFXSafe(indexedNodes)(nodeOps.getById)
   }
 
-  private def indexSeekByNumericalRange(index: IndexDescriptor, range: InequalitySeekRange[Number]): scala.Iterator[Node] = {
+  private def indexSeekByNumericalRange(index: IndexDescriptor, range: InequalitySeekRange[Number], ordered: Boolean): scala.Iterator[Node] = {
     val readOps = statement.readOperations()
+    val seek: (Number, Boolean, Number, Boolean) => PrimitiveLongIterator =
+      if (ordered) readOps.nodesGetFromIndexRangeSeekByNumberInOrder(index, _, _, _, _)
+      else readOps.nodesGetFromIndexRangeSeekByNumber(index, _, _, _, _)
     val matchingNodes: PrimitiveLongIterator = (range match {
 
       case rangeLessThan: RangeLessThan[Number] =>
         rangeLessThan.limit(BY_NUMBER).map { limit =>
-          readOps.nodesGetFromIndexRangeSeekByNumber( index, null, false, limit.endPoint, limit.isInclusive )
+          seek( null, false, limit.endPoint, limit.isInclusive )
         }
 
       case rangeGreaterThan: RangeGreaterThan[Number] =>
         rangeGreaterThan.limit(BY_NUMBER).map { limit =>
-          readOps.nodesGetFromIndexRangeSeekByNumber( index, limit.endPoint, limit.isInclusive, null, false )
+          seek( limit.endPoint, limit.isInclusive, null, false )
         }
 
       case RangeBetween(rangeGreaterThan, rangeLessThan) =>
         rangeGreaterThan.limit(BY_NUMBER).flatMap { greaterThanLimit =>
           rangeLessThan.limit(BY_NUMBER).map { lessThanLimit =>
-            readOps.nodesGetFromIndexRangeSeekByNumber(
-              index,
+            seek(
               greaterThanLimit.endPoint, greaterThanLimit.isInclusive,
               lessThanLimit.endPoint, lessThanLimit.isInclusive )
           }
@@ -222,26 +273,27 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     JavaConversionSupport.mapToScalaENFXSafe(matchingNodes)(nodeOps.getById)
   }
 
-  private def indexSeekByStringRange(index: IndexDescriptor, range: InequalitySeekRange[String]): scala.Iterator[Node] = {
+  private def indexSeekByStringRange(index: IndexDescriptor, range: InequalitySeekRange[String], ordered: Boolean): scala.Iterator[Node] = {
     val readOps = statement.readOperations()
-    val propertyKeyId = index.getPropertyKeyId
+    val seek: (String, Boolean, String, Boolean) => PrimitiveLongIterator =
+      if (ordered) readOps.nodesGetFromIndexRangeSeekByStringInOrder(index, _, _, _, _)
+      else readOps.nodesGetFromIndexRangeSeekByString(index, _, _, _, _)
     val matchingNodes: PrimitiveLongIterator = range match {
 
       case rangeLessThan: RangeLessThan[String] =>
         rangeLessThan.limit(BY_STRING).map { limit =>
-          readOps.nodesGetFromIndexRangeSeekByString( index, null, false, limit.endPoint.asInstanceOf[String], limit.isInclusive )
+          seek( null, false, limit.endPoint.asInstanceOf[String], limit.isInclusive )
         }.getOrElse(EMPTY_PRIMITIVE_LONG_COLLECTION.iterator)
 
       case rangeGreaterThan: RangeGreaterThan[String] =>
         rangeGreaterThan.limit(BY_STRING).map { limit =>
-          readOps.nodesGetFromIndexRangeSeekByString( index, limit.endPoint.asInstanceOf[String], limit.isInclusive, null, false )
+          seek( limit.endPoint.asInstanceOf[String], limit.isInclusive, null, false )
         }.getOrElse(EMPTY_PRIMITIVE_LONG_COLLECTION.iterator)
 
       case RangeBetween(rangeGreaterThan, rangeLessThan) =>
         rangeGreaterThan.limit(BY_STRING).flatMap { greaterThanLimit =>
           rangeLessThan.limit(BY_STRING).map { lessThanLimit =>
-            readOps.nodesGetFromIndexRangeSeekByString(
-              index,
+            seek(
               greaterThanLimit.endPoint.asInstanceOf[String], greaterThanLimit.isInclusive,
               lessThanLimit.endPoint.asInstanceOf[String], lessThanLimit.isInclusive )
           }
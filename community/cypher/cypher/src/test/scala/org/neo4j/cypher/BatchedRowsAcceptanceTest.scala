@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+
+class BatchedRowsAcceptanceTest extends ExecutionEngineFunSuite {
+
+  override def databaseConfig() = super.databaseConfig() + (GraphDatabaseSettings.cypher_batched_rows.name() -> "true")
+
+  override protected def initTest() {
+    super.initTest()
+    execute("UNWIND range(0, 1499) AS i CREATE (:A {v: i})-[:R]->(:B {v: i % 10})-[:S]->(:C {v: i % 3})")
+  }
+
+  test("should expand, filter and project in batches") {
+    shouldMatchRulePlanner("MATCH (a:A)-[r:R]->(b) WHERE b.v > 6 RETURN a.v, b.v, id(r)", 450)
+  }
+
+  test("should expand over several steps in batches") {
+    shouldMatchRulePlanner("MATCH (a:A)-->(b)-->(c) WHERE c.v = 1 AND a.v < 1000 RETURN a.v AS x, c.v AS y", 333)
+  }
+
+  test("should join in batches") {
+    shouldMatchRulePlanner("MATCH (a:A)-->(b:B)-->(c:C) USING JOIN ON b WHERE a.v < 20 RETURN a.v, b.v, c.v", 20)
+  }
+
+  test("should use the arguments of an apply") {
+    shouldMatchRulePlanner("MATCH (a:A) WHERE a.v < 5 WITH a MATCH (a)-->(b)-->(c) RETURN a.v, c.v", 5)
+  }
+
+  private def shouldMatchRulePlanner(query: String, rows: Int) {
+    val batched = execute(s"CYPHER planner=cost $query").toList
+    val rule = execute(s"CYPHER planner=rule $query").toList
+
+    batched should have size rows
+    batched.toSet should equal(rule.toSet)
+  }
+}
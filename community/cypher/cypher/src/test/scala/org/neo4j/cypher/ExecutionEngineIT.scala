@@ -19,7 +19,7 @@
  */
 package org.neo4j.cypher
 
-import org.neo4j.cypher.internal.compiler.v2_3.CostBasedPlannerName
+import org.neo4j.cypher.internal.compiler.v2_3.{CostBasedPlannerName, IDPPlannerName}
 import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
 import org.neo4j.graphdb.GraphDatabaseService
 import org.neo4j.graphdb.Result.{ResultRow, ResultVisitor}
@@ -133,6 +133,31 @@ class ExecutionEngineIT extends CypherFunSuite {
     }
   }
 
+  test("should report the time spent in each planning phase") {
+    //given
+    val db = new TestGraphDatabaseFactory().newImpermanentDatabase()
+
+    //when
+    val plan = db.planDescriptionForQuery("PROFILE MATCH (a)-->(b)-->(c) RETURN a")
+
+    //then
+    val phases = plan.getArguments.get("planning-time").asInstanceOf[java.util.Map[String, Any]]
+    phases.keySet() should contain allOf("parsing", "semantic_check", "ast_rewrite", "logical_planning", "pipe_building")
+  }
+
+  test("should plan with a time limit on the IDP planner") {
+    //given
+    val db = new TestGraphDatabaseFactory()
+      .newImpermanentDatabaseBuilder()
+      .setConfig(GraphDatabaseSettings.cypher_idp_time_limit, "0ms").newGraphDatabase()
+
+    //when
+    val plan = db.planDescriptionForQuery("PROFILE MATCH (a)-->(b)-->(c)-->(d)-->(e) RETURN a")
+
+    //then
+    plan.getArguments.get("planner-impl") should equal(IDPPlannerName.name)
+  }
+
   test("should not leak transaction when closing the result for a query") {
     //given
     val db = new TestGraphDatabaseFactory().newImpermanentDatabase()
@@ -153,6 +153,42 @@ class IndexUsageAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTe
     result.executionPlanDescription().toString should include("NodeIndexSeek")
   }
 
+  test("should return index range seek results in property order without sorting") {
+    // Given
+    graph.createIndex("Person", "age")
+    val people = Seq(42, 7, 19, 3, 88, 23).map(age => age -> createLabeledNode(Map("age" -> age), "Person")).toMap
+
+    // When
+    val result = executeWithCostPlannerOnly(
+      "MATCH (p:Person) USING INDEX p:Person(age) WHERE p.age > 5 RETURN p ORDER BY p.age LIMIT 3")
+
+    // Then
+    result.toList should equal(List(Map("p" -> people(7)), Map("p" -> people(19)), Map("p" -> people(23))))
+    val plan = result.executionPlanDescription().toString
+    plan should include("NodeIndexSeekByRange")
+    plan should not include "Top"
+    plan should not include "Sort"
+  }
+
+  test("should merge transaction state into ordered index range seeks") {
+    // Given
+    graph.createIndex("Person", "name")
+    val bob = createLabeledNode(Map("name" -> "Bob"), "Person")
+    val dave = createLabeledNode(Map("name" -> "Dave"), "Person")
+
+    graph.inTx {
+      val carol = createLabeledNode(Map("name" -> "Carol"), "Person")
+      val anna = createLabeledNode(Map("name" -> "Anna"), "Person")
+
+      // When
+      val result = executeWithCostPlannerOnly(
+        "MATCH (p:Person) USING INDEX p:Person(name) WHERE p.name >= 'B' RETURN p ORDER BY p.name")
+
+      // Then
+      result.toList should equal(List(Map("p" -> bob), Map("p" -> carol), Map("p" -> dave)))
+    }
+  }
+
   private def setUpDatabaseForTests() {
     executeWithRulePlanner(
       """CREATE (architect:Matrix { name:'The Architect' }),
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.cypher.internal.compiler.v2_3.notification.RuntimeUnsupportedNotification
+
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.duration._
+import scala.concurrent.{Await, Future}
+
+class ParallelRuntimeAcceptanceTest extends ExecutionEngineFunSuite {
+
+  override protected def initTest() {
+    super.initTest()
+    execute("UNWIND range(0, 4999) AS i CREATE (p:Person {age: i % 50, city: 'city' + (i % 7)})-[:LIVES_IN]->(:Place {id: i % 3})")
+  }
+
+  test("should aggregate in parallel like the interpreted runtime does") {
+    val query = "MATCH (p:Person)-[:LIVES_IN]->(c:Place) WHERE p.age > 10 RETURN p.city, c.id, count(*), sum(p.age), min(p.age), max(p.age)"
+
+    val parallel = execute(s"CYPHER runtime=parallel $query").toSet
+    val interpreted = execute(s"CYPHER runtime=interpreted $query").toSet
+
+    parallel should have size 21
+    parallel should equal(interpreted)
+  }
+
+  test("should count all nodes in parallel") {
+    execute("CYPHER runtime=parallel MATCH (n) RETURN count(*) AS c").toList should equal(List(Map("c" -> 10000)))
+  }
+
+  test("should run several parallel queries at once") {
+    val queries = (1 to 2).map { _ =>
+      Future {
+        execute("CYPHER runtime=parallel MATCH (p:Person) WHERE p.age > 10 RETURN count(*) AS c").toList
+      }
+    }
+
+    queries.map(Await.result(_, 1.minute)) should equal(Seq.fill(2)(List(Map("c" -> 3900))))
+  }
+
+  test("should return distinct rows in parallel") {
+    val parallel = execute("CYPHER runtime=parallel MATCH (p:Person) RETURN DISTINCT p.city").toList
+    val interpreted = execute("CYPHER runtime=interpreted MATCH (p:Person) RETURN DISTINCT p.city").toList
+
+    parallel should have size 7
+    parallel.toSet should equal(interpreted.toSet)
+  }
+
+  test("should see changes of its own transaction") {
+    graph.inTx {
+      execute("CREATE (:Person {age: 100})")
+      execute("CYPHER runtime=parallel MATCH (p:Person) RETURN count(*) AS c").toList should equal(List(Map("c" -> 5001)))
+    }
+  }
+
+  test("should warn when a query cannot run in parallel") {
+    val result = execute("EXPLAIN CYPHER runtime=parallel MATCH (p:Person) RETURN p.age, collect(p.city)")
+
+    result.notifications should contain(RuntimeUnsupportedNotification)
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+import org.neo4j.cypher.internal.QueryCacheFile
+import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
+import org.neo4j.cypher.javacompat.internal.ServerExecutionEngine
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.io.fs.FileUtils
+import org.neo4j.kernel.GraphDatabaseAPI
+import org.neo4j.kernel.impl.query.{QueryExecutionEngine, QueryPlanCacheMonitor}
+import org.neo4j.kernel.monitoring.Monitors
+import org.neo4j.test.TestGraphDatabaseFactory
+
+import scala.collection.mutable
+
+class QueryCacheWarmUpTest extends CypherFunSuite {
+
+  private val storeDir = new File("target/query-cache-warmup")
+
+  override protected def beforeEach() {
+    super.beforeEach()
+    FileUtils.deleteRecursively(storeDir)
+  }
+
+  test("plans the cached queries again after a restart") {
+    val query = "MATCH (n:Person) RETURN n"
+    withDatabase() { db =>
+      db.execute(query).resultAsString()
+    }
+
+    new QueryCacheFile(new File(storeDir, QueryCacheFile.FILE_NAME)).read() should equal(Seq(s"CYPHER 2.3 $query"))
+
+    withDatabase() { db =>
+      engine(db).awaitQueryCacheWarmUp(1, TimeUnit.MINUTES) should equal(true)
+      val listener = recordCacheEvents(db)
+
+      db.execute(query).resultAsString()
+
+      listener.trace should equal(List(s"cacheHit: CYPHER 2.3 $query", s"cacheStalenessCheck: CYPHER 2.3 $query false"))
+    }
+  }
+
+  test("does not save the cached queries when warm-up is disabled") {
+    withDatabase(warmUp = false) { db =>
+      db.execute("MATCH (n) RETURN n").resultAsString()
+      engine(db).awaitQueryCacheWarmUp(0, TimeUnit.SECONDS) should equal(true)
+    }
+
+    new File(storeDir, QueryCacheFile.FILE_NAME).exists() should equal(false)
+  }
+
+  test("reports evictions from the plan cache") {
+    withDatabase(cacheSize = 1) { db =>
+      val listener = recordCacheEvents(db)
+
+      db.execute("MATCH (n) RETURN n").resultAsString()
+      db.execute("MATCH (n) RETURN count(n)").resultAsString()
+
+      listener.trace should contain("cacheEviction: CYPHER 2.3 MATCH (n) RETURN n")
+    }
+  }
+
+  private def withDatabase(warmUp: Boolean = true, cacheSize: Int = 1000)(f: GraphDatabaseAPI => Unit) {
+    val db = new TestGraphDatabaseFactory()
+      .newEmbeddedDatabaseBuilder(storeDir.getPath)
+      .setConfig(GraphDatabaseSettings.query_cache_warmup, warmUp.toString)
+      .setConfig(GraphDatabaseSettings.query_cache_size, cacheSize.toString)
+      .newGraphDatabase().asInstanceOf[GraphDatabaseAPI]
+    try {
+      f(db)
+    } finally {
+      db.shutdown()
+    }
+  }
+
+  private def engine(db: GraphDatabaseAPI) =
+    db.getDependencyResolver.resolveDependency(classOf[QueryExecutionEngine]).asInstanceOf[ServerExecutionEngine]
+
+  private def recordCacheEvents(db: GraphDatabaseAPI) = {
+    val listener = new LoggingQueryPlanCacheListener
+    db.getDependencyResolver.resolveDependency(classOf[Monitors]).addMonitorListener(listener)
+    listener
+  }
+
+  private class LoggingQueryPlanCacheListener extends QueryPlanCacheMonitor {
+    private val log: mutable.Builder[String, List[String]] = List.newBuilder
+
+    def trace = log.result()
+
+    def cacheHit(query: String) {
+      log += s"cacheHit: $query"
+    }
+
+    def cacheMiss(query: String) {
+      log += s"cacheMiss: $query"
+    }
+
+    def cacheEviction(query: String) {
+      log += s"cacheEviction: $query"
+    }
+
+    def cacheStalenessCheck(query: String, stale: Boolean) {
+      log += s"cacheStalenessCheck: $query $stale"
+    }
+
+    def cacheFlush() {
+      log += "cacheFlush"
+    }
+
+    def cacheWarmUp(query: String) {
+      log += s"cacheWarmUp: $query"
+    }
+  }
+}
@@ -134,6 +134,22 @@ class RootPlanAcceptanceTest extends ExecutionEngineFunSuite {
       .shouldHavePlanner(CostBasedPlannerName.default)
   }
 
+  test("query that should go through the parallel runtime") {
+    given("MATCH n RETURN count(*)")
+      .withCypherVersion(CypherVersion.v2_3)
+      .withRuntime(ParallelRuntimeName)
+      .shouldHaveCypherVersion(CypherVersion.v2_3)
+      .shouldHaveRuntime(ParallelRuntimeName)
+  }
+
+  test("query that lacks support from the parallel runtime") {
+    given("MATCH n RETURN n")
+      .withCypherVersion(CypherVersion.v2_3)
+      .withRuntime(ParallelRuntimeName)
+      .shouldHaveCypherVersion(CypherVersion.v2_3)
+      .shouldHaveRuntime(InterpretedRuntimeName)
+  }
+
   test("AllNodesScan should be the only child of the plan") {
     val description = given("match n return n").planDescription
     var children = description.getChildren
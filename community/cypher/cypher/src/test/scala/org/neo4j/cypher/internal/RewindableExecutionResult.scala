@@ -50,7 +50,7 @@ object RewindableExecutionResult {
     }
 
   def apply(in: ExecutionResult): InternalExecutionResult = in match {
-    case e@ExecutionResultWrapperFor2_3(inner, _, _) => exceptionHandlerFor2_3
+    case e@ExecutionResultWrapperFor2_3(inner, _, _, _) => exceptionHandlerFor2_3
       .runSafely(apply(inner, e.planner, e.runtime))
 
     case _ => throw new InternalException("Can't get the internal execution result of an older compiler")
@@ -27,7 +27,7 @@ import org.neo4j.graphdb.{Direction, Node, Path}
 
 import scala.collection.mutable.Map
 
-class AllShortestPathsPipeTest extends GraphDatabaseFunSuite {
+class AllShortestPathsPipeTest extends GraphDatabaseFunSuite with QueryStateTestSupport {
 
   private implicit val monitor = mock[PipeMonitor]
 
@@ -36,7 +36,7 @@ class AllShortestPathsPipeTest extends GraphDatabaseFunSuite {
 
     val pipe = new ShortestPathPipe(source, ShortestPath("p", SingleNode("a"), SingleNode("b"), Seq(), Direction.BOTH, false,
       Some(15), single = false, relIterator = None))()
-    graph.inTx(pipe.createResults(QueryStateHelper.empty).toList.map(m => m("p").asInstanceOf[Path]))
+    withQueryState(state => pipe.createResults(state).toList.map(m => m("p").asInstanceOf[Path]))
   }
 
   test("should return the shortest path between two nodes") {
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_3
+
+import org.neo4j.cypher.GraphDatabaseFunSuite
+import org.neo4j.cypher.internal.compiler.v2_3.commands.expressions.BidirectionalShortestPathSearch
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.{NullPipeDecorator, QueryState, WorkerPool}
+import org.neo4j.graphdb.{Direction, DynamicRelationshipType, Node, Path}
+
+import scala.collection.JavaConverters._
+
+class BidirectionalShortestPathSearchTest extends GraphDatabaseFunSuite with QueryStateTestSupport {
+
+  test("should find a shortest path along the direction of the relationships") {
+    val a = createNode("a")
+    val b = createNode("b")
+    val c = createNode("c")
+    relate(a, b)
+    relate(b, c)
+    relate(a, createNode("d"))
+
+    nodesOf(find(a, c, Direction.OUTGOING, single = true)) should equal(List(List(a, b, c)))
+    find(a, c, Direction.INCOMING, single = true) shouldBe empty
+  }
+
+  test("should find all shortest paths") {
+    val (a, b, c, d) = createDiamond()
+    relate(a, createNode("e"), createNode("f"), d)
+
+    nodesOf(find(a, d, Direction.BOTH, single = false)).toSet should equal(Set(List(a, b, d), List(a, c, d)))
+  }
+
+  test("should find a path for every relationship between the same nodes") {
+    val a = createNode("a")
+    val b = createNode("b")
+    val r1 = relate(a, b)
+    val r2 = relate(b, a)
+
+    withQueryState { implicit state =>
+      val search = new BidirectionalShortestPathSearch(Direction.BOTH, None, 15, single = false)
+      search.find(a, b).map(_.relationships().asScala.toList).toSet should equal(Set(List(r1), List(r2)))
+    }
+  }
+
+  test("should not find paths longer than the max depth") {
+    val a = createNode("a")
+    val b = createNode("b")
+    val c = createNode("c")
+    relate(a, b, c)
+
+    find(a, c, Direction.OUTGOING, single = true, maxDepth = 1) shouldBe empty
+    find(a, c, Direction.OUTGOING, single = true, maxDepth = 2) should have size 1
+  }
+
+  test("should only follow relationships of the given types") {
+    val a = createNode("a")
+    val b = createNode("b")
+    val c = createNode("c")
+    relate(a, c, "SHORTCUT")
+    relate(a, b, "STEP")
+    relate(b, c, "STEP")
+
+    val stepPaths = withQueryState { implicit state =>
+      val step = state.query.getOptRelTypeId("STEP").toSeq
+      nodesOf(new BidirectionalShortestPathSearch(Direction.OUTGOING, Some(step), 15, single = false).find(a, c))
+    }
+
+    stepPaths should equal(List(List(a, b, c)))
+  }
+
+  test("should return a path of length zero between a node and itself") {
+    val a = createNode("a")
+
+    nodesOf(find(a, a, Direction.BOTH, single = true)) should equal(List(List(a)))
+  }
+
+  test("should expand large frontiers on several workers") {
+    // (s) --> (ai) --> (bi) --> (e), with both frontiers larger than what the calling thread expands on its own
+    val width = BidirectionalShortestPathSearch.PARALLEL_FRONTIER_SIZE + 100
+    val (s, e) = graph.inTx {
+      val rel = DynamicRelationshipType.withName("REL")
+      val s = graph.createNode()
+      val e = graph.createNode()
+      (0 until width).foreach { _ =>
+        val a = graph.createNode()
+        val b = graph.createNode()
+        s.createRelationshipTo(a, rel)
+        a.createRelationshipTo(b, rel)
+        b.createRelationshipTo(e, rel)
+      }
+      (s, e)
+    }
+
+    val workers = Some(new WorkerPool(4))
+    val (shortestPath, allShortestPaths) = withQueryState { state =>
+      implicit val parallelState = new QueryState(state.query, null, Map.empty, NullPipeDecorator, workers = workers)
+      (new BidirectionalShortestPathSearch(Direction.OUTGOING, None, 15, single = true).find(s, e).toList,
+       new BidirectionalShortestPathSearch(Direction.OUTGOING, None, 15, single = false).find(s, e).toList)
+    }
+
+    shortestPath.map(_.length()) should equal(List(3))
+    allShortestPaths should have size width
+    allShortestPaths.map(_.nodes().asScala.toList).toSet should have size width
+  }
+
+  test("should find every way to a node reached from several parts of a large frontier") {
+    // (s) --> (ai) --> (m) --> (e) <-- (ci), where every part of the frontier of ai reaches m
+    val width = BidirectionalShortestPathSearch.PARALLEL_FRONTIER_SIZE * 4
+    val (s, e) = graph.inTx {
+      val rel = DynamicRelationshipType.withName("REL")
+      val s = graph.createNode()
+      val m = graph.createNode()
+      val e = graph.createNode()
+      m.createRelationshipTo(e, rel)
+      (0 until width).foreach { _ =>
+        val a = graph.createNode()
+        s.createRelationshipTo(a, rel)
+        a.createRelationshipTo(m, rel)
+        graph.createNode().createRelationshipTo(e, rel)
+      }
+      (s, e)
+    }
+
+    val workers = Some(new WorkerPool(4))
+    val paths = withQueryState { state =>
+      implicit val parallelState = new QueryState(state.query, null, Map.empty, NullPipeDecorator, workers = workers)
+      new BidirectionalShortestPathSearch(Direction.OUTGOING, None, 15, single = false).find(s, e).toList
+    }
+
+    paths should have size width
+    paths.map(_.nodes().asScala.toList).toSet should have size width
+  }
+
+  private def find(start: Node, end: Node, dir: Direction, single: Boolean, maxDepth: Int = 15): List[Path] =
+    withQueryState { implicit state =>
+      new BidirectionalShortestPathSearch(dir, None, maxDepth, single).find(start, end).toList
+    }
+
+  private def nodesOf(paths: Seq[Path]): List[List[Node]] = paths.map(_.nodes().asScala.toList).toList
+}
@@ -125,6 +125,8 @@ class SnitchingQueryContext extends QueryContext {
 
   def indexSeekByRange(index: IndexDescriptor, value: Any): Iterator[Node] = ???
 
+  def indexSeekByRangeInOrder(index: IndexDescriptor, value: Any): Iterator[Node] = ???
+
   def indexScan(index: IndexDescriptor): Iterator[Node] = ???
 
   def getNodesByLabel(id: Int): Iterator[Node] = ???
@@ -155,6 +157,10 @@ class SnitchingQueryContext extends QueryContext {
 
   def withAnyOpenQueryContext[T](work: (QueryContext) => T): T = ???
 
+  def withWorkerQueryContext[T](work: (QueryContext) => T): T = ???
+
+  def hasUncommittedChanges: Boolean = ???
+
   def uniqueIndexSeek(index: IndexDescriptor, value: Any): Option[Node] = ???
 
   def commitAndRestartTx() { ??? }
@@ -171,6 +177,8 @@ class SnitchingQueryContext extends QueryContext {
 
   def getRelationshipsForIds(node: Node, dir: Direction, types: Option[Seq[Int]]): Iterator[Relationship] = ???
 
+  def foreachRelationship(node: Long, dir: Direction, types: Option[Seq[Int]])(f: (Long, Long) => Unit) = ???
+
   def nodeGetDegree(node: Long, dir: Direction): Int = ???
 
   def nodeGetDegree(node: Long, dir: Direction, relTypeId: Int): Int = ???
@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.compiler.v2_3.pipes.{FakePipe, PipeMonitor, Sho
 import org.neo4j.cypher.internal.compiler.v2_3.symbols._
 import org.neo4j.graphdb.{Direction, Node, Path}
 
-class SingleShortestPathPipeTest extends GraphDatabaseFunSuite {
+class SingleShortestPathPipeTest extends GraphDatabaseFunSuite with QueryStateTestSupport {
   private implicit val monitor = mock[PipeMonitor]
   private val path = ShortestPath("p", SingleNode("a"), SingleNode("b"), Seq(), Direction.BOTH, false, Some(15), single = true, relIterator = None)
 
@@ -49,6 +49,6 @@ class SingleShortestPathPipeTest extends GraphDatabaseFunSuite {
     val source = new FakePipe(List(Map("a" -> a, "b" -> b)), "a"->CTNode, "b"->CTNode)
 
     val pipe = new ShortestPathPipe(source, path)()
-    graph.inTx(pipe.createResults(QueryStateHelper.empty).next()("p").asInstanceOf[Path])
+    withQueryState(state => pipe.createResults(state).next()("p").asInstanceOf[Path])
   }
 }
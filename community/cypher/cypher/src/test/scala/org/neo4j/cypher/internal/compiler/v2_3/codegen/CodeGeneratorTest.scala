@@ -27,7 +27,8 @@ import org.neo4j.collection.primitive.PrimitiveLongIterator
 import org.neo4j.cypher.internal.compiler.v2_3.ast._
 import org.neo4j.cypher.internal.compiler.v2_3.executionplan.ExecutionPlanBuilder.tracer
 import org.neo4j.cypher.internal.compiler.v2_3.executionplan.InternalExecutionResult
-import org.neo4j.cypher.internal.compiler.v2_3.pipes.LazyLabel
+import org.neo4j.cypher.internal.compiler.v2_3.pipes.{Descending, LazyLabel}
+import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.plans
 import org.neo4j.cypher.internal.compiler.v2_3.planner.logical.plans._
 import org.neo4j.cypher.internal.compiler.v2_3.planner.{LogicalPlanningTestSupport, SemanticTable}
 import org.neo4j.cypher.internal.compiler.v2_3.test_helpers.CypherFunSuite
@@ -822,6 +823,115 @@ class CodeGeneratorTest extends CypherFunSuite with LogicalPlanningTestSupport {
     intercept[ParameterNotFoundException](getResult(compiled, "a"))
   }
 
+  test("count grouped by node") { // MATCH (a)-->(b) RETURN b, count(*) AS c
+    val expand = Expand(AllNodesScan(IdName("a"), Set.empty)(solved), IdName("a"), Direction.OUTGOING, Seq.empty, IdName("b"), IdName("r1"), ExpandAll)(solved)
+    val plan = ProduceResult(List("b", "c"), Aggregation(expand, Map("b" -> ident("b")), Map("c" -> CountStar()(pos)))(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    val result = getResult(compiled, "b", "c")
+    result.toSet should equal(Set(
+      Map("b" -> dNode, "c" -> 3),
+      Map("b" -> eNode, "c" -> 2),
+      Map("b" -> hNode, "c" -> 1),
+      Map("b" -> iNode, "c" -> 1)))
+  }
+
+  test("aggregation without grouping keys over no input") { // MATCH (a:T1)<--(b) RETURN count(*) AS c, collect(b) AS l
+    val expand = Expand(NodeByLabelScan(IdName("a"), LazyLabel("T1"), Set.empty)(solved), IdName("a"), Direction.INCOMING, Seq.empty, IdName("b"), IdName("r1"), ExpandAll)(solved)
+    val aggregations = Map("c" -> CountStar()(pos), "l" -> aggregate("collect", ident("b")))
+    val plan = ProduceResult(List("c", "l"), Aggregation(expand, Map.empty, aggregations)(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    val result = getResult(compiled, "c", "l")
+    result should equal(List(Map("c" -> 0, "l" -> List.empty)))
+  }
+
+  test("sum, min, max and collect over an unwound collection") { // UNWIND [3, 1, 2] AS x RETURN sum(x), min(x), max(x), collect(x)
+    val aggregations = Map(
+      "s" -> aggregate("sum", ident("x")),
+      "mn" -> aggregate("min", ident("x")),
+      "mx" -> aggregate("max", ident("x")),
+      "c" -> aggregate("collect", ident("x")))
+    val plan = ProduceResult(List("s", "mn", "mx", "c"), Aggregation(unwind(3, 1, 2), Map.empty, aggregations)(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    val result = getResult(compiled, "s", "mn", "mx", "c")
+    result should equal(List(Map("s" -> 6, "mn" -> 1, "mx" -> 3, "c" -> List(3, 1, 2))))
+  }
+
+  test("unwind") { // UNWIND [1, 2, 3] AS x RETURN x
+    val plan = ProduceResult(List("x"), unwind(1, 2, 3))
+
+    val compiled = compileAndExecute(plan)
+
+    getResult(compiled, "x") should equal(List(Map("x" -> 1), Map("x" -> 2), Map("x" -> 3)))
+  }
+
+  test("sort") { // UNWIND [2, 3, 1] AS x RETURN x ORDER BY x DESC
+    val plan = ProduceResult(List("x"), Sort(unwind(2, 3, 1), Seq(Descending("x")))(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    getResult(compiled, "x") should equal(List(Map("x" -> 3), Map("x" -> 2), Map("x" -> 1)))
+  }
+
+  test("sorted limit") { // UNWIND [2, 3, 1, 5, 4] AS x RETURN x ORDER BY x LIMIT 2
+    val plan = ProduceResult(List("x"), SortedLimit(unwind(2, 3, 1, 5, 4), literalInt(2), Seq(AscSortItem(ident("x"))(pos)))(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    getResult(compiled, "x") should equal(List(Map("x" -> 1), Map("x" -> 2)))
+  }
+
+  test("sort keeps nodes passed through it") { // MATCH (a)-->(b) WITH b, count(*) AS c RETURN b ORDER BY c
+    val expand = Expand(AllNodesScan(IdName("a"), Set.empty)(solved), IdName("a"), Direction.OUTGOING, Seq.empty, IdName("b"), IdName("r1"), ExpandAll)(solved)
+    val aggregation = Aggregation(expand, Map("b" -> ident("b")), Map("c" -> CountStar()(pos)))(solved)
+    val plan = ProduceResult(List("b"), Sort(aggregation, Seq(Descending("c")))(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    getNodesFromResult(compiled, "b").take(2) should equal(List(Map("b" -> dNode), Map("b" -> eNode)))
+  }
+
+  test("skip") { // MATCH a RETURN a SKIP 7
+    val plan = ProduceResult(List("a"), plans.Skip(AllNodesScan(IdName("a"), Set.empty)(solved), literalInt(7))(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    getNodesFromResult(compiled, "a") should equal(List(Map("a" -> hNode), Map("a" -> iNode)))
+  }
+
+  test("distinct") { // MATCH (a)-->(b) RETURN DISTINCT b
+    val expand = Expand(AllNodesScan(IdName("a"), Set.empty)(solved), IdName("a"), Direction.OUTGOING, Seq.empty, IdName("b"), IdName("r1"), ExpandAll)(solved)
+    val plan = ProduceResult(List("b"), Aggregation(expand, Map("b" -> ident("b")), Map.empty)(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    getNodesFromResult(compiled, "b") should equal(List(
+      Map("b" -> dNode),
+      Map("b" -> eNode),
+      Map("b" -> iNode),
+      Map("b" -> hNode)))
+  }
+
+  test("var length expand") { // MATCH (a:T3)-[r*1..2]->(b) RETURN a, r, b
+    val plan = ProduceResult(List("a", "r", "b"),
+      VarExpand(NodeByLabelScan(IdName("a"), LazyLabel("T3"), Set.empty)(solved), IdName("a"), Direction.OUTGOING,
+        Direction.OUTGOING, Seq.empty, IdName("b"), IdName("r"), VarPatternLength(1, Some(2)))(solved))
+
+    val compiled = compileAndExecute(plan)
+
+    val result = getResult(compiled, "a", "r", "b")
+    result.toSet should equal(Set(
+      Map("a" -> hNode, "r" -> List(relMap(16L).relationship), "b" -> iNode),
+      Map("a" -> hNode, "r" -> List(relMap(16L).relationship, relMap(17L).relationship), "b" -> hNode),
+      Map("a" -> iNode, "r" -> List(relMap(17L).relationship), "b" -> hNode),
+      Map("a" -> iNode, "r" -> List(relMap(17L).relationship, relMap(16L).relationship), "b" -> iNode)))
+  }
+
   test("handle line breaks and double quotes in names") {
     //given
     val name = """{"a":
@@ -839,6 +949,14 @@ class CodeGeneratorTest extends CypherFunSuite with LogicalPlanningTestSupport {
     result.toSet should equal(Set(Map(name -> 1)))
   }
 
+  private def unwind(values: Int*) =
+    UnwindCollection(SingleRow()(solved), IdName("x"), Collection(values.map(literalInt))(pos))(solved)
+
+  private def literalInt(value: Int) = SignedDecimalIntegerLiteral(value.toString)(pos)
+
+  private def aggregate(name: String, argument: Expression) =
+    FunctionInvocation(FunctionName(name)(pos), distinct = false, IndexedSeq(argument))(pos)
+
   private def compile(plan: LogicalPlan) = {
     generator.generate(plan, newMockedPlanContext, Clock.SYSTEM_CLOCK, semanticTable, CostBasedPlannerName.default)
   }
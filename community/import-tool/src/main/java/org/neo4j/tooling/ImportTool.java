@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map.Entry;
@@ -38,6 +39,7 @@ import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.Version;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.logging.StoreLogService;
 import org.neo4j.kernel.impl.storemigration.FileOperation;
@@ -48,9 +50,13 @@ import org.neo4j.kernel.impl.util.Validator;
 import org.neo4j.kernel.impl.util.Validators;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.unsafe.impl.batchimport.BatchImporter;
+import org.neo4j.unsafe.impl.batchimport.ImportCheckpoint;
+import org.neo4j.unsafe.impl.batchimport.ImportMode;
 import org.neo4j.unsafe.impl.batchimport.ParallelBatchImporter;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.string.DuplicateInputIdException;
 import org.neo4j.unsafe.impl.batchimport.input.Input;
+import org.neo4j.unsafe.impl.batchimport.input.InputIndex;
 import org.neo4j.unsafe.impl.batchimport.input.InputNode;
 import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
 import org.neo4j.unsafe.impl.batchimport.input.MissingRelationshipDataException;
@@ -86,7 +92,8 @@ public class ImportTool
     {
         STORE_DIR( "into", null,
                 "<store-dir>",
-                "Database directory to import into. " + "Must not contain existing database." ),
+                "Database directory to import into. " + "Must not contain existing database, unless importing "
+                        + "with --incremental or --resume." ),
         NODE_DATA( "nodes", null,
                 "[:Label1:Label2] \"<file1>" + MULTI_FILE_DELIMITER + "<file2>" + MULTI_FILE_DELIMITER + "...\"",
                 "Node CSV header and data. Multiple files will be logically seen as one big file "
@@ -142,6 +149,13 @@ public class ImportTool
                         + ". There is a certain amount of minimum threads needed so for that reason there "
                         + "is no lower bound for this value. For optimal performance this value shouldn't be "
                         + "greater than the number of available processors." ),
+        MAX_MEMORY( "max-memory", null,
+                "<max memory for caches, e.g. 512M or 4G>",
+                "(advanced) Max amount of RAM used by the caches of the importer, f.ex. for mapping input ids "
+                        + "to node ids. Caches not fitting within it are memory-mapped from files in the store "
+                        + "directory instead, which makes it possible to import graphs bigger than the memory "
+                        + "of the machine, at the cost of disk I/O. Defaults to no limit, i.e. caches are placed "
+                        + "wherever they fit in memory." ),
         STACKTRACE( "stacktrace", null,
                 "<true/false>",
                 "Enable printing of error stack traces." ),
@@ -163,7 +177,37 @@ public class ImportTool
                         + "nodes within the same group having the same id, the first encountered will be imported "
                         + "whereas consecutive such nodes will be skipped. "
                         + "Skipped nodes will be logged"
-                        + ", containing at most number of entites specified by " + BAD_TOLERANCE.key() + "." );
+                        + ", containing at most number of entites specified by " + BAD_TOLERANCE.key() + "." ),
+        INDEX( "index", null,
+                "<Label>:<property>",
+                "Schema index to create on the imported nodes with the given label, for the given property. "
+                        + "The index is populated as the last step of the import and is online when the database "
+                        + "starts, instead of being populated by the database at first startup. "
+                        + "Multiple indexes can be specified in one import." ),
+        UNIQUE( "unique", null,
+                "<Label>:<property>",
+                "Uniqueness constraint to create on the imported nodes with the given label, for the given "
+                        + "property. Its index is populated like that of " + INDEX.argument() + ", and "
+                        + "the import fails if the imported values aren't unique. "
+                        + "Multiple constraints can be specified in one import." ),
+        INCREMENTAL( "incremental", Boolean.FALSE,
+                "<true/false>",
+                "(advanced) Whether or not to add the imported nodes and relationships to the existing "
+                        + "database in the store directory, which must not be in use while importing. Imported "
+                        + "relationships can refer to existing nodes by the values of their "
+                        + "--id-property property. Counts and indexes of the existing database are kept up to "
+                        + "date. A failed import leaves the database partially imported, so make a backup of "
+                        + "it first." ),
+        ID_PROPERTY( "id-property", null,
+                "<property key>",
+                "Property of existing nodes holding the ids that imported relationships refer to them by, "
+                        + "in the global id space, when importing with --incremental. "
+                        + "Not needed for id type " + IdType.ACTUAL + "." ),
+        RESUME( "resume", Boolean.FALSE,
+                "<true/false>",
+                "Whether or not to resume an import which failed, from the last checkpoint it made in the "
+                        + "store directory between its stages, instead of starting it over. The input and "
+                        + "options must be the same as those of the failed import." );
 
         private final String key;
         private final Object defaultValue;
@@ -270,20 +314,39 @@ public class ImportTool
         Collection<Option<File[]>> nodesFiles, relationshipsFiles;
         boolean enableStacktrace;
         Number processors = null;
+        NumberArrayFactory cacheFactory;
         Input input = null;
         int badTolerance;
         Charset inputEncoding;
         boolean skipBadRelationships, skipDuplicateNodes;
+        Collection<InputIndex> indexes;
+        ImportMode mode;
 
         try
         {
-            storeDir = args.interpretOption( Options.STORE_DIR.key(), Converters.<File>mandatory(),
-                    Converters.toFile(), Validators.DIRECTORY_IS_WRITABLE, Validators.CONTAINS_NO_EXISTING_DATABASE );
+            boolean incremental = args.getBoolean( Options.INCREMENTAL.key(),
+                    (Boolean) Options.INCREMENTAL.defaultValue(), true );
+            boolean resume = args.getBoolean( Options.RESUME.key(),
+                    (Boolean) Options.RESUME.defaultValue(), true );
+            storeDir = incremental || resume
+                    ? args.interpretOption( Options.STORE_DIR.key(), Converters.<File>mandatory(),
+                            Converters.toFile(), Validators.DIRECTORY_IS_WRITABLE )
+                    : args.interpretOption( Options.STORE_DIR.key(), Converters.<File>mandatory(),
+                            Converters.toFile(), Validators.DIRECTORY_IS_WRITABLE,
+                            Validators.CONTAINS_NO_EXISTING_DATABASE );
+            mode = resume ? ImportMode.RESUME
+                          : incremental ? ImportMode.incremental( args.get( Options.ID_PROPERTY.key(), null ) )
+                                        : ImportMode.NEW_STORE;
             nodesFiles = INPUT_FILES_EXTRACTOR.apply( args, Options.NODE_DATA.key() );
             relationshipsFiles = INPUT_FILES_EXTRACTOR.apply( args, Options.RELATIONSHIP_DATA.key() );
-            validateInputFiles( nodesFiles, relationshipsFiles );
+            validateInputFiles( nodesFiles, relationshipsFiles, incremental || resume );
             enableStacktrace = args.getBoolean( Options.STACKTRACE.key(), Boolean.FALSE, Boolean.TRUE );
             processors = args.getNumber( Options.PROCESSORS.key(), null );
+            String maxMemory = args.get( Options.MAX_MEMORY.key(), null );
+            cacheFactory = maxMemory != null
+                    ? new NumberArrayFactory.RamBudget( Config.parseLongWithUnit( maxMemory ),
+                            new NumberArrayFactory.MemoryMapped( storeDir ) )
+                    : NumberArrayFactory.AUTO;
             IdType idType = args.interpretOption( Options.ID_TYPE.key(),
                     withDefault( (IdType)Options.ID_TYPE.defaultValue() ), TO_ID_TYPE );
             badTolerance = args.getNumber( Options.BAD_TOLERANCE.key(),
@@ -293,11 +356,16 @@ public class ImportTool
                     (Boolean)Options.SKIP_BAD_RELATIONSHIPS.defaultValue(), true );
             skipDuplicateNodes = args.getBoolean( Options.SKIP_DUPLICATE_NODES.key(),
                     (Boolean)Options.SKIP_DUPLICATE_NODES.defaultValue(), true );
+            indexes = new ArrayList<>( args.interpretOptions( Options.INDEX.key(),
+                    Converters.<InputIndex>optional(), toIndex( false ) ) );
+            indexes.addAll( args.interpretOptions( Options.UNIQUE.key(),
+                    Converters.<InputIndex>optional(), toIndex( true ) ) );
             input = new CsvInput(
                     nodeData( inputEncoding, nodesFiles ), defaultFormatNodeFileHeader(),
                     relationshipData( inputEncoding, relationshipsFiles ), defaultFormatRelationshipFileHeader(),
                     idType, csvConfiguration( args, defaultSettingsSuitableForTests ),
-                    badCollector( badTolerance, collect( skipBadRelationships, skipDuplicateNodes ) ) );
+                    badCollector( badTolerance, collect( skipBadRelationships, skipDuplicateNodes ) ),
+                    cacheFactory );
         }
         catch ( IllegalArgumentException e )
         {
@@ -310,11 +378,12 @@ public class ImportTool
 
         life.start();
         org.neo4j.unsafe.impl.batchimport.Configuration configuration =
-                importConfiguration( processors, defaultSettingsSuitableForTests );
+                importConfiguration( processors, cacheFactory, defaultSettingsSuitableForTests );
         BatchImporter importer = new ParallelBatchImporter( storeDir,
                 configuration,
                 logService,
-                ExecutionMonitors.defaultVisible() );
+                ExecutionMonitors.defaultVisible(),
+                indexes, mode );
         printOverview( storeDir, nodesFiles, relationshipsFiles );
         boolean success = false;
         try
@@ -336,7 +405,17 @@ public class ImportTool
             }
 
             life.shutdown();
-            if ( !success )
+            if ( !success && (mode.isResume() || ImportCheckpoint.exists( fs, storeDir )) )
+            {
+                System.err.println( "The import into " + storeDir + " can be resumed from its last checkpoint "
+                        + "by running it again with the same input and " + Options.RESUME.argument() + " true" );
+            }
+            else if ( !success && mode.isIncremental() )
+            {
+                System.err.println( "The database in " + storeDir + " was partially imported into and "
+                        + "should be restored from backup" );
+            }
+            else if ( !success )
             {
                 try
                 {
@@ -401,7 +480,7 @@ public class ImportTool
     }
 
     private static void validateInputFiles( Collection<Option<File[]>> nodesFiles,
-            Collection<Option<File[]>> relationshipsFiles )
+            Collection<Option<File[]>> relationshipsFiles, boolean incremental )
     {
         if ( nodesFiles.isEmpty() )
         {
@@ -409,12 +488,16 @@ public class ImportTool
             {
                 throw new IllegalArgumentException( "No input specified, nothing to import" );
             }
+            if ( incremental )
+            {   // relationships between existing nodes
+                return;
+            }
             throw new IllegalArgumentException( "No node input specified, cannot import relationships without nodes" );
         }
     }
 
     private static org.neo4j.unsafe.impl.batchimport.Configuration importConfiguration( final Number processors,
-            final boolean defaultSettingsSuitableForTests )
+            final NumberArrayFactory cacheFactory, final boolean defaultSettingsSuitableForTests )
     {
         return new org.neo4j.unsafe.impl.batchimport.Configuration.Default()
         {
@@ -431,6 +514,18 @@ public class ImportTool
             {
                 return processors != null ? processors.intValue() : super.maxNumberOfProcessors();
             }
+
+            @Override
+            public boolean checkpoints()
+            {
+                return true;
+            }
+
+            @Override
+            public NumberArrayFactory cacheFactory()
+            {
+                return cacheFactory;
+            }
         };
     }
 
@@ -619,6 +714,26 @@ public class ImportTool
         }
     };
 
+    private static Function<String,InputIndex> toIndex( final boolean unique )
+    {
+        return new Function<String,InputIndex>()
+        {
+            @Override
+            public InputIndex apply( String from )
+            {
+                int colon = from.lastIndexOf( ':' );
+                if ( colon <= 0 || colon == from.length() - 1 )
+                {
+                    throw new IllegalArgumentException( "Expected <Label>:<property> but was '" + from + "'" );
+                }
+                String label = from.substring( 0, colon );
+                String propertyKey = from.substring( colon + 1 );
+                return unique ? InputIndex.uniquenessConstraint( label, propertyKey )
+                              : InputIndex.index( label, propertyKey );
+            }
+        };
+    }
+
     private static final Function<String,Character> DELIMITER_CONVERTER = new Function<String,Character>()
     {
         private final Function<String,Character> fallback = Converters.toCharacter();
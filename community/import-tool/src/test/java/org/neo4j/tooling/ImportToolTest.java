@@ -37,6 +37,7 @@ import java.util.UUID;
 import org.neo4j.csv.reader.IllegalMultilineFieldException;
 import org.neo4j.function.IntPredicate;
 import org.neo4j.function.Predicate;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.DynamicLabel;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
@@ -44,16 +45,24 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.schema.ConstraintDefinition;
+import org.neo4j.graphdb.schema.IndexDefinition;
+import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.helpers.collection.FilteringIterator;
 import org.neo4j.helpers.collection.IteratorUtil;
 import org.neo4j.helpers.collection.PrefetchingIterator;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileUtils;
 import org.neo4j.kernel.Version;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.index.IndexEntryConflictException;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 import org.neo4j.kernel.impl.util.Validator;
 import org.neo4j.kernel.impl.util.Validators;
 import org.neo4j.test.EmbeddedDatabaseRule;
 import org.neo4j.test.RandomRule;
 import org.neo4j.test.SuppressOutput;
+import org.neo4j.unsafe.impl.batchimport.ImportCheckpoint;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.string.DuplicateInputIdException;
 import org.neo4j.unsafe.impl.batchimport.input.InputException;
 import org.neo4j.unsafe.impl.batchimport.input.csv.Configuration;
@@ -81,6 +90,7 @@ import static org.neo4j.helpers.collection.Iterables.filter;
 import static org.neo4j.helpers.collection.IteratorUtil.count;
 import static org.neo4j.helpers.collection.IteratorUtil.single;
 import static org.neo4j.helpers.collection.IteratorUtil.singleOrNull;
+import static org.neo4j.kernel.api.ReadOperations.ANY_LABEL;
 import static org.neo4j.tooling.ImportTool.MULTI_FILE_DELIMITER;
 
 public class ImportToolTest
@@ -113,6 +123,24 @@ public class ImportToolTest
         verifyData();
     }
 
+    @Test
+    public void shouldImportWithCachesNotFittingWithinMaxMemory() throws Exception
+    {
+        // GIVEN
+        List<String> nodeIds = nodeIds();
+        Configuration config = Configuration.COMMAS;
+
+        // WHEN caches are placed in memory-mapped files, except for a tiny part
+        importTool(
+                "--into", dbRule.getStoreDirAbsolutePath(),
+                "--max-memory", "1k",
+                "--nodes", nodeData( true, config, nodeIds, alwaysTrue() ).getAbsolutePath(),
+                "--relationships", relationshipData( true, config, nodeIds, alwaysTrue(), true ).getAbsolutePath() );
+
+        // THEN
+        verifyData();
+    }
+
     @Test
     public void shouldImportWithHeadersBeingInSeparateFiles() throws Exception
     {
@@ -726,6 +754,127 @@ public class ImportToolTest
         }
     }
 
+    @Test
+    public void shouldCreateIndexesAndConstraintsWhichAreOnlineAfterImport() throws Exception
+    {
+        // GIVEN
+        File data = data( "id:ID,name,:LABEL", "1,Alice,Person", "2,Bob,Person", "3,Bob,Person", "4,Bob,Animal" );
+
+        // WHEN
+        importTool( "--into", dbRule.getStoreDirAbsolutePath(),
+                "--nodes", data.getAbsolutePath(),
+                "--index", "Person:name",
+                "--unique", "Person:id" );
+
+        // THEN
+        GraphDatabaseService db = dbRule.getGraphDatabaseService();
+        try ( Transaction tx = db.beginTx() )
+        {
+            List<IndexDefinition> indexes = IteratorUtil.asList( db.schema().getIndexes( label( "Person" ) ) );
+            assertEquals( 2, indexes.size() );
+            for ( IndexDefinition index : indexes )
+            {
+                assertEquals( Schema.IndexState.ONLINE, db.schema().getIndexState( index ) );
+            }
+            ConstraintDefinition constraint = single( db.schema().getConstraints( label( "Person" ) ) );
+            assertEquals( "id", single( constraint.getPropertyKeys() ) );
+
+            assertEquals( 2, count( db.findNodes( label( "Person" ), "name", "Bob" ) ) );
+            assertEquals( "Alice", db.findNode( label( "Person" ), "id", "1" ).getProperty( "name" ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldFailImportIfValuesViolateUniquenessConstraint() throws Exception
+    {
+        // GIVEN
+        File data = data( "id:ID,name,:LABEL", "1,Alice,Person", "2,Bob,Person", "3,Bob,Person" );
+
+        try
+        {
+            // WHEN
+            importTool( "--into", dbRule.getStoreDirAbsolutePath(),
+                    "--nodes", data.getAbsolutePath(),
+                    "--unique", "Person:name" );
+            fail( "Should have failed" );
+        }
+        catch ( Exception e )
+        {
+            // THEN
+            assertExceptionContains( e, "Bob", IndexEntryConflictException.class );
+        }
+    }
+
+    @Test
+    public void shouldImportIncrementallyIntoExistingDatabase() throws Exception
+    {
+        // GIVEN
+        importTool( "--into", dbRule.getStoreDirAbsolutePath(),
+                "--nodes", data( "id:ID,name,:LABEL", "1,Alice,Person", "2,Bob,Person", "3,Carol,Person" )
+                        .getAbsolutePath(),
+                "--relationships", data( ":START_ID,:END_ID,:TYPE", "1,2,KNOWS" ).getAbsolutePath(),
+                "--index", "Person:name" );
+
+        // WHEN
+        importTool( "--into", dbRule.getStoreDirAbsolutePath(),
+                "--incremental", "true",
+                "--id-property", "id",
+                "--nodes", data( "id:ID,name,:LABEL", "4,Dave,Person" ).getAbsolutePath(),
+                "--relationships", data( ":START_ID,:END_ID,:TYPE", "1,4,KNOWS", "2,3,KNOWS", "4,1,LIKES" )
+                        .getAbsolutePath() );
+
+        // THEN
+        GraphDatabaseService db = dbRule.getGraphDatabaseService();
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node alice = db.findNode( label( "Person" ), "name", "Alice" );
+            Node dave = db.findNode( label( "Person" ), "name", "Dave" );
+            assertNotNull( dave );
+            assertEquals( 3, count( alice.getRelationships() ) );
+            assertEquals( 2, count( alice.getRelationships( Direction.OUTGOING, withName( "KNOWS" ) ) ) );
+            assertEquals( alice, single( dave.getRelationships( Direction.OUTGOING ) ).getEndNode() );
+            ReadOperations read = dbRule.getDependencyResolver()
+                    .resolveDependency( ThreadToStatementContextBridge.class ).get().readOperations();
+            assertEquals( 4, read.countsForNode( read.labelGetForName( "Person" ) ) );
+            assertEquals( 3, read.countsForRelationship( ANY_LABEL,
+                    read.relationshipTypeGetForName( "KNOWS" ), ANY_LABEL ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldLeaveNoCheckpointAfterSuccessfulImportToResumeFrom() throws Exception
+    {
+        // GIVEN
+        importTool( "--into", dbRule.getStoreDirAbsolutePath(),
+                "--nodes", data( "id:ID,name,:LABEL", "1,Alice,Person", "2,Bob,Person" ).getAbsolutePath(),
+                "--relationships", data( ":START_ID,:END_ID,:TYPE", "1,2,KNOWS" ).getAbsolutePath() );
+        assertFalse( ImportCheckpoint.exists( new DefaultFileSystemAbstraction(),
+                new File( dbRule.getStoreDirAbsolutePath() ) ) );
+
+        // WHEN
+        try
+        {
+            importTool( "--into", dbRule.getStoreDirAbsolutePath(),
+                    "--resume", "true",
+                    "--nodes", data( "id:ID,name,:LABEL", "1,Alice,Person", "2,Bob,Person" ).getAbsolutePath(),
+                    "--relationships", data( ":START_ID,:END_ID,:TYPE", "1,2,KNOWS" ).getAbsolutePath() );
+            fail( "Should have failed" );
+        }
+        catch ( Exception e )
+        {
+            // THEN
+            assertExceptionContains( e, "No checkpoint", IllegalStateException.class );
+        }
+        GraphDatabaseService db = dbRule.getGraphDatabaseService();
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 2, count( GlobalGraphOperations.at( db ).getAllNodes() ) );
+            tx.success();
+        }
+    }
+
     private File data( String... lines ) throws Exception
     {
         File file = file( fileName( "data.csv" ) );
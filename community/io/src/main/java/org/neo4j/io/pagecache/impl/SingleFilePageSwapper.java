@@ -19,16 +19,10 @@
  */
 package org.neo4j.io.pagecache.impl;
 
-import sun.nio.ch.FileChannelImpl;
-
 import java.io.File;
 import java.io.IOException;
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
-import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 
@@ -81,22 +75,6 @@ public class SingleFilePageSwapper implements PageSwapper
             UnsafeUtil.getFieldOffset( SingleFilePageSwapper.class, "fileSize" );
 
     private static final ThreadLocal<ByteBuffer> proxyCache = new ThreadLocal<>();
-    private static final MethodHandle positionLockGetter = null;//getPositionLockGetter();
-
-    private static MethodHandle getPositionLockGetter()
-    {
-        try
-        {
-            MethodHandles.Lookup lookup = MethodHandles.lookup();
-            Field field = FileChannelImpl.class.getDeclaredField( "positionLock" );
-            field.setAccessible( true );
-            return lookup.unreflectGetter( field );
-        }
-        catch ( Exception e )
-        {
-            return null;
-        }
-    }
 
     private static ByteBuffer proxy( long buffer, int bufferLength ) throws IOException
     {
@@ -130,7 +108,7 @@ public class SingleFilePageSwapper implements PageSwapper
     private volatile PageEvictionCallback onEviction;
     private final StoreChannel[] channels;
     private FileLock fileLock;
-    private final boolean hasPositionLock;
+    private final boolean hasVectoredIo;
 
     // Guarded by synchronized(this). See tryReopen() and close().
     private boolean closed;
@@ -163,8 +141,10 @@ public class SingleFilePageSwapper implements PageSwapper
         {
             closeAndCollectExceptions( 0, e );
         }
-        hasPositionLock = channels[0].getClass() == StoreFileChannel.class
-                && StoreFileChannelUnwrapper.unwrap( channels[0] ).getClass() == sun.nio.ch.FileChannelImpl.class;
+        // Vectored IO repositions the channel, which is only done for plain file channels of the real file system.
+        hasVectoredIo = channels[0].getClass() == StoreFileChannel.class
+                && StoreFileChannelUnwrapper.unwrap( channels[0] ).getClass().getName().equals(
+                        "sun.nio.ch.FileChannelImpl" );
     }
 
     private void increaseFileSizeTo( long newFileSize )
@@ -321,7 +301,7 @@ public class SingleFilePageSwapper implements PageSwapper
     @Override
     public long read( long startFilePageId, Page[] pages, int arrayOffset, int length ) throws IOException
     {
-        if ( positionLockGetter != null && hasPositionLock )
+        if ( hasVectoredIo )
         {
             try
             {
@@ -333,8 +313,8 @@ public class SingleFilePageSwapper implements PageSwapper
             }
             catch ( Exception ignore )
             {
-                // There's a lot of reflection going on in that method. We ignore everything that can go wrong, and
-                // isn't exactly an IOException. Instead, we'll try our fallback code and see what it says.
+                // Creating the buffers for the pages goes through unsafe reflection. We ignore everything that can go
+                // wrong, and isn't exactly an IOException. Instead, we'll try our fallback code and see what it says.
             }
         }
         return readPositionedVectoredFallback( startFilePageId, pages, arrayOffset, length );
@@ -344,14 +324,14 @@ public class SingleFilePageSwapper implements PageSwapper
             long startFilePageId, Page[] pages, int arrayOffset, int length ) throws Exception
     {
         long fileOffset = pageIdToPosition( startFilePageId );
-        FileChannel channel = unwrappedChannel( startFilePageId );
+        StoreChannel channel = channel( startFilePageId );
         ByteBuffer[] srcs = convertToByteBuffers( pages, arrayOffset, length );
         long bytesRead = lockPositionReadVector( startFilePageId, channel, fileOffset, srcs );
         if ( bytesRead == -1 )
         {
-            for ( Page page : pages )
+            for ( int i = 0; i < length; i++ )
             {
-                UnsafeUtil.setMemory( page.address(), filePageSize, MuninnPageCache.ZERO_BYTE );
+                UnsafeUtil.setMemory( pages[arrayOffset + i].address(), filePageSize, MuninnPageCache.ZERO_BYTE );
             }
             return 0;
         }
@@ -377,15 +357,29 @@ public class SingleFilePageSwapper implements PageSwapper
     }
 
     private long lockPositionReadVector(
-            long filePageId, FileChannel channel, long fileOffset, ByteBuffer[] srcs ) throws IOException
+            long filePageId, StoreChannel channel, long fileOffset, ByteBuffer[] srcs ) throws IOException
     {
         try
         {
-            synchronized ( positionLock( channel ) )
+            // See lockPositionWriteVector for why we lock on the channel.
+            long bytesToRead = (long) filePageSize * srcs.length;
+            long bytesRead = 0;
+            synchronized ( channel )
             {
                 channel.position( fileOffset );
-                return channel.read( srcs );
+                do
+                {
+                    // Like the gathering write, the scattering read might not fill everything in one go.
+                    long read = channel.read( srcs );
+                    if ( read == -1 )
+                    {
+                        return bytesRead == 0 ? -1 : bytesRead;
+                    }
+                    bytesRead += read;
+                }
+                while ( bytesRead < bytesToRead );
             }
+            return bytesRead;
         }
         catch ( ClosedChannelException e )
         {
@@ -394,14 +388,19 @@ public class SingleFilePageSwapper implements PageSwapper
             // turn a subclass of AsynchronousCloseException.
             tryReopen( filePageId, e );
             boolean interrupted = Thread.interrupted();
-            // Recurse because this is hopefully a very rare occurrence.
-            channel = unwrappedChannel( filePageId );
-            long bytesWritten = lockPositionReadVector( filePageId, channel, fileOffset, srcs );
+            // Recurse because this is hopefully a very rare occurrence. We don't know how much was read before
+            // the channel was closed, so we read the whole vector again.
+            for ( ByteBuffer src : srcs )
+            {
+                src.clear();
+            }
+            channel = channel( filePageId );
+            long bytesRead = lockPositionReadVector( filePageId, channel, fileOffset, srcs );
             if ( interrupted )
             {
                 Thread.currentThread().interrupt();
             }
-            return bytesWritten;
+            return bytesRead;
         }
     }
 
@@ -446,7 +445,7 @@ public class SingleFilePageSwapper implements PageSwapper
     @Override
     public long write( long startFilePageId, Page[] pages, int arrayOffset, int length ) throws IOException
     {
-        if ( positionLockGetter != null && hasPositionLock )
+        if ( hasVectoredIo )
         {
             try
             {
@@ -458,8 +457,8 @@ public class SingleFilePageSwapper implements PageSwapper
             }
             catch ( Exception ignore )
             {
-                // There's a lot of reflection going on in that method. We ignore everything that can go wrong, and
-                // isn't exactly an IOException. Instead, we'll try our fallback code and see what it says.
+                // Creating the buffers for the pages goes through unsafe reflection. We ignore everything that can go
+                // wrong, and isn't exactly an IOException. Instead, we'll try our fallback code and see what it says.
             }
         }
         return writePositionVectoredFallback( startFilePageId, pages, arrayOffset, length );
@@ -470,7 +469,7 @@ public class SingleFilePageSwapper implements PageSwapper
     {
         long fileOffset = pageIdToPosition( startFilePageId );
         increaseFileSizeTo( fileOffset + (filePageSize * length) );
-        FileChannel channel = unwrappedChannel( startFilePageId );
+        StoreChannel channel = channel( startFilePageId );
         ByteBuffer[] srcs = convertToByteBuffers( pages, arrayOffset, length );
         return lockPositionWriteVector( startFilePageId, channel, fileOffset, srcs );
     }
@@ -486,22 +485,29 @@ public class SingleFilePageSwapper implements PageSwapper
         return buffers;
     }
 
-    private FileChannel unwrappedChannel( long startFilePageId )
-    {
-        StoreChannel storeChannel = channel( startFilePageId );
-        return StoreFileChannelUnwrapper.unwrap( storeChannel );
-    }
-
     private long lockPositionWriteVector(
-            long filePageId, FileChannel channel, long fileOffset, ByteBuffer[] srcs ) throws IOException
+            long filePageId, StoreChannel channel, long fileOffset, ByteBuffer[] srcs ) throws IOException
     {
         try
         {
-            synchronized ( positionLock( channel ) )
+            // The gathering write and the scattering read use the channel position, which is otherwise unused since
+            // all other IO in this swapper is positioned. The channels are private to this swapper, so vectored reads
+            // and writes both guard the position with the channel monitor, instead of having to reach in for the
+            // internal positionLock of the FileChannel.
+            long bytesToWrite = (long) filePageSize * srcs.length;
+            long bytesWritten = 0;
+            synchronized ( channel )
             {
                 channel.position( fileOffset );
-                return channel.write( srcs );
+                do
+                {
+                    // The gathering write might not write everything in one go, but the buffer positions keep track
+                    // of how far we got.
+                    bytesWritten += channel.write( srcs );
+                }
+                while ( bytesWritten < bytesToWrite );
             }
+            return bytesWritten;
         }
         catch ( ClosedChannelException e )
         {
@@ -510,8 +516,13 @@ public class SingleFilePageSwapper implements PageSwapper
             // turn a subclass of AsynchronousCloseException.
             tryReopen( filePageId, e );
             boolean interrupted = Thread.interrupted();
-            // Recurse because this is hopefully a very rare occurrence.
-            channel = unwrappedChannel( filePageId );
+            // Recurse because this is hopefully a very rare occurrence. We don't know how much was written before
+            // the channel was closed, so we write the whole vector again.
+            for ( ByteBuffer src : srcs )
+            {
+                src.clear();
+            }
+            channel = channel( filePageId );
             long bytesWritten = lockPositionWriteVector( filePageId, channel, fileOffset, srcs );
             if ( interrupted )
             {
@@ -521,19 +532,6 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
-    private Object positionLock( FileChannel channel )
-    {
-        sun.nio.ch.FileChannelImpl impl = (FileChannelImpl) channel;
-        try
-        {
-            return (Object) positionLockGetter.invokeExact( impl );
-        }
-        catch ( Throwable th )
-        {
-            throw new LinkageError( "No getter for FileChannel.positionLock", th );
-        }
-    }
-
     private int writePositionVectoredFallback( long startFilePageId, Page[] pages, int arrayOffset, int length )
             throws IOException
     {
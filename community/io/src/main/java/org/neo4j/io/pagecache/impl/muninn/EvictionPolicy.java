@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The eviction policies that the {@link MuninnPageCache} can use, for deciding which pages to evict when it needs to
+ * make room for page faults.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The classic clock sweep, where every pin increments a small usage counter on the page, and every pass of the
+     * clock arm decrements it. Pages are evicted once their usage counter reaches zero.
+     * <p>
+     * This is cheap and works well for point look-ups, but a large sequential scan pins every page it touches many
+     * times in quick succession, and will thus push the hot pages of other workloads out of the cache.
+     */
+    CLOCK
+            {
+                @Override
+                EvictionStrategy createStrategy( int maxPages )
+                {
+                    return new ClockEvictionStrategy( this );
+                }
+            },
+
+    /**
+     * A scan resistant variation on the clock sweep, in the style of CLOCK-Pro and 2Q, which tracks recency and
+     * frequency separately. Newly faulted pages are cold, and only become hot if they are referenced again after the
+     * clock arm has passed them once. Cold pages are evicted before hot pages, so the pages of a sequential scan, which
+     * are only referenced in a short burst, will pass through the cache without displacing the hot pages.
+     *
+     * @see ScanResistantEvictionStrategy
+     */
+    SCAN_RESISTANT
+            {
+                @Override
+                EvictionStrategy createStrategy( int maxPages )
+                {
+                    return new ScanResistantEvictionStrategy( this, maxPages );
+                }
+            };
+
+    abstract EvictionStrategy createStrategy( int maxPages );
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The per page cache instance implementation of an {@link EvictionPolicy}.
+ *
+ * The clock sweeps in the {@link MuninnPageCache} ask the strategy whether or not a given page should be evicted,
+ * and the page cursors inform the strategy whenever they pin a page. All of these calls are intentionally left
+ * benignly racy, like the usage counters on the pages themselves, unless otherwise noted.
+ */
+abstract class EvictionStrategy
+{
+    private final EvictionPolicy policy;
+
+    EvictionStrategy( EvictionPolicy policy )
+    {
+        this.policy = policy;
+    }
+
+    /**
+     * @return The policy that this strategy implements.
+     */
+    final EvictionPolicy policy()
+    {
+        return policy;
+    }
+
+    /**
+     * The given page has been pinned by a page cursor, either as a cache hit or right after a page fault.
+     */
+    abstract void pageAccessed( MuninnPage page );
+
+    /**
+     * The clock arm has reached the given loaded page.
+     * @return {@code true} if the page should be evicted, provided the write lock can be grabbed.
+     */
+    abstract boolean isEvictionCandidate( MuninnPage page );
+
+    /**
+     * The given page has been evicted.
+     *
+     * NOTE: This method MUST be called while holding the page write lock.
+     */
+    abstract void pageEvicted( MuninnPage page );
+}
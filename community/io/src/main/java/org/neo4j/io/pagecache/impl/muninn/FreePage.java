@@ -22,22 +22,37 @@ package org.neo4j.io.pagecache.impl.muninn;
 /**
  * A free page in the MuninnPageCache.freelist.
  *
- * The next pointers are always other FreePage instances.
+ * The next pointers are usually other FreePage instances, but can also be the MuninnPage at the head of the initial
+ * part of the freelist, when a page is given back to the freelist before that part has been used up. The count
+ * covers all the pages in the list below and including this one.
  */
 final class FreePage
 {
     final MuninnPage page;
     int count;
-    FreePage next;
+    Object next;
 
     public FreePage( MuninnPage page )
     {
         this.page = page;
     }
 
-    void setNext( FreePage next )
+    void setNext( Object next )
     {
         this.next = next;
-        this.count = next == null? 1 : 1 + next.count;
+        this.count = 1 + count( next );
+    }
+
+    private static int count( Object next )
+    {
+        // The initial part of the freelist is a chain of MuninnPages that ends in FreePages, or in nothing. That part
+        // only shrinks from the head, and pages given back never go on it again, so it is counted once, right here.
+        int pages = 0;
+        while ( next instanceof MuninnPage )
+        {
+            pages++;
+            next = ((MuninnPage) next).nextFree;
+        }
+        return next instanceof FreePage ? pages + ((FreePage) next).count : pages;
     }
 }
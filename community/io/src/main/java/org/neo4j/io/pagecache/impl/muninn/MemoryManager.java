@@ -19,13 +19,27 @@
  */
 package org.neo4j.io.pagecache.impl.muninn;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 /**
  * The memory manager is simple: it only allocates memory, until it itself is finalizable and frees it all in one go.
  *
  * The memory is allocated in large segments, and the memory returned by the memory manager is page aligned, and plays
- * well with transparent huge pages and other operating system optimisations.
+ * well with transparent huge pages and other operating system optimisations. The segments are aligned to the huge
+ * page size, so that the operating system can back them entirely with transparent huge pages. If a huge page
+ * directory is configured, pointing to a mounted hugetlbfs file system, then the segments are instead allocated as
+ * memory mapped files in that directory, which makes them backed by explicitly reserved huge pages. If the directory
+ * is not on a hugetlbfs mount, or the reserved huge pages run out, then this is reported to the tracer and the memory
+ * is allocated from the native heap instead.
  *
  * The memory manager assumes that the memory claimed from it is evenly divisible in units of pages.
  */
@@ -33,11 +47,22 @@ final class MemoryManager
 {
     private static final long GRAB_SIZE = 32 * 1024 * 1024; // 32 MiB
 
+    // The size of the huge pages of the system. The slabs are aligned to this size. Setting this to zero disables the
+    // alignment.
+    private static final long hugePageSize = Long.getLong(
+            "org.neo4j.io.pagecache.impl.muninn.MemoryManager.hugePageSize", 2 * 1024 * 1024 );
+    // A directory on a mounted hugetlbfs file system, that slabs will be memory mapped from, if specified.
+    private static final String hugePageDirectory = System.getProperty(
+            "org.neo4j.io.pagecache.impl.muninn.MemoryManager.hugePageDirectory" );
+
     /**
      * The amount of memory that this memory manager can still allocate.
      */
     private long memoryReserve;
     private final long alignment;
+    private final PageCacheTracer tracer;
+    private final File hugePageFileDirectory;
+    private boolean hugePagesUnavailable;
 
     private Slab slabs;
 
@@ -49,9 +74,89 @@ final class MemoryManager
      * @param alignment The byte multiple that the allocated pointers have to be aligned at.
      */
     public MemoryManager( long expectedMaxMemory, long alignment )
+    {
+        this( expectedMaxMemory, alignment, PageCacheTracer.NULL );
+    }
+
+    /**
+     * Create a new MemoryManager that will allocate the given amount of memory, to pointers that are aligned to the
+     * given alignment size, and report its allocations to the given tracer. The memory is allocated from the
+     * configured huge page directory, if any.
+     */
+    public MemoryManager( long expectedMaxMemory, long alignment, PageCacheTracer tracer )
+    {
+        this( expectedMaxMemory, alignment, tracer, hugePageDirectory == null? null : new File( hugePageDirectory ) );
+    }
+
+    /**
+     * Create a new MemoryManager that will allocate the given amount of memory, to pointers that are aligned to the
+     * given alignment size, and report its allocations to the given tracer.
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate. The
+     * actual amount of memory used can end up greater than this value, if some of it gets wasted on alignment padding.
+     * @param alignment The byte multiple that the allocated pointers have to be aligned at.
+     * @param tracer The tracer that is told about the memory allocations, and whether they are backed by huge pages.
+     * @param hugePageFileDirectory A directory on a hugetlbfs file system to allocate memory from, or {@code null} if
+     * memory should be allocated from the native heap.
+     */
+    public MemoryManager( long expectedMaxMemory, long alignment, PageCacheTracer tracer, File hugePageFileDirectory )
     {
         this.memoryReserve = expectedMaxMemory;
         this.alignment = alignment;
+        this.tracer = tracer;
+        this.hugePageFileDirectory = hugePageFileDirectory;
+        if ( hugePageFileDirectory != null && !isOnHugetlbfs( hugePageFileDirectory ) )
+        {
+            // Memory mapping files anywhere else would work, but would not give us any huge pages.
+            reportHugePagesUnavailable( "it is not on a hugetlbfs mount", null );
+        }
+    }
+
+    /**
+     * @return {@code true} if the given directory is on a mounted hugetlbfs file system, according to /proc/mounts.
+     */
+    static boolean isOnHugetlbfs( File directory )
+    {
+        File mounts = new File( "/proc/mounts" );
+        if ( !mounts.isFile() )
+        {
+            return false;
+        }
+        try ( BufferedReader reader = new BufferedReader( new FileReader( mounts ) ) )
+        {
+            String path = directory.getCanonicalPath();
+            String mountPoint = null;
+            String fileSystemType = null;
+            String line;
+            while ( (line = reader.readLine()) != null )
+            {
+                // <device> <mount point> <file system type> <options> <dump> <pass>, with spaces escaped as \040
+                String[] fields = line.split( " " );
+                if ( fields.length < 3 )
+                {
+                    continue;
+                }
+                String candidate = fields[1].replace( "\\040", " " );
+                boolean contains = path.equals( candidate ) || candidate.equals( "/" )
+                                   || path.startsWith( candidate + File.separator );
+                // The last of the longest matching mount points is the one that is visible.
+                if ( contains && (mountPoint == null || candidate.length() >= mountPoint.length()) )
+                {
+                    mountPoint = candidate;
+                    fileSystemType = fields[2];
+                }
+            }
+            return "hugetlbfs".equals( fileSystemType );
+        }
+        catch ( IOException e )
+        {
+            return false;
+        }
+    }
+
+    private void reportHugePagesUnavailable( String reason, Throwable cause )
+    {
+        hugePagesUnavailable = true;
+        tracer.hugePagesUnavailable( hugePageFileDirectory, reason, cause );
     }
 
     /**
@@ -67,7 +172,7 @@ final class MemoryManager
             if ( slabGrab < bytes )
             {
                 slabGrab = bytes;
-                Slab slab = new Slab( slabs, slabGrab, alignment );
+                Slab slab = newSlab( slabs, slabGrab );
                 if ( slab.canAllocate( bytes ) )
                 {
                     memoryReserve -= slabGrab;
@@ -78,11 +183,33 @@ final class MemoryManager
                 slabGrab = bytes + alignment;
             }
             memoryReserve -= slabGrab;
-            slabs = new Slab( slabs, slabGrab, alignment );
+            slabs = newSlab( slabs, slabGrab );
         }
         return slabs.allocate( bytes );
     }
 
+    private Slab newSlab( Slab next, long size )
+    {
+        if ( hugePageFileDirectory != null && !hugePagesUnavailable )
+        {
+            try
+            {
+                Slab slab = Slab.mapHugePages( next, size, alignment, hugePageFileDirectory );
+                tracer.allocatedMemory( size, true );
+                return slab;
+            }
+            catch ( IOException | OutOfMemoryError | RuntimeException e )
+            {
+                // We have most likely run out of reserved huge pages. We don't try again, but fall back to allocating
+                // memory from the native heap.
+                reportHugePagesUnavailable( "mapping a slab from it failed", e );
+            }
+        }
+        Slab slab = Slab.allocate( next, size, alignment );
+        tracer.allocatedMemory( size, false );
+        return slab;
+    }
+
     @Override
     protected synchronized void finalize() throws Throwable
     {
@@ -100,18 +227,53 @@ final class MemoryManager
     {
         public final Slab next;
         private final long address;
+        private final MappedByteBuffer mapping;
         private final long limit;
         private final long alignMask;
         private long nextAlignedPointer;
 
-        public Slab( Slab next, long size, long alignment )
+        private Slab( Slab next, long address, long base, long size, long alignment, MappedByteBuffer mapping )
         {
             this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size );
-            this.limit = address + size;
+            this.address = address;
+            this.mapping = mapping;
+            this.limit = base + size;
             this.alignMask = alignment - 1;
 
-            nextAlignedPointer = nextAligned( address );
+            nextAlignedPointer = nextAligned( base );
+        }
+
+        static Slab allocate( Slab next, long size, long alignment )
+        {
+            if ( hugePageSize <= 0 || size < hugePageSize )
+            {
+                long address = UnsafeUtil.allocateMemory( size );
+                return new Slab( next, address, address, size, alignment, null );
+            }
+            // Over-allocate by a huge page, so we can align the start of the slab to a huge page boundary. The padding
+            // is never touched, so it does not take up any physical memory.
+            long address = UnsafeUtil.allocateMemory( size + hugePageSize );
+            long hugePageMask = hugePageSize - 1;
+            long base = (address + hugePageMask) & ~hugePageMask;
+            return new Slab( next, address, base, size, alignment, null );
+        }
+
+        static Slab mapHugePages( Slab next, long size, long alignment, File directory ) throws IOException
+        {
+            long mappedSize = hugePageSize <= 0? size : ((size + hugePageSize - 1) / hugePageSize) * hugePageSize;
+            File file = File.createTempFile( "neo4j-pagecache", ".slab", directory );
+            try ( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) )
+            {
+                // The mapping stays valid after the file has been closed and deleted, and the memory is released when
+                // the mapping is cleaned.
+                MappedByteBuffer mapping = raf.getChannel().map( FileChannel.MapMode.READ_WRITE, 0, mappedSize );
+                long address = UnsafeUtil.getDirectByteBufferAddress( mapping );
+                return new Slab( next, address, address, size, alignment, mapping );
+            }
+            finally
+            {
+                file.delete();
+            }
         }
 
         private long nextAligned( long pointer )
@@ -132,7 +294,14 @@ final class MemoryManager
 
         public void free()
         {
-            UnsafeUtil.free( address );
+            if ( mapping != null )
+            {
+                UnsafeUtil.invokeCleaner( mapping );
+            }
+            else
+            {
+                UnsafeUtil.free( address );
+            }
         }
 
         public boolean canAllocate( long bytes )
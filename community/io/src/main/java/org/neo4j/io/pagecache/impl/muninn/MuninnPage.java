@@ -36,6 +36,7 @@ import static java.lang.String.format;
 final class MuninnPage extends StampedLock implements Page
 {
     private static final long usageStampOffset = UnsafeUtil.getFieldOffset( MuninnPage.class, "usageStamp" );
+    private static final long evictionStateOffset = UnsafeUtil.getFieldOffset( MuninnPage.class, "evictionState" );
 
     // The sign bit is used as a dirty flag for the page.
     // The other 7 bits are used as an exponent for computing the cache page size (as a power of two).
@@ -52,6 +53,11 @@ final class MuninnPage extends StampedLock implements Page
     @SuppressWarnings( "unused" )
     private volatile byte usageStamp;
 
+    // Bit field owned by the EvictionStrategy, if it needs to keep any state on the pages.
+    // accessed through unsafe
+    @SuppressWarnings( "unused" )
+    private volatile int evictionState;
+
     // Next pointer in the freelist of available pages. This is either a
     // MuninnPage object, or a FreePage object. See the comment on the
     // MuninnPageCache.freelist field.
@@ -136,6 +142,16 @@ final class MuninnPage extends StampedLock implements Page
         return usage == 0;
     }
 
+    int getEvictionState()
+    {
+        return UnsafeUtil.getIntVolatile( this, evictionStateOffset );
+    }
+
+    boolean compareAndSetEvictionState( int expected, int update )
+    {
+        return UnsafeUtil.compareAndSwapInt( this, evictionStateOffset, expected, update );
+    }
+
     public byte getByte( int offset )
     {
         checkBounds( offset + 1 );
@@ -340,11 +356,30 @@ final class MuninnPage extends StampedLock implements Page
 
     /**
      * NOTE: This method MUST be called while holding the page write lock.
+     *
+     * @return the number of bytes read from the file.
      */
-    public void fault(
+    public long fault(
             PageSwapper swapper,
             long filePageId,
             PageFaultEvent faultEvent ) throws IOException
+    {
+        beginFault( swapper, filePageId );
+        long bytesRead = swapper.read( filePageId, this );
+        faultEvent.addBytesRead( bytesRead );
+        faultEvent.setCachePageId( getCachePageId() );
+        completeFault( swapper );
+        return bytesRead;
+    }
+
+    /**
+     * Prepare this page for having the contents of the given file page read into it. This is the first half of a
+     * page fault, and is used directly when the reading is done for many pages at a time, in a vectored read.
+     * The page fault is completed with {@link #completeFault(PageSwapper)} once the contents have been read.
+     *
+     * NOTE: This method MUST be called while holding the page write lock.
+     */
+    void beginFault( PageSwapper swapper, long filePageId )
     {
         assert isWriteLocked(): "Cannot fault page without write-lock";
         if ( this.swapper != null || this.filePageId != PageCursor.UNBOUND_PAGE_ID )
@@ -365,9 +400,29 @@ final class MuninnPage extends StampedLock implements Page
         // the file page, so any subsequent thread that finds the page in their
         // translation table will re-do the page fault.
         this.filePageId = filePageId; // Page now considered isLoaded()
-        long bytesRead = swapper.read( filePageId, this );
-        faultEvent.addBytesRead( bytesRead );
-        faultEvent.setCachePageId( getCachePageId() );
+    }
+
+    /**
+     * Undo {@link #beginFault(PageSwapper, long)} for a page fault that failed before it was completed, such that the
+     * page is no longer considered loaded and can go back to the freelist.
+     *
+     * NOTE: This method MUST be called while holding the page write lock.
+     */
+    void abortFault()
+    {
+        assert isWriteLocked(): "Cannot abort fault of page without write-lock";
+        assert swapper == null: "Cannot abort fault of page that is bound to a file";
+        this.filePageId = PageCursor.UNBOUND_PAGE_ID;
+    }
+
+    /**
+     * Bind this page to the given swapper, after its contents have been read in.
+     *
+     * NOTE: This method MUST be called while holding the page write lock.
+     */
+    void completeFault( PageSwapper swapper )
+    {
+        assert isWriteLocked(): "Cannot fault page without write-lock";
         this.swapper = swapper; // Page now considered isBoundTo( swapper, filePageId )
     }
 
@@ -400,6 +455,14 @@ final class MuninnPage extends StampedLock implements Page
         return filePageId != PageCursor.UNBOUND_PAGE_ID;
     }
 
+    /**
+     * @return The swapper this page is bound to, or {@code null} if the page is not bound to any file.
+     */
+    PageSwapper getSwapper()
+    {
+        return swapper;
+    }
+
     public boolean isBoundTo( PageSwapper swapper, long filePageId )
     {
         return this.swapper == swapper && this.filePageId == filePageId;
@@ -32,6 +32,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
@@ -39,6 +40,7 @@ import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
@@ -115,6 +117,10 @@ public class MuninnPageCache implements PageCache
     private static final double backgroundFlushIoRatio = getDouble(
             "org.neo4j.io.pagecache.impl.muninn.backgroundFlushIoRatio", 0.1 );
 
+    // The eviction policy to use, when none has been explicitly given to the constructor.
+    private static final EvictionPolicy defaultEvictionPolicy = EvictionPolicy.valueOf( System.getProperty(
+            "org.neo4j.io.pagecache.impl.muninn.evictionPolicy", EvictionPolicy.CLOCK.name() ) );
+
     private static double getDouble( String property, double def )
     {
         try
@@ -169,6 +175,7 @@ public class MuninnPageCache implements PageCache
     private final int keepFree;
     private final CursorPool cursorPool;
     private final PageCacheTracer tracer;
+    private final EvictionStrategy evictionStrategy;
     private final MuninnPage[] pages;
     private final AtomicInteger backgroundFlushPauseRequests;
 
@@ -220,6 +227,16 @@ public class MuninnPageCache implements PageCache
             int maxPages,
             int cachePageSize,
             PageCacheTracer tracer )
+    {
+        this( swapperFactory, maxPages, cachePageSize, tracer, defaultEvictionPolicy );
+    }
+
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            int maxPages,
+            int cachePageSize,
+            PageCacheTracer tracer,
+            EvictionPolicy evictionPolicy )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -231,13 +248,14 @@ public class MuninnPageCache implements PageCache
         this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.cursorPool = new CursorPool();
         this.tracer = tracer;
+        this.evictionStrategy = evictionPolicy.createStrategy( maxPages );
         this.pages = new MuninnPage[maxPages];
         this.backgroundFlushPauseRequests = new AtomicInteger();
         this.printExceptionsOnClose = true;
 
         long alignment = swapperFactory.getRequiredBufferAlignment();
         long expectedMaxMemory = ((long) maxPages) * cachePageSize; // cast to long prevents overflow
-        MemoryManager memoryManager = new MemoryManager( expectedMaxMemory, alignment );
+        MemoryManager memoryManager = new MemoryManager( expectedMaxMemory, alignment, tracer );
         Object pageList = null;
         int pageIndex = maxPages;
         while ( pageIndex --> 0 )
@@ -493,6 +511,29 @@ public class MuninnPageCache implements PageCache
         swapperFactory.syncDevice();
     }
 
+    /**
+     * Flush the given page from the background flush task. If the file that the page is bound to is still mapped,
+     * then the dirty pages that immediately follow the page in the file, are written together with it.
+     * <p>
+     * NOTE: This method must be called while holding a pessimistic lock on the page.
+     */
+    private void flushPage( MuninnPage page, FlushEventOpportunity flushOpportunity ) throws IOException
+    {
+        PageSwapper swapper = page.getSwapper();
+        FileMapping fileMapping = mappedFiles;
+        while ( fileMapping != null )
+        {
+            MuninnPagedFile pagedFile = fileMapping.pagedFile;
+            if ( pagedFile.swapper == swapper )
+            {
+                pagedFile.flushWithFollowingDirtyPages( page, flushOpportunity );
+                return;
+            }
+            fileMapping = fileMapping.next;
+        }
+        page.flush( flushOpportunity );
+    }
+
     @Override
     public synchronized void close() throws IOException
     {
@@ -576,11 +617,33 @@ public class MuninnPageCache implements PageCache
         return pages.length;
     }
 
+    /**
+     * @return The eviction policy that this page cache uses, to decide which pages to evict.
+     */
+    public EvictionPolicy getEvictionPolicy()
+    {
+        return evictionStrategy.policy();
+    }
+
     int getPageCacheId()
     {
         return pageCacheId;
     }
 
+    EvictionStrategy getEvictionStrategy()
+    {
+        return evictionStrategy;
+    }
+
+    void startReadAhead( MuninnPagedFile pagedFile, long startFilePageId, int pageCount )
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "The PageCache has been shut down" );
+        }
+        backgroundThreadExecutor.execute( new ReadAheadTask( this, pagedFile, startFilePageId, pageCount ) );
+    }
+
     MuninnPage grabFreePage( PageFaultEvent faultEvent ) throws IOException
     {
         // Review the comment on the freelist field before making changes to
@@ -658,7 +721,7 @@ public class MuninnPageCache implements PageCache
                         "The PageCache has been shut down" );
             }
 
-            if ( page.isLoaded() && page.decrementUsage() )
+            if ( page.isLoaded() && evictionStrategy.isEvictionCandidate( page ) )
             {
                 long stamp = page.tryWriteLock();
                 if ( stamp != 0 )
@@ -677,6 +740,7 @@ public class MuninnPageCache implements PageCache
             clockArm++;
         }
         while ( !evicted );
+        PageCursorCounters.forCurrentThread().eviction();
         return page;
     }
 
@@ -715,8 +779,9 @@ public class MuninnPageCache implements PageCache
     }
 
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
+     * Scan through all the pages, one by one, and ask the eviction strategy if they should be evicted.
+     * With the clock policy, this decrements their usage stamps until they reach zero.
+     * If a page should be evicted, we try-write-locking it, and if we get that lock,
      * we evict the page. If we don't, we move on to the next page.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
@@ -785,7 +850,7 @@ public class MuninnPageCache implements PageCache
                 return 0;
             }
 
-            if ( page.isLoaded() && page.decrementUsage() )
+            if ( page.isLoaded() && evictionStrategy.isEvictionCandidate( page ) )
             {
                 long stamp = page.tryWriteLock();
                 if ( stamp != 0 )
@@ -814,19 +879,7 @@ public class MuninnPageCache implements PageCache
 
                     if ( pageEvicted )
                     {
-                        Object current;
-                        Object nextListHead;
-                        FreePage freePage = null;
-                        do
-                        {
-                            current = getFreelistHead();
-                            freePage = freePage == null?
-                                       new FreePage( page ) : freePage;
-                            freePage.setNext( (FreePage) current );
-                            nextListHead = freePage;
-                        }
-                        while ( !compareAndSetFreelistHead(
-                                current, nextListHead ) );
+                        addFreePageToFreelist( page );
                     }
                 }
             }
@@ -837,11 +890,44 @@ public class MuninnPageCache implements PageCache
         return clockArm;
     }
 
+    /**
+     * Give a page that is not bound to any file page back to the freelist. The page is added through a new
+     * {@link FreePage} object; see the comment on the freelist field.
+     */
+    void addFreePageToFreelist( MuninnPage page )
+    {
+        Object current;
+        FreePage freePage = new FreePage( page );
+        do
+        {
+            current = getFreelistHead();
+            freePage.setNext( current );
+        }
+        while ( !compareAndSetFreelistHead( current, freePage ) );
+    }
+
+    /**
+     * @return the number of pages on the freelist, which is only exact while no pages are being grabbed or added.
+     */
+    int countFreePages()
+    {
+        int count = 0;
+        Object current = getFreelistHead();
+        while ( current != null && current != shutdownSignal )
+        {
+            count++;
+            current = current instanceof MuninnPage ? ((MuninnPage) current).nextFree : ((FreePage) current).next;
+        }
+        return count;
+    }
+
     private boolean evictPage( MuninnPage page, EvictionEvent evictionEvent )
     {
         try
         {
+            evictionEvent.setEvictionPolicy( evictionStrategy.policy().name() );
             page.evict( evictionEvent );
+            evictionStrategy.pageEvicted( page );
             clearEvictorException();
             return true;
         }
@@ -966,7 +1052,7 @@ public class MuninnPageCache implements PageCache
                         }
 
                         long startNanos = System.nanoTime();
-                        page.flush( event.flushEventOpportunity() );
+                        flushPage( page, event.flushEventOpportunity() );
                         long elapsedNanos = System.nanoTime() - startNanos;
 
                         sleepDebtNanos += elapsedNanos * sleepFactor;
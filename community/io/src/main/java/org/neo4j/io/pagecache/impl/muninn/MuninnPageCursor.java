@@ -25,6 +25,7 @@ import java.io.IOException;
 import org.neo4j.concurrent.BinaryLatch;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
@@ -40,9 +41,12 @@ abstract class MuninnPageCursor implements PageCursor
     protected long nextPageId;
     protected long lastPageId;
     protected long lockStamp;
+    protected boolean pageFaulted;
 
     private boolean claimed;
     private int offset;
+    // Cursors are pooled per thread, so they can hold on to the counters of the thread that created them
+    private final PageCursorCounters counters = PageCursorCounters.forCurrentThread();
 
     public final void initialise( MuninnPagedFile pagedFile, long pageId, int pf_flags )
     {
@@ -143,6 +147,7 @@ abstract class MuninnPageCursor implements PageCursor
         // in a latch. If that CAS succeeds, we page fault, set the slot to the faulted in page and open the latch.
         // If the CAS failed, we retry the look up and start over from the top.
         Object item;
+        pageFaulted = false;
         do
         {
             item = UnsafeUtil.getObjectVolatile( chunk, chunkOffset );
@@ -155,6 +160,7 @@ abstract class MuninnPageCursor implements PageCursor
                     // We managed to inject our latch, so we now own the right to perform the page fault. We also
                     // have a duty to eventually release and remove the latch, no matter what happens now.
                     item = pageFault( filePageId, swapper, chunkOffset, chunk, latch );
+                    pageFaulted = true;
                 }
             }
             else if ( item.getClass() == MuninnPage.class )
@@ -181,6 +187,10 @@ abstract class MuninnPageCursor implements PageCursor
             }
         }
         while ( item == null );
+        if ( !pageFaulted )
+        {
+            counters.hit();
+        }
         pinCursorToPage( (MuninnPage) item, filePageId, swapper );
     }
 
@@ -197,6 +207,7 @@ abstract class MuninnPageCursor implements PageCursor
         PageFaultEvent faultEvent = pinEvent.beginPageFault();
         MuninnPage page;
         long stamp;
+        long bytesRead;
         try
         {
             // The grabFreePage method might throw.
@@ -228,7 +239,7 @@ abstract class MuninnPageCursor implements PageCursor
             // the file channel.
             assertPagedFileStillMapped();
             page.initBuffer();
-            page.fault( swapper, filePageId, faultEvent );
+            bytesRead = page.fault( swapper, filePageId, faultEvent );
         }
         catch ( Throwable throwable )
         {
@@ -245,6 +256,7 @@ abstract class MuninnPageCursor implements PageCursor
         UnsafeUtil.putObjectVolatile( chunk, chunkOffset, page );
         latch.release();
         faultEvent.done();
+        counters.fault( bytesRead );
         return page;
     }
 
@@ -22,6 +22,7 @@ package org.neo4j.io.pagecache.impl.muninn;
 import java.io.File;
 import java.io.IOException;
 
+import org.neo4j.concurrent.BinaryLatch;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
@@ -43,14 +44,34 @@ final class MuninnPagedFile implements PagedFile
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( MuninnPage[].class );
     private static final int translationTableChunkArrayScale = UnsafeUtil.arrayIndexScale( MuninnPage[].class );
 
+    // The maximum number of clean pages that we will include in a flush vector, in order to bridge the gap between
+    // two runs of dirty pages, such that they can be written with a single vectored write.
+    private static final int maxCleanPagesInFlushVector = Integer.getInteger(
+            "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.maxCleanPagesInFlushVector", 2 );
+    // The maximum number of pages that the background flush task will write with a single vectored write.
+    private static final int backgroundFlushVectorSize = Integer.getInteger(
+            "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.backgroundFlushVectorSize", 32 );
+
+    // The maximum number of pages to read ahead of a sequential scan at a time. Setting this to zero disables
+    // read-ahead. The read-ahead window is further limited to a quarter of the pages in the page cache.
+    private static final int readAheadPageCount = Integer.getInteger(
+            "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.readAheadPageCount", 32 );
+    // The number of consecutive sequential page faults that read cursors must take, before read-ahead kicks in for
+    // cursors that have not been given the PF_READ_AHEAD flag.
+    private static final int sequentialFaultThreshold = Integer.getInteger(
+            "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.sequentialFaultThreshold", 4 );
+
     private static final long referenceCounterOffset =
             UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "referenceCounter" );
     private static final long lastPageIdOffset =
             UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "lastPageId" );
+    private static final long readAheadInProgressOffset =
+            UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "readAheadInProgress" );
 
     final MuninnPageCache pageCache;
     final int filePageSize;
     final PageCacheTracer tracer;
+    final EvictionStrategy evictionStrategy;
 
     // This is the table where we translate file-page-ids to cache-page-ids. Only one thread can perform a resize at
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
@@ -64,6 +85,18 @@ final class MuninnPagedFile implements PagedFile
     @SuppressWarnings( "unused" ) // Accessed via Unsafe
     private volatile long lastPageId;
 
+    // The read-ahead state. The sequential access detection is intentionally left benignly racy; at worst we read a
+    // window of pages ahead that nobody ends up needing, or we miss an opportunity to read ahead.
+    private final int readAheadWindow;
+    private long lastFaultedPageId = PageCursor.UNBOUND_PAGE_ID;
+    private int sequentialFaults;
+    // Pinning this page, when it has been read ahead, will trigger reading the next window of pages ahead.
+    private volatile long readAheadTriggerPageId = PageCursor.UNBOUND_PAGE_ID;
+    // The first page of the next read-ahead window.
+    private volatile long readAheadNextPageId = PageCursor.UNBOUND_PAGE_ID;
+    @SuppressWarnings( "unused" ) // Accessed via Unsafe
+    private volatile int readAheadInProgress;
+
     MuninnPagedFile(
             File file,
             MuninnPageCache pageCache,
@@ -78,6 +111,8 @@ final class MuninnPagedFile implements PagedFile
         this.filePageSize = filePageSize;
         this.cursorPool = cursorPool;
         this.tracer = tracer;
+        this.evictionStrategy = pageCache.getEvictionStrategy();
+        this.readAheadWindow = Math.max( 0, Math.min( readAheadPageCount, pageCache.maxCachedPages() / 4 ) );
 
         // The translation table is an array of arrays of references to either null, MuninnPage objects, or Latch
         // objects. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -196,39 +231,45 @@ final class MuninnPagedFile implements PagedFile
         {
             for ( Object[] chunk : translationTable )
             {
-                // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
-                // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
-                // TODO garbage to the file.
+                // We tolerate flushing a few clean pages, if it means that we can write two runs of dirty pages with
+                // a single vectored write. The clean pages must still be loaded, though. Otherwise we'll end up
+                // writing garbage to the file. The clean pages at the end of the vector are not written.
                 int pagesGrabbed = 0;
+                int trailingCleanPages = 0;
                 for ( Object element : chunk )
                 {
                     filePageId++;
                     if ( element instanceof MuninnPage )
                     {
                         MuninnPage page = (MuninnPage) element;
-                        stamps[pagesGrabbed] = page.readLock();
-                        if ( page.isBoundTo( swapper, filePageId ) && page.isDirty() )
+                        long stamp = page.readLock();
+                        if ( page.isBoundTo( swapper, filePageId ) )
                         {
                             // The page is still bound to the expected file and file page id after we locked it,
-                            // so we didn't race with eviction and faulting, and the page is dirty.
-                            // So we add it to our IO vector.
-                            pages[pagesGrabbed] = page;
-                            pagesGrabbed++;
-                            continue;
-                        }
-                        else
-                        {
-                            page.unlockRead( stamps[pagesGrabbed] );
+                            // so we didn't race with eviction and faulting. If the page is dirty, or we can use it
+                            // to bridge a gap between dirty pages, then we add it to our IO vector.
+                            boolean dirty = page.isDirty();
+                            if ( dirty || (pagesGrabbed > 0 && trailingCleanPages < maxCleanPagesInFlushVector) )
+                            {
+                                stamps[pagesGrabbed] = stamp;
+                                pages[pagesGrabbed] = page;
+                                pagesGrabbed++;
+                                trailingCleanPages = dirty? 0 : trailingCleanPages + 1;
+                                continue;
+                            }
                         }
+                        page.unlockRead( stamp );
                     }
                     if ( pagesGrabbed > 0 )
                     {
-                        pagesGrabbed = vectoredFlush( stamps, pages, pagesGrabbed, flushOpportunity );
+                        pagesGrabbed = vectoredFlush(
+                                stamps, pages, pagesGrabbed, trailingCleanPages, flushOpportunity );
+                        trailingCleanPages = 0;
                     }
                 }
                 if ( pagesGrabbed > 0 )
                 {
-                    vectoredFlush( stamps, pages, pagesGrabbed, flushOpportunity );
+                    vectoredFlush( stamps, pages, pagesGrabbed, trailingCleanPages, flushOpportunity );
                 }
             }
 
@@ -241,7 +282,96 @@ final class MuninnPagedFile implements PagedFile
     }
 
     private int vectoredFlush(
-            long[] stamps, MuninnPage[] pages, int pagesGrabbed, FlushEventOpportunity flushOpportunity )
+            long[] stamps, MuninnPage[] pages, int pagesGrabbed, int trailingCleanPages,
+            FlushEventOpportunity flushOpportunity ) throws IOException
+    {
+        try
+        {
+            writeVector( pages, pagesGrabbed - trailingCleanPages, flushOpportunity );
+
+            // There are now 0 'grabbed' pages
+            return 0;
+        }
+        finally
+        {
+            // Always unlock all the pages in the vector
+            for ( int j = 0; j < pagesGrabbed; j++ )
+            {
+                pages[j].unlockRead( stamps[j] );
+            }
+        }
+    }
+
+    /**
+     * Flush the given page, along with the dirty pages that immediately follow it in the file, with a single vectored
+     * write. This is used by the background flush task, which otherwise visits the pages in cache page order, rather
+     * than in file page order.
+     * <p>
+     * NOTE: The caller must hold a pessimistic lock on the given page, and the page is still locked when this method
+     * returns. The following pages are only included if they can be read locked without blocking.
+     * @return The number of pages that were flushed.
+     */
+    int flushWithFollowingDirtyPages( MuninnPage page, FlushEventOpportunity flushOpportunity ) throws IOException
+    {
+        long filePageId = page.getFilePageId();
+        MuninnPage[] pages = new MuninnPage[backgroundFlushVectorSize];
+        long[] stamps = new long[backgroundFlushVectorSize];
+        pages[0] = page;
+        int pagesGrabbed = 1;
+        try
+        {
+            Object[][] tt = translationTable;
+            while ( pagesGrabbed < backgroundFlushVectorSize )
+            {
+                long nextFilePageId = filePageId + pagesGrabbed;
+                int chunkId = computeChunkId( nextFilePageId );
+                if ( chunkId >= tt.length )
+                {
+                    break;
+                }
+                Object element = UnsafeUtil.getObjectVolatile( tt[chunkId], computeChunkOffset( nextFilePageId ) );
+                if ( !(element instanceof MuninnPage) )
+                {
+                    break;
+                }
+                MuninnPage nextPage = (MuninnPage) element;
+                long stamp = nextPage.tryReadLock();
+                if ( stamp == 0 )
+                {
+                    break;
+                }
+                if ( !nextPage.isBoundTo( swapper, nextFilePageId ) || !nextPage.isDirty() )
+                {
+                    nextPage.unlockRead( stamp );
+                    break;
+                }
+                pages[pagesGrabbed] = nextPage;
+                stamps[pagesGrabbed] = stamp;
+                pagesGrabbed++;
+            }
+
+            if ( pagesGrabbed == 1 )
+            {
+                // There was nothing to coalesce with, so we just flush the page by itself.
+                page.flush( flushOpportunity );
+            }
+            else
+            {
+                writeVector( pages, pagesGrabbed, flushOpportunity );
+            }
+            return pagesGrabbed;
+        }
+        finally
+        {
+            // Unlock the pages we grabbed, but not the page we were given.
+            for ( int j = 1; j < pagesGrabbed; j++ )
+            {
+                pages[j].unlockRead( stamps[j] );
+            }
+        }
+    }
+
+    private void writeVector( MuninnPage[] pages, int pageCount, FlushEventOpportunity flushOpportunity )
             throws IOException
     {
         FlushEvent flush = null;
@@ -251,21 +381,18 @@ final class MuninnPagedFile implements PagedFile
             MuninnPage firstPage = pages[0];
             long startFilePageId = firstPage.getFilePageId();
             flush = flushOpportunity.beginFlush( startFilePageId, firstPage.getCachePageId(), swapper );
-            long bytesWritten = swapper.write( startFilePageId, pages, 0, pagesGrabbed );
+            long bytesWritten = swapper.write( startFilePageId, pages, 0, pageCount );
 
             // Update the flush event
             flush.addBytesWritten( bytesWritten );
-            flush.addPagesFlushed( pagesGrabbed );
+            flush.addPagesFlushed( pageCount );
             flush.done();
 
             // Mark the flushed pages as clean
-            for ( int j = 0; j < pagesGrabbed; j++ )
+            for ( int j = 0; j < pageCount; j++ )
             {
                 pages[j].markAsClean();
             }
-
-            // There are now 0 'grabbed' pages
-            return 0;
         }
         catch ( IOException ioe )
         {
@@ -275,14 +402,6 @@ final class MuninnPagedFile implements PagedFile
             }
             throw ioe;
         }
-        finally
-        {
-            // Always unlock all the pages in the vector
-            for ( int j = 0; j < pagesGrabbed; j++ )
-            {
-                pages[j].unlockRead( stamps[j] );
-            }
-        }
     }
 
     private void syncDevice() throws IOException
@@ -354,6 +473,215 @@ final class MuninnPagedFile implements PagedFile
         return pageCache.grabFreePage( faultEvent );
     }
 
+    void addFreePageToFreelist( MuninnPage page )
+    {
+        pageCache.addFreePageToFreelist( page );
+    }
+
+    /**
+     * Called by read cursors after they have pinned a page, to detect sequential access and read ahead of the cursor.
+     * @param filePageId The file page id that was pinned.
+     * @param faulted {@code true} if the cursor had to page fault to pin the page.
+     * @param readAheadHint {@code true} if the cursor was given the {@link #PF_READ_AHEAD} flag.
+     */
+    void considerReadAhead( long filePageId, boolean faulted, boolean readAheadHint )
+    {
+        if ( readAheadWindow == 0 )
+        {
+            return;
+        }
+        if ( faulted )
+        {
+            // A fault right after the last read-ahead window is also sequential, since the pages in the window were
+            // all cache hits.
+            boolean sequential = filePageId == lastFaultedPageId + 1 || filePageId == readAheadNextPageId;
+            lastFaultedPageId = filePageId;
+            sequentialFaults = sequential? sequentialFaults + 1 : 0;
+            if ( readAheadHint || sequentialFaults >= sequentialFaultThreshold )
+            {
+                startReadAhead( filePageId + 1 );
+            }
+        }
+        else if ( filePageId == readAheadTriggerPageId )
+        {
+            // The cursor is half way through the pages we read ahead, so we read the next window before it gets there.
+            startReadAhead( readAheadNextPageId );
+        }
+    }
+
+    private void startReadAhead( long startFilePageId )
+    {
+        long lastPageId = getLastPageId();
+        if ( startFilePageId > lastPageId ||
+             !UnsafeUtil.compareAndSwapInt( this, readAheadInProgressOffset, 0, 1 ) )
+        {
+            // Either there's nothing more to read, or another read-ahead is already on its way.
+            return;
+        }
+        int pageCount = (int) Math.min( readAheadWindow, lastPageId - startFilePageId + 1 );
+        readAheadTriggerPageId = startFilePageId + pageCount / 2;
+        readAheadNextPageId = startFilePageId + pageCount;
+        try
+        {
+            pageCache.startReadAhead( this, startFilePageId, pageCount );
+        }
+        catch ( Throwable ignore )
+        {
+            // Read-ahead is only an optimisation, so we don't care if we can't get it started.
+            readAheadInProgress = 0;
+        }
+    }
+
+    /**
+     * Read the given range of pages into the page cache with vectored reads, skipping the pages that are already in
+     * the cache, or are being faulted in by other threads.
+     * <p>
+     * Read-ahead is only an optimisation, so failures are ignored. Any cursor that later pins one of the pages will
+     * simply fault it in by itself, and get to see the exception, if it happens again.
+     * <p>
+     * This method is called from a background thread.
+     */
+    void readAhead( long startFilePageId, int pageCount )
+    {
+        BinaryLatch[] latches = new BinaryLatch[pageCount];
+        try
+        {
+            // First we claim the translation table slots that have no pages bound to them, by injecting latches.
+            // Any cursor that wants to pin these pages will now wait for us to finish.
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                long filePageId = startFilePageId + i;
+                int chunkId = computeChunkId( filePageId );
+                Object[][] tt = translationTable;
+                if ( tt.length <= chunkId )
+                {
+                    tt = expandCapacity( chunkId );
+                }
+                BinaryLatch latch = new BinaryLatch();
+                if ( UnsafeUtil.compareAndSwapObject( tt[chunkId], computeChunkOffset( filePageId ), null, latch ) )
+                {
+                    latches[i] = latch;
+                }
+            }
+        }
+        finally
+        {
+            readAheadInProgress = 0;
+        }
+
+        // Then we read in all the runs of consecutive claimed pages.
+        MuninnPage[] pages = new MuninnPage[pageCount];
+        long[] stamps = new long[pageCount];
+        PageFaultEvent[] faultEvents = new PageFaultEvent[pageCount];
+        boolean failed = false;
+        int index = 0;
+        while ( index < pageCount )
+        {
+            if ( latches[index] == null )
+            {
+                index++;
+                continue;
+            }
+            int runStart = index;
+            while ( index < pageCount && latches[index] != null )
+            {
+                index++;
+            }
+            int runLength = index - runStart;
+            if ( failed )
+            {
+                releaseReadAheadLatches( startFilePageId, latches, runStart, runLength );
+            }
+            else
+            {
+                failed = !readAheadRun( startFilePageId, latches, pages, stamps, faultEvents, runStart, runLength );
+            }
+        }
+    }
+
+    private boolean readAheadRun(
+            long startFilePageId, BinaryLatch[] latches, MuninnPage[] pages, long[] stamps,
+            PageFaultEvent[] faultEvents, int runStart, int runLength )
+    {
+        int runEnd = runStart + runLength;
+        int grabbed = runStart;
+        try
+        {
+            for ( ; grabbed < runEnd; grabbed++ )
+            {
+                faultEvents[grabbed] = tracer.beginReadAhead( startFilePageId + grabbed, swapper );
+                MuninnPage page = grabFreePage( faultEvents[grabbed] );
+                stamps[grabbed] = page.writeLock();
+                pages[grabbed] = page;
+            }
+
+            // Check if we're racing with unmapping, before we touch the file. See MuninnPageCursor.pageFault.
+            assertStillMapped();
+            long runStartFilePageId = startFilePageId + runStart;
+            for ( int i = runStart; i < runEnd; i++ )
+            {
+                MuninnPage page = pages[i];
+                page.initBuffer();
+                page.beginFault( swapper, startFilePageId + i );
+            }
+            long bytesRead = swapper.read( runStartFilePageId, pages, runStart, runLength );
+            for ( int i = runStart; i < runEnd; i++ )
+            {
+                long pageBytesRead = Math.min( bytesRead, filePageSize );
+                bytesRead -= pageBytesRead;
+                faultEvents[i].addBytesRead( pageBytesRead );
+            }
+        }
+        catch ( Throwable throwable )
+        {
+            // The pages we managed to grab were never bound to the file, and the ones we did not get to begin
+            // faulting are not even loaded, so eviction would never pick them up. Return them to the freelist.
+            for ( int i = runStart; i < grabbed; i++ )
+            {
+                MuninnPage page = pages[i];
+                page.abortFault();
+                page.unlockWrite( stamps[i] );
+                addFreePageToFreelist( page );
+            }
+            for ( int i = runStart; i <= grabbed && i < runEnd; i++ )
+            {
+                faultEvents[i].done( throwable );
+            }
+            releaseReadAheadLatches( startFilePageId, latches, runStart, runLength );
+            return false;
+        }
+
+        for ( int i = runStart; i < runEnd; i++ )
+        {
+            MuninnPage page = pages[i];
+            page.completeFault( swapper );
+            // Count the read-ahead as a reference, so the page is not evicted before the cursor gets to it.
+            evictionStrategy.pageAccessed( page );
+            faultEvents[i].setCachePageId( page.getCachePageId() );
+            // The page must be in the translation table before we unlock it, since eviction could otherwise race
+            // with us and leave an unbound page in the table.
+            long filePageId = startFilePageId + i;
+            Object[] chunk = translationTable[computeChunkId( filePageId )];
+            UnsafeUtil.putObjectVolatile( chunk, computeChunkOffset( filePageId ), page );
+            page.unlockWrite( stamps[i] );
+            latches[i].release();
+            faultEvents[i].done();
+            pages[i] = null;
+        }
+        return true;
+    }
+
+    private void releaseReadAheadLatches( long startFilePageId, BinaryLatch[] latches, int runStart, int runLength )
+    {
+        for ( int i = runStart; i < runStart + runLength; i++ )
+        {
+            long filePageId = startFilePageId + i;
+            Object[] chunk = translationTable[computeChunkId( filePageId )];
+            UnsafeUtil.putObjectVolatile( chunk, computeChunkOffset( filePageId ), null );
+            latches[i].release();
+        }
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -22,6 +22,7 @@ package org.neo4j.io.pagecache.impl.muninn;
 import java.io.IOException;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PagedFile;
 
 final class MuninnReadPageCursor extends MuninnPageCursor
 {
@@ -57,6 +58,7 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         }
         unpinCurrentPage();
         pin( nextPageId, false );
+        pagedFile.considerReadAhead( nextPageId, pageFaulted, (pf_flags & PagedFile.PF_READ_AHEAD) != 0 );
         currentPageId = nextPageId;
         nextPageId++;
         return true;
@@ -76,7 +78,7 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( MuninnPage page, long filePageId, PageSwapper swapper )
     {
         reset( page );
-        page.incrementUsage();
+        pagedFile.evictionStrategy.pageAccessed( page );
     }
 
     @Override
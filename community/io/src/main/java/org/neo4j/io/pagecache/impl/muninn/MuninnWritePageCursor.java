@@ -81,7 +81,7 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         // that happens, dirty contents in memory will no longer have a chance
         // to get flushed.
         assertPagedFileStillMapped();
-        page.incrementUsage();
+        pagedFile.evictionStrategy.pageAccessed( page );
         page.markAsDirty();
     }
 
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The strategy for the {@link EvictionPolicy#SCAN_RESISTANT} policy.
+ * <p>
+ * Every page is either hot or cold, and has a reference bit that is raised whenever the page is pinned, and a test bit
+ * that is raised when the clock arm passes a referenced cold page for the first time. The references that a page get
+ * in the burst right after it has been faulted in, are considered correlated and only earn the page its test bit.
+ * Only a reference that arrives after the clock arm has passed the page, will promote a cold page to hot.
+ * <p>
+ * The clock arm leaves hot pages alone for as long as the number of hot pages is within its budget. Once the budget is
+ * exceeded, the clock arm first clears the reference bit of the hot pages, and then demotes unreferenced hot pages to
+ * cold. Demoted pages keep their test bit, so they are promoted right back if they are referenced again before the
+ * clock arm comes around. Only cold and unreferenced pages are evicted.
+ * <p>
+ * A sequential scan will therefore only cycle through the cold part of the cache, which is at least
+ * {@code 1 - hotPageRatio} of all the pages.
+ */
+final class ScanResistantEvictionStrategy extends EvictionStrategy
+{
+    // The fraction of the cache pages that are allowed to be hot, before the clock arm starts demoting hot pages.
+    private static final double hotPageRatio = getDouble(
+            "org.neo4j.io.pagecache.impl.muninn.ScanResistantEvictionStrategy.hotPageRatio", 0.75 );
+
+    private static double getDouble( String property, double def )
+    {
+        try
+        {
+            return Double.parseDouble( System.getProperty( property ) );
+        }
+        catch ( Exception e )
+        {
+            return def;
+        }
+    }
+
+    static final int HOT = 1;
+    static final int REFERENCED = 1 << 1;
+    static final int TESTED = 1 << 2;
+
+    private final int maxHotPages;
+    private final AtomicInteger hotPages;
+
+    ScanResistantEvictionStrategy( EvictionPolicy policy, int maxPages )
+    {
+        super( policy );
+        this.maxHotPages = (int) Math.max( 1, Math.min( maxPages - 1, maxPages * hotPageRatio ) );
+        this.hotPages = new AtomicInteger();
+    }
+
+    @Override
+    void pageAccessed( MuninnPage page )
+    {
+        // We also maintain the usage counter, because the background flush task uses it to avoid flushing pages
+        // that are very popular for writing.
+        page.incrementUsage();
+        int state;
+        do
+        {
+            state = page.getEvictionState();
+        }
+        while ( (state & REFERENCED) == 0 && !page.compareAndSetEvictionState( state, state | REFERENCED ) );
+    }
+
+    @Override
+    boolean isEvictionCandidate( MuninnPage page )
+    {
+        for (;;)
+        {
+            int state = page.getEvictionState();
+            boolean referenced = (state & REFERENCED) != 0;
+            if ( (state & HOT) != 0 )
+            {
+                if ( hotPages.get() <= maxHotPages )
+                {
+                    // The hot pages are within their budget, so we leave them alone.
+                    return false;
+                }
+                if ( referenced )
+                {
+                    if ( page.compareAndSetEvictionState( state, state & ~REFERENCED ) )
+                    {
+                        return false;
+                    }
+                }
+                else if ( page.compareAndSetEvictionState( state, TESTED ) )
+                {
+                    hotPages.decrementAndGet();
+                    return false;
+                }
+            }
+            else if ( referenced )
+            {
+                if ( (state & TESTED) != 0 )
+                {
+                    if ( page.compareAndSetEvictionState( state, HOT ) )
+                    {
+                        hotPages.incrementAndGet();
+                        return false;
+                    }
+                }
+                else if ( page.compareAndSetEvictionState( state, TESTED ) )
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    void pageEvicted( MuninnPage page )
+    {
+        int state;
+        do
+        {
+            state = page.getEvictionState();
+        }
+        while ( !page.compareAndSetEvictionState( state, 0 ) );
+        if ( (state & HOT) != 0 )
+        {
+            hotPages.decrementAndGet();
+        }
+    }
+
+    int countHotPages()
+    {
+        return hotPages.get();
+    }
+}
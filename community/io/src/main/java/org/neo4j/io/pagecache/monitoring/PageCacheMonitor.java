@@ -74,4 +74,20 @@ public interface PageCacheMonitor
      * @return The number of page evictions that have thrown exceptions thus far.
      */
     public long countEvictionExceptions();
+
+    /**
+     * @return The number of bytes of memory that has been allocated for the cache pages thus far.
+     */
+    public long countBytesAllocated();
+
+    /**
+     * @return The number of bytes of the allocated memory, that is backed by explicitly allocated huge pages.
+     */
+    public long countHugePageBytesAllocated();
+
+    /**
+     * @return The number of times the page cache has fallen back to allocating memory from the native heap, because
+     * the configured huge page directory could not be used.
+     */
+    public long countHugePageFallbacks();
 }
@@ -90,6 +90,9 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final AtomicLong filesMapped = new AtomicLong();
     protected final AtomicLong filesUnmapped = new AtomicLong();
     protected final AtomicLong evictionExceptions = new AtomicLong();
+    protected final AtomicLong bytesAllocated = new AtomicLong();
+    protected final AtomicLong hugePageBytesAllocated = new AtomicLong();
+    protected final AtomicLong hugePageFallbacks = new AtomicLong();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -155,6 +158,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         {
         }
 
+        @Override
+        public void setEvictionPolicy( String evictionPolicy )
+        {
+        }
+
         @Override
         public void close()
         {
@@ -267,6 +275,22 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         filesMapped.getAndIncrement();
     }
 
+    @Override
+    public void allocatedMemory( long bytes, boolean hugePages )
+    {
+        bytesAllocated.getAndAdd( bytes );
+        if ( hugePages )
+        {
+            hugePageBytesAllocated.getAndAdd( bytes );
+        }
+    }
+
+    @Override
+    public void hugePagesUnavailable( File directory, String reason, Throwable cause )
+    {
+        hugePageFallbacks.getAndIncrement();
+    }
+
     @Override
     public void unmappedFile( File file )
     {
@@ -292,6 +316,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         }
     }
 
+    @Override
+    public PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper )
+    {
+        return pageFaultEvent;
+    }
+
     /**
      * Invoked through beginPinMH.
      */
@@ -382,4 +412,22 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         return evictionExceptions.get();
     }
+
+    @Override
+    public long countBytesAllocated()
+    {
+        return bytesAllocated.get();
+    }
+
+    @Override
+    public long countHugePageBytesAllocated()
+    {
+        return hugePageBytesAllocated.get();
+    }
+
+    @Override
+    public long countHugePageFallbacks()
+    {
+        return hugePageFallbacks.get();
+    }
 }
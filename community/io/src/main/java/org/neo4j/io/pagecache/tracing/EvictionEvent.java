@@ -59,6 +59,11 @@ public interface EvictionEvent extends AutoCloseablePageCacheTracerEvent
         {
         }
 
+        @Override
+        public void setEvictionPolicy( String evictionPolicy )
+        {
+        }
+
         @Override
         public void close()
         {
@@ -90,4 +95,9 @@ public interface EvictionEvent extends AutoCloseablePageCacheTracerEvent
      * The cache page id of the evicted page.
      */
     public void setCachePageId( int cachePageId );
+
+    /**
+     * The name of the eviction policy that decided to evict the page.
+     */
+    public void setEvictionPolicy( String evictionPolicy );
 }
@@ -58,6 +58,12 @@ public interface PageCacheTracer extends PageCacheMonitor
             return PinEvent.NULL;
         }
 
+        @Override
+        public PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper )
+        {
+            return PageFaultEvent.NULL;
+        }
+
         @Override
         public MajorFlushEvent beginFileFlush( PageSwapper swapper )
         {
@@ -130,6 +136,34 @@ public interface PageCacheTracer extends PageCacheMonitor
             return 0;
         }
 
+        @Override
+        public long countBytesAllocated()
+        {
+            return 0;
+        }
+
+        @Override
+        public long countHugePageBytesAllocated()
+        {
+            return 0;
+        }
+
+        @Override
+        public long countHugePageFallbacks()
+        {
+            return 0;
+        }
+
+        @Override
+        public void allocatedMemory( long bytes, boolean hugePages )
+        {
+        }
+
+        @Override
+        public void hugePagesUnavailable( File directory, String reason, Throwable cause )
+        {
+        }
+
         @Override
         public String toString()
         {
@@ -147,6 +181,20 @@ public interface PageCacheTracer extends PageCacheMonitor
      */
     public void unmappedFile( File file );
 
+    /**
+     * The given number of bytes of memory has been allocated for cache pages.
+     * @param hugePages {@code true} if the memory is backed by explicitly allocated huge pages.
+     */
+    public void allocatedMemory( long bytes, boolean hugePages );
+
+    /**
+     * Memory for cache pages can no longer be allocated from the given huge page directory, and is allocated from the
+     * native heap instead.
+     * @param reason A description of why the directory cannot be used.
+     * @param cause The exception that made the directory unusable, or {@code null} if there was none.
+     */
+    public void hugePagesUnavailable( File directory, String reason, Throwable cause );
+
     /**
      * A background eviction has begun. Called from the background eviction thread.
      * 
@@ -161,6 +209,12 @@ public interface PageCacheTracer extends PageCacheMonitor
      */
     public PinEvent beginPin( boolean exclusiveLock, long filePageId, PageSwapper swapper );
 
+    /**
+     * A page is to be read into the cache ahead of any cursor pinning it. This is a page fault that is not part of
+     * any pin.
+     */
+    public PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper );
+
     /**
      * A PagedFile wants to flush all its bound pages.
      */
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+/**
+ * Counts what the page cursors of a single thread cause the page cache to do: how many pins hit pages that were
+ * already in memory, how many had to fault their pages in, how many bytes those faults read, and how many pages the
+ * thread had to evict to make room for them.
+ * <p>
+ * Unlike the {@link PageCacheTracer}, which sees the whole page cache, these counts can be attributed to whatever the
+ * thread is doing, e.g. a query. Take a {@link #snapshot()} before the work, and look at the counts
+ * {@link #since(PageCursorCounters) since} that snapshot after it.
+ * <p>
+ * The live counters of a thread are only ever updated by that thread, so they are plain fields, and are only
+ * meaningful when read from that same thread.
+ */
+public final class PageCursorCounters
+{
+    private static final ThreadLocal<PageCursorCounters> COUNTERS = new ThreadLocal<PageCursorCounters>()
+    {
+        @Override
+        protected PageCursorCounters initialValue()
+        {
+            return new PageCursorCounters( Thread.currentThread() );
+        }
+    };
+
+    private final Thread thread;
+    private long hits;
+    private long faults;
+    private long bytesRead;
+    private long evictions;
+
+    private PageCursorCounters( Thread thread )
+    {
+        this.thread = thread;
+    }
+
+    /**
+     * @return the live counters of the current thread.
+     */
+    public static PageCursorCounters forCurrentThread()
+    {
+        return COUNTERS.get();
+    }
+
+    public void hit()
+    {
+        hits++;
+    }
+
+    public void fault( long bytesRead )
+    {
+        faults++;
+        this.bytesRead += bytesRead;
+    }
+
+    public void eviction()
+    {
+        evictions++;
+    }
+
+    public long hits()
+    {
+        return hits;
+    }
+
+    public long faults()
+    {
+        return faults;
+    }
+
+    public long bytesRead()
+    {
+        return bytesRead;
+    }
+
+    public long evictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * @return a copy of the current counts, that will not change.
+     */
+    public PageCursorCounters snapshot()
+    {
+        PageCursorCounters snapshot = new PageCursorCounters( thread );
+        snapshot.hits = hits;
+        snapshot.faults = faults;
+        snapshot.bytesRead = bytesRead;
+        snapshot.evictions = evictions;
+        return snapshot;
+    }
+
+    /**
+     * @return {@code true} if these counters, or the counters they are a snapshot of, count for the current thread.
+     */
+    public boolean isForCurrentThread()
+    {
+        return thread == Thread.currentThread();
+    }
+
+    /**
+     * @param earlier a snapshot of these counters.
+     * @return the counts accumulated since the given snapshot was taken.
+     */
+    public PageCursorCounters since( PageCursorCounters earlier )
+    {
+        if ( earlier.thread != thread )
+        {
+            throw new IllegalArgumentException( "Cannot compare the page cursor counters of " + thread +
+                                                " with those of " + earlier.thread );
+        }
+        PageCursorCounters delta = new PageCursorCounters( thread );
+        delta.hits = hits - earlier.hits;
+        delta.faults = faults - earlier.faults;
+        delta.bytesRead = bytesRead - earlier.bytesRead;
+        delta.evictions = evictions - earlier.evictions;
+        return delta;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "PageCursorCounters[hits=%d, faults=%d, bytesRead=%d, evictions=%d]",
+                hits, faults, bytesRead, evictions );
+    }
+}
@@ -689,6 +689,43 @@ public abstract class PageSwapperTest
         assertThat( page.getInt( 0 ), is( 0 ) );
     }
 
+    @Test
+    public void positionedVectoredReadMustOnlyTouchThePagesInTheGivenRange() throws Exception
+    {
+        File file = file( "file" );
+        PageSwapperFactory factory = swapperFactory();
+        PageSwapper swapper = factory.createPageSwapper( file, 4, NO_CALLBACK, true );
+
+        ByteBufferPage output = createPage( 4 );
+        output.putInt( 2, 0 );
+        swapper.write( 0, output );
+
+        ByteBufferPage before = createPage( 4 );
+        ByteBufferPage pageA = createPage( 4 );
+        ByteBufferPage pageB = createPage( 4 );
+        ByteBufferPage after = createPage( 4 );
+        Page[] pages = new Page[]{before, pageA, pageB, after};
+        for ( Page page : pages )
+        {
+            ((ByteBufferPage) page).putInt( -1, 0 );
+        }
+
+        // Read the one page of the file, and one page past its end
+        assertThat( swapper.read( 0, pages, 1, 2 ), is( 4L ) );
+        assertThat( pageA.getInt( 0 ), is( 2 ) );
+        assertThat( pageB.getInt( 0 ), is( 0 ) );
+        assertThat( before.getInt( 0 ), is( -1 ) );
+        assertThat( after.getInt( 0 ), is( -1 ) );
+
+        // Read entirely past the end of the file
+        pageA.putInt( -1, 0 );
+        assertThat( swapper.read( 2, pages, 1, 2 ), is( 0L ) );
+        assertThat( pageA.getInt( 0 ), is( 0 ) );
+        assertThat( pageB.getInt( 0 ), is( 0 ) );
+        assertThat( before.getInt( 0 ), is( -1 ) );
+        assertThat( after.getInt( 0 ), is( -1 ) );
+    }
+
     @Test
     public void positionedVectoredReadBeyondEndOfFileMustFillPagesWithZeros() throws Exception
     {
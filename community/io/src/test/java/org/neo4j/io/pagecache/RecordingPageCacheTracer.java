@@ -67,6 +67,18 @@ public class RecordingPageCacheTracer implements PageCacheTracer
         // we currently do not record these
     }
 
+    @Override
+    public void allocatedMemory( long bytes, boolean hugePages )
+    {
+        // we currently do not record these
+    }
+
+    @Override
+    public void hugePagesUnavailable( File directory, String reason, Throwable cause )
+    {
+        // we currently do not record these
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -98,35 +110,7 @@ public class RecordingPageCacheTracer implements PageCacheTracer
             @Override
             public PageFaultEvent beginPageFault()
             {
-                return new PageFaultEvent()
-                {
-                    @Override
-                    public void addBytesRead( long bytes )
-                    {
-                    }
-
-                    @Override
-                    public void done()
-                    {
-                        pageFaulted( filePageId, swapper );
-                    }
-
-                    @Override
-                    public void done( Throwable throwable )
-                    {
-                    }
-
-                    @Override
-                    public EvictionEvent beginEviction()
-                    {
-                        return new RecordingEvictionEvent();
-                    }
-
-                    @Override
-                    public void setCachePageId( int cachePageId )
-                    {
-                    }
-                };
+                return new RecordingPageFaultEvent( filePageId, swapper );
             }
 
             @Override
@@ -136,6 +120,12 @@ public class RecordingPageCacheTracer implements PageCacheTracer
         };
     }
 
+    @Override
+    public PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper )
+    {
+        return new RecordingPageFaultEvent( filePageId, swapper );
+    }
+
     @Override
     public MajorFlushEvent beginFileFlush( PageSwapper swapper )
     {
@@ -208,6 +198,24 @@ public class RecordingPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long countBytesAllocated()
+    {
+        return 0;
+    }
+
+    @Override
+    public long countHugePageBytesAllocated()
+    {
+        return 0;
+    }
+
+    @Override
+    public long countHugePageFallbacks()
+    {
+        return 0;
+    }
+
     public <T extends Event> T observe( Class<T> type ) throws InterruptedException
     {
         return type.cast( record.take() );
@@ -319,6 +327,45 @@ public class RecordingPageCacheTracer implements PageCacheTracer
         }
     }
 
+    private class RecordingPageFaultEvent implements PageFaultEvent
+    {
+        private final long filePageId;
+        private final PageSwapper swapper;
+
+        public RecordingPageFaultEvent( long filePageId, PageSwapper swapper )
+        {
+            this.filePageId = filePageId;
+            this.swapper = swapper;
+        }
+
+        @Override
+        public void addBytesRead( long bytes )
+        {
+        }
+
+        @Override
+        public void done()
+        {
+            pageFaulted( filePageId, swapper );
+        }
+
+        @Override
+        public void done( Throwable throwable )
+        {
+        }
+
+        @Override
+        public EvictionEvent beginEviction()
+        {
+            return new RecordingEvictionEvent();
+        }
+
+        @Override
+        public void setCachePageId( int cachePageId )
+        {
+        }
+    }
+
     private class RecordingEvictionEvent implements EvictionEvent
     {
         private long filePageId;
@@ -353,6 +400,11 @@ public class RecordingPageCacheTracer implements PageCacheTracer
         {
         }
 
+        @Override
+        public void setEvictionPolicy( String evictionPolicy )
+        {
+        }
+
         @Override
         public void close()
         {
@@ -19,16 +19,27 @@
  */
 package org.neo4j.io.pagecache.impl.muninn;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 public class MemoryManagerTest
 {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void allocatedPointerMustNotBeNull() throws Exception
     {
@@ -55,4 +66,82 @@ public class MemoryManagerTest
         }
         // Also asserts that no OutOfMemoryError is thrown.
     }
+
+    @Test
+    public void largeAllocationsMustBeAlignedToHugePages() throws Exception
+    {
+        long hugePageSize = 2 * 1024 * 1024;
+        MemoryManager mman = new MemoryManager( 64 * 1024 * 1024, UnsafeUtil.pageSize() );
+        long address = mman.allocateAligned( 8192 );
+        assertThat( address % hugePageSize, is( 0L ) );
+    }
+
+    @Test
+    public void mustReportAllocatedMemoryToTracer() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MemoryManager mman = new MemoryManager( 16 * 4096, 8, tracer, null );
+        mman.allocateAligned( 8192 );
+        assertThat( tracer.countBytesAllocated(), is( 16 * 4096L ) );
+        assertThat( tracer.countHugePageBytesAllocated(), is( 0L ) );
+    }
+
+    @Test
+    public void mustAllocateMemoryMappedFromHugePageDirectory() throws Exception
+    {
+        File directory = findHugetlbfsMount();
+        assumeTrue( directory != null && directory.canWrite() );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MemoryManager mman = new MemoryManager( 16 * 4096, 8, tracer, directory );
+        long address = mman.allocateAligned( 8192 );
+        UnsafeUtil.putLong( address, 42 );
+        assertThat( UnsafeUtil.getLong( address ), is( 42L ) );
+        assertThat( tracer.countHugePageBytesAllocated(), is( 16 * 4096L ) );
+        assertThat( tracer.countHugePageFallbacks(), is( 0L ) );
+    }
+
+    @Test
+    public void mustNotUseHugePagesFromDirectoryThatIsNotOnHugetlbfs() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        File directory = folder.newFolder();
+        assertFalse( MemoryManager.isOnHugetlbfs( directory ) );
+        MemoryManager mman = new MemoryManager( 16 * 4096, 8, tracer, directory );
+        long address = mman.allocateAligned( 8192 );
+        UnsafeUtil.putLong( address, 42 );
+        assertThat( UnsafeUtil.getLong( address ), is( 42L ) );
+        assertThat( tracer.countBytesAllocated(), is( 16 * 4096L ) );
+        assertThat( tracer.countHugePageBytesAllocated(), is( 0L ) );
+        assertThat( directory.list().length, is( 0 ) );
+        assertThat( tracer.countHugePageFallbacks(), is( 1L ) );
+    }
+
+    @Test
+    public void mustFallBackToNativeMemoryIfHugePageDirectoryIsUnusable() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        File directory = new File( folder.getRoot(), "does-not-exist" );
+        MemoryManager mman = new MemoryManager( 16 * 4096, 8, tracer, directory );
+        assertThat( mman.allocateAligned( 8192 ), is( not( 0L ) ) );
+        assertThat( tracer.countBytesAllocated(), is( 16 * 4096L ) );
+        assertThat( tracer.countHugePageBytesAllocated(), is( 0L ) );
+        assertThat( tracer.countHugePageFallbacks(), is( 1L ) );
+    }
+
+    private static File findHugetlbfsMount() throws Exception
+    {
+        File mounts = new File( "/proc/mounts" );
+        if ( mounts.isFile() )
+        {
+            for ( String line : Files.readAllLines( mounts.toPath(), StandardCharsets.UTF_8 ) )
+            {
+                String[] fields = line.split( " " );
+                if ( fields.length > 2 && fields[2].equals( "hugetlbfs" ) )
+                {
+                    return new File( fields[1] );
+                }
+            }
+        }
+        return null;
+    }
 }
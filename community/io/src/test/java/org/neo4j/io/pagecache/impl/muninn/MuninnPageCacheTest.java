@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
 import org.neo4j.graphdb.mockfs.DelegatingStoreChannel;
@@ -33,13 +34,19 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.RecordingPageCacheTracer;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
+import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertFalse;
@@ -49,6 +56,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.neo4j.io.pagecache.PagedFile.PF_EXCLUSIVE_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_LOCK;
 import static org.neo4j.io.pagecache.RecordingPageCacheTracer.Evict;
 import static org.neo4j.io.pagecache.RecordingPageCacheTracer.Fault;
@@ -120,6 +128,32 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         assertNotNull( tracer.observe( Evict.class ) );
     }
 
+    @Test
+    public void mustCountHitsFaultsAndBytesReadOfTheCurrentThread() throws Exception
+    {
+        writeInitialDataTo( file );
+        MuninnPageCache pageCache = createPageCache( fs, 4, 8, PageCacheTracer.NULL );
+        PagedFile pagedFile = pageCache.map( file, 8 );
+        PageCursorCounters counters = PageCursorCounters.forCurrentThread();
+        PageCursorCounters before = counters.snapshot();
+
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+        }
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+            assertTrue( cursor.next() );
+        }
+
+        PageCursorCounters delta = counters.since( before );
+        assertThat( delta.hits(), is( 1L ) );
+        assertThat( delta.faults(), is( 2L ) );
+        assertThat( delta.bytesRead(), is( 16L ) );
+        pagedFile.close();
+    }
+
     private void writeInitialDataTo( File file ) throws IOException
     {
         StoreChannel channel = fs.create( file );
@@ -265,6 +299,276 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         assertThat( buf.getLong(), is( y ) );
     }
 
+    @Test
+    public void scanResistantEvictionPolicyMustKeepHotPagesDuringSequentialScan() throws Exception
+    {
+        final int hotPages = 3;
+        int scanPages = 200;
+        final AtomicInteger hotPageFaults = new AtomicInteger();
+        PageCacheTracer tracer = new DelegatingPageCacheTracer( PageCacheTracer.NULL )
+        {
+            @Override
+            public PinEvent beginPin( boolean exclusiveLock, long filePageId, PageSwapper swapper )
+            {
+                if ( filePageId >= hotPages )
+                {
+                    return PinEvent.NULL;
+                }
+                return new PinEvent()
+                {
+                    @Override
+                    public void setCachePageId( int cachePageId )
+                    {
+                    }
+
+                    @Override
+                    public PageFaultEvent beginPageFault()
+                    {
+                        hotPageFaults.getAndIncrement();
+                        return PageFaultEvent.NULL;
+                    }
+
+                    @Override
+                    public void done()
+                    {
+                    }
+                };
+            }
+        };
+        SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        MuninnPageCache pageCache = new MuninnPageCache(
+                swapperFactory, 20, 8, tracer, EvictionPolicy.SCAN_RESISTANT );
+        assertThat( pageCache.getEvictionPolicy(), is( EvictionPolicy.SCAN_RESISTANT ) );
+        PagedFile pagedFile = pageCache.map( file, 8 );
+
+        // The first scan warms up the hot pages, and the second scan must not fault them in again.
+        scanWhileTouchingHotPages( pagedFile, hotPages, scanPages );
+        int hotPageFaultsBeforeSecondScan = hotPageFaults.get();
+        scanWhileTouchingHotPages( pagedFile, hotPages, scanPages );
+        assertThat( hotPageFaults.get(), is( hotPageFaultsBeforeSecondScan ) );
+
+        pagedFile.close();
+        pageCache.close();
+    }
+
+    @Test
+    public void flushAndForceMustBridgeSmallGapsOfCleanPagesBetweenDirtyPages() throws Exception
+    {
+        StoreChannel channel = fs.create( file );
+        channel.writeAll( ByteBuffer.allocate( 7 * 8 ) );
+        channel.close();
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache( fs, 20, 8, blockCacheFlush( tracer ) );
+        PagedFile pagedFile = pageCache.map( file, 8 );
+
+        // Pages 0, 2 and 6 are dirty, and pages 1, 3, 4 and 5 are loaded but clean. The single clean page in between
+        // page 0 and 2 is small enough of a gap to be bridged, but the three pages in between page 2 and 6 are not.
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_LOCK ) )
+        {
+            for ( int i = 0; i < 7; i++ )
+            {
+                assertTrue( cursor.next() );
+            }
+        }
+        try ( PageCursor cursor = pagedFile.io( 0, PF_EXCLUSIVE_LOCK ) )
+        {
+            for ( long filePageId : new long[]{0, 2, 6} )
+            {
+                assertTrue( cursor.next( filePageId ) );
+                cursor.putLong( x );
+            }
+        }
+        long flushesBefore = tracer.countFlushes();
+        pagedFile.flushAndForce();
+        assertThat( tracer.countFlushes() - flushesBefore, is( 2L ) );
+        assertThat( tracer.countBytesWritten(), is( 3 * 8L + 8L ) );
+
+        ByteBuffer buf = ByteBuffer.allocate( 7 * 8 );
+        channel = fs.open( file, "r" );
+        channel.read( buf );
+        channel.close();
+        buf.flip();
+        for ( int i = 0; i < 7; i++ )
+        {
+            assertThat( buf.getLong(), is( i == 0 || i == 2 || i == 6? x : 0L ) );
+        }
+
+        pagedFile.close();
+        pageCache.close();
+    }
+
+    @Test( timeout = 10000 )
+    public void readAheadHintMustPrefetchTheFollowingPages() throws Exception
+    {
+        int filePages = 40;
+        StoreChannel channel = fs.create( file );
+        ByteBuffer buf = ByteBuffer.allocate( 8 );
+        for ( long filePageId = 0; filePageId < filePages; filePageId++ )
+        {
+            buf.clear();
+            buf.putLong( filePageId );
+            buf.flip();
+            channel.writeAll( buf );
+        }
+        channel.close();
+
+        // The read-ahead window is limited to a quarter of the page cache.
+        int readAheadWindow = 25;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache( fs, 100, 8, tracer );
+        PagedFile pagedFile = pageCache.map( file, 8 );
+
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_LOCK | PF_READ_AHEAD ) )
+        {
+            assertTrue( cursor.next() );
+            while ( tracer.countFaults() < 1 + readAheadWindow )
+            {
+                Thread.sleep( 1 );
+            }
+
+            // Now the pages up until the read-ahead trigger must all be cache hits.
+            for ( long filePageId = 1; filePageId <= readAheadWindow / 2; filePageId++ )
+            {
+                assertTrue( cursor.next() );
+                long value;
+                do
+                {
+                    value = cursor.getLong( 0 );
+                }
+                while ( cursor.shouldRetry() );
+                assertThat( value, is( filePageId ) );
+            }
+        }
+        assertThat( tracer.countFaults(), is( 1L + readAheadWindow ) );
+
+        pagedFile.close();
+        pageCache.close();
+    }
+
+    @Test
+    public void freePageAddedOnTopOfPagesMustCountAllPagesOnTheFreelist() throws Exception
+    {
+        // Laid out like the initial freelist: a chain of pages on top of some free pages
+        MemoryManager memoryManager = new MemoryManager( 8192 * 10, 8 );
+        FreePage freePages = null;
+        for ( int i = 0; i < 3; i++ )
+        {
+            FreePage freePage = new FreePage( new MuninnPage( 8192, memoryManager ) );
+            freePage.setNext( freePages );
+            freePages = freePage;
+        }
+        Object freelist = freePages;
+        for ( int i = 0; i < 5; i++ )
+        {
+            MuninnPage page = new MuninnPage( 8192, memoryManager );
+            page.nextFree = freelist;
+            freelist = page;
+        }
+
+        // A page given back before the chain of pages has been used up
+        FreePage freePage = new FreePage( new MuninnPage( 8192, memoryManager ) );
+        freePage.setNext( freelist );
+
+        assertThat( freePage.count, is( 1 + 5 + 3 ) );
+    }
+
+    @Test( timeout = 10000 )
+    public void failedReadAheadMustReturnItsPagesToTheFreelist() throws Exception
+    {
+        int filePages = 40;
+        StoreChannel channel = fs.create( file );
+        ByteBuffer buf = ByteBuffer.allocate( 8 );
+        for ( long filePageId = 0; filePageId < filePages; filePageId++ )
+        {
+            buf.clear();
+            buf.putLong( filePageId );
+            buf.flip();
+            channel.writeAll( buf );
+        }
+        channel.close();
+
+        // Reads fail from file page 8 and onwards, which is partway through the read-ahead run of page 1 to 25.
+        final long failingOffset = 8 * 8;
+        FileSystemAbstraction fs = new DelegatingFileSystemAbstraction( this.fs )
+        {
+            @Override
+            public StoreChannel open( File fileName, String mode ) throws IOException
+            {
+                return new DelegatingStoreChannel( super.open( fileName, mode ) )
+                {
+                    @Override
+                    public int read( ByteBuffer dst, long position ) throws IOException
+                    {
+                        if ( position >= failingOffset )
+                        {
+                            throw new IOException( "uh-oh..." );
+                        }
+                        return super.read( dst, position );
+                    }
+                };
+            }
+        };
+
+        int readAheadWindow = 25;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache( fs, 100, 8, tracer );
+        PagedFile pagedFile = pageCache.map( file, 8 );
+        int freePages = pageCache.countFreePages();
+
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_LOCK | PF_READ_AHEAD ) )
+        {
+            assertTrue( cursor.next() );
+            // Failed read-ahead faults are counted too, after the pages have been given back.
+            while ( tracer.countFaults() < 1 + readAheadWindow )
+            {
+                Thread.sleep( 1 );
+            }
+
+            // Only the page of the cursor is taken from the freelist.
+            assertThat( pageCache.countFreePages(), is( freePages - 1 ) );
+
+            // And the pages that were read ahead of the failure are faulted in by the cursor itself.
+            assertTrue( cursor.next() );
+            long value;
+            do
+            {
+                value = cursor.getLong( 0 );
+            }
+            while ( cursor.shouldRetry() );
+            assertThat( value, is( 1L ) );
+        }
+
+        pagedFile.close();
+        pageCache.close();
+    }
+
+    private void scanWhileTouchingHotPages( PagedFile pagedFile, int hotPages, int scanPages ) throws IOException
+    {
+        for ( int scanPageId = hotPages; scanPageId < hotPages + scanPages; scanPageId++ )
+        {
+            try ( PageCursor cursor = pagedFile.io( scanPageId, PF_EXCLUSIVE_LOCK ) )
+            {
+                // Pin the page many times in a row, like a store scan pinning it once for every record.
+                for ( int i = 0; i < 10; i++ )
+                {
+                    assertTrue( cursor.next( scanPageId ) );
+                    cursor.putLong( scanPageId );
+                }
+            }
+            if ( scanPageId % 2 == 0 )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_LOCK ) )
+                {
+                    for ( int hotPageId = 0; hotPageId < hotPages; hotPageId++ )
+                    {
+                        assertTrue( cursor.next( hotPageId ) );
+                    }
+                }
+            }
+        }
+    }
+
     @Test( timeout = 10000 )
     public void mustUnblockPageFaultersWhenEvictionGetsException() throws Exception
     {
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ScanResistantEvictionStrategyTest
+{
+    private final MemoryManager mman = new MemoryManager( 16 * 8192, 8 );
+
+    private MuninnPage[] pages( int count )
+    {
+        MuninnPage[] pages = new MuninnPage[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            pages[i] = new MuninnPage( 8192, mman );
+        }
+        return pages;
+    }
+
+    private ScanResistantEvictionStrategy strategy( int maxPages )
+    {
+        return (ScanResistantEvictionStrategy) EvictionPolicy.SCAN_RESISTANT.createStrategy( maxPages );
+    }
+
+    @Test
+    public void unreferencedPagesMustBeEvictionCandidates() throws Exception
+    {
+        ScanResistantEvictionStrategy strategy = strategy( 4 );
+        MuninnPage page = pages( 1 )[0];
+        assertTrue( strategy.isEvictionCandidate( page ) );
+    }
+
+    @Test
+    public void pageReferencedOnlyInBurstAfterFaultMustBeEvictedOnSecondPass() throws Exception
+    {
+        ScanResistantEvictionStrategy strategy = strategy( 4 );
+        MuninnPage page = pages( 1 )[0];
+        for ( int i = 0; i < 100; i++ )
+        {
+            strategy.pageAccessed( page );
+        }
+        assertFalse( strategy.isEvictionCandidate( page ) );
+        assertTrue( strategy.isEvictionCandidate( page ) );
+        assertThat( strategy.countHotPages(), is( 0 ) );
+    }
+
+    @Test
+    public void pageReferencedAgainAfterFirstPassMustBecomeHot() throws Exception
+    {
+        ScanResistantEvictionStrategy strategy = strategy( 4 );
+        MuninnPage page = pages( 1 )[0];
+        strategy.pageAccessed( page );
+        assertFalse( strategy.isEvictionCandidate( page ) );
+        strategy.pageAccessed( page );
+        assertFalse( strategy.isEvictionCandidate( page ) );
+        assertThat( strategy.countHotPages(), is( 1 ) );
+
+        // Hot pages are left alone for as long as they are within their budget.
+        assertFalse( strategy.isEvictionCandidate( page ) );
+        assertFalse( strategy.isEvictionCandidate( page ) );
+    }
+
+    @Test
+    public void hotPagesMustBeDemotedWhenBudgetIsExceeded() throws Exception
+    {
+        ScanResistantEvictionStrategy strategy = strategy( 4 ); // allows 3 hot pages
+        MuninnPage[] pages = pages( 4 );
+        for ( MuninnPage page : pages )
+        {
+            strategy.pageAccessed( page );
+            strategy.isEvictionCandidate( page );
+            strategy.pageAccessed( page );
+            strategy.isEvictionCandidate( page );
+        }
+        assertThat( strategy.countHotPages(), is( 4 ) );
+        strategy.pageAccessed( pages[0] );
+
+        // The first pass over a referenced hot page, when over budget, clears its reference bit ...
+        assertFalse( strategy.isEvictionCandidate( pages[0] ) );
+        assertThat( strategy.countHotPages(), is( 4 ) );
+        // ... and the second demotes them to cold.
+        assertFalse( strategy.isEvictionCandidate( pages[0] ) );
+        assertThat( strategy.countHotPages(), is( 3 ) );
+        // Cold and unreferenced pages are evicted.
+        assertTrue( strategy.isEvictionCandidate( pages[0] ) );
+    }
+
+    @Test
+    public void demotedPageMustBePromotedBackIfReferencedBeforeEviction() throws Exception
+    {
+        ScanResistantEvictionStrategy strategy = strategy( 2 ); // allows 1 hot page
+        MuninnPage[] pages = pages( 2 );
+        for ( MuninnPage page : pages )
+        {
+            strategy.pageAccessed( page );
+            strategy.isEvictionCandidate( page );
+            strategy.pageAccessed( page );
+            strategy.isEvictionCandidate( page );
+        }
+        strategy.isEvictionCandidate( pages[0] );
+        strategy.isEvictionCandidate( pages[0] );
+        assertThat( strategy.countHotPages(), is( 1 ) );
+
+        strategy.pageAccessed( pages[0] );
+        assertFalse( strategy.isEvictionCandidate( pages[0] ) );
+        assertThat( strategy.countHotPages(), is( 2 ) );
+    }
+
+    @Test
+    public void evictingHotPageMustResetStateAndHotPageCount() throws Exception
+    {
+        ScanResistantEvictionStrategy strategy = strategy( 4 );
+        MuninnPage page = pages( 1 )[0];
+        strategy.pageAccessed( page );
+        strategy.isEvictionCandidate( page );
+        strategy.pageAccessed( page );
+        strategy.isEvictionCandidate( page );
+        assertThat( strategy.countHotPages(), is( 1 ) );
+
+        long stamp = page.writeLock();
+        strategy.pageEvicted( page );
+        page.unlockWrite( stamp );
+
+        assertThat( strategy.countHotPages(), is( 0 ) );
+        assertThat( page.getEvictionState(), is( 0 ) );
+    }
+}
@@ -87,6 +87,11 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.beginPin( exclusiveLock, filePageId, swapper );
     }
 
+    public PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper )
+    {
+        return delegate.beginReadAhead( filePageId, swapper );
+    }
+
     public void unmappedFile( File file )
     {
         delegate.unmappedFile( file );
@@ -97,6 +102,31 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.countEvictionExceptions();
     }
 
+    public long countBytesAllocated()
+    {
+        return delegate.countBytesAllocated();
+    }
+
+    public long countHugePageBytesAllocated()
+    {
+        return delegate.countHugePageBytesAllocated();
+    }
+
+    public void allocatedMemory( long bytes, boolean hugePages )
+    {
+        delegate.allocatedMemory( bytes, hugePages );
+    }
+
+    public long countHugePageFallbacks()
+    {
+        return delegate.countHugePageFallbacks();
+    }
+
+    public void hugePagesUnavailable( File directory, String reason, Throwable cause )
+    {
+        delegate.hugePagesUnavailable( directory, reason, cause );
+    }
+
     public long countFilesMapped()
     {
         return delegate.countFilesMapped();
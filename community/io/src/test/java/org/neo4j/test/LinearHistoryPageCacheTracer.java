@@ -246,6 +246,7 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         private File file;
         private IOException exception;
         private int cachePageId;
+        private String evictionPolicy;
 
         @Override
         public void setFilePageId( long filePageId )
@@ -277,6 +278,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
             this.cachePageId = cachePageId;
         }
 
+        @Override
+        public void setEvictionPolicy( String evictionPolicy )
+        {
+            this.evictionPolicy = evictionPolicy;
+        }
+
         @Override
         public FlushEvent beginFlush( long filePageId, int cachePageId, PageSwapper swapper )
         {
@@ -290,6 +297,8 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
             out.print( filePageId );
             out.print( ", cachePageId:" );
             out.print( cachePageId );
+            out.print( ", evictionPolicy:" );
+            out.print( evictionPolicy );
             print( out, file );
             print( out, exception, exceptionLinePrefix );
         }
@@ -540,6 +549,16 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         add( new UnmappedFileHEvent() ).file = file;
     }
 
+    @Override
+    public void allocatedMemory( long bytes, boolean hugePages )
+    {
+    }
+
+    @Override
+    public void hugePagesUnavailable( File directory, String reason, Throwable cause )
+    {
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -552,6 +571,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return add( new PinHEvent( exclusiveLock, filePageId, swapper ));
     }
 
+    @Override
+    public PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper )
+    {
+        return add( new PageFaultHEvent() );
+    }
+
     @Override
     public MajorFlushEvent beginFileFlush( PageSwapper swapper )
     {
@@ -624,6 +649,24 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long countBytesAllocated()
+    {
+        return 0;
+    }
+
+    @Override
+    public long countHugePageBytesAllocated()
+    {
+        return 0;
+    }
+
+    @Override
+    public long countHugePageFallbacks()
+    {
+        return 0;
+    }
+
     private class HistoryPrinter implements Consumer<HEvent>
     {
         private final List<HEvent> concurrentIntervals;
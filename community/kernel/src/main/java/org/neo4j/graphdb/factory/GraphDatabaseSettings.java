@@ -26,6 +26,7 @@ import java.lang.reflect.Method;
 
 import org.neo4j.graphdb.config.Setting;
 import org.neo4j.helpers.Settings;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.kernel.configuration.ConfigurationMigrator;
 import org.neo4j.kernel.configuration.GraphDatabaseConfigurationMigrator;
 import org.neo4j.kernel.configuration.Internal;
@@ -103,7 +104,7 @@ public abstract class GraphDatabaseSettings
     @Internal
     public static final Setting<String> cypher_runtime = setting(
             "dbms.cypher.runtime",
-            options( "INTERPRETED", "COMPILED", DEFAULT ), DEFAULT );
+            options( "INTERPRETED", "COMPILED", "PARALLEL", DEFAULT ), DEFAULT );
 
     @Description( "Enable tracing of compilation in cypher." )
     @Internal
@@ -112,6 +113,11 @@ public abstract class GraphDatabaseSettings
     @Description( "The number of Cypher query execution plans that are cached." )
     public static Setting<Integer> query_cache_size = setting( "query_cache_size", INTEGER, "1000", min( 0 ) );
 
+    @Description( "Save the queries whose execution plans are cached when the database shuts down, and plan them " +
+                  "again in the background when it starts, so that the first executions of those queries do not " +
+                  "have to wait for them to be planned." )
+    public static final Setting<Boolean> query_cache_warmup = setting( "dbms.query_cache_warmup", BOOLEAN, FALSE );
+
     @Description( "The threshold when a plan is considered stale. If any of the underlying" +
                   " statistics used to create the plan has changed more than this value, " +
                   "the plan is considered stale and will be replanned. " +
@@ -121,6 +127,27 @@ public abstract class GraphDatabaseSettings
     @Description("The minimum lifetime of a query plan before a query is considered for replanning")
     public static Setting<Long> cypher_min_replan_interval = setting( "dbms.cypher.min_replan_interval", DURATION, "1s" );
 
+    @Description( "The longest time the IDP planner spends searching for the best order to solve the relationships of a " +
+                  "pattern in. Once it has run out, the rest of the pattern is planned greedily from the best partial " +
+                  "plans found so far." )
+    public static final Setting<Long> cypher_idp_time_limit = setting( "dbms.cypher.idp_time_limit", DURATION, "1s" );
+
+    @Description( "The number of rows a sorting Cypher operator, and the number of groups an aggregating Cypher " +
+                  "operator, keeps on the heap. Larger results are sorted in runs of this many rows, which are " +
+                  "written to temporary files and merged as the result is read. Rows of groups beyond this many are " +
+                  "written to partitions in temporary files, which are aggregated one at a time. Zero keeps all rows " +
+                  "and groups on the heap." )
+    public static final Setting<Integer> cypher_spill_threshold = setting( "dbms.cypher.spill_threshold", INTEGER, "0", min( 0 ) );
+
+    @Description( "The most threads that a Cypher query run with the parallel runtime uses for reading the graph. The " +
+                  "queries share a pool of this many threads. Zero uses as many threads as there are processors." )
+    public static final Setting<Integer> cypher_parallel_workers = setting( "dbms.cypher.parallel_workers", INTEGER, "0", min( 0 ) );
+
+    @Description( "Pass rows between the Cypher operators that scan, expand, filter, project and join nodes in " +
+                  "batches of columns, instead of a row at a time. Only read-only queries of the interpreted runtime " +
+                  "use batches." )
+    public static final Setting<Boolean> cypher_batched_rows = setting( "dbms.cypher.batched_rows", BOOLEAN, FALSE );
+
     @Description( "Determines if Cypher will allow using file URLs when loading data using `LOAD CSV`. Setting this "
                   + "value to `false` will cause Neo4j to fail `LOAD CSV` clauses that load data from the file system." )
     public static Setting<Boolean> allow_file_urls = setting( "allow_file_urls", BOOLEAN, TRUE );
@@ -175,6 +202,36 @@ public abstract class GraphDatabaseSettings
                   "for seconds, and 'ms' for milliseconds." )
     public static final Setting<Long> check_point_interval_time = setting( "dbms.checkpoint.interval.time", DURATION, "5m" );
 
+    @Description( "The longest time, in microseconds, that a committing transaction may wait for other transactions " +
+                  "to commit, so that they can all share the same force of the transaction log. The wait is cut " +
+                  "short once `dbms.tx_log.group_commit.batch_size` transactions are waiting, and is automatically " +
+                  "kept below the time it takes to force the log. Transactions that commit alone are never made to " +
+                  "wait. Group commit trades a little commit latency for fewer forces, which is worthwhile on disks " +
+                  "where forcing is slow. The default is '0', which disables the wait." )
+    public static final Setting<Integer> group_commit_max_wait = setting( "dbms.tx_log.group_commit.max_wait_micros", INTEGER, "0", min(0) );
+
+    @Description( "The number of transactions waiting for a force of the transaction log, at which point the log is " +
+                  "forced without waiting for any more transactions to join. Only relevant when " +
+                  "`dbms.tx_log.group_commit.max_wait_micros` is greater than zero." )
+    public static final Setting<Integer> group_commit_batch_size = setting( "dbms.tx_log.group_commit.batch_size", INTEGER, "16", min(1) );
+
+    @Description( "The number of threads used for writing the records of transactions that are applied on a slave, " +
+                  "or replayed during recovery. Records are partitioned by id, so that any given record is always " +
+                  "written by the same thread. The default is '1', which applies all records on the thread that " +
+                  "applies the transaction." )
+    public static final Setting<Integer> transaction_apply_threads = setting( "dbms.transaction_apply.threads", INTEGER, "1", min(1) );
+
+    @Internal
+    @Description( "The smallest number of record commands a transaction must have, for its records to be written by " +
+                  "more than one thread." )
+    public static final Setting<Integer> transaction_apply_parallel_threshold = setting( "dbms.transaction_apply.parallel_threshold", INTEGER, "1000", min(1) );
+
+    @Description( "The number of relationships a node may gain or lose in a single transaction, before the " +
+                  "transaction state moves the ids of those relationships off the Java heap. This keeps the heap " +
+                  "usage and garbage collection pauses of very large write transactions down. The off heap memory " +
+                  "is released when the transaction closes. Zero keeps all transaction state on the heap." )
+    public static final Setting<Integer> tx_state_off_heap_threshold = setting( "dbms.tx_state.off_heap_threshold", INTEGER, "0", min(0) );
+
     // Indexing
     @Description("Controls the auto indexing feature for nodes. Setting it to `false` shuts it down, " +
             "while `true` enables it by default for properties "
@@ -226,6 +283,13 @@ public abstract class GraphDatabaseSettings
                   "`0` means that no rotation will automatically occur based on file size. " )
     public static final Setting<Long> logical_log_rotation_threshold = setting( "logical_log_rotation_threshold", BYTES, "250M", min( 1024*1024L /*1Mb*/ ) );
 
+    @Description( "Whether or not to preallocate each new logical log file, by filling it with zeros up to " +
+                  "`logical_log_rotation_threshold` when it is created. Appending to a preallocated log does not change " +
+                  "the size of the file, which makes forcing the log cheaper on most file systems, at the cost of " +
+                  "writing out the zeros on every log rotation. Log files are truncated to their actual contents " +
+                  "when they are rotated away from, and on shutdown." )
+    public static final Setting<Boolean> logical_log_preallocation = setting( "dbms.tx_log.preallocate", BOOLEAN, FALSE );
+
     @Description("Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities.")
     @Internal
@@ -296,6 +360,13 @@ public abstract class GraphDatabaseSettings
     public static final Setting<String> pagecache_swapper =
             setting( "dbms.pagecache.swapper", STRING, (String) null );
 
+    @Description( "Specify which eviction policy the page cache should use, when deciding which pages to evict. " +
+                  "The `CLOCK` policy favours recently used pages. The `SCAN_RESISTANT` policy tracks recency and " +
+                  "frequency separately, and keeps frequently used pages in the cache when large sequential scans, " +
+                  "such as label scans without an index or consistency checks, are running." )
+    public static final Setting<EvictionPolicy> pagecache_eviction_policy =
+            setting( "dbms.pagecache.eviction_policy", options( EvictionPolicy.class ), EvictionPolicy.CLOCK.name() );
+
     @Deprecated
     @Obsoleted( "This is no longer used" )
     @Description( "Log memory mapping statistics regularly." )
@@ -27,6 +27,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
@@ -40,6 +42,7 @@ import org.neo4j.graphdb.index.IndexImplementation;
 import org.neo4j.graphdb.index.IndexProviders;
 import org.neo4j.helpers.Clock;
 import org.neo4j.helpers.Exceptions;
+import org.neo4j.helpers.NamedThreadFactory;
 import org.neo4j.helpers.Provider;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -321,6 +324,8 @@ public class NeoStoreDataSource implements NeoStoreSupplier, Lifecycle, IndexPro
     private File storeDir;
     private boolean readOnly;
 
+    private ExecutorService recordApplierExecutor;
+
     private NeoStoreModule neoStoreModule;
     private CacheModule cacheModule;
     private IndexingModule indexingModule;
@@ -463,6 +468,8 @@ public class NeoStoreDataSource implements NeoStoreSupplier, Lifecycle, IndexPro
         // Build all modules and their services
         try
         {
+            buildRecordApplierExecutor( config );
+
             final NeoStoreModule neoStoreModule =
                     buildNeoStore( storeFactory, labelTokens, relationshipTypeTokens, propertyKeyTokenHolder );
             // TODO The only reason this is here is because of the provider-stuff for DiskLayer. Remove when possible:
@@ -747,10 +754,13 @@ public class NeoStoreDataSource implements NeoStoreSupplier, Lifecycle, IndexPro
         final TransactionRepresentationStoreApplier storeApplier = dependencies.satisfyDependency(
                 new TransactionRepresentationStoreApplier( indexingService, alwaysCreateNewWriter( labelScanStore ),
                         neoStore, cacheAccess, lockService, legacyIndexProviderLookup, indexConfigStore, kernelHealth,
-                        legacyIndexTransactionOrdering ) );
+                        legacyIndexTransactionOrdering, recordApplierExecutor,
+                        config.get( GraphDatabaseSettings.transaction_apply_threads ),
+                        config.get( GraphDatabaseSettings.transaction_apply_parallel_threshold ) ) );
 
         final PhysicalLogFile logFile = new PhysicalLogFile( fileSystemAbstraction, logFiles,
-                config.get( GraphDatabaseSettings.logical_log_rotation_threshold ), neoStore,
+                config.get( GraphDatabaseSettings.logical_log_rotation_threshold ),
+                config.get( GraphDatabaseSettings.logical_log_preallocation ), neoStore,
                 neoStore, physicalLogMonitor, transactionMetadataCache );
 
         final PhysicalLogFileInformation.LogVersionToTimestamp
@@ -794,7 +804,9 @@ public class NeoStoreDataSource implements NeoStoreSupplier, Lifecycle, IndexPro
                 logFile, kernelHealth, logProvider );
 
         final TransactionAppender appender = new BatchingTransactionAppender( logFile, logRotation,
-                transactionMetadataCache, neoStore, legacyIndexTransactionOrdering, kernelHealth );
+                transactionMetadataCache, neoStore, legacyIndexTransactionOrdering, kernelHealth,
+                config.get( GraphDatabaseSettings.group_commit_max_wait ),
+                config.get( GraphDatabaseSettings.group_commit_batch_size ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFile, transactionMetadataCache );
 
@@ -877,6 +889,29 @@ public class NeoStoreDataSource implements NeoStoreSupplier, Lifecycle, IndexPro
         };
     }
 
+    private void buildRecordApplierExecutor( Config config )
+    {
+        int threads = config.get( GraphDatabaseSettings.transaction_apply_threads );
+        if ( threads <= 1 )
+        {
+            recordApplierExecutor = null;
+            return;
+        }
+
+        // The thread applying a transaction writes one partition of its records itself
+        final ExecutorService executor = Executors.newFixedThreadPool( threads - 1,
+                new NamedThreadFactory( "Record applier" ) );
+        recordApplierExecutor = executor;
+        life.add( new LifecycleAdapter()
+        {
+            @Override
+            public void shutdown() throws Throwable
+            {
+                executor.shutdown();
+            }
+        } );
+    }
+
     private Provider<LabelScanWriter> alwaysCreateNewWriter( final LabelScanStore labelScanStore )
     {
         return new Provider<LabelScanWriter>()
@@ -901,7 +936,9 @@ public class NeoStoreDataSource implements NeoStoreSupplier, Lifecycle, IndexPro
                 new LegacyIndexApplierLookup.Direct( legacyIndexProviderLookup ), 1000 );
         final TransactionRepresentationStoreApplier storeRecoverer =
                 new TransactionRepresentationStoreApplier( indexingService, labelScanWriters, neoStore, cacheAccess,
-                        lockService, legacyIndexApplierLookup, indexConfigStore, kernelHealth, IdOrderingQueue.BYPASS );
+                        lockService, legacyIndexApplierLookup, indexConfigStore, kernelHealth, IdOrderingQueue.BYPASS,
+                        recordApplierExecutor, config.get( GraphDatabaseSettings.transaction_apply_threads ),
+                        config.get( GraphDatabaseSettings.transaction_apply_parallel_threshold ) );
 
         RecoveryVisitor recoveryVisitor =
                 new RecoveryVisitor( neoStore, storeRecoverer, indexUpdatesValidator, recoveryVisitorMonitor );
@@ -975,7 +1012,8 @@ public class NeoStoreDataSource implements NeoStoreSupplier, Lifecycle, IndexPro
                         statementOperations, updateableSchemaState, schemaWriteGuard, schemaIndexProviderMap,
                         transactionHeaderInformationFactory, storeLayer, transactionCommitProcess,
                         indexConfigStore,
-                        legacyIndexProviderLookup, hooks, transactionMonitor, life, tracers ) );
+                        legacyIndexProviderLookup, hooks, transactionMonitor, life, tracers,
+                        config.get( GraphDatabaseSettings.tx_state_off_heap_threshold ) ) );
 
         final Kernel kernel = new Kernel( kernelTransactions, hooks, kernelHealth, transactionMonitor );
 
@@ -51,6 +51,17 @@ public interface IndexReader extends Resource
      */
     PrimitiveLongIterator rangeSeekByString( String lower, boolean includeLower, String upper, boolean includeUpper );
 
+    /**
+     * Inclusive numerical range query by index seek, returning nodes in ascending order of their indexed value
+     */
+    PrimitiveLongIterator rangeSeekByNumberInclusiveInOrder( Number lower, Number upper );
+
+    /**
+     * String range query by index seek, returning nodes in ascending order of their indexed value
+     */
+    PrimitiveLongIterator rangeSeekByStringInOrder( String lower, boolean includeLower,
+                                                    String upper, boolean includeUpper );
+
     /**
      * Prefix search by index seek
      */
@@ -108,6 +119,19 @@ public interface IndexReader extends Resource
             return delegate.rangeSeekByString( lower, includeLower, upper, includeUpper );
         }
 
+        @Override
+        public PrimitiveLongIterator rangeSeekByNumberInclusiveInOrder( Number lower, Number upper )
+        {
+            return delegate.rangeSeekByNumberInclusiveInOrder( lower, upper );
+        }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByStringInOrder( String lower, boolean includeLower,
+                                                               String upper, boolean includeUpper )
+        {
+            return delegate.rangeSeekByStringInOrder( lower, includeLower, upper, includeUpper );
+        }
+
         @Override
         public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
         {
@@ -172,6 +196,19 @@ public interface IndexReader extends Resource
             return PrimitiveLongCollections.emptyIterator();
         }
 
+        @Override
+        public PrimitiveLongIterator rangeSeekByNumberInclusiveInOrder( Number lower, Number upper )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByStringInOrder( String lower, boolean includeLower,
+                                                               String upper, boolean includeUpper )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
         @Override
         public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
         {
@@ -61,6 +61,7 @@ import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.SchemaIndexProviderMap;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.state.TxState;
+import org.neo4j.kernel.impl.api.state.TxStateLongSets;
 import org.neo4j.kernel.impl.api.store.StoreReadLayer;
 import org.neo4j.kernel.impl.api.store.StoreStatement;
 import org.neo4j.kernel.impl.index.IndexEntityType;
@@ -155,6 +156,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private final Clock clock;
     private final TransactionToRecordStateVisitor txStateToRecordStateVisitor = new TransactionToRecordStateVisitor();
     private final Collection<Command> extractedCommands = new ArrayCollection<>( 32 );
+    private final TxStateLongSets txStateLongSets;
     private TransactionState txState;
     private LegacyIndexTransactionState legacyIndexTransactionState;
     private TransactionType transactionType = TransactionType.ANY;
@@ -193,6 +195,30 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             Pool<KernelTransactionImplementation> pool,
             Clock clock,
             TransactionTracer tracer )
+    {
+        this( operations, schemaWriteGuard, labelScanStore, indexService, schemaState, recordState, providerMap,
+                neoStore, locks, hooks, constraintIndexCreator, headerInformationFactory, commitProcess,
+                transactionMonitor, storeLayer, legacyIndexTransactionState, pool, clock, tracer,
+                TxStateLongSets.NEVER_OFF_HEAP );
+    }
+
+    public KernelTransactionImplementation( StatementOperationParts operations,
+            SchemaWriteGuard schemaWriteGuard, LabelScanStore labelScanStore,
+            IndexingService indexService,
+            UpdateableSchemaState schemaState,
+            TransactionRecordState recordState,
+            SchemaIndexProviderMap providerMap, NeoStore neoStore,
+            Locks.Client locks, TransactionHooks hooks,
+            ConstraintIndexCreator constraintIndexCreator,
+            TransactionHeaderInformationFactory headerInformationFactory,
+            TransactionCommitProcess commitProcess,
+            TransactionMonitor transactionMonitor,
+            StoreReadLayer storeLayer,
+            LegacyIndexTransactionState legacyIndexTransactionState,
+            Pool<KernelTransactionImplementation> pool,
+            Clock clock,
+            TransactionTracer tracer,
+            int txStateOffHeapThreshold )
     {
         this.operations = operations;
         this.schemaWriteGuard = schemaWriteGuard;
@@ -213,6 +239,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.clock = clock;
         this.schemaStorage = new SchemaStorage( neoStore.getSchemaStore() );
         this.tracer = tracer;
+        this.txStateLongSets = txStateOffHeapThreshold == TxStateLongSets.NEVER_OFF_HEAP ?
+                TxStateLongSets.ON_HEAP : new TxStateLongSets( txStateOffHeapThreshold );
     }
 
     /**
@@ -333,7 +361,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     {
         if ( txState == null )
         {
-            txState = new TxState();
+            txState = new TxState( txStateLongSets );
         }
         return txState;
     }
@@ -666,6 +694,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
      */
     private void release()
     {
+        txStateLongSets.release();
         locks.releaseAll();
         pool.release( this );
         if ( storeStatement != null )
@@ -36,6 +36,7 @@ import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.SchemaIndexProviderMap;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.state.LegacyIndexTransactionStateImpl;
+import org.neo4j.kernel.impl.api.state.TxStateLongSets;
 import org.neo4j.kernel.impl.api.store.StoreReadLayer;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
 import org.neo4j.kernel.impl.locking.Locks;
@@ -84,6 +85,7 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
     private final TransactionMonitor transactionMonitor;
     private final LifeSupport dataSourceLife;
     private final Tracers tracers;
+    private final int txStateOffHeapThreshold;
 
     // End Tx Dependencies
 
@@ -115,6 +117,29 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
                                TransactionHooks hooks, TransactionMonitor transactionMonitor,
                                LifeSupport dataSourceLife,
                                Tracers tracers )
+    {
+        this( neoStoreTransactionContextSupplier, neoStore, locks, integrityValidator, constraintIndexCreator,
+                indexingService, labelScanStore, statementOperations, updateableSchemaState, schemaWriteGuard,
+                providerMap, txHeaderFactory, storeLayer, transactionCommitProcess, indexConfigStore,
+                legacyIndexProviderLookup, hooks, transactionMonitor, dataSourceLife, tracers,
+                TxStateLongSets.NEVER_OFF_HEAP );
+    }
+
+    public KernelTransactions( NeoStoreTransactionContextSupplier neoStoreTransactionContextSupplier,
+                               NeoStore neoStore, Locks locks, IntegrityValidator integrityValidator,
+                               ConstraintIndexCreator constraintIndexCreator,
+                               IndexingService indexingService, LabelScanStore labelScanStore,
+                               StatementOperationParts statementOperations,
+                               UpdateableSchemaState updateableSchemaState, SchemaWriteGuard schemaWriteGuard,
+                               SchemaIndexProviderMap providerMap, TransactionHeaderInformationFactory txHeaderFactory,
+                               StoreReadLayer storeLayer,
+                               TransactionCommitProcess transactionCommitProcess,
+                               IndexConfigStore indexConfigStore,
+                               LegacyIndexProviderLookup legacyIndexProviderLookup,
+                               TransactionHooks hooks, TransactionMonitor transactionMonitor,
+                               LifeSupport dataSourceLife,
+                               Tracers tracers,
+                               int txStateOffHeapThreshold )
     {
         this.neoStoreTransactionContextSupplier = neoStoreTransactionContextSupplier;
         this.neoStore = neoStore;
@@ -136,6 +161,7 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
         this.transactionMonitor = transactionMonitor;
         this.dataSourceLife = dataSourceLife;
         this.tracers = tracers;
+        this.txStateOffHeapThreshold = txStateOffHeapThreshold;
     }
 
     /**
@@ -158,7 +184,8 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
                     labelScanStore, indexingService, updateableSchemaState, recordState, providerMap,
                     neoStore, locksClient, hooks, constraintIndexCreator, transactionHeaderInformationFactory,
                     transactionCommitProcess, transactionMonitor, storeLayer,
-                    legacyIndexTransactionState, localTxPool, Clock.SYSTEM_CLOCK, tracers.transactionTracer );
+                    legacyIndexTransactionState, localTxPool, Clock.SYSTEM_CLOCK, tracers.transactionTracer,
+                    txStateOffHeapThreshold );
 
             allTransactions.add( tx );
 
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections.PrimitiveLongBaseIterator;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.cursor.Cursor;
+import org.neo4j.graphdb.Resource;
+import org.neo4j.kernel.api.cursor.NodeItem;
+import org.neo4j.kernel.impl.api.operations.EntityReadOperations;
+
+import static org.neo4j.kernel.impl.api.PropertyValueComparison.COMPARE_VALUES;
+
+/**
+ * Merges nodes changed in a transaction into the committed hits of an index seek that are in property value order,
+ * such that the merged nodes are in property value order too.
+ * <p>
+ * The changed nodes are few, and are sorted up front. The committed hits are merged in lazily, one at a time, as this
+ * iterator is consumed. The committed hits must not contain any of the changed nodes, and must be in ascending order
+ * of the given property.
+ */
+class PropertyValueOrderMergingIterator extends PrimitiveLongBaseIterator implements Resource
+{
+    private final EntityReadOperations operations;
+    private final KernelStatement state;
+    private final int propertyKeyId;
+    private final PrimitiveLongIterator committed;
+    private final long[] changed;
+    private final Object[] changedValues;
+    private int nextChanged;
+
+    private boolean hasCommitted;
+    private long nextCommitted;
+    private Object nextCommittedValue;
+
+    PropertyValueOrderMergingIterator( EntityReadOperations operations, KernelStatement state, int propertyKeyId,
+            PrimitiveLongIterator committed, PrimitiveLongIterator changed )
+    {
+        this.operations = operations;
+        this.state = state;
+        this.propertyKeyId = propertyKeyId;
+        this.committed = committed;
+
+        Node[] nodes = new Node[8];
+        int count = 0;
+        while ( changed.hasNext() )
+        {
+            long nodeId = changed.next();
+            Object value = value( nodeId );
+            if ( value != null )
+            {
+                if ( count == nodes.length )
+                {
+                    nodes = Arrays.copyOf( nodes, count * 2 );
+                }
+                nodes[count++] = new Node( nodeId, value );
+            }
+        }
+        Arrays.sort( nodes, 0, count, Node.BY_VALUE );
+        this.changed = new long[count];
+        this.changedValues = new Object[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            this.changed[i] = nodes[i].id;
+            this.changedValues[i] = nodes[i].value;
+        }
+    }
+
+    @Override
+    protected boolean fetchNext()
+    {
+        while ( !hasCommitted && committed.hasNext() )
+        {
+            nextCommitted = committed.next();
+            nextCommittedValue = value( nextCommitted );
+            hasCommitted = nextCommittedValue != null;
+        }
+
+        boolean hasChanged = nextChanged < changed.length;
+        if ( hasCommitted &&
+             (!hasChanged || COMPARE_VALUES.compare( nextCommittedValue, changedValues[nextChanged] ) <= 0) )
+        {
+            hasCommitted = false;
+            nextCommittedValue = null;
+            return next( nextCommitted );
+        }
+        return hasChanged ? next( changed[nextChanged++] ) : false;
+    }
+
+    private Object value( long nodeId )
+    {
+        try ( Cursor<NodeItem> node = operations.nodeCursor( state, nodeId ) )
+        {
+            return node.next() ? node.get().getProperty( propertyKeyId ) : null;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if ( committed instanceof Resource )
+        {
+            ((Resource) committed).close();
+        }
+    }
+
+    private static class Node
+    {
+        static final Comparator<Node> BY_VALUE = new Comparator<Node>()
+        {
+            @Override
+            public int compare( Node left, Node right )
+            {
+                return COMPARE_VALUES.compare( left.value, right.value );
+            }
+        };
+
+        final long id;
+        final Object value;
+
+        Node( long id, Object value )
+        {
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
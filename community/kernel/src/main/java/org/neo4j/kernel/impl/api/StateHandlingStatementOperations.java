@@ -20,8 +20,10 @@
 package org.neo4j.kernel.impl.api;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import org.neo4j.collection.primitive.PrimitiveIntCollection;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
@@ -84,6 +86,7 @@ import org.neo4j.kernel.impl.index.IndexEntityType;
 import org.neo4j.kernel.impl.index.LegacyIndexStore;
 import org.neo4j.kernel.impl.store.SchemaStorage;
 import org.neo4j.kernel.impl.util.Cursors;
+import org.neo4j.kernel.impl.util.DiffApplyingPrimitiveLongIterator;
 import org.neo4j.kernel.impl.util.PrimitiveLongResourceIterator;
 import org.neo4j.kernel.impl.util.diffsets.ReadableDiffSets;
 
@@ -786,6 +789,41 @@ public class StateHandlingStatementOperations implements
                 committed );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumberInOrder( KernelStatement state,
+            IndexDescriptor index,
+            Number lower, boolean includeLower,
+            Number upper, boolean includeUpper ) throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = COMPARE_NUMBERS.isEmptyRange( lower, includeLower, upper, includeUpper )
+                ? PrimitiveLongCollections.emptyIterator()
+                : storeLayer.nodesGetFromInclusiveNumericIndexRangeSeekInOrder( state, index, lower, upper );
+        PrimitiveLongIterator exactMatches = filterExactRangeMatches( state, index, committed, lower, includeLower,
+                upper, includeUpper );
+        if ( !state.hasTxStateWithChanges() )
+        {
+            return exactMatches;
+        }
+        return inPropertyValueOrder( state, index, exactMatches, state.txState().indexUpdatesForRangeSeekByNumber(
+                index, lower, includeLower, upper, includeUpper ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByStringInOrder( KernelStatement state,
+            IndexDescriptor index,
+            String lower, boolean includeLower,
+            String upper, boolean includeUpper ) throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = storeLayer.nodesGetFromIndexRangeSeekByStringInOrder( state, index, lower,
+                includeLower, upper, includeUpper );
+        if ( !state.hasTxStateWithChanges() )
+        {
+            return committed;
+        }
+        return inPropertyValueOrder( state, index, committed, state.txState().indexUpdatesForRangeSeekByString(
+                index, lower, includeLower, upper, includeUpper ) );
+    }
+
     @Override
     public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index,
             String prefix ) throws IndexNotFoundKernelException
@@ -867,6 +905,24 @@ public class StateHandlingStatementOperations implements
 
     }
 
+    /**
+     * Nodes changed in this transaction would be appended to the committed index hits out of order, so instead they
+     * are sorted by their property value, and merged with the committed hits as those are read from the index.
+     */
+    private PrimitiveLongIterator inPropertyValueOrder( KernelStatement state, IndexDescriptor index,
+            PrimitiveLongIterator committed, ReadableDiffSets<Long> labelPropertyChanges )
+    {
+        ReadableDiffSets<Long> nodes = state.txState().addedAndRemovedNodes();
+        Set<Long> added = labelPropertyChanges.getAdded();
+
+        // Committed hits that are among the added nodes have been changed, and are merged in by their new value
+        PrimitiveLongIterator unchanged = nodes.augmentWithRemovals( labelPropertyChanges.augmentWithRemovals(
+                new DiffApplyingPrimitiveLongIterator( committed, Collections.emptySet(), added ) ) );
+        PrimitiveLongIterator changed = nodes.augmentWithRemovals(
+                PrimitiveLongCollections.toPrimitiveIterator( added.iterator() ) );
+        return new PropertyValueOrderMergingIterator( this, state, index.getPropertyKeyId(), unchanged, changed );
+    }
+
     private PrimitiveLongIterator filterIndexStateChangesForRangeSeekByPrefix( KernelStatement state,
             IndexDescriptor index,
             String prefix,
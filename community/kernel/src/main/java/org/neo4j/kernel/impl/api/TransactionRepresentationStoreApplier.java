@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.api;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import org.neo4j.concurrent.WorkSync;
 import org.neo4j.helpers.Provider;
@@ -37,6 +38,7 @@ import org.neo4j.kernel.impl.transaction.command.HighIdTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.IndexTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.NeoCommandHandler;
 import org.neo4j.kernel.impl.transaction.command.NeoStoreTransactionApplier;
+import org.neo4j.kernel.impl.transaction.command.ParallelRecordApplier;
 import org.neo4j.kernel.impl.util.IdOrderingQueue;
 import org.neo4j.kernel.impl.util.function.Optional;
 import org.neo4j.unsafe.batchinsert.LabelScanWriter;
@@ -57,6 +59,9 @@ public class TransactionRepresentationStoreApplier
     private final LegacyIndexApplierLookup legacyIndexProviderLookup;
     private final KernelHealth health;
     private final IdOrderingQueue legacyIndexTransactionOrdering;
+    private final Executor recordApplierExecutor;
+    private final int recordApplierThreads;
+    private final int parallelRecordApplyThreshold;
 
     private final WorkSync<Provider<LabelScanWriter>,IndexTransactionApplier.LabelUpdateWork> labelScanStoreSync;
 
@@ -65,6 +70,25 @@ public class TransactionRepresentationStoreApplier
             CacheAccessBackDoor cacheAccess, LockService lockService, LegacyIndexApplierLookup
             legacyIndexProviderLookup,
             IndexConfigStore indexConfigStore, KernelHealth health, IdOrderingQueue legacyIndexTransactionOrdering )
+    {
+        this( indexingService, labelScanWriters, neoStore, cacheAccess, lockService, legacyIndexProviderLookup,
+                indexConfigStore, health, legacyIndexTransactionOrdering, null, 1, Integer.MAX_VALUE );
+    }
+
+    /**
+     * @param recordApplierExecutor executes the writing of records of external and recovered transactions, on
+     * {@code recordApplierThreads - 1} threads in addition to the applying thread. May be {@code null} if
+     * {@code recordApplierThreads} is 1.
+     * @param recordApplierThreads the number of threads to write records of external and recovered transactions with.
+     * @param parallelRecordApplyThreshold the smallest number of record commands in a transaction, for its records
+     * to be written by more than one thread.
+     */
+    public TransactionRepresentationStoreApplier(
+            IndexingService indexingService, Provider<LabelScanWriter> labelScanWriters, NeoStore neoStore,
+            CacheAccessBackDoor cacheAccess, LockService lockService, LegacyIndexApplierLookup
+            legacyIndexProviderLookup,
+            IndexConfigStore indexConfigStore, KernelHealth health, IdOrderingQueue legacyIndexTransactionOrdering,
+            Executor recordApplierExecutor, int recordApplierThreads, int parallelRecordApplyThreshold )
     {
         this.indexingService = indexingService;
         this.labelScanWriters = labelScanWriters;
@@ -75,15 +99,23 @@ public class TransactionRepresentationStoreApplier
         this.indexConfigStore = indexConfigStore;
         this.health = health;
         this.legacyIndexTransactionOrdering = legacyIndexTransactionOrdering;
+        this.recordApplierExecutor = recordApplierExecutor;
+        this.recordApplierThreads = recordApplierThreads;
+        this.parallelRecordApplyThreshold = parallelRecordApplyThreshold;
         labelScanStoreSync = new WorkSync<>( labelScanWriters );
     }
 
     public void apply( TransactionRepresentation representation, ValidatedIndexUpdates indexUpdates, LockGroup locks,
             long transactionId, TransactionApplicationMode mode ) throws IOException
     {
+        // Transactions that were not committed in this database may have their records written by multiple
+        // threads, ahead of the rest of the application, so that the index and counts appliers still see the
+        // records in place, just like when the store applier writes them.
+        boolean parallelRecords = recordApplierThreads > 1 && mode != TransactionApplicationMode.INTERNAL;
+
         // Graph store application. The order of the decorated store appliers is irrelevant
         NeoCommandHandler storeApplier = new NeoStoreTransactionApplier(
-                neoStore, cacheAccess, lockService, locks, transactionId );
+                neoStore, cacheAccess, lockService, locks, transactionId, parallelRecords );
         if ( mode.needsIdTracking() )
         {
             storeApplier = new HighIdTransactionApplier( storeApplier, neoStore );
@@ -105,10 +137,22 @@ public class TransactionRepresentationStoreApplier
         NeoCommandHandler countsStoreApplier = getCountsStoreApplier( transactionId, mode );
 
         // Perform the application
-        try ( CommandApplierFacade applier = new CommandApplierFacade(
-                storeApplier, indexApplier, legacyIndexApplier, countsStoreApplier ) )
+        try
         {
-            representation.accept( applier );
+            if ( parallelRecords )
+            {
+                try ( CommandApplierFacade recordApplier = new CommandApplierFacade( new ParallelRecordApplier(
+                        neoStore, cacheAccess, lockService, locks, transactionId, recordApplierExecutor,
+                        recordApplierThreads, parallelRecordApplyThreshold ) ) )
+                {
+                    representation.accept( recordApplier );
+                }
+            }
+            try ( CommandApplierFacade applier = new CommandApplierFacade(
+                    storeApplier, indexApplier, legacyIndexApplier, countsStoreApplier ) )
+            {
+                representation.accept( applier );
+            }
         }
         catch ( Throwable cause )
         {
@@ -132,6 +176,7 @@ public class TransactionRepresentationStoreApplier
             IdOrderingQueue legacyIndexTransactionOrdering )
     {
         return new TransactionRepresentationStoreApplier( indexingService, labelScanWriters, neoStore, cacheAccess,
-                lockService, legacyIndexProviderLookup, indexConfigStore, health, legacyIndexTransactionOrdering );
+                lockService, legacyIndexProviderLookup, indexConfigStore, health, legacyIndexTransactionOrdering,
+                recordApplierExecutor, recordApplierThreads, parallelRecordApplyThreshold );
     }
 }
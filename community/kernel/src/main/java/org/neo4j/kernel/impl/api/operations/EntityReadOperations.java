@@ -75,6 +75,32 @@ public interface EntityReadOperations
             boolean includeUpper )
             throws IndexNotFoundKernelException;
 
+    /**
+     * Returns an iterable with the matched nodes, in ascending order of the indexed property value.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumberInOrder( KernelStatement state,
+            IndexDescriptor index,
+            Number lower,
+            boolean includeLower,
+            Number upper,
+            boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
+    /**
+     * Returns an iterable with the matched nodes, in ascending order of the indexed property value.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByStringInOrder( KernelStatement state,
+            IndexDescriptor index,
+            String lower,
+            boolean includeLower,
+            String upper,
+            boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
     /**
      * Returns an iterable with the matched nodes.
      *
@@ -134,7 +134,7 @@ public interface NodeState extends PropertyContainerState
         {
             if ( !hasAddedRelationships() )
             {
-                relationshipsAdded = new RelationshipChangesForNode( DiffStrategy.ADD, state );
+                relationshipsAdded = new RelationshipChangesForNode( DiffStrategy.ADD, state, state.longSets() );
             }
             relationshipsAdded.addRelationship( relId, typeId, direction );
         }
@@ -152,7 +152,7 @@ public interface NodeState extends PropertyContainerState
             }
             if ( !hasRemovedRelationships() )
             {
-                relationshipsRemoved = new RelationshipChangesForNode( DiffStrategy.REMOVE, state );
+                relationshipsRemoved = new RelationshipChangesForNode( DiffStrategy.REMOVE, state, state.longSets() );
             }
             relationshipsRemoved.addRelationship( relId, typeId, direction );
         }
@@ -19,7 +19,6 @@
  */
 package org.neo4j.kernel.impl.api.state;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -29,6 +28,8 @@ import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveIntCollections;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveIntSet;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.function.Function;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.collection.PrefetchingIterator;
@@ -44,6 +45,8 @@ import static org.neo4j.collection.primitive.PrimitiveIntCollections.iterator;
  * <p/>
  * This class is not a trustworthy source of information unless you are careful - it does not, for instance, remove
  * rels if they are added and then removed in the same tx. It trusts wrapping data structures for that filtering.
+ * <p/>
+ * The relationship ids are kept in primitive sets from {@link TxStateLongSets}, which may move large sets off heap.
  */
 public class RelationshipChangesForNode
 {
@@ -62,7 +65,8 @@ public class RelationshipChangesForNode
 
                     @Override
                     RelationshipIterator augmentPrimitiveIterator( RelationshipIterator original,
-                            Iterator<Set<Long>> diff, RelationshipVisitor.Home txStateRelationshipHome )
+                            Iterator<PrimitiveLongSet> diff, RelationshipVisitor.Home txStateRelationshipHome,
+                            TxStateLongSets longSets )
                     {
                         throw new UnsupportedOperationException();
                     }
@@ -77,16 +81,20 @@ public class RelationshipChangesForNode
 
                     @Override
                     RelationshipIterator augmentPrimitiveIterator( final RelationshipIterator original,
-                            final Iterator<Set<Long>> diff, final RelationshipVisitor.Home txStateRelationshipHome )
+                            final Iterator<PrimitiveLongSet> diff, final RelationshipVisitor.Home txStateRelationshipHome,
+                            final TxStateLongSets longSets )
                     {
                         if ( !diff.hasNext() )
                         {
                             return original;
                         }
 
+                        // The caller may change the transaction state while iterating, which rehashes or frees the
+                        // sets, so their ids are copied up front.
+                        final Iterator<PrimitiveLongIterator> addedRels = longSets.iterators( diff );
                         return new RelationshipIterator()
                         {
-                            private Iterator<Long> currentSetOfAddedRels;
+                            private PrimitiveLongIterator currentSetOfAddedRels;
 
                             @Override
                             public boolean hasNext()
@@ -94,12 +102,12 @@ public class RelationshipChangesForNode
                                 return original.hasNext() || (currentSetOfAddedRels().hasNext());
                             }
 
-                            private Iterator<Long> currentSetOfAddedRels()
+                            private PrimitiveLongIterator currentSetOfAddedRels()
                             {
-                                while ( diff.hasNext() && (currentSetOfAddedRels == null || !currentSetOfAddedRels
-                                        .hasNext()) )
+                                while ( addedRels.hasNext() && (currentSetOfAddedRels == null ||
+                                        !currentSetOfAddedRels.hasNext()) )
                                 {
-                                    currentSetOfAddedRels = diff.next().iterator();
+                                    currentSetOfAddedRels = addedRels.next();
                                 }
                                 return currentSetOfAddedRels;
                             }
@@ -125,16 +133,18 @@ public class RelationshipChangesForNode
         abstract int augmentDegree( int degree, int diff );
 
         abstract RelationshipIterator augmentPrimitiveIterator( RelationshipIterator original,
-                Iterator<Set<Long>> diff, RelationshipVisitor.Home txStateRelationshipHome );
+                Iterator<PrimitiveLongSet> diff, RelationshipVisitor.Home txStateRelationshipHome,
+                TxStateLongSets longSets );
 
     }
 
     private final DiffStrategy diffStrategy;
     private final Home relationshipHome;
+    private final TxStateLongSets longSets;
 
-    private Map<Integer /* Type */, Set<Long /* Id */>> outgoing;
-    private Map<Integer /* Type */, Set<Long /* Id */>> incoming;
-    private Map<Integer /* Type */, Set<Long /* Id */>> loops;
+    private Map<Integer /* Type */, PrimitiveLongSet /* Id */> outgoing;
+    private Map<Integer /* Type */, PrimitiveLongSet /* Id */> incoming;
+    private Map<Integer /* Type */, PrimitiveLongSet /* Id */> loops;
     private PrimitiveIntSet typesChanged;
 
     private int totalOutgoing = 0;
@@ -142,23 +152,34 @@ public class RelationshipChangesForNode
     private int totalLoops = 0;
 
     public RelationshipChangesForNode( DiffStrategy diffStrategy, RelationshipVisitor.Home relationshipHome )
+    {
+        this( diffStrategy, relationshipHome, TxStateLongSets.ON_HEAP );
+    }
+
+    public RelationshipChangesForNode( DiffStrategy diffStrategy, RelationshipVisitor.Home relationshipHome,
+            TxStateLongSets longSets )
     {
         this.diffStrategy = diffStrategy;
         this.relationshipHome = relationshipHome;
+        this.longSets = longSets;
     }
 
     public void addRelationship( long relId, int typeId, Direction direction )
     {
-        Map<Integer, Set<Long>> relTypeToRelsMap = getTypeToRelMapForDirection( direction );
+        Map<Integer, PrimitiveLongSet> relTypeToRelsMap = getTypeToRelMapForDirection( direction );
         typeChanged( typeId );
-        Set<Long> rels = relTypeToRelsMap.get( typeId );
+        PrimitiveLongSet rels = relTypeToRelsMap.get( typeId );
         if ( rels == null )
         {
-            rels = Collections.newSetFromMap( new VersionedHashMap<Long, Boolean>() );
+            rels = longSets.newSet();
             relTypeToRelsMap.put( typeId, rels );
         }
 
-        rels.add( relId );
+        PrimitiveLongSet grownRels = longSets.add( rels, relId );
+        if ( grownRels != rels )
+        {
+            relTypeToRelsMap.put( typeId, grownRels );
+        }
 
         switch ( direction )
         {
@@ -185,9 +206,9 @@ public class RelationshipChangesForNode
 
     public boolean removeRelationship( long relId, int typeId, Direction direction )
     {
-        Map<Integer, Set<Long>> relTypeToRelsMap = getTypeToRelMapForDirection( direction );
+        Map<Integer, PrimitiveLongSet> relTypeToRelsMap = getTypeToRelMapForDirection( direction );
         typeChanged( typeId );
-        Set<Long> rels = relTypeToRelsMap.get( typeId );
+        PrimitiveLongSet rels = relTypeToRelsMap.get( typeId );
         if ( rels != null )
         {
             if ( rels.remove( relId ) )
@@ -195,6 +216,7 @@ public class RelationshipChangesForNode
                 if ( rels.isEmpty() )
                 {
                     relTypeToRelsMap.remove( typeId );
+                    longSets.free( rels );
                 }
 
                 switch ( direction )
@@ -226,7 +248,7 @@ public class RelationshipChangesForNode
     }
 
     public RelationshipIterator augmentRelationships( Direction direction, RelationshipIterator rels,
-            Function<Map<Integer, Set<Long>>, Iterator<Set<Long>>> typeFilter )
+            Function<Map<Integer, PrimitiveLongSet>, Iterator<PrimitiveLongSet>> typeFilter )
     {
         switch ( direction )
         {
@@ -234,26 +256,26 @@ public class RelationshipChangesForNode
                 if ( incoming != null && !incoming.isEmpty() )
                 {
                     rels = diffStrategy.augmentPrimitiveIterator( rels, typeFilter.apply( incoming ),
-                            relationshipHome );
+                            relationshipHome, longSets );
                 }
                 break;
             case OUTGOING:
                 if ( outgoing != null && !outgoing.isEmpty() )
                 {
                     rels = diffStrategy.augmentPrimitiveIterator( rels, typeFilter.apply( outgoing ),
-                            relationshipHome );
+                            relationshipHome, longSets );
                 }
                 break;
             case BOTH:
                 if ( outgoing != null && !outgoing.isEmpty() )
                 {
                     rels = diffStrategy.augmentPrimitiveIterator( rels, typeFilter.apply( outgoing ),
-                            relationshipHome );
+                            relationshipHome, longSets );
                 }
                 if ( incoming != null && !incoming.isEmpty() )
                 {
                     rels = diffStrategy.augmentPrimitiveIterator( rels, typeFilter.apply( incoming ),
-                            relationshipHome );
+                            relationshipHome, longSets );
                 }
                 break;
         }
@@ -261,7 +283,8 @@ public class RelationshipChangesForNode
         // Loops are always included
         if ( loops != null && !loops.isEmpty() )
         {
-            rels = diffStrategy.augmentPrimitiveIterator( rels, typeFilter.apply( loops ), relationshipHome );
+            rels = diffStrategy.augmentPrimitiveIterator( rels, typeFilter.apply( loops ), relationshipHome,
+                    longSets );
         }
 
         return rels;
@@ -336,21 +359,24 @@ public class RelationshipChangesForNode
 
     public void clear()
     {
-        if ( outgoing != null )
-        {
-            outgoing.clear();
-        }
-        if ( incoming != null )
-        {
-            incoming.clear();
-        }
-        if ( loops != null )
+        clear( outgoing );
+        clear( incoming );
+        clear( loops );
+    }
+
+    private void clear( Map<Integer, PrimitiveLongSet> relTypeToRelsMap )
+    {
+        if ( relTypeToRelsMap != null )
         {
-            loops.clear();
+            for ( PrimitiveLongSet rels : relTypeToRelsMap.values() )
+            {
+                longSets.free( rels );
+            }
+            relTypeToRelsMap.clear();
         }
     }
 
-    private Map<Integer /* Type */, Set<Long /* Id */>> outgoing()
+    private Map<Integer /* Type */, PrimitiveLongSet /* Id */> outgoing()
     {
         if ( outgoing == null )
         {
@@ -359,7 +385,7 @@ public class RelationshipChangesForNode
         return outgoing;
     }
 
-    private Map<Integer /* Type */, Set<Long /* Id */>> incoming()
+    private Map<Integer /* Type */, PrimitiveLongSet /* Id */> incoming()
     {
         if ( incoming == null )
         {
@@ -368,7 +394,7 @@ public class RelationshipChangesForNode
         return incoming;
     }
 
-    private Map<Integer /* Type */, Set<Long /* Id */>> loops()
+    private Map<Integer /* Type */, PrimitiveLongSet /* Id */> loops()
     {
         if ( loops == null )
         {
@@ -377,9 +403,9 @@ public class RelationshipChangesForNode
         return loops;
     }
 
-    private Map<Integer, Set<Long>> getTypeToRelMapForDirection( Direction direction )
+    private Map<Integer, PrimitiveLongSet> getTypeToRelMapForDirection( Direction direction )
     {
-        Map<Integer /* Type */, Set<Long /* Id */>> relTypeToRelsMap = null;
+        Map<Integer /* Type */, PrimitiveLongSet /* Id */> relTypeToRelsMap = null;
         switch ( direction )
         {
             case INCOMING:
@@ -395,23 +421,23 @@ public class RelationshipChangesForNode
         return relTypeToRelsMap;
     }
 
-    private Function<Map<Integer, Set<Long>>, Iterator<Set<Long>>> typeFilter( final int[] types )
+    private Function<Map<Integer, PrimitiveLongSet>, Iterator<PrimitiveLongSet>> typeFilter( final int[] types )
     {
-        return new Function<Map<Integer, Set<Long>>, Iterator<Set<Long>>>()
+        return new Function<Map<Integer, PrimitiveLongSet>, Iterator<PrimitiveLongSet>>()
         {
             @Override
-            public Iterator<Set<Long>> apply( final Map<Integer, Set<Long>> relationshipsByType )
+            public Iterator<PrimitiveLongSet> apply( final Map<Integer, PrimitiveLongSet> relationshipsByType )
             {
-                return new PrefetchingIterator<Set<Long>>()
+                return new PrefetchingIterator<PrimitiveLongSet>()
                 {
                     private final PrimitiveIntIterator iterTypes = iterator( types );
 
                     @Override
-                    protected Set<Long> fetchNextOrNull()
+                    protected PrimitiveLongSet fetchNextOrNull()
                     {
                         while ( iterTypes.hasNext() )
                         {
-                            Set<Long> relsByType = relationshipsByType.get( iterTypes.next() );
+                            PrimitiveLongSet relsByType = relationshipsByType.get( iterTypes.next() );
                             if ( relsByType != null )
                             {
                                 return relsByType;
@@ -424,11 +450,11 @@ public class RelationshipChangesForNode
         };
     }
 
-    private static final Function<Map<Integer, Set<Long>>, Iterator<Set<Long>>> ALL_TYPES
-            = new Function<Map<Integer, Set<Long>>, Iterator<Set<Long>>>()
+    private static final Function<Map<Integer, PrimitiveLongSet>, Iterator<PrimitiveLongSet>> ALL_TYPES
+            = new Function<Map<Integer, PrimitiveLongSet>, Iterator<PrimitiveLongSet>>()
     {
         @Override
-        public Iterator<Set<Long>> apply( Map<Integer, Set<Long>> integerSetMap )
+        public Iterator<PrimitiveLongSet> apply( Map<Integer, PrimitiveLongSet> integerSetMap )
         {
             return integerSetMap.values().iterator();
         }
@@ -180,8 +180,20 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
 
     private boolean hasChanges, hasDataChanges;
 
+    private final TxStateLongSets longSets;
+
     public TxState()
     {
+        this( TxStateLongSets.ON_HEAP );
+    }
+
+    /**
+     * @param longSets where sets of relationship ids come from. The caller is responsible for
+     * {@link TxStateLongSets#release() releasing} them once this transaction state is no longer used.
+     */
+    public TxState( TxStateLongSets longSets )
+    {
+        this.longSets = longSets;
         singleNodeCursor = new InstanceCache<TxSingleNodeCursor>()
         {
             @Override
@@ -249,6 +261,11 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
         };
     }
 
+    TxStateLongSets longSets()
+    {
+        return longSets;
+    }
+
     @Override
     public void accept( final TxStateVisitor visitor ) throws ConstraintValidationKernelException
     {
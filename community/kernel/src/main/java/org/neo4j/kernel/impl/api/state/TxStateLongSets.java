@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+
+/**
+ * Hands out the primitive long sets that transaction state keeps relationship ids in.
+ * <p>
+ * Sets start out on the heap. A set that grows past the off heap threshold is moved off heap, so that a transaction
+ * adding millions of relationships to a node doesn't keep millions of ids on the heap for the garbage collector to
+ * trace. Off heap sets are freed when they are emptied, or when the transaction state is {@link #release() released}.
+ * <p>
+ * Since sets are changed in place, and off heap memory is freed eagerly, readers must not hold on to iterators of sets
+ * from here across changes to the transaction state; use {@link #iterators(Iterator)}, which copies the ids out.
+ */
+public class TxStateLongSets
+{
+    /**
+     * Threshold that keeps all sets on the heap.
+     */
+    public static final int NEVER_OFF_HEAP = 0;
+
+    /**
+     * Keeps all sets on the heap, and so has nothing to release. Can be shared between transactions.
+     */
+    public static final TxStateLongSets ON_HEAP = new TxStateLongSets( NEVER_OFF_HEAP );
+
+    private final int offHeapThreshold;
+    private final Set<PrimitiveLongSet> offHeapSets =
+            Collections.newSetFromMap( new IdentityHashMap<PrimitiveLongSet,Boolean>() );
+
+    public TxStateLongSets( int offHeapThreshold )
+    {
+        this.offHeapThreshold = offHeapThreshold;
+    }
+
+    PrimitiveLongSet newSet()
+    {
+        return Primitive.longSet();
+    }
+
+    /**
+     * Adds the id to the set.
+     *
+     * @return the set to use from now on, which is a new off heap set if the given set grew past the threshold.
+     */
+    PrimitiveLongSet add( PrimitiveLongSet set, long id )
+    {
+        set.add( id );
+        if ( offHeapThreshold == NEVER_OFF_HEAP || set.size() <= offHeapThreshold || offHeapSets.contains( set ) )
+        {
+            return set;
+        }
+
+        PrimitiveLongSet offHeap = Primitive.offHeapLongSet( set.size() * 2 );
+        PrimitiveLongIterator ids = set.iterator();
+        while ( ids.hasNext() )
+        {
+            offHeap.add( ids.next() );
+        }
+        offHeapSets.add( offHeap );
+        return offHeap;
+    }
+
+    /**
+     * @return iterators over the ids in the given sets, that see the ids as they were when this was called, even if
+     * the transaction state changes. The ids are copied up front, since sets on the heap may rehash as ids are added
+     * or removed, and off heap sets may be freed.
+     */
+    Iterator<PrimitiveLongIterator> iterators( Iterator<PrimitiveLongSet> sets )
+    {
+        List<PrimitiveLongIterator> iterators = new ArrayList<>();
+        while ( sets.hasNext() )
+        {
+            iterators.add( copy( sets.next() ) );
+        }
+        return iterators.iterator();
+    }
+
+    private static PrimitiveLongIterator copy( PrimitiveLongSet set )
+    {
+        long[] ids = new long[set.size()];
+        int count = 0;
+        PrimitiveLongIterator setIds = set.iterator();
+        while ( setIds.hasNext() )
+        {
+            ids[count++] = setIds.next();
+        }
+        return PrimitiveLongCollections.iterator( ids );
+    }
+
+    /**
+     * The given set will no longer be used, free it if it lives off heap.
+     */
+    void free( PrimitiveLongSet set )
+    {
+        if ( offHeapSets.remove( set ) )
+        {
+            set.close();
+        }
+    }
+
+    /**
+     * @return the number of sets currently held off heap.
+     */
+    public int offHeapSets()
+    {
+        return offHeapSets.size();
+    }
+
+    /**
+     * Frees all off heap sets handed out so far. The transaction state using them must not be used after this.
+     */
+    public void release()
+    {
+        for ( PrimitiveLongSet set : offHeapSets )
+        {
+            set.close();
+        }
+        offHeapSets.clear();
+    }
+}
@@ -285,6 +285,29 @@ public class CacheLayer implements StoreReadLayer
             : diskLayer.nodesGetFromIndexRangeSeekByString( state, index, lower, includeLower, upper, includeUpper );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromInclusiveNumericIndexRangeSeekInOrder( KernelStatement state,
+            IndexDescriptor index,
+            Number lower,
+            Number upper )
+            throws IndexNotFoundKernelException
+    {
+        return diskLayer.nodesGetFromInclusiveNumericIndexRangeSeekInOrder( state, index, lower, upper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByStringInOrder( KernelStatement state,
+                                                                            IndexDescriptor index,
+                                                                            String lower, boolean includeLower,
+                                                                            String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return COMPARE_STRINGS.isEmptyRange( lower, includeLower, upper, includeUpper )
+            ? PrimitiveLongCollections.emptyIterator()
+            : diskLayer.nodesGetFromIndexRangeSeekByStringInOrder( state, index, lower, includeLower, upper,
+                includeUpper );
+    }
+
     @Override
     public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state,
                                                                      IndexDescriptor index,
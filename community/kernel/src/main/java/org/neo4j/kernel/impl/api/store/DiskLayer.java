@@ -235,6 +235,28 @@ public class DiskLayer implements StoreReadLayer
         return reader.rangeSeekByString( lower, includeLower, upper, includeUpper );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromInclusiveNumericIndexRangeSeekInOrder( KernelStatement statement,
+            IndexDescriptor index,
+            Number lower,
+            Number upper )
+            throws IndexNotFoundKernelException
+    {
+        IndexReader reader = statement.getIndexReader( index );
+        return reader.rangeSeekByNumberInclusiveInOrder( lower, upper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByStringInOrder( KernelStatement statement,
+                                                                            IndexDescriptor index,
+                                                                            String lower, boolean includeLower,
+                                                                            String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        IndexReader reader = statement.getIndexReader( index );
+        return reader.rangeSeekByStringInOrder( lower, includeLower, upper, includeUpper );
+    }
+
     @Override
     public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state,
                                                                      IndexDescriptor index,
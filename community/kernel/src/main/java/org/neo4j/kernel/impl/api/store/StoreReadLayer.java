@@ -100,6 +100,12 @@ public interface StoreReadLayer
     PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( KernelStatement statement, IndexDescriptor index, String lower, boolean includeLower, String upper, boolean includeUpper )
             throws IndexNotFoundKernelException;
 
+    PrimitiveLongIterator nodesGetFromInclusiveNumericIndexRangeSeekInOrder( KernelStatement statement, IndexDescriptor index, Number lower, Number upper )
+            throws IndexNotFoundKernelException;
+
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByStringInOrder( KernelStatement statement, IndexDescriptor index, String lower, boolean includeLower, String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
     PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index, String prefix )
             throws IndexNotFoundKernelException;
 
@@ -55,6 +55,7 @@ import org.neo4j.kernel.impl.core.TokenCreator;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
 import org.neo4j.kernel.impl.locking.community.CommunityLockManger;
+import org.neo4j.kernel.impl.locking.community.StripedLockManager;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.store.NeoStore;
 import org.neo4j.kernel.impl.storemigration.ConfigMapUpgradeConfiguration;
@@ -256,6 +257,10 @@ public class CommunityEditionModule
         {
             return new CommunityLockManger();
         }
+        else if ( key.equals( StripedLockManager.KEY ) )
+        {
+            return new StripedLockManager( ResourceTypes.values() );
+        }
         else if ( key.equals( "" ) )
         {
             logging.getInternalLog( CommunityFacadeFactory.class )
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.kernel.impl.locking.Locks;
+
+/**
+ * A single shared/exclusive lock in the {@link StripedLockManager} lock tables.
+ * <p>
+ * The whole state lives in one int: the high bit marks the lock as dead, i.e. removed or about to be removed from its
+ * table, the next bit marks it as exclusively held, or pending exclusive while the shared holders drain, and the
+ * remaining bits count the shared holders. Taking and releasing a shared lock is a single compare-and-set. The last
+ * release marks the lock as dead and unlinks it from the table, and anyone who then finds the dead lock just retries
+ * the look up.
+ * <p>
+ * An exclusive holder may also take the lock shared, and a client that upgrades from shared to exclusive keeps the
+ * same lock instance, so releasing the exclusive lock leaves the shared lock in place.
+ */
+final class StripedLock
+{
+    static final int ACQUIRED = 0;
+    static final int BLOCKED = 1;
+    static final int PENDING = 2;
+    static final int DEAD = 3;
+
+    private static final int DEAD_BIT = 0x80000000;
+    private static final int EXCLUSIVE_BIT = 0x40000000;
+    private static final int SHARED_MASK = EXCLUSIVE_BIT - 1;
+
+    final Locks.ResourceType resourceType;
+    final long resourceId;
+    private final AtomicInteger state = new AtomicInteger();
+    private volatile StripedLockClient exclusiveOwner;
+
+    StripedLock( Locks.ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    /**
+     * @return {@link #ACQUIRED}, {@link #BLOCKED} if another client holds the lock exclusively, or {@link #DEAD} if
+     * the lock has been unlinked from its table.
+     */
+    int tryAcquireShared( StripedLockClient client )
+    {
+        int s;
+        do
+        {
+            s = state.get();
+            if ( (s & DEAD_BIT) != 0 )
+            {
+                return DEAD;
+            }
+            if ( (s & EXCLUSIVE_BIT) != 0 && exclusiveOwner != client )
+            {
+                return BLOCKED;
+            }
+        }
+        while ( !state.compareAndSet( s, s + 1 ) );
+        return ACQUIRED;
+    }
+
+    /**
+     * Claim the exclusive bit. If other shared holders remain, {@link #PENDING} is returned and the caller must either
+     * {@link #isDrained(boolean) wait for them to drain}, or give up the claim with {@link #releaseExclusive()}.
+     *
+     * @param holdsShared whether the calling client already holds this lock shared.
+     * @return {@link #ACQUIRED}, {@link #PENDING}, {@link #BLOCKED} or {@link #DEAD}.
+     */
+    int tryAcquireExclusive( StripedLockClient client, boolean holdsShared )
+    {
+        int s;
+        do
+        {
+            s = state.get();
+            if ( (s & DEAD_BIT) != 0 )
+            {
+                return DEAD;
+            }
+            if ( (s & EXCLUSIVE_BIT) != 0 )
+            {
+                return BLOCKED;
+            }
+        }
+        while ( !state.compareAndSet( s, s | EXCLUSIVE_BIT ) );
+        exclusiveOwner = client;
+        return isDrained( holdsShared ) ? ACQUIRED : PENDING;
+    }
+
+    boolean isDrained( boolean holdsShared )
+    {
+        return (state.get() & SHARED_MASK) == (holdsShared ? 1 : 0);
+    }
+
+    /**
+     * @return {@code true} if this was the last hold on the lock, and it must be unlinked from its table.
+     */
+    boolean releaseShared()
+    {
+        int s;
+        do
+        {
+            s = state.get();
+        }
+        while ( !state.compareAndSet( s, s - 1 ) );
+        return s - 1 == 0 && state.compareAndSet( 0, DEAD_BIT );
+    }
+
+    /**
+     * @return {@code true} if this was the last hold on the lock, and it must be unlinked from its table.
+     */
+    boolean releaseExclusive()
+    {
+        // Only the owner sets and clears the owner field, so clearing it before the bit is safe.
+        exclusiveOwner = null;
+        int s;
+        do
+        {
+            s = state.get();
+        }
+        while ( !state.compareAndSet( s, s & ~EXCLUSIVE_BIT ) );
+        return (s & ~EXCLUSIVE_BIT) == 0 && state.compareAndSet( 0, DEAD_BIT );
+    }
+
+    StripedLockClient exclusiveOwner()
+    {
+        return exclusiveOwner;
+    }
+
+    boolean isDead()
+    {
+        return (state.get() & DEAD_BIT) != 0;
+    }
+
+    String describe()
+    {
+        int s = state.get();
+        StripedLockClient owner = exclusiveOwner;
+        return String.format( "StripedLock[%s(%d), sharedHolders=%d, exclusiveOwner=%s]",
+                resourceType, resourceId, s & SHARED_MASK, (s & EXCLUSIVE_BIT) != 0 ? owner : "none" );
+    }
+
+    @Override
+    public String toString()
+    {
+        return describe();
+    }
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.LockClientAlreadyClosedException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.Locks;
+
+import static java.lang.String.format;
+
+// Please note. Except separate test cases for particular classes related to community locking
+// see also org.neo4j.kernel.impl.locking.community.StripedLocksCompatibility test suite
+
+/**
+ * The client side of the {@link StripedLockManager}. Reentrancy is tracked here, so only the first acquire and the
+ * last release of a lock by a client touch the shared lock tables.
+ * <p>
+ * The locks held by a client are kept in concurrent maps, because other clients look at them, together with
+ * {@link #waitingFor}, when they go looking for deadlocks.
+ */
+class StripedLockClient implements Locks.Client
+{
+    private final StripedLockManager manager;
+    private final int clientId;
+    private final ConcurrentMap<Long,Held>[] heldLocks;
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    private volatile StripedLock waitingFor;
+    private long waitStartNanos;
+    private long nextDeadlockCheckNanos;
+
+    @SuppressWarnings( "unchecked" )
+    StripedLockClient( StripedLockManager manager, int clientId )
+    {
+        this.manager = manager;
+        this.clientId = clientId;
+        this.heldLocks = new ConcurrentMap[manager.tableCount()];
+        for ( int i = 0; i < heldLocks.length; i++ )
+        {
+            heldLocks[i] = new ConcurrentHashMap<>( 16, 0.75f, 1 );
+        }
+    }
+
+    @Override
+    public void acquireShared( Locks.ResourceType resourceType, long resourceId )
+    {
+        if ( !stateHolder.incrementActiveClients() )
+        {
+            throw new LockClientAlreadyClosedException( format( "%s is already closed", this ) );
+        }
+        try
+        {
+            ConcurrentMap<Long,Held> localLocks = localLocks( resourceType );
+            Held held = localLocks.get( resourceId );
+            if ( held != null )
+            {
+                acquireLocalShared( held );
+                return;
+            }
+
+            StripedLock lock;
+            try
+            {
+                for ( long iteration = 0; ; iteration++ )
+                {
+                    lock = manager.lock( resourceType, resourceId );
+                    int result = lock.tryAcquireShared( this );
+                    if ( result == StripedLock.ACQUIRED )
+                    {
+                        break;
+                    }
+                    if ( result == StripedLock.BLOCKED )
+                    {
+                        await( lock, iteration );
+                    }
+                }
+            }
+            finally
+            {
+                waitingFor = null;
+            }
+            localLocks.put( resourceId, new Held( lock, 1, 0 ) );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( Locks.ResourceType resourceType, long resourceId )
+    {
+        if ( !stateHolder.incrementActiveClients() )
+        {
+            throw new LockClientAlreadyClosedException( format( "%s is already closed", this ) );
+        }
+        try
+        {
+            ConcurrentMap<Long,Held> localLocks = localLocks( resourceType );
+            Held held = localLocks.get( resourceId );
+            if ( held != null && held.exclusive > 0 )
+            {
+                held.exclusive++;
+                return;
+            }
+
+            boolean holdsShared = held != null;
+            StripedLock lock;
+            try
+            {
+                for ( long iteration = 0; ; iteration++ )
+                {
+                    lock = holdsShared ? held.lock : manager.lock( resourceType, resourceId );
+                    int result = lock.tryAcquireExclusive( this, holdsShared );
+                    if ( result == StripedLock.ACQUIRED )
+                    {
+                        break;
+                    }
+                    if ( result == StripedLock.PENDING )
+                    {
+                        awaitDrained( lock, holdsShared, iteration );
+                        break;
+                    }
+                    if ( result == StripedLock.BLOCKED )
+                    {
+                        await( lock, iteration );
+                    }
+                }
+            }
+            finally
+            {
+                waitingFor = null;
+            }
+
+            if ( holdsShared )
+            {
+                held.exclusive = 1;
+            }
+            else
+            {
+                localLocks.put( resourceId, new Held( lock, 0, 1 ) );
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( Locks.ResourceType resourceType, long resourceId )
+    {
+        if ( !stateHolder.incrementActiveClients() )
+        {
+            return false;
+        }
+        try
+        {
+            ConcurrentMap<Long,Held> localLocks = localLocks( resourceType );
+            Held held = localLocks.get( resourceId );
+            if ( held != null && held.exclusive > 0 )
+            {
+                held.exclusive++;
+                return true;
+            }
+
+            boolean holdsShared = held != null;
+            StripedLock lock;
+            int result;
+            do
+            {
+                lock = holdsShared ? held.lock : manager.lock( resourceType, resourceId );
+                result = lock.tryAcquireExclusive( this, holdsShared );
+            }
+            while ( result == StripedLock.DEAD );
+
+            if ( result == StripedLock.PENDING )
+            {
+                releaseExclusive( lock );
+                return false;
+            }
+            if ( result == StripedLock.BLOCKED )
+            {
+                return false;
+            }
+
+            if ( holdsShared )
+            {
+                held.exclusive = 1;
+            }
+            else
+            {
+                localLocks.put( resourceId, new Held( lock, 0, 1 ) );
+            }
+            return true;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( Locks.ResourceType resourceType, long resourceId )
+    {
+        if ( !stateHolder.incrementActiveClients() )
+        {
+            return false;
+        }
+        try
+        {
+            ConcurrentMap<Long,Held> localLocks = localLocks( resourceType );
+            Held held = localLocks.get( resourceId );
+            if ( held != null )
+            {
+                acquireLocalShared( held );
+                return true;
+            }
+
+            StripedLock lock;
+            int result;
+            do
+            {
+                lock = manager.lock( resourceType, resourceId );
+                result = lock.tryAcquireShared( this );
+            }
+            while ( result == StripedLock.DEAD );
+
+            if ( result == StripedLock.BLOCKED )
+            {
+                return false;
+            }
+            localLocks.put( resourceId, new Held( lock, 1, 0 ) );
+            return true;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseShared( Locks.ResourceType resourceType, long resourceId )
+    {
+        if ( !stateHolder.incrementActiveClients() )
+        {
+            throw new LockClientAlreadyClosedException( format( "%s is already closed", this ) );
+        }
+        try
+        {
+            ConcurrentMap<Long,Held> localLocks = localLocks( resourceType );
+            Held held = localLocks.get( resourceId );
+            if ( held == null || held.shared == 0 )
+            {
+                throw new IllegalStateException( format( "%s cannot release shared lock on %s(%d) that it does not hold",
+                        this, resourceType, resourceId ) );
+            }
+            if ( --held.shared != 0 )
+            {
+                return;
+            }
+            if ( held.exclusive == 0 )
+            {
+                localLocks.remove( resourceId );
+            }
+            releaseShared( held.lock );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( Locks.ResourceType resourceType, long resourceId )
+    {
+        if ( !stateHolder.incrementActiveClients() )
+        {
+            throw new LockClientAlreadyClosedException( format( "%s is already closed", this ) );
+        }
+        try
+        {
+            ConcurrentMap<Long,Held> localLocks = localLocks( resourceType );
+            Held held = localLocks.get( resourceId );
+            if ( held == null || held.exclusive == 0 )
+            {
+                throw new IllegalStateException( format(
+                        "%s cannot release exclusive lock on %s(%d) that it does not hold",
+                        this, resourceType, resourceId ) );
+            }
+            if ( --held.exclusive != 0 )
+            {
+                return;
+            }
+            if ( held.shared == 0 )
+            {
+                localLocks.remove( resourceId );
+            }
+            releaseExclusive( held.lock );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseAll()
+    {
+        if ( !stateHolder.incrementActiveClients() )
+        {
+            throw new LockClientAlreadyClosedException( format( "%s is already closed", this ) );
+        }
+        try
+        {
+            releaseLocks();
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        // closing client to prevent any new client to come, waiters notice this and give up
+        stateHolder.closeClient();
+        // wait for all active clients to go
+        while ( stateHolder.hasActiveClients() )
+        {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        }
+        // now we are only one who operate on this client
+        // safe to release all the locks
+        releaseLocks();
+        manager.closed( this );
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return clientId;
+    }
+
+    private void acquireLocalShared( Held held )
+    {
+        if ( held.shared == 0 )
+        {
+            // We hold the lock exclusively, and that never blocks our own shared lock
+            if ( held.lock.tryAcquireShared( this ) != StripedLock.ACQUIRED )
+            {
+                throw new IllegalStateException( format( "%s failed to take shared lock on %s that it holds exclusively",
+                        this, held.lock ) );
+            }
+        }
+        held.shared++;
+    }
+
+    private void awaitDrained( StripedLock lock, boolean holdsShared, long iteration )
+    {
+        try
+        {
+            while ( !lock.isDrained( holdsShared ) )
+            {
+                await( lock, iteration++ );
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            // Give up our claim on the lock, so that whoever we were waiting for can get on with it
+            releaseExclusive( lock );
+            throw e;
+        }
+    }
+
+    private void await( StripedLock lock, long iteration )
+    {
+        if ( stateHolder.isClosed() )
+        {
+            throw new LockClientAlreadyClosedException( format( "%s is already closed", this ) );
+        }
+        waitingFor = lock;
+        long now = System.nanoTime();
+        if ( iteration == 0 )
+        {
+            waitStartNanos = now;
+            nextDeadlockCheckNanos = now + manager.deadlockDetectionThresholdNanos();
+        }
+        else if ( now - nextDeadlockCheckNanos >= 0 )
+        {
+            // We have been waiting for a while, so it is worth the trouble of looking for a cycle
+            checkForDeadlock( lock );
+            nextDeadlockCheckNanos = now + manager.deadlockDetectionThresholdNanos();
+        }
+        manager.waitStrategy( lock.resourceType ).apply( iteration );
+    }
+
+    private void checkForDeadlock( StripedLock lock )
+    {
+        List<StripedLockClient> path = new ArrayList<>();
+        if ( isWaitingForMe( lock, new HashSet<StripedLockClient>(), path ) )
+        {
+            throw new DeadlockDetectedException( format(
+                    "%s can't wait on %s after %d ms, because holders of that lock are waiting for %s: %s",
+                    this, lock, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - waitStartNanos ), this, path ) );
+        }
+    }
+
+    /**
+     * Depth first search through the holders of the given lock, and what they themselves are waiting for, looking
+     * for a lock held by this client.
+     */
+    private boolean isWaitingForMe( StripedLock lock, Set<StripedLockClient> visited, List<StripedLockClient> path )
+    {
+        for ( StripedLockClient holder : manager.clients() )
+        {
+            if ( holder == this || !holder.holds( lock ) || !visited.add( holder ) )
+            {
+                continue;
+            }
+            StripedLock holderWaitsFor = holder.waitingFor;
+            if ( holderWaitsFor == null )
+            {
+                continue;
+            }
+            path.add( holder );
+            if ( holds( holderWaitsFor ) || isWaitingForMe( holderWaitsFor, visited, path ) )
+            {
+                return true;
+            }
+            path.remove( path.size() - 1 );
+        }
+        return false;
+    }
+
+    private boolean holds( StripedLock lock )
+    {
+        if ( lock.exclusiveOwner() == this )
+        {
+            return true;
+        }
+        Held held = heldLocks[lock.resourceType.typeId()].get( lock.resourceId );
+        return held != null && held.lock == lock;
+    }
+
+    private void releaseShared( StripedLock lock )
+    {
+        if ( lock.releaseShared() )
+        {
+            manager.unlink( lock );
+        }
+    }
+
+    private void releaseExclusive( StripedLock lock )
+    {
+        if ( lock.releaseExclusive() )
+        {
+            manager.unlink( lock );
+        }
+    }
+
+    private void releaseLocks()
+    {
+        for ( ConcurrentMap<Long,Held> localLocks : heldLocks )
+        {
+            for ( Held held : localLocks.values() )
+            {
+                if ( held.exclusive > 0 )
+                {
+                    releaseExclusive( held.lock );
+                }
+                if ( held.shared > 0 )
+                {
+                    releaseShared( held.lock );
+                }
+            }
+            localLocks.clear();
+        }
+    }
+
+    private ConcurrentMap<Long,Held> localLocks( Locks.ResourceType resourceType )
+    {
+        return heldLocks[resourceType.typeId()];
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), getLockSessionId() );
+    }
+
+    /**
+     * The reentrancy counts of a lock held by this client. Only ever modified by the thread using the client.
+     */
+    private static final class Held
+    {
+        final StripedLock lock;
+        int shared;
+        int exclusive;
+
+        Held( StripedLock lock, int shared, int exclusive )
+        {
+            this.lock = lock;
+            this.shared = shared;
+            this.exclusive = exclusive;
+        }
+    }
+}
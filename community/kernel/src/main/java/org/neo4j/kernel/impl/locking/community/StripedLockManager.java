@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.kernel.impl.locking.AcquireLockTimeoutException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.util.concurrent.WaitStrategy;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+/**
+ * A community {@link Locks} implementation that, unlike {@link CommunityLockManger}, has no global monitor.
+ * <p>
+ * Locks live in per resource type tables that are split into stripes by resource id, so clients working on different
+ * resources rarely touch the same memory. Shared locks are taken and released with a single compare-and-set on the
+ * lock, see {@link StripedLock}. There is no wait-for graph maintained on the side either: a client only goes looking
+ * for a deadlock once it has been waiting for a lock for longer than the deadlock detection threshold, by following
+ * what the holders of the lock are themselves waiting for.
+ * <p>
+ * Select it with {@code lock_manager=community_striped}.
+ */
+public class StripedLockManager extends LifecycleAdapter implements Locks
+{
+    public static final String KEY = "community_striped";
+
+    static final long DEFAULT_DEADLOCK_DETECTION_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+    private static final int STRIPES = 64;
+
+    private final ConcurrentMap<Long,StripedLock>[][] tables;
+    private final WaitStrategy<AcquireLockTimeoutException>[] waitStrategies;
+    private final Set<StripedLockClient> clients =
+            Collections.newSetFromMap( new ConcurrentHashMap<StripedLockClient,Boolean>() );
+    private final AtomicInteger clientIds = new AtomicInteger();
+    private final long deadlockDetectionThresholdNanos;
+
+    public StripedLockManager( ResourceType... resourceTypes )
+    {
+        this( DEFAULT_DEADLOCK_DETECTION_THRESHOLD_NANOS, resourceTypes );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLockManager( long deadlockDetectionThresholdNanos, ResourceType... resourceTypes )
+    {
+        this.deadlockDetectionThresholdNanos = deadlockDetectionThresholdNanos;
+        int maxTypeId = 0;
+        for ( ResourceType type : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, type.typeId() );
+        }
+        tables = new ConcurrentMap[maxTypeId + 1][];
+        waitStrategies = new WaitStrategy[maxTypeId + 1];
+        for ( ResourceType type : resourceTypes )
+        {
+            waitStrategies[type.typeId()] = type.waitStrategy();
+            ConcurrentMap<Long,StripedLock>[] stripes = new ConcurrentMap[STRIPES];
+            for ( int i = 0; i < STRIPES; i++ )
+            {
+                stripes[i] = new ConcurrentHashMap<>( 16, 0.75f, 4 );
+            }
+            tables[type.typeId()] = stripes;
+        }
+    }
+
+    @Override
+    public Client newClient()
+    {
+        StripedLockClient client = new StripedLockClient( this, clientIds.incrementAndGet() );
+        clients.add( client );
+        return client;
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( ConcurrentMap<Long,StripedLock>[] stripes : tables )
+        {
+            if ( stripes == null )
+            {
+                continue;
+            }
+            for ( ConcurrentMap<Long,StripedLock> stripe : stripes )
+            {
+                for ( StripedLock lock : stripe.values() )
+                {
+                    if ( !lock.isDead() )
+                    {
+                        visitor.visit( lock.resourceType, lock.resourceId, lock.describe(), 0,
+                                System.identityHashCode( lock ) );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the live lock for the given resource, which may still die before the caller manages to acquire it.
+     */
+    StripedLock lock( ResourceType resourceType, long resourceId )
+    {
+        ConcurrentMap<Long,StripedLock> stripe = stripe( resourceType, resourceId );
+        Long key = resourceId;
+        StripedLock lock = stripe.get( key );
+        while ( lock == null || lock.isDead() )
+        {
+            if ( lock != null )
+            {
+                // Help the releasing client unlink it.
+                stripe.remove( key, lock );
+            }
+            StripedLock created = new StripedLock( resourceType, resourceId );
+            lock = stripe.putIfAbsent( key, created );
+            if ( lock == null )
+            {
+                lock = created;
+            }
+        }
+        return lock;
+    }
+
+    void unlink( StripedLock lock )
+    {
+        stripe( lock.resourceType, lock.resourceId ).remove( lock.resourceId, lock );
+    }
+
+    private ConcurrentMap<Long,StripedLock> stripe( ResourceType resourceType, long resourceId )
+    {
+        long hash = resourceId * 0x9E3779B97F4A7C15L;
+        return tables[resourceType.typeId()][(int) (hash >>> 58)];
+    }
+
+    int tableCount()
+    {
+        return tables.length;
+    }
+
+    WaitStrategy<AcquireLockTimeoutException> waitStrategy( ResourceType resourceType )
+    {
+        return waitStrategies[resourceType.typeId()];
+    }
+
+    long deadlockDetectionThresholdNanos()
+    {
+        return deadlockDetectionThresholdNanos;
+    }
+
+    Iterable<StripedLockClient> clients()
+    {
+        return clients;
+    }
+
+    void closed( StripedLockClient client )
+    {
+        clients.remove( client );
+    }
+}
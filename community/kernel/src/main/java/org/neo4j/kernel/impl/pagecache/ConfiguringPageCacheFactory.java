@@ -33,6 +33,7 @@ import org.neo4j.kernel.configuration.Config;
 import org.neo4j.logging.Log;
 
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_eviction_policy;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 
@@ -96,7 +97,8 @@ public class ConfiguringPageCacheFactory
                 swapperFactory,
                 maxPages,
                 cachePageSize,
-                tracer );
+                tracer,
+                config.get( pagecache_eviction_policy ) );
     }
 
     public int calculateMaxPages( Config config, int cachePageSize )
@@ -134,7 +136,8 @@ public class ConfiguringPageCacheFactory
         long pageCacheMb = (maxPages * cachePageSize) / 1024 / 1024;
         String msg = "Physical mem: " + totalPhysicalMemMb + " MiB," +
                      " Heap size: " + maxVmUsageMb + " MiB," +
-                     " Page cache size: " + pageCacheMb + " MiB.";
+                     " Page cache size: " + pageCacheMb + " MiB," +
+                     " Page cache eviction policy: " + config.get( pagecache_eviction_policy ) + ".";
 
         log.info( msg );
     }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.query;
+
+/**
+ * Notified about how the query engine uses its cache of query plans. The query is the text the plan is cached by.
+ */
+public interface QueryPlanCacheMonitor
+{
+    void cacheHit( String query );
+
+    void cacheMiss( String query );
+
+    /**
+     * The plan was evicted to make room for plans of other queries.
+     */
+    void cacheEviction( String query );
+
+    /**
+     * The cached plan was checked for staleness before it was reused. A plan is stale once it is older than the query
+     * plan TTL, transactions have been committed and the statistics of the graph have diverged from those it was
+     * made with. A stale plan is discarded and the query is planned again.
+     */
+    void cacheStalenessCheck( String query, boolean stale );
+
+    /**
+     * All plans were discarded, because the schema changed.
+     */
+    void cacheFlush();
+
+    /**
+     * The query was planned when the database started, because its plan was cached when the database last shut down.
+     */
+    void cacheWarmUp( String query );
+}
@@ -47,20 +47,36 @@ public class NeoStoreTransactionApplier extends NeoCommandHandler.Adapter
     private final LockService lockService;
     private final LockGroup lockGroup;
     private final long transactionId;
+    // Whether or not node, relationship, relationship group and property records have already been written
+    // by someone else, e.g. a ParallelRecordApplier
+    private final boolean recordsApplied;
 
     public NeoStoreTransactionApplier( NeoStore store, CacheAccessBackDoor cacheAccess,
                                        LockService lockService, LockGroup lockGroup, long transactionId )
+    {
+        this( store, cacheAccess, lockService, lockGroup, transactionId, false );
+    }
+
+    public NeoStoreTransactionApplier( NeoStore store, CacheAccessBackDoor cacheAccess,
+                                       LockService lockService, LockGroup lockGroup, long transactionId,
+                                       boolean recordsApplied )
     {
         this.neoStore = store;
         this.cacheAccess = cacheAccess;
         this.lockService = lockService;
         this.transactionId = transactionId;
         this.lockGroup = lockGroup;
+        this.recordsApplied = recordsApplied;
     }
 
     @Override
     public boolean visitNodeCommand( Command.NodeCommand command ) throws IOException
     {
+        if ( recordsApplied )
+        {
+            return false;
+        }
+
         // acquire lock
         lockGroup.add( lockService.acquireNodeLock( command.getKey(), LockService.LockType.WRITE_LOCK ) );
 
@@ -76,6 +92,11 @@ public class NeoStoreTransactionApplier extends NeoCommandHandler.Adapter
     @Override
     public boolean visitRelationshipCommand( Command.RelationshipCommand command ) throws IOException
     {
+        if ( recordsApplied )
+        {
+            return false;
+        }
+
         RelationshipRecord record = command.getRecord();
         neoStore.getRelationshipStore().updateRecord( record );
         return false;
@@ -84,6 +105,11 @@ public class NeoStoreTransactionApplier extends NeoCommandHandler.Adapter
     @Override
     public boolean visitPropertyCommand( Command.PropertyCommand command ) throws IOException
     {
+        if ( recordsApplied )
+        {
+            return false;
+        }
+
         // acquire lock
         long nodeId = command.getNodeId();
         if ( nodeId != -1 )
@@ -100,6 +126,11 @@ public class NeoStoreTransactionApplier extends NeoCommandHandler.Adapter
     @Override
     public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command ) throws IOException
     {
+        if ( recordsApplied )
+        {
+            return false;
+        }
+
         neoStore.getRelationshipGroupStore().updateRecord( command.getRecord() );
         return false;
     }
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStore;
+
+import static org.neo4j.helpers.Exceptions.launderedException;
+
+/**
+ * Writes the node, relationship, relationship group and property records of a transaction to the {@link NeoStore}
+ * using a number of threads. The records are partitioned by their id, such that all commands for a given record
+ * end up in the same partition and are applied in the order they appear in the transaction. Neighbouring records
+ * are kept in the same partition as far as possible, so that each thread mostly works on its own set of pages.
+ * <p>
+ * The node locks that {@link NeoStoreTransactionApplier} would otherwise take, are taken by this applier on the
+ * visiting thread, before any record is written. All other commands are ignored, and are expected to be applied
+ * by a {@link NeoStoreTransactionApplier} that has been told that the record commands have already been applied.
+ * <p>
+ * Transactions with fewer record commands than the given threshold are applied on the calling thread, since
+ * handing them off to other threads would cost more than it gains.
+ */
+public class ParallelRecordApplier extends NeoCommandHandler.Adapter
+{
+    /**
+     * Records with ids that only differ in these low bits will go to the same partition.
+     */
+    private static final int PARTITION_SHIFT = 6;
+
+    private final NeoStore neoStore;
+    private final CacheAccessBackDoor cacheAccess;
+    private final LockService lockService;
+    private final LockGroup lockGroup;
+    private final long transactionId;
+    private final Executor executor;
+    private final int threshold;
+    private final List<Command>[] partitions;
+    private int commandCount;
+
+    @SuppressWarnings( "unchecked" )
+    public ParallelRecordApplier( NeoStore store, CacheAccessBackDoor cacheAccess, LockService lockService,
+            LockGroup lockGroup, long transactionId, Executor executor, int parallelism, int threshold )
+    {
+        this.neoStore = store;
+        this.cacheAccess = cacheAccess;
+        this.lockService = lockService;
+        this.lockGroup = lockGroup;
+        this.transactionId = transactionId;
+        this.executor = executor;
+        this.threshold = threshold;
+        this.partitions = new List[parallelism];
+        for ( int i = 0; i < parallelism; i++ )
+        {
+            partitions[i] = new ArrayList<>();
+        }
+    }
+
+    @Override
+    public boolean visitNodeCommand( Command.NodeCommand command ) throws IOException
+    {
+        lockGroup.add( lockService.acquireNodeLock( command.getKey(), LockService.LockType.WRITE_LOCK ) );
+        add( command );
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipCommand( Command.RelationshipCommand command ) throws IOException
+    {
+        add( command );
+        return false;
+    }
+
+    @Override
+    public boolean visitPropertyCommand( Command.PropertyCommand command ) throws IOException
+    {
+        long nodeId = command.getNodeId();
+        if ( nodeId != -1 )
+        {
+            lockGroup.add( lockService.acquireNodeLock( nodeId, LockService.LockType.WRITE_LOCK ) );
+        }
+        add( command );
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command ) throws IOException
+    {
+        add( command );
+        return false;
+    }
+
+    private void add( Command command )
+    {
+        int partition = (int) ((command.getKey() >>> PARTITION_SHIFT) % partitions.length);
+        partitions[partition].add( command );
+        commandCount++;
+    }
+
+    @Override
+    public void apply()
+    {
+        if ( commandCount < threshold || partitions.length == 1 )
+        {
+            for ( List<Command> partition : partitions )
+            {
+                applyPartition( partition );
+            }
+            return;
+        }
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch( partitions.length - 1 );
+        for ( int i = 1; i < partitions.length; i++ )
+        {
+            final List<Command> partition = partitions[i];
+            executor.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        applyPartition( partition );
+                    }
+                    catch ( Throwable e )
+                    {
+                        failure.compareAndSet( null, e );
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            } );
+        }
+
+        try
+        {
+            applyPartition( partitions[0] );
+        }
+        finally
+        {
+            awaitUninterruptibly( done );
+        }
+
+        Throwable cause = failure.get();
+        if ( cause != null )
+        {
+            throw launderedException( cause );
+        }
+    }
+
+    private void applyPartition( List<Command> partition )
+    {
+        // The locks have already been taken on the visiting thread, so the applier doing the writing need not.
+        NeoStoreTransactionApplier applier = new NeoStoreTransactionApplier(
+                neoStore, cacheAccess, LockService.NO_LOCK_SERVICE, new LockGroup(), transactionId );
+        try
+        {
+            for ( Command command : partition )
+            {
+                command.handle( applier );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( "Unable to apply records of transaction " + transactionId, e );
+        }
+    }
+
+    private static void awaitUninterruptibly( CountDownLatch latch )
+    {
+        boolean interrupted = false;
+        while ( true )
+        {
+            try
+            {
+                latch.await();
+                break;
+            }
+            catch ( InterruptedException e )
+            {
+                interrupted = true;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -80,6 +80,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     // is introduced to manage just that and is only used for transactions that contain any legacy index changes.
     private final IdOrderingQueue legacyIndexTransactionOrdering;
 
+    private static final long GROUP_COMMIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos( 10 );
+
     private final AtomicReference<ThreadLink> threadLinkHead = new AtomicReference<>( ThreadLink.END );
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogFile logFile;
@@ -89,6 +91,15 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final KernelHealth kernelHealth;
     private final Lock forceLock = new ReentrantLock();
 
+    // Group commit: the thread about to force the log may wait a little while for more committers to join the batch,
+    // but never longer than the max wait, nor longer than about half of what a force has been observed to take.
+    // It also only waits if other committers are already queued up for the force, such that a lone committer is never
+    // made to wait for company that isn't coming.
+    private final long groupCommitMaxWaitNanos;
+    private final int groupCommitBatchSize;
+    // Guarded by the forceLock
+    private long averageForceNanos;
+
     private WritableLogChannel writer;
     private TransactionLogWriter transactionLogWriter;
     private IndexCommandDetector indexCommandDetector;
@@ -97,6 +108,23 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
             IdOrderingQueue legacyIndexTransactionOrdering, KernelHealth kernelHealth )
     {
+        this( logFile, logRotation, transactionMetadataCache, transactionIdStore, legacyIndexTransactionOrdering,
+                kernelHealth, 0, 1 );
+    }
+
+    /**
+     * @param groupCommitMaxWaitMicros the longest time, in microseconds, to wait for more transactions to join a
+     * batch before forcing the log. Zero disables group commit waiting.
+     * @param groupCommitBatchSize the number of transactions waiting for a force, at which point the log is forced
+     * without waiting any further.
+     */
+    public BatchingTransactionAppender( LogFile logFile, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue legacyIndexTransactionOrdering, KernelHealth kernelHealth,
+            long groupCommitMaxWaitMicros, int groupCommitBatchSize )
+    {
+        this.groupCommitMaxWaitNanos = TimeUnit.MICROSECONDS.toNanos( groupCommitMaxWaitMicros );
+        this.groupCommitBatchSize = groupCommitBatchSize;
         this.logFile = logFile;
         this.logRotation = logRotation;
         this.transactionIdStore = transactionIdStore;
@@ -341,10 +369,13 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
 
     private void forceLog( LogForceEvents logForceEvents ) throws IOException
     {
+        awaitGroupCommitBatch();
         ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
         try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
         {
+            long startNanos = System.nanoTime();
             force();
+            recordForceTime( System.nanoTime() - startNanos );
         }
         catch ( final Throwable panic )
         {
@@ -357,6 +388,42 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
+    private void awaitGroupCommitBatch()
+    {
+        long maxWaitNanos = Math.min( groupCommitMaxWaitNanos, averageForceNanos / 2 );
+        // The queue includes our own link, so fewer than two queued links means nobody else is committing right now.
+        if ( maxWaitNanos <= 0 || countWaiters( threadLinkHead.get(), 2 ) < 2 )
+        {
+            return;
+        }
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while ( countWaiters( threadLinkHead.get(), groupCommitBatchSize ) < groupCommitBatchSize &&
+                System.nanoTime() < deadline )
+        {
+            LockSupport.parkNanos( this, GROUP_COMMIT_PARK_NANOS );
+        }
+    }
+
+    private static int countWaiters( ThreadLink links, int max )
+    {
+        int count = 0;
+        // A null next pointer means someone is in the middle of adding their link; they will be counted next time.
+        while ( links != null && links != ThreadLink.END && count < max )
+        {
+            count++;
+            links = links.next;
+        }
+        return count;
+    }
+
+    private void recordForceTime( long forceNanos )
+    {
+        // An exponentially weighted moving average, so we adapt to changes in how long forcing takes, like when the
+        // disk gets busy, without reacting too much to the odd outlier.
+        averageForceNanos = averageForceNanos == 0 ? forceNanos : (averageForceNanos * 7 + forceNanos) / 8;
+    }
+
     private void unparkAll( ThreadLink links )
     {
         do
@@ -27,9 +27,14 @@ import java.nio.ByteBuffer;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
+import static java.lang.Math.min;
+
+import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
 import static org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel.DEFAULT_READ_AHEAD_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
@@ -58,7 +63,11 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
     public static final String REGEX_DEFAULT_NAME = "neostore\\.transaction\\.db";
     public static final String DEFAULT_VERSION_SUFFIX = ".";
     public static final String REGEX_DEFAULT_VERSION_SUFFIX = "\\.";
+    private static final int PREALLOCATION_CHUNK_SIZE = 1024 * 1024;
+    // No log entry ends with this many zeros, so a log that does has been preallocated and not yet truncated
+    private static final int PREALLOCATED_TAIL_SIZE = 16;
     private final long rotateAtSize;
+    private final boolean preallocate;
     private final FileSystemAbstraction fileSystem;
     private final TransactionIdStore transactionIdStore;
     private final PhysicalLogFiles logFiles;
@@ -75,9 +84,25 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
             TransactionIdStore transactionIdStore,
             LogVersionRepository logVersionRepository, Monitor monitor,
             TransactionMetadataCache transactionMetadataCache )
+    {
+        this( fileSystem, logFiles, rotateAtSize, false, transactionIdStore, logVersionRepository, monitor,
+                transactionMetadataCache );
+    }
+
+    /**
+     * @param preallocate whether or not to fill each new log file with zeros up to {@code rotateAtSize} when it is
+     * created. Appending to a preallocated log neither allocates blocks nor changes the size of the file, so
+     * forcing it only needs to write out the appended data and not any file system metadata. Log files are
+     * truncated to their actual contents on rotation and on shutdown.
+     */
+    public PhysicalLogFile( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles, long rotateAtSize,
+            boolean preallocate, TransactionIdStore transactionIdStore,
+            LogVersionRepository logVersionRepository, Monitor monitor,
+            TransactionMetadataCache transactionMetadataCache )
     {
         this.fileSystem = fileSystem;
         this.rotateAtSize = rotateAtSize;
+        this.preallocate = preallocate && rotateAtSize > LOG_HEADER_SIZE;
         this.transactionIdStore = transactionIdStore;
         this.logVersionRepository = logVersionRepository;
         this.monitor = monitor;
@@ -104,7 +129,7 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
         long lastLogVersionUsed = logVersionRepository.getCurrentLogVersion();
         channel = openLogChannelForVersion( lastLogVersionUsed );
         // Move to the end
-        channel.position( channel.size() );
+        channel.position( endOfLog( channel ) );
 
         writer = new PhysicalWritableLogChannel( channel );
     }
@@ -113,6 +138,7 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
     public void stop() throws Throwable
     {
         writer.close();
+        truncateToPosition( channel );
         channel.close();
     }
 
@@ -140,6 +166,7 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
          * current log file and replay everything. That's unnecessary but totally ok.
          */
         long newLogVersion = logVersionRepository.incrementAndGetVersion();
+        truncateToPosition( currentLog );
         currentLog.flush();
         /*
          * The log version is now in the store, flushed and persistent. If we crash
@@ -166,12 +193,86 @@ public class PhysicalLogFile extends LifecycleAdapter implements LogFile
             writeLogHeader( headerBuffer, forVersion, lastTxId );
             transactionMetadataCache.putHeader( forVersion, lastTxId );
             storeChannel.writeAll( headerBuffer );
+            if ( preallocate )
+            {
+                preallocate( storeChannel );
+            }
             monitor.opened( toOpen, forVersion, lastTxId, true );
         }
         byte formatVersion = header == null ? CURRENT_LOG_VERSION : header.logFormatVersion;
         return new PhysicalLogVersionedStoreChannel( storeChannel, forVersion, formatVersion );
     }
 
+    private void preallocate( StoreChannel storeChannel ) throws IOException
+    {
+        // Zeros rather than a sparse file, since the point is to have the blocks allocated up front.
+        // A zero byte where a log entry would start reads as the end of the log.
+        ByteBuffer zeros = ByteBuffer.allocate( (int) min( PREALLOCATION_CHUNK_SIZE, rotateAtSize ) );
+        long position = storeChannel.position();
+        while ( position < rotateAtSize )
+        {
+            zeros.clear();
+            zeros.limit( (int) min( zeros.capacity(), rotateAtSize - position ) );
+            int length = zeros.limit();
+            storeChannel.writeAll( zeros, position );
+            position += length;
+        }
+        storeChannel.force( true );
+    }
+
+    private long endOfLog( LogVersionedStoreChannel channel ) throws IOException
+    {
+        long size = channel.size();
+        if ( !hasPreallocatedTail( channel, size ) )
+        {
+            return size;
+        }
+
+        // This log was preallocated and not truncated, because the database was not shut down cleanly. Recovery has
+        // already cut off any broken transaction at the end, so the end of the log is where the log entries end.
+        channel.position( LOG_HEADER_SIZE );
+        ReadableVersionableLogChannel reader =
+                new ReadAheadLogChannel( channel, NO_MORE_CHANNELS, DEFAULT_READ_AHEAD_SIZE );
+        LogEntryReader<ReadableVersionableLogChannel> entryReader = new VersionAwareLogEntryReader<>();
+        LogPositionMarker marker = new LogPositionMarker();
+        long end = LOG_HEADER_SIZE;
+        while ( entryReader.readLogEntry( reader ) != null )
+        {
+            end = reader.getCurrentPosition( marker ).getByteOffset();
+        }
+        return end;
+    }
+
+    private static boolean hasPreallocatedTail( LogVersionedStoreChannel channel, long size ) throws IOException
+    {
+        if ( size < LOG_HEADER_SIZE + PREALLOCATED_TAIL_SIZE )
+        {
+            return false;
+        }
+        ByteBuffer tail = ByteBuffer.allocate( PREALLOCATED_TAIL_SIZE );
+        channel.position( size - PREALLOCATED_TAIL_SIZE );
+        while ( tail.hasRemaining() && channel.read( tail ) != -1 )
+        {
+        }
+        for ( int i = 0; i < tail.position(); i++ )
+        {
+            if ( tail.get( i ) != 0 )
+            {
+                return false;
+            }
+        }
+        return !tail.hasRemaining();
+    }
+
+    private static void truncateToPosition( LogVersionedStoreChannel channel ) throws IOException
+    {
+        long position = channel.position();
+        if ( position < channel.size() )
+        {
+            channel.truncate( position );
+        }
+    }
+
     @Override
     public WritableLogChannel getWriter()
     {
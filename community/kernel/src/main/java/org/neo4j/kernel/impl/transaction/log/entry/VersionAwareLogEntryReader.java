@@ -81,6 +81,11 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableLogChannel> imple
                      * so we need to read an extra byte which will contain the type
                      */
                     byte typeCode = channel.get();
+                    if ( typeCode == LogEntryByteCodes.EMPTY )
+                    {
+                        // Nothing has been written here yet, like in the unused part of a preallocated log
+                        return null;
+                    }
                     byte versionCode = 0;
                     if ( typeCode < 0 )
                     {
@@ -20,6 +20,7 @@
 package org.neo4j.unsafe.impl.batchimport;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.unsafe.impl.batchimport.cache.NodeRelationshipCache;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
@@ -37,7 +38,8 @@ public class CalculateDenseNodesStage extends Stage
 {
     public CalculateDenseNodesStage( Configuration config, InputIterable<InputRelationship> relationships,
             NodeRelationshipCache cache, IdMapper idMapper,
-            Collector badCollector, InputCache inputCache ) throws IOException
+            Collector badCollector, InputCache inputCache,
+            long firstNewNodeId, AtomicLong relationshipsTouchingExistingNodes ) throws IOException
     {
         super( "Calculate dense nodes", config );
         add( new InputIteratorBatcherStep<>( control(), config,
@@ -47,6 +49,11 @@ public class CalculateDenseNodesStage extends Stage
             add( new InputEntityCacherStep<>( control(), config, inputCache.cacheRelationships() ) );
         }
         add( new RelationshipPreparationStep( control(), config, idMapper ) );
+        if ( firstNewNodeId > 0 )
+        {
+            add( new ExistingNodesFilterStep( control(), config, firstNewNodeId, false,
+                    relationshipsTouchingExistingNodes ) );
+        }
         add( new CalculateDenseNodePrepareStep( control(), config, badCollector ) );
         add( new CalculateDenseNodesStep( control(), config, cache ) );
     }
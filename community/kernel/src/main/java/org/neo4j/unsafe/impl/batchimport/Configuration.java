@@ -21,6 +21,8 @@ package org.neo4j.unsafe.impl.batchimport;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
+import org.neo4j.unsafe.impl.batchimport.input.InputCache;
 
 import static java.lang.Math.round;
 
@@ -58,6 +60,27 @@ public interface Configuration extends org.neo4j.unsafe.impl.batchimport.staging
      */
     int maxNumberOfProcessors();
 
+    /**
+     * Whether or not to write a checkpoint after each group of stages, such that an import which fails
+     * can be resumed from the last completed checkpoint, using {@link ImportMode#RESUME}, instead of being
+     * started from the beginning. Checkpoints cost some time and disk space in the store directory.
+     */
+    boolean checkpoints();
+
+    /**
+     * Factory of the arrays making up the caches of an import, f.ex. for keeping relationship chain
+     * heads and labels per node. Caches not fitting in memory can be placed in files, using
+     * {@link NumberArrayFactory.RamBudget} and {@link NumberArrayFactory.MemoryMapped}.
+     * Defaults to {@link NumberArrayFactory#AUTO}.
+     */
+    NumberArrayFactory cacheFactory();
+
+    /**
+     * Whether or not to compress input data which is cached to disk because the input doesn't support
+     * multiple passes, see {@link InputCache}. Compression trades CPU for less disk I/O and space.
+     */
+    boolean compressInputCache();
+
     class Default
             extends org.neo4j.unsafe.impl.batchimport.staging.Configuration.Default
             implements Configuration
@@ -113,6 +136,24 @@ public interface Configuration extends org.neo4j.unsafe.impl.batchimport.staging
         {
             return 100;
         }
+
+        @Override
+        public boolean checkpoints()
+        {
+            return false;
+        }
+
+        @Override
+        public NumberArrayFactory cacheFactory()
+        {
+            return NumberArrayFactory.AUTO;
+        }
+
+        @Override
+        public boolean compressInputCache()
+        {
+            return false;
+        }
     }
 
     Configuration DEFAULT = new Default();
@@ -159,5 +200,23 @@ public interface Configuration extends org.neo4j.unsafe.impl.batchimport.staging
         {
             return defaults.movingAverageSize();
         }
+
+        @Override
+        public boolean checkpoints()
+        {
+            return defaults.checkpoints();
+        }
+
+        @Override
+        public NumberArrayFactory cacheFactory()
+        {
+            return defaults.cacheFactory();
+        }
+
+        @Override
+        public boolean compressInputCache()
+        {
+            return defaults.compressInputCache();
+        }
     }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.util.NoSuchElementException;
+
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
+
+/**
+ * Input ids of all nodes in an incremental import, in node id order, as expected by
+ * {@link IdMapper#prepare(InputIterable, org.neo4j.unsafe.impl.batchimport.input.Collector,
+ * org.neo4j.helpers.progress.ProgressListener)}. First come the ids of the nodes which existed in the store
+ * before the import, i.e. the values of their id property, or {@code null} for nodes without one.
+ * Then come the input ids of the imported nodes.
+ */
+public class ExistingNodeIds implements InputIterable<Object>
+{
+    private final NodeStore nodeStore;
+    private final PropertyStore propertyStore;
+    private final int idPropertyKeyId;
+    private final long firstNewNodeId;
+    private final InputIterable<Object> inputIds;
+
+    /**
+     * @param idPropertyKeyId property key id of the id property of existing nodes, or {@code -1} if none.
+     */
+    public ExistingNodeIds( NodeStore nodeStore, PropertyStore propertyStore, int idPropertyKeyId,
+            long firstNewNodeId, InputIterable<Object> inputIds )
+    {
+        this.nodeStore = nodeStore;
+        this.propertyStore = propertyStore;
+        this.idPropertyKeyId = idPropertyKeyId;
+        this.firstNewNodeId = firstNewNodeId;
+        this.inputIds = inputIds;
+    }
+
+    /**
+     * @return the value of the id property of {@code node}, or {@code null} if it has none.
+     */
+    public static Object idOf( NodeRecord node, PropertyStore propertyStore, int idPropertyKeyId )
+    {
+        if ( idPropertyKeyId == -1 || !node.inUse() || node.getNextProp() == Record.NO_NEXT_PROPERTY.intValue() )
+        {
+            return null;
+        }
+
+        for ( PropertyRecord propertyRecord : propertyStore.getPropertyRecordChain( node.getNextProp() ) )
+        {
+            PropertyBlock property = propertyRecord.getPropertyBlock( idPropertyKeyId );
+            if ( property != null )
+            {
+                propertyStore.ensureHeavy( property );
+                return property.getType().getValue( property, propertyStore );
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InputIterator<Object> iterator()
+    {
+        final InputIterator<Object> input = inputIds.iterator();
+        return new InputIterator<Object>()
+        {
+            private long nextId;
+            private boolean existing;
+
+            @Override
+            public boolean hasNext()
+            {
+                return nextId < firstNewNodeId || input.hasNext();
+            }
+
+            @Override
+            public Object next()
+            {
+                if ( nextId < firstNewNodeId )
+                {
+                    existing = true;
+                    long id = nextId++;
+                    NodeRecord node = new NodeRecord( id );
+                    nodeStore.loadRecord( id, node );
+                    return idOf( node, propertyStore, idPropertyKeyId );
+                }
+                if ( !input.hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+                existing = false;
+                return input.next();
+            }
+
+            @Override
+            public String sourceDescription()
+            {
+                return existing ? "existing nodes in " + nodeStore.getStorageFileName() : input.sourceDescription();
+            }
+
+            @Override
+            public long lineNumber()
+            {
+                return existing ? nextId - 1 : input.lineNumber();
+            }
+
+            @Override
+            public long position()
+            {
+                return existing ? 0 : input.position();
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close()
+            {
+                input.close();
+            }
+        };
+    }
+
+    @Override
+    public boolean supportsMultiplePasses()
+    {
+        return inputIds.supportsMultiplePasses();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
+import org.neo4j.unsafe.impl.batchimport.staging.Stage;
+
+/**
+ * Reads all nodes existing in the store before an incremental import and puts their ids into the
+ * {@link IdMapper}. Executed before any imported node is put into it.
+ */
+public class ExistingNodeIdsStage extends Stage
+{
+    public ExistingNodeIdsStage( Configuration config, NodeStore nodeStore, PropertyStore propertyStore,
+            IdMapper idMapper, int idPropertyKeyId )
+    {
+        super( "Existing node ids", config );
+        add( new ReadNodeRecordsStep( control(), config, nodeStore ) );
+        add( new ExistingNodeIdsStep( control(), config, idMapper, propertyStore, idPropertyKeyId ) );
+    }
+}
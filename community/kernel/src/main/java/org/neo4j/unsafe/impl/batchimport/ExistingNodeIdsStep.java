@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
+import org.neo4j.unsafe.impl.batchimport.input.Group;
+import org.neo4j.unsafe.impl.batchimport.staging.BatchSender;
+import org.neo4j.unsafe.impl.batchimport.staging.ProcessorStep;
+import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
+
+/**
+ * Puts the ids of nodes existing in the store before an incremental import into the {@link IdMapper},
+ * in the {@link Group#GLOBAL global} id space, so that imported relationships can refer to them.
+ * Ids are read from an id property of the nodes, see {@link ExistingNodeIds#idOf(NodeRecord, PropertyStore, int)}.
+ * Single-threaded since ids must be put in node id order.
+ */
+public class ExistingNodeIdsStep extends ProcessorStep<NodeRecord[]>
+{
+    private final IdMapper idMapper;
+    private final PropertyStore propertyStore;
+    private final int idPropertyKeyId;
+
+    public ExistingNodeIdsStep( StageControl control, Configuration config, IdMapper idMapper,
+            PropertyStore propertyStore, int idPropertyKeyId )
+    {
+        super( control, "IDS", config, 1 );
+        this.idMapper = idMapper;
+        this.propertyStore = propertyStore;
+        this.idPropertyKeyId = idPropertyKeyId;
+    }
+
+    @Override
+    protected void process( NodeRecord[] batch, BatchSender sender )
+    {
+        for ( NodeRecord node : batch )
+        {
+            Object id = ExistingNodeIds.idOf( node, propertyStore, idPropertyKeyId );
+            if ( id != null )
+            {
+                idMapper.put( id, node.getId(), Group.GLOBAL );
+            }
+        }
+    }
+}
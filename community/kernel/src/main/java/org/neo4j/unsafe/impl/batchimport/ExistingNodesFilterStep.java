@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.unsafe.impl.batchimport.cache.NodeRelationshipCache;
+import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
+import org.neo4j.unsafe.impl.batchimport.staging.BatchSender;
+import org.neo4j.unsafe.impl.batchimport.staging.ProcessorStep;
+import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
+
+/**
+ * Splits relationships of an incremental import by whether or not they touch any node which existed in the store
+ * before the import. Such relationships cannot go through the {@link NodeRelationshipCache}, which only knows
+ * about imported nodes, and are instead linked into existing chains by {@link ExistingNodesRelationshipStep}
+ * after all other relationships have been imported. Relationships referring to missing nodes are kept among
+ * the others, for the ordinary stages to report and skip.
+ *
+ * A batch is sent downstream for every received batch, possibly an empty one, since downstream steps may
+ * rely on batches arriving in order of ticket.
+ */
+public class ExistingNodesFilterStep extends ProcessorStep<Batch<InputRelationship,RelationshipRecord>>
+{
+    private final long firstNewNodeId;
+    private final boolean touchingExistingNodes;
+    private final AtomicLong touchingExistingNodesCount;
+
+    /**
+     * @param firstNewNodeId nodes with lower ids existed before the import.
+     * @param touchingExistingNodes {@code true} for keeping only relationships touching existing nodes,
+     * {@code false} for keeping only the others.
+     * @param touchingExistingNodesCount incremented with the number of relationships touching existing nodes.
+     */
+    public ExistingNodesFilterStep( StageControl control, Configuration config, long firstNewNodeId,
+            boolean touchingExistingNodes, AtomicLong touchingExistingNodesCount )
+    {
+        super( control, "FILTER", config, 0 );
+        this.firstNewNodeId = firstNewNodeId;
+        this.touchingExistingNodes = touchingExistingNodes;
+        this.touchingExistingNodesCount = touchingExistingNodesCount;
+    }
+
+    @Override
+    protected void process( Batch<InputRelationship,RelationshipRecord> batch, BatchSender sender )
+    {
+        InputRelationship[] input = batch.input;
+        long[] ids = batch.ids;
+        boolean[] keep = new boolean[input.length];
+        int kept = 0, touching = 0;
+        for ( int i = 0; i < input.length; i++ )
+        {
+            boolean touches = touchesExistingNode( ids[i*2], ids[i*2+1] );
+            if ( touches )
+            {
+                touching++;
+            }
+            if ( touches == touchingExistingNodes )
+            {
+                keep[i] = true;
+                kept++;
+            }
+        }
+        touchingExistingNodesCount.addAndGet( touching );
+
+        if ( kept == input.length )
+        {
+            sender.send( batch );
+            return;
+        }
+
+        InputRelationship[] keptInput = new InputRelationship[kept];
+        long[] keptIds = new long[kept*2];
+        for ( int i = 0, cursor = 0; i < input.length; i++ )
+        {
+            if ( keep[i] )
+            {
+                keptInput[cursor] = input[i];
+                keptIds[cursor*2] = ids[i*2];
+                keptIds[cursor*2+1] = ids[i*2+1];
+                cursor++;
+            }
+        }
+        Batch<InputRelationship,RelationshipRecord> filtered = new Batch<>( keptInput );
+        filtered.ids = keptIds;
+        filtered.sortedIds = keptIds.clone();
+        Arrays.sort( filtered.sortedIds );
+        sender.send( filtered );
+    }
+
+    private boolean touchesExistingNode( long startNodeId, long endNodeId )
+    {
+        return startNodeId != -1 && endNodeId != -1 &&
+               (startNodeId < firstNewNodeId || endNodeId < firstNewNodeId);
+    }
+}
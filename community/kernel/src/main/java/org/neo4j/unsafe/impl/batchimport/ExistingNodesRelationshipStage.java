@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
+import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
+import org.neo4j.unsafe.impl.batchimport.staging.Stage;
+import org.neo4j.unsafe.impl.batchimport.store.BatchingNeoStore;
+
+/**
+ * Imports the relationships of an incremental import which touch nodes that existed in the store before
+ * the import, i.e. the ones left out of {@link CalculateDenseNodesStage} and {@link RelationshipStage}.
+ */
+public class ExistingNodesRelationshipStage extends Stage
+{
+    public ExistingNodesRelationshipStage( Configuration config, InputIterable<InputRelationship> relationships,
+            IdMapper idMapper, BatchingNeoStore neoStore, long firstNewNodeId,
+            EntityStoreUpdaterStep.Monitor storeUpdateMonitor )
+    {
+        super( "Relationships to existing nodes", config );
+        add( new InputIteratorBatcherStep<>( control(), config, relationships.iterator(), InputRelationship.class ) );
+        add( new RelationshipPreparationStep( control(), config, idMapper ) );
+        add( new ExistingNodesFilterStep( control(), config, firstNewNodeId, true, new AtomicLong() ) );
+        add( new ExistingNodesRelationshipStep( control(), config, neoStore, storeUpdateMonitor ) );
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.util.Arrays;
+
+import org.neo4j.kernel.impl.store.NeoStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.transaction.state.PropertyCreator;
+import org.neo4j.kernel.impl.transaction.state.RelationshipCreator;
+import org.neo4j.kernel.impl.transaction.state.RelationshipGroupGetter;
+import org.neo4j.kernel.impl.transaction.state.RelationshipLocker;
+import org.neo4j.unsafe.batchinsert.DirectRecordAccessSet;
+import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
+import org.neo4j.unsafe.impl.batchimport.staging.BatchSender;
+import org.neo4j.unsafe.impl.batchimport.staging.ProcessorStep;
+import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
+import org.neo4j.unsafe.impl.batchimport.store.BatchingNeoStore;
+import org.neo4j.unsafe.impl.batchimport.store.BatchingTokenRepository;
+import org.neo4j.unsafe.impl.batchimport.store.BatchingTokenRepository.BatchingPropertyKeyTokenRepository;
+
+/**
+ * Creates relationships touching nodes which existed in the store before an incremental import. They are
+ * linked into the existing relationship chains of those nodes, and any node getting more relationships than
+ * the dense node threshold is converted into having relationship groups, the same way as a transaction would.
+ * This is done single-threaded with random access to the stores, after all other relationships have been
+ * imported and linked.
+ */
+public class ExistingNodesRelationshipStep extends ProcessorStep<Batch<InputRelationship,RelationshipRecord>>
+{
+    private final RelationshipStore relationshipStore;
+    private final BatchingTokenRepository<?> relationshipTypeRepository;
+    private final BatchingPropertyKeyTokenRepository propertyKeyRepository;
+    private final DirectRecordAccessSet recordAccess;
+    private final RelationshipCreator relationshipCreator;
+    private final PropertyCreator propertyCreator;
+    private final EntityStoreUpdaterStep.Monitor monitor;
+
+    public ExistingNodesRelationshipStep( StageControl control, Configuration config, BatchingNeoStore neoStore,
+            EntityStoreUpdaterStep.Monitor monitor )
+    {
+        super( control, "LINK", config, 1 );
+        NeoStore stores = neoStore.get();
+        this.relationshipStore = neoStore.getRelationshipStore();
+        this.relationshipTypeRepository = neoStore.getRelationshipTypeRepository();
+        this.propertyKeyRepository = neoStore.getPropertyKeyRepository();
+        this.recordAccess = new DirectRecordAccessSet( stores );
+        this.relationshipCreator = new RelationshipCreator( RelationshipLocker.NO_LOCKING,
+                new RelationshipGroupGetter( stores.getRelationshipGroupStore() ), config.denseNodeThreshold() );
+        this.propertyCreator = new PropertyCreator( stores.getPropertyStore(), null );
+        this.monitor = monitor;
+    }
+
+    @Override
+    protected void process( Batch<InputRelationship,RelationshipRecord> batch, BatchSender sender )
+    {
+        InputRelationship[] input = batch.input;
+        long[] ids = batch.ids;
+        long properties = 0;
+        PropertyBlock[] propertyBlocks = new PropertyBlock[0];
+        for ( int i = 0; i < input.length; i++ )
+        {
+            InputRelationship relationship = input[i];
+            long id = relationshipStore.nextId();
+            int typeId = relationship.hasTypeId() ? relationship.typeId() :
+                    relationshipTypeRepository.getOrCreateId( relationship.type() );
+            relationshipCreator.relationshipCreate( id, typeId, ids[i*2], ids[i*2+1], recordAccess );
+
+            int propertyCount = relationship.properties().length / 2;
+            if ( propertyCount > 0 )
+            {
+                if ( propertyBlocks.length < propertyCount )
+                {
+                    propertyBlocks = new PropertyBlock[propertyCount];
+                }
+                propertyKeyRepository.propertyKeysAndValues( propertyBlocks, 0, relationship.properties(),
+                        propertyCreator );
+                RelationshipRecord record = recordAccess.getRelRecords().getOrLoad( id, null ).forChangingData();
+                record.setNextProp( propertyCreator.createPropertyChain( record,
+                        Arrays.asList( propertyBlocks ).subList( 0, propertyCount ).iterator(),
+                        recordAccess.getPropertyRecords() ) );
+                properties += propertyCount;
+            }
+        }
+        recordAccess.commit();
+        monitor.entitiesWritten( RelationshipRecord.class, input.length );
+        monitor.propertiesWritten( properties );
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        super.close();
+        recordAccess.close();
+    }
+}
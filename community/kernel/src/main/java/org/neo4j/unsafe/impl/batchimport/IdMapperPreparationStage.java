@@ -22,25 +22,23 @@ package org.neo4j.unsafe.impl.batchimport;
 import org.neo4j.helpers.progress.ProgressListener;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
 import org.neo4j.unsafe.impl.batchimport.input.Collector;
-import org.neo4j.unsafe.impl.batchimport.input.InputCache;
-import org.neo4j.unsafe.impl.batchimport.input.InputNode;
 import org.neo4j.unsafe.impl.batchimport.staging.Stage;
 import org.neo4j.unsafe.impl.batchimport.stats.StatsProvider;
 
-import static org.neo4j.unsafe.impl.batchimport.Utils.idsOf;
-
 /**
  * Performs {@link IdMapper#prepare(InputIterable, Collector, ProgressListener)}
  * embedded in a {@link Stage} as to take advantage of statistics and monitoring provided by that framework.
  */
 public class IdMapperPreparationStage extends Stage
 {
-    public IdMapperPreparationStage( Configuration config, IdMapper idMapper, InputIterable<InputNode> nodes,
-            InputCache inputCache, Collector collector, StatsProvider memoryUsageStats )
+    /**
+     * @param ids all ids put into the {@link IdMapper}, the i:th id being the one put for the i:th node
+     * put into it.
+     */
+    public IdMapperPreparationStage( Configuration config, IdMapper idMapper, InputIterable<Object> ids,
+            Collector collector, StatsProvider memoryUsageStats )
     {
         super( "Prepare node index", config );
-        add( new IdMapperPreparationStep( control(), config,
-                idMapper, idsOf( nodes.supportsMultiplePasses() ? nodes : inputCache.nodes() ),
-                collector, memoryUsageStats ) );
+        add( new IdMapperPreparationStep( control(), config, idMapper, ids, collector, memoryUsageStats ) );
     }
 }
@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.IdType;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.PhysicalWritableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
+import org.neo4j.unsafe.impl.batchimport.cache.NodeRelationshipCache;
+import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
+import org.neo4j.unsafe.impl.batchimport.input.ValueType;
+import org.neo4j.unsafe.impl.batchimport.store.BatchingNeoStore;
+
+import static org.neo4j.helpers.Format.MB;
+import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
+
+/**
+ * State of an import at a stage boundary, written durably into the store directory so that an import which
+ * fails can be resumed from the last completed {@link Stage}, using {@link ImportMode#RESUME}, instead of being
+ * started from the beginning. Store records are forced to disk by the checkpoint and the high ids of the stores
+ * are recorded, such that records written by a failed stage are overwritten when resuming it.
+ * In-memory state which later stages depend on, i.e. the {@link IdMapper} and the {@link NodeRelationshipCache},
+ * is written into separate files, before the checkpoint itself which refers to them.
+ */
+public class ImportCheckpoint
+{
+    static final String FILE_NAME = "import-checkpoint";
+    private static final String ID_MAPPER_FILE_NAME = FILE_NAME + "-ids";
+    private static final String CACHE_FILE_NAME = FILE_NAME + "-cache-";
+    private static final int BUFFER_SIZE = MB;
+
+    // Stores getting records written to them by the stages that can be resumed
+    private static final IdType[] STORES = {IdType.NODE, IdType.NODE_LABELS, IdType.RELATIONSHIP,
+            IdType.RELATIONSHIP_GROUP, IdType.PROPERTY, IdType.STRING_BLOCK, IdType.ARRAY_BLOCK};
+
+    /**
+     * Stages an import has completed when writing a checkpoint, in order.
+     */
+    public enum Stage
+    {
+        /**
+         * Nodes imported, id mapper prepared and relationships counted per node.
+         */
+        NODES,
+        /**
+         * Relationships imported.
+         */
+        RELATIONSHIPS,
+        /**
+         * Relationships between imported nodes linked, about to link relationships into the chains of existing
+         * nodes. Records of existing nodes and relationships are modified from this point and that can't be
+         * done twice, so an import can't be resumed from here.
+         */
+        LINKING_EXISTING_NODES,
+        /**
+         * All relationships linked, leaving counts and schema indexes, which are rebuilt when resuming.
+         */
+        LINKED
+    }
+
+    private final FileSystemAbstraction fs;
+    private final File storeDir;
+    private final ImportMode mode;
+    private final long firstNewNodeId;
+    private final long firstNewRelationshipId;
+    private final long[] highIds = new long[STORES.length];
+    private Stage stage;
+    private long relationshipsTouchingExistingNodes;
+    private long badEntries;
+
+    /**
+     * @param mode the mode the import was started in, not {@link ImportMode#RESUME}.
+     */
+    public ImportCheckpoint( FileSystemAbstraction fs, File storeDir, ImportMode mode,
+            long firstNewNodeId, long firstNewRelationshipId )
+    {
+        this.fs = fs;
+        this.storeDir = storeDir;
+        this.mode = mode;
+        this.firstNewNodeId = firstNewNodeId;
+        this.firstNewRelationshipId = firstNewRelationshipId;
+    }
+
+    /**
+     * @return whether or not {@code storeDir} contains a checkpoint of an import, which could be resumed.
+     */
+    public static boolean exists( FileSystemAbstraction fs, File storeDir )
+    {
+        return fs.fileExists( new File( storeDir, FILE_NAME ) ) || fs.fileExists( tempFile( storeDir ) );
+    }
+
+    /**
+     * Reads the last checkpoint written into {@code storeDir}.
+     *
+     * @return the checkpoint, or {@code null} if there's none.
+     */
+    public static ImportCheckpoint read( FileSystemAbstraction fs, File storeDir ) throws IOException
+    {
+        File file = new File( storeDir, FILE_NAME );
+        if ( !fs.fileExists( file ) )
+        {   // A failure in between removing the previous checkpoint and renaming its complete replacement
+            file = tempFile( storeDir );
+            if ( !fs.fileExists( file ) )
+            {
+                return null;
+            }
+        }
+
+        try ( StoreChannel storeChannel = fs.open( file, "r" );
+              ReadableLogChannel channel = reader( storeChannel ) )
+        {
+            Stage stage = Stage.values()[channel.get()];
+            ImportMode mode = channel.get() == 0
+                    ? ImportMode.NEW_STORE
+                    : ImportMode.incremental( channel.get() == 0 ? null :
+                            (String) ValueType.stringType().read( channel ) );
+            ImportCheckpoint checkpoint = new ImportCheckpoint( fs, storeDir, mode,
+                    channel.getLong(), channel.getLong() );
+            checkpoint.stage = stage;
+            checkpoint.relationshipsTouchingExistingNodes = channel.getLong();
+            checkpoint.badEntries = channel.getLong();
+            for ( int i = 0; i < STORES.length; i++ )
+            {
+                checkpoint.highIds[i] = channel.getLong();
+            }
+            return checkpoint;
+        }
+    }
+
+    /**
+     * Writes a checkpoint for having completed {@code stage}. All changes made to {@code neoStore} are forced
+     * to disk first and {@code idMapper} and {@code cache}, where not {@code null}, are written along with it.
+     */
+    public void write( Stage stage, BatchingNeoStore neoStore, long relationshipsTouchingExistingNodes,
+            long badEntries, IdMapper idMapper, NodeRelationshipCache cache ) throws IOException
+    {
+        neoStore.flush();
+        if ( idMapper != null )
+        {
+            writeIdMapper( idMapper );
+        }
+        if ( cache != null )
+        {
+            writeCache( stage, cache );
+        }
+
+        Stage previousStage = this.stage;
+        this.stage = stage;
+        this.relationshipsTouchingExistingNodes = relationshipsTouchingExistingNodes;
+        this.badEntries = badEntries;
+        for ( int i = 0; i < STORES.length; i++ )
+        {
+            highIds[i] = neoStore.getHighId( STORES[i] );
+        }
+        writeCheckpoint();
+
+        if ( previousStage != null && previousStage != stage )
+        {
+            fs.deleteFile( cacheFile( previousStage ) );
+        }
+    }
+
+    /**
+     * Restores the state of the stores and the in-memory state needed by stages after this checkpoint,
+     * i.e. {@code idMapper} and {@code cache}, to that of when this checkpoint was written.
+     *
+     * @param idMapper empty id mapper to read the id mapper state into, if any is needed by later stages.
+     * @param cache empty cache to read the cache state into, if any is needed by later stages. The cache will
+     * be fixated to the extent it was when writing this checkpoint.
+     */
+    public void restore( BatchingNeoStore neoStore, IdMapper idMapper, NodeRelationshipCache cache )
+            throws IOException
+    {
+        if ( stage == Stage.LINKING_EXISTING_NODES )
+        {
+            throw new IllegalStateException( "Import failed while linking relationships into the chains of " +
+                    "existing nodes, modifying existing records, and can not be resumed from there" );
+        }
+
+        for ( int i = 0; i < STORES.length; i++ )
+        {
+            neoStore.resetHighId( STORES[i], highIds[i] );
+        }
+        if ( stage.compareTo( Stage.LINKED ) < 0 )
+        {
+            readIdMapper( idMapper );
+        }
+        if ( stage.compareTo( Stage.RELATIONSHIPS ) <= 0 )
+        {
+            readCache( cache );
+            cache.fixateNodes();
+            if ( stage == Stage.RELATIONSHIPS )
+            {
+                cache.fixateGroups();
+            }
+        }
+    }
+
+    /**
+     * Deletes this checkpoint and all state written with it, after a successful import.
+     */
+    public void delete()
+    {
+        fs.deleteFile( new File( storeDir, FILE_NAME ) );
+        fs.deleteFile( tempFile( storeDir ) );
+        fs.deleteFile( new File( storeDir, ID_MAPPER_FILE_NAME ) );
+        for ( Stage stage : Stage.values() )
+        {
+            fs.deleteFile( cacheFile( stage ) );
+        }
+    }
+
+    /**
+     * @return the last completed stage, or {@code null} if no checkpoint has been written yet.
+     */
+    public Stage stage()
+    {
+        return stage;
+    }
+
+    public ImportMode mode()
+    {
+        return mode;
+    }
+
+    public long firstNewNodeId()
+    {
+        return firstNewNodeId;
+    }
+
+    public long firstNewRelationshipId()
+    {
+        return firstNewRelationshipId;
+    }
+
+    public long relationshipsTouchingExistingNodes()
+    {
+        return relationshipsTouchingExistingNodes;
+    }
+
+    public long badEntries()
+    {
+        return badEntries;
+    }
+
+    /**
+     * Format:
+     * <pre>
+     * - 1B stage
+     * - 1B incremental, followed by 1B whether or not there's an id property key and the key itself, if so
+     * - 8B first new node id, 8B first new relationship id
+     * - 8B relationships touching existing nodes, 8B bad entries
+     * - 8B high id per store
+     * </pre>
+     * Written into a temporary file which then replaces the previous checkpoint, such that a checkpoint is
+     * either there or not, never partly written.
+     */
+    private void writeCheckpoint() throws IOException
+    {
+        File file = new File( storeDir, FILE_NAME );
+        File tempFile = tempFile( storeDir );
+        fs.deleteFile( tempFile );
+        try ( StoreChannel storeChannel = fs.open( tempFile, "rw" ) )
+        {
+            WritableLogChannel channel = writer( storeChannel );
+            channel.put( (byte) stage.ordinal() );
+            channel.put( (byte) (mode.isIncremental() ? 1 : 0) );
+            if ( mode.isIncremental() )
+            {
+                channel.put( (byte) (mode.idPropertyKey() != null ? 1 : 0) );
+                if ( mode.idPropertyKey() != null )
+                {
+                    ValueType.stringType().write( mode.idPropertyKey(), channel );
+                }
+            }
+            channel.putLong( firstNewNodeId );
+            channel.putLong( firstNewRelationshipId );
+            channel.putLong( relationshipsTouchingExistingNodes );
+            channel.putLong( badEntries );
+            for ( long highId : highIds )
+            {
+                channel.putLong( highId );
+            }
+            force( channel, storeChannel );
+        }
+        fs.deleteFile( file );
+        fs.renameFile( tempFile, file );
+    }
+
+    private void writeIdMapper( IdMapper idMapper ) throws IOException
+    {
+        File file = new File( storeDir, ID_MAPPER_FILE_NAME );
+        fs.deleteFile( file );
+        try ( StoreChannel storeChannel = fs.open( file, "rw" ) )
+        {
+            WritableLogChannel channel = writer( storeChannel );
+            idMapper.writeTo( channel );
+            force( channel, storeChannel );
+        }
+    }
+
+    private void readIdMapper( IdMapper idMapper ) throws IOException
+    {
+        try ( StoreChannel storeChannel = fs.open( new File( storeDir, ID_MAPPER_FILE_NAME ), "r" );
+              ReadableLogChannel channel = reader( storeChannel ) )
+        {
+            idMapper.readFrom( channel );
+        }
+    }
+
+    private void writeCache( Stage stage, NodeRelationshipCache cache ) throws IOException
+    {
+        File file = cacheFile( stage );
+        fs.deleteFile( file );
+        try ( StoreChannel storeChannel = fs.open( file, "rw" ) )
+        {
+            WritableLogChannel channel = writer( storeChannel );
+            cache.writeTo( channel );
+            force( channel, storeChannel );
+        }
+    }
+
+    private void readCache( NodeRelationshipCache cache ) throws IOException
+    {
+        try ( StoreChannel storeChannel = fs.open( cacheFile( stage ), "r" );
+              ReadableLogChannel channel = reader( storeChannel ) )
+        {
+            cache.readFrom( channel );
+        }
+    }
+
+    private File cacheFile( Stage stage )
+    {
+        return new File( storeDir, CACHE_FILE_NAME + stage.name().toLowerCase() );
+    }
+
+    private static File tempFile( File storeDir )
+    {
+        return new File( storeDir, FILE_NAME + ".tmp" );
+    }
+
+    private static WritableLogChannel writer( StoreChannel storeChannel ) throws IOException
+    {
+        return new PhysicalWritableLogChannel(
+                new PhysicalLogVersionedStoreChannel( storeChannel, 0, (byte) 0 ), BUFFER_SIZE );
+    }
+
+    private static ReadableLogChannel reader( StoreChannel storeChannel ) throws IOException
+    {
+        return new ReadAheadLogChannel(
+                new PhysicalLogVersionedStoreChannel( storeChannel, 0, (byte) 0 ), NO_MORE_CHANNELS, BUFFER_SIZE );
+    }
+
+    private static void force( WritableLogChannel channel, StoreChannel storeChannel ) throws IOException
+    {
+        channel.emptyBufferIntoChannelAndClearIt();
+        storeChannel.force( false );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "checkpoint after " + stage + " of " + mode + " import";
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+/**
+ * Whether a {@link ParallelBatchImporter} creates a new store, or adds nodes and relationships to an existing one.
+ */
+public class ImportMode
+{
+    /**
+     * Imports into a new store, the store directory must not contain any nodes or relationships.
+     */
+    public static final ImportMode NEW_STORE = new ImportMode( false, null, false );
+
+    /**
+     * Resumes an import which failed, from the last {@link ImportCheckpoint checkpoint} it wrote into the store
+     * directory. The import is resumed in the mode it was started in, given the same input.
+     */
+    public static final ImportMode RESUME = new ImportMode( false, null, true );
+
+    private final boolean incremental;
+    private final String idPropertyKey;
+    private final boolean resume;
+
+    private ImportMode( boolean incremental, String idPropertyKey, boolean resume )
+    {
+        this.incremental = incremental;
+        this.idPropertyKey = idPropertyKey;
+        this.resume = resume;
+    }
+
+    /**
+     * Imports into an existing store, which must not be in use by a database while importing. Imported
+     * relationships may refer to existing nodes as well as imported ones. The ids of existing nodes are
+     * the values of their {@code idPropertyKey} property, put into the global id space.
+     *
+     * @param idPropertyKey property key of existing nodes holding the input ids that relationships refer to
+     * them by, or {@code null} if input ids are actual node ids or if existing nodes aren't referred to.
+     */
+    public static ImportMode incremental( String idPropertyKey )
+    {
+        return new ImportMode( true, idPropertyKey, false );
+    }
+
+    public boolean isIncremental()
+    {
+        return incremental;
+    }
+
+    public boolean isResume()
+    {
+        return resume;
+    }
+
+    /**
+     * @return property key of existing nodes holding their input ids, or {@code null} if none.
+     */
+    public String idPropertyKey()
+    {
+        return idPropertyKey;
+    }
+
+    @Override
+    public String toString()
+    {
+        if ( resume )
+        {
+            return "resume";
+        }
+        return incremental ? "incremental" + (idPropertyKey != null ? "(" + idPropertyKey + ")" : "") : "new store";
+    }
+}
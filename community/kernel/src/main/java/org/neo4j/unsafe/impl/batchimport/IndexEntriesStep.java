@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import org.neo4j.kernel.impl.store.NodeLabelsField;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.unsafe.impl.batchimport.staging.BatchSender;
+import org.neo4j.unsafe.impl.batchimport.staging.ProcessorStep;
+import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
+
+import static java.util.Arrays.copyOf;
+
+/**
+ * Reads the values of indexed properties of a batch of {@link NodeRecord nodes} and emits them as {@link Entries},
+ * per index, for {@link PopulateIndexStep} to add to the indexes. This step is designed to handle multiple threads
+ * reading property chains, since that is the most costly part of populating indexes.
+ */
+public class IndexEntriesStep extends ProcessorStep<NodeRecord[]>
+{
+    private final NodeStore nodeStore;
+    private final PropertyStore propertyStore;
+    private final int[] labelIds;
+    private final int[] propertyKeyIds;
+
+    public IndexEntriesStep( StageControl control, Configuration config, NodeStore nodeStore,
+            PropertyStore propertyStore, int[] labelIds, int[] propertyKeyIds )
+    {
+        super( control, "ENTRIES", config, 0 );
+        this.nodeStore = nodeStore;
+        this.propertyStore = propertyStore;
+        this.labelIds = labelIds;
+        this.propertyKeyIds = propertyKeyIds;
+    }
+
+    @Override
+    protected void process( NodeRecord[] batch, BatchSender sender )
+    {
+        Entries entries = new Entries( labelIds.length );
+        boolean[] labeled = new boolean[labelIds.length];
+        for ( NodeRecord node : batch )
+        {
+            if ( !node.inUse() || node.getNextProp() == Record.NO_NEXT_PROPERTY.intValue() ||
+                 !hasIndexedLabel( NodeLabelsField.get( node, nodeStore ), labeled ) )
+            {
+                continue;
+            }
+
+            for ( PropertyRecord propertyRecord : propertyStore.getPropertyRecordChain( node.getNextProp() ) )
+            {
+                for ( PropertyBlock property : propertyRecord )
+                {
+                    for ( int i = 0; i < propertyKeyIds.length; i++ )
+                    {
+                        if ( labeled[i] && propertyKeyIds[i] == property.getKeyIndexId() )
+                        {
+                            propertyStore.ensureHeavy( property );
+                            entries.add( i, node.getId(), property.getType().getValue( property, propertyStore ) );
+                        }
+                    }
+                }
+            }
+        }
+        sender.send( entries );
+    }
+
+    private boolean hasIndexedLabel( long[] labels, boolean[] labeled )
+    {
+        boolean any = false;
+        for ( int i = 0; i < labelIds.length; i++ )
+        {
+            labeled[i] = false;
+            for ( long label : labels )
+            {
+                if ( label == labelIds[i] )
+                {
+                    labeled[i] = any = true;
+                    break;
+                }
+            }
+        }
+        return any;
+    }
+
+    /**
+     * Node ids and property values of a batch, per index.
+     */
+    public static class Entries
+    {
+        private final long[][] nodeIds;
+        private final Object[][] values;
+        private final int[] sizes;
+
+        Entries( int indexes )
+        {
+            this.nodeIds = new long[indexes][];
+            this.values = new Object[indexes][];
+            this.sizes = new int[indexes];
+            for ( int i = 0; i < indexes; i++ )
+            {
+                nodeIds[i] = new long[16];
+                values[i] = new Object[16];
+            }
+        }
+
+        void add( int index, long nodeId, Object value )
+        {
+            int size = sizes[index];
+            if ( size == nodeIds[index].length )
+            {
+                nodeIds[index] = copyOf( nodeIds[index], size << 1 );
+                values[index] = copyOf( values[index], size << 1 );
+            }
+            nodeIds[index][size] = nodeId;
+            values[index][size] = value;
+            sizes[index]++;
+        }
+
+        public int size( int index )
+        {
+            return sizes[index];
+        }
+
+        public long nodeId( int index, int entry )
+        {
+            return nodeIds[index][entry];
+        }
+
+        public Object value( int index, int entry )
+        {
+            return values[index][entry];
+        }
+    }
+}
@@ -29,7 +29,8 @@ import org.neo4j.unsafe.impl.batchimport.stats.Stat;
 import static org.neo4j.helpers.Format.bytes;
 
 /**
- * Provides {@link Stat statistics} about memory usage, as the key {@link Keys#memory_usage}
+ * Provides {@link Stat statistics} about memory usage, as the key {@link Keys#memory_usage}. The value is
+ * the memory used in RAM, whereas arrays memory-mapped from files on disk are mentioned separately.
  */
 public class MemoryUsageStatsProvider extends GenericStatsProvider implements Stat
 {
@@ -49,18 +50,26 @@ public class MemoryUsageStatsProvider extends GenericStatsProvider implements St
 
     @Override
     public long asLong()
+    {
+        GatheringMemoryStatsVisitor visitor = gather();
+        return visitor.getHeapUsage() + visitor.getOffHeapUsage();
+    }
+
+    private GatheringMemoryStatsVisitor gather()
     {
         GatheringMemoryStatsVisitor visitor = new GatheringMemoryStatsVisitor();
         for ( MemoryStatsVisitor.Home user : users )
         {
             user.acceptMemoryStatsVisitor( visitor );
         }
-        return visitor.getHeapUsage() + visitor.getOffHeapUsage();
+        return visitor;
     }
 
     @Override
     public String toString()
     {
-        return bytes( asLong() );
+        GatheringMemoryStatsVisitor visitor = gather();
+        String ram = bytes( visitor.getHeapUsage() + visitor.getOffHeapUsage() );
+        return visitor.getDiskUsage() > 0 ? ram + " (+" + bytes( visitor.getDiskUsage() ) + " on disk)" : ram;
     }
 }
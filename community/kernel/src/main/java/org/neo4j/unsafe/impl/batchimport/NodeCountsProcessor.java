@@ -37,11 +37,23 @@ public class NodeCountsProcessor implements RecordProcessor<NodeRecord>
     private final NodeLabelsCache cache;
     private final CountsAccessor.Updater counts;
     private final int anyLabel;
+    private final long fromNodeId;
 
     public NodeCountsProcessor( NodeStore nodeStore, NodeLabelsCache cache, int highLabelId,
                                 CountsAccessor.Updater counts )
+    {
+        this( nodeStore, cache, highLabelId, counts, 0 );
+    }
+
+    /**
+     * @param fromNodeId id of the first node to count. Labels of nodes with lower ids, f.ex. nodes which
+     * existed in the store before an incremental import and are already counted, are still put into the cache.
+     */
+    public NodeCountsProcessor( NodeStore nodeStore, NodeLabelsCache cache, int highLabelId,
+                                CountsAccessor.Updater counts, long fromNodeId )
     {
         this.nodeStore = nodeStore;
+        this.fromNodeId = fromNodeId;
         this.cache = cache;
         this.anyLabel = highLabelId;
         this.counts = counts;
@@ -53,15 +65,22 @@ public class NodeCountsProcessor implements RecordProcessor<NodeRecord>
     public boolean process( NodeRecord node )
     {
         long[] labels = NodeLabelsField.get( node, nodeStore );
+        boolean count = node.getId() >= fromNodeId;
         if ( labels.length > 0 )
         {
-            for ( long labelId : labels )
+            if ( count )
             {
-                labelCounts[(int) labelId]++;
+                for ( long labelId : labels )
+                {
+                    labelCounts[(int) labelId]++;
+                }
             }
             cache.put( node.getId(), labels );
         }
-        labelCounts[anyLabel]++;
+        if ( count )
+        {
+            labelCounts[anyLabel]++;
+        }
 
         // No need to update the store, we're just reading things here
         return false;
@@ -34,10 +34,20 @@ public class NodeCountsStage extends Stage
 {
     public NodeCountsStage( Configuration config, NodeLabelsCache cache, NodeStore nodeStore,
             int highLabelId, CountsAccessor.Updater countsUpdater, StatsProvider... additionalStatsProviders )
+    {
+        this( config, cache, nodeStore, highLabelId, countsUpdater, 0, additionalStatsProviders );
+    }
+
+    /**
+     * @param fromNodeId id of the first node to count, where nodes with lower ids only have their labels cached.
+     */
+    public NodeCountsStage( Configuration config, NodeLabelsCache cache, NodeStore nodeStore,
+            int highLabelId, CountsAccessor.Updater countsUpdater, long fromNodeId,
+            StatsProvider... additionalStatsProviders )
     {
         super( "Node counts", config );
         add( new ReadNodeRecordsStep( control(), config, nodeStore ) );
         add( new RecordProcessorStep<>( control(), "COUNT", config, new NodeCountsProcessor(
-                nodeStore, cache, highLabelId, countsUpdater ), true, additionalStatsProviders ) );
+                nodeStore, cache, highLabelId, countsUpdater, fromNodeId ), true, additionalStatsProviders ) );
     }
 }
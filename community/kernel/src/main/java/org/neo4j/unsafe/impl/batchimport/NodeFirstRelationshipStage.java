@@ -34,10 +34,10 @@ public class NodeFirstRelationshipStage extends Stage
 {
     public NodeFirstRelationshipStage( Configuration config, NodeStore nodeStore,
             RelationshipGroupStore relationshipGroupStore, NodeRelationshipCache cache, final Collector collector,
-            LabelScanStore labelScanStore )
+            LabelScanStore labelScanStore, long fromNodeId )
     {
         super( "Node --> Relationship", config );
-        add( new ReadNodeRecordsStep( control(), config, nodeStore ) );
+        add( new ReadNodeRecordsStep( control(), config, nodeStore, fromNodeId ) );
         add( new RecordProcessorStep<>( control(), "LINK", config,
                 new NodeFirstRelationshipProcessor( relationshipGroupStore, cache ), false ) );
         add( new UpdateNodeRecordsStep( control(), config, nodeStore, collector, labelScanStore ) );
@@ -23,22 +23,46 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.Format;
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.api.exceptions.index.IndexCapacityExceededException;
+import org.neo4j.kernel.api.index.IndexConfiguration;
+import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.index.InternalIndexState;
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.api.CountsRecordState;
+import org.neo4j.kernel.impl.api.CountsVisitor;
+import org.neo4j.kernel.impl.api.index.IndexStoreView;
+import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
+import org.neo4j.kernel.impl.locking.ReentrantLockService;
+import org.neo4j.kernel.impl.store.record.IndexRule;
+import org.neo4j.kernel.impl.transaction.state.NeoStoreIndexStoreView;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.logging.Log;
+import org.neo4j.register.Register.DoubleLongRegister;
+import org.neo4j.register.Registers;
 import org.neo4j.unsafe.impl.batchimport.cache.NodeLabelsCache;
 import org.neo4j.unsafe.impl.batchimport.cache.NodeRelationshipCache;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdGenerator;
+import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdGenerators;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
 import org.neo4j.unsafe.impl.batchimport.input.Collector;
 import org.neo4j.unsafe.impl.batchimport.input.Input;
 import org.neo4j.unsafe.impl.batchimport.input.InputCache;
+import org.neo4j.unsafe.impl.batchimport.input.InputIndex;
 import org.neo4j.unsafe.impl.batchimport.input.InputNode;
 import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
 import org.neo4j.unsafe.impl.batchimport.staging.DynamicProcessorAssigner;
@@ -51,7 +75,7 @@ import org.neo4j.unsafe.impl.batchimport.store.io.IoMonitor;
 import static java.lang.System.currentTimeMillis;
 
 import static org.neo4j.unsafe.impl.batchimport.AdditionalInitialIds.EMPTY;
-import static org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory.AUTO;
+import static org.neo4j.unsafe.impl.batchimport.Utils.idsOf;
 import static org.neo4j.unsafe.impl.batchimport.staging.ExecutionSupervisors.superviseExecution;
 import static org.neo4j.unsafe.impl.batchimport.staging.ExecutionSupervisors.withDynamicProcessorAssignment;
 
@@ -75,6 +99,8 @@ public class ParallelBatchImporter implements BatchImporter
     private final ExecutionMonitor executionMonitor;
     private final Monitors monitors;
     private final AdditionalInitialIds additionalInitialIds;
+    private final Collection<InputIndex> indexes;
+    private final ImportMode mode;
 
     /**
      * Advanced usage of the parallel batch importer, for special and very specific cases. Please use
@@ -83,6 +109,37 @@ public class ParallelBatchImporter implements BatchImporter
     public ParallelBatchImporter( File storeDir, FileSystemAbstraction fileSystem, Configuration config,
             LogService logService, ExecutionMonitor executionMonitor,
             AdditionalInitialIds additionalInitialIds )
+    {
+        this( storeDir, fileSystem, config, logService, executionMonitor, additionalInitialIds,
+                Collections.<InputIndex>emptyList() );
+    }
+
+    /**
+     * Advanced usage of the parallel batch importer, for special and very specific cases. Please use
+     * a constructor with fewer arguments instead.
+     *
+     * @param indexes schema indexes and uniqueness constraints to create and populate as the last stage
+     * of the import.
+     */
+    public ParallelBatchImporter( File storeDir, FileSystemAbstraction fileSystem, Configuration config,
+            LogService logService, ExecutionMonitor executionMonitor,
+            AdditionalInitialIds additionalInitialIds, Collection<InputIndex> indexes )
+    {
+        this( storeDir, fileSystem, config, logService, executionMonitor, additionalInitialIds, indexes,
+                ImportMode.NEW_STORE );
+    }
+
+    /**
+     * Advanced usage of the parallel batch importer, for special and very specific cases. Please use
+     * a constructor with fewer arguments instead.
+     *
+     * @param indexes schema indexes and uniqueness constraints to create and populate as the last stage
+     * of the import.
+     * @param mode whether to import into a new store or add to an existing one.
+     */
+    public ParallelBatchImporter( File storeDir, FileSystemAbstraction fileSystem, Configuration config,
+            LogService logService, ExecutionMonitor executionMonitor,
+            AdditionalInitialIds additionalInitialIds, Collection<InputIndex> indexes, ImportMode mode )
     {
         this.storeDir = storeDir;
         this.fileSystem = fileSystem;
@@ -91,6 +148,8 @@ public class ParallelBatchImporter implements BatchImporter
         this.log = logService.getInternalLogProvider().getLog( getClass() );
         this.executionMonitor = executionMonitor;
         this.additionalInitialIds = additionalInitialIds;
+        this.indexes = indexes;
+        this.mode = mode;
         this.monitors = new Monitors();
     }
 
@@ -101,15 +160,58 @@ public class ParallelBatchImporter implements BatchImporter
      */
     public ParallelBatchImporter( File storeDir, Configuration config, LogService logService,
             ExecutionMonitor executionMonitor )
+    {
+        this( storeDir, config, logService, executionMonitor, Collections.<InputIndex>emptyList() );
+    }
+
+    /**
+     * Instantiates {@link ParallelBatchImporter} with default services and behaviour, which will also create
+     * and populate the given schema indexes and uniqueness constraints, leaving them online in the imported store.
+     */
+    public ParallelBatchImporter( File storeDir, Configuration config, LogService logService,
+            ExecutionMonitor executionMonitor, Collection<InputIndex> indexes )
+    {
+        this( storeDir, config, logService, executionMonitor, indexes, ImportMode.NEW_STORE );
+    }
+
+    /**
+     * Instantiates {@link ParallelBatchImporter} with default services and behaviour, importing either into
+     * a new store or, if {@link ImportMode#isIncremental() incremental}, adding nodes and relationships to
+     * the existing store in {@code storeDir}.
+     */
+    public ParallelBatchImporter( File storeDir, Configuration config, LogService logService,
+            ExecutionMonitor executionMonitor, Collection<InputIndex> indexes, ImportMode mode )
     {
         this( storeDir, new DefaultFileSystemAbstraction(), config, logService,
-                withDynamicProcessorAssignment( executionMonitor, config ), EMPTY );
+                withDynamicProcessorAssignment( executionMonitor, config ), EMPTY, indexes, mode );
     }
 
     @Override
     public void doImport( Input input ) throws IOException
     {
-        log.info( "Import starting" );
+        log.info( "Import starting, " + mode );
+        ImportCheckpoint resumeCheckpoint = null;
+        if ( mode.isResume() )
+        {
+            resumeCheckpoint = ImportCheckpoint.read( fileSystem, storeDir );
+            if ( resumeCheckpoint == null )
+            {
+                throw new IllegalStateException( "No checkpoint to resume an import from in " + storeDir );
+            }
+            log.info( "Resuming from " + resumeCheckpoint );
+            if ( !input.relationships().supportsMultiplePasses() &&
+                 resumeCheckpoint.stage().compareTo( ImportCheckpoint.Stage.LINKED ) < 0 )
+            {
+                throw new IllegalArgumentException( "Resuming an import from " + resumeCheckpoint +
+                        " requires relationship input which supports multiple passes" );
+            }
+        }
+        // The mode of the import as it was started, i.e. also when resuming it
+        ImportMode importMode = resumeCheckpoint != null ? resumeCheckpoint.mode() : mode;
+        if ( importMode.isIncremental() && input.specificRelationshipIds() )
+        {
+            throw new IllegalArgumentException( "Specific relationship ids can not be imported into an existing store" );
+        }
 
         // Things that we need to close later. The reason they're not in the try-with-resource statement
         // is that we need to close, and set to null, at specific points preferably. So use good ol' finally block.
@@ -117,95 +219,243 @@ public class ParallelBatchImporter implements BatchImporter
         NodeLabelsCache nodeLabelsCache = null;
         long startTime = currentTimeMillis();
         boolean hasBadEntries = false;
+        boolean resumable = false;
         File badFile = new File( storeDir, Configuration.BAD_FILE_NAME );
         CountingStoreUpdateMonitor storeUpdateMonitor = new CountingStoreUpdateMonitor();
+        ImportCheckpoint checkpoint = null;
         try ( BatchingNeoStore neoStore = new BatchingNeoStore( fileSystem, storeDir, config,
-              logService, monitors, additionalInitialIds );
-              OutputStream badOutput = new BufferedOutputStream( fileSystem.openAsOutputStream( badFile, false ) );
+              logService, monitors, additionalInitialIds, importMode.isIncremental() || resumeCheckpoint != null );
+              OutputStream badOutput = new BufferedOutputStream(
+                      fileSystem.openAsOutputStream( badFile, resumeCheckpoint != null ) );
               Collector badCollector = input.badCollector( badOutput );
-              CountsAccessor.Updater countsUpdater = neoStore.getCountsStore().reset(
-                    neoStore.getLastCommittedTransactionId() );
-              InputCache inputCache = new InputCache( fileSystem, storeDir ) )
+              InputCache inputCache = new InputCache( fileSystem, storeDir, config.compressInputCache(),
+                      config.maxNumberOfProcessors() ) )
         {
             // Some temporary caches and indexes in the import
             IoMonitor writeMonitor = new IoMonitor( neoStore.getIoTracer() );
             IdMapper idMapper = input.idMapper();
-            IdGenerator idGenerator = input.idGenerator();
-            nodeRelationshipCache = new NodeRelationshipCache( AUTO, config.denseNodeThreshold() );
+            // Nodes and relationships existing before this import, if any, occupy the ids below these.
+            // Existing records are only ever touched by the stage linking relationships to existing nodes
+            checkpoint = resumeCheckpoint != null ? resumeCheckpoint : new ImportCheckpoint( fileSystem, storeDir,
+                    importMode, neoStore.getNodeStore().getHighId(), neoStore.getRelationshipStore().getHighId() );
+            long firstNewNodeId = checkpoint.firstNewNodeId();
+            long firstNewRelationshipId = checkpoint.firstNewRelationshipId();
+            long previousBadEntries = checkpoint.badEntries();
+            IdGenerator idGenerator = idGenerator( input.idGenerator(), firstNewNodeId );
+            nodeRelationshipCache = new NodeRelationshipCache( config.cacheFactory(), config.denseNodeThreshold(),
+                    firstNewNodeId );
             StatsProvider memoryUsageStats = new MemoryUsageStatsProvider( nodeRelationshipCache, idMapper );
             InputIterable<InputNode> nodes = input.nodes();
             InputIterable<InputRelationship> relationships = input.relationships();
+            AtomicLong relationshipsTouchingExistingNodes =
+                    new AtomicLong( checkpoint.relationshipsTouchingExistingNodes() );
+            ImportCheckpoint.Stage resumeAfter = checkpoint.stage();
+            if ( resumeAfter != null )
+            {   // Records written after the checkpoint get overwritten by the stages executed again
+                checkpoint.restore( neoStore, idMapper, nodeRelationshipCache );
+            }
+            else if ( config.checkpoints() )
+            {   // Left behind by an earlier import into this store, which wasn't resumed
+                checkpoint.delete();
+            }
+
+            if ( resumeAfter == null )
+            {
+                // Stage 0 -- ids of existing nodes, which must be put into the id mapper before any imported node
+                if ( idMapper.needsPreparation() && importMode.idPropertyKey() != null && firstNewNodeId > 0 )
+                {
+                    executeStages( new ExistingNodeIdsStage( config, neoStore.getNodeStore(),
+                            neoStore.getPropertyStore(), idMapper, idPropertyKeyId( neoStore, importMode ) ) );
+                }
+
+                // Stage 1 -- nodes, properties, labels
+                NodeStage nodeStage = new NodeStage( config, writeMonitor,
+                        nodes, idMapper, idGenerator, neoStore, inputCache, neoStore.getLabelScanStore(),
+                        storeUpdateMonitor, memoryUsageStats );
+
+                // Stage 2 -- calculate dense node threshold
+                CalculateDenseNodesStage calculateDenseNodesStage = new CalculateDenseNodesStage( config,
+                        relationships, nodeRelationshipCache, idMapper, badCollector, inputCache,
+                        firstNewNodeId, relationshipsTouchingExistingNodes );
+
+                // Execute stages 1 and 2 in parallel or sequentially?
+                if ( idMapper.needsPreparation() )
+                {   // The id mapper of choice needs preparation in order to get ids from it,
+                    // So we need to execute the node stage first as it fills the id mapper and prepares it in the
+                    // end, before executing any stage that needs ids from the id mapper, for example calc dense
+                    // node stage.
+                    executeStages( nodeStage );
+                    InputIterable<Object> ids = idsOf( nodes.supportsMultiplePasses() ? nodes : inputCache.nodes() );
+                    if ( firstNewNodeId > 0 )
+                    {
+                        ids = new ExistingNodeIds( neoStore.getNodeStore(), neoStore.getPropertyStore(),
+                                idPropertyKeyId( neoStore, importMode ), firstNewNodeId, ids );
+                    }
+                    executeStages( new IdMapperPreparationStage( config, idMapper, ids, badCollector,
+                            memoryUsageStats ) );
+                    executeStages( calculateDenseNodesStage );
+                }
+                else
+                {   // The id mapper of choice doesn't need any preparation, so we can go ahead and execute
+                    // the node and calc dense node stages in parallel.
+                    executeStages( nodeStage, calculateDenseNodesStage );
+                }
+                nodeRelationshipCache.fixateNodes();
+                if ( config.checkpoints() )
+                {
+                    checkpoint.write( ImportCheckpoint.Stage.NODES, neoStore, relationshipsTouchingExistingNodes.get(),
+                            previousBadEntries + badCollector.badEntries(), idMapper, nodeRelationshipCache );
+                }
+            }
 
-            // Stage 1 -- nodes, properties, labels
-            NodeStage nodeStage = new NodeStage( config, writeMonitor,
-                    nodes, idMapper, idGenerator, neoStore, inputCache, neoStore.getLabelScanStore(),
-                    storeUpdateMonitor, memoryUsageStats );
-
-            // Stage 2 -- calculate dense node threshold
-            CalculateDenseNodesStage calculateDenseNodesStage = new CalculateDenseNodesStage( config, relationships,
-                    nodeRelationshipCache, idMapper, badCollector, inputCache );
-
-            // Execute stages 1 and 2 in parallel or sequentially?
-            if ( idMapper.needsPreparation() )
-            {   // The id mapper of choice needs preparation in order to get ids from it,
-                // So we need to execute the node stage first as it fills the id mapper and prepares it in the end,
-                // before executing any stage that needs ids from the id mapper, for example calc dense node stage.
-                executeStages( nodeStage );
-                executeStages( new IdMapperPreparationStage( config, idMapper, nodes, inputCache,
-                        badCollector, memoryUsageStats ) );
-                executeStages( calculateDenseNodesStage );
+            // Stage 3 -- relationships, properties
+            InputIterable<InputRelationship> cachedRelationships =
+                    relationships.supportsMultiplePasses() ? relationships : inputCache.relationships();
+            if ( resumeAfter == null || resumeAfter == ImportCheckpoint.Stage.NODES )
+            {
+                final RelationshipStage relationshipStage = new RelationshipStage( config, writeMonitor,
+                        cachedRelationships, idMapper, neoStore, nodeRelationshipCache,
+                        input.specificRelationshipIds(), storeUpdateMonitor, firstNewNodeId, firstNewRelationshipId );
+                executeStages( relationshipStage );
+                nodeRelationshipCache.fixateGroups();
+                if ( config.checkpoints() )
+                {
+                    checkpoint.write( ImportCheckpoint.Stage.RELATIONSHIPS, neoStore,
+                            relationshipsTouchingExistingNodes.get(), previousBadEntries + badCollector.badEntries(),
+                            null, nodeRelationshipCache );
+                }
+            }
+
+            if ( resumeAfter != ImportCheckpoint.Stage.LINKED )
+            {
+                // Stage 4 -- set node nextRel fields
+                executeStages( new NodeFirstRelationshipStage( config, neoStore.getNodeStore(),
+                        neoStore.getRelationshipGroupStore(), nodeRelationshipCache, badCollector,
+                        neoStore.getLabelScanStore(), firstNewNodeId ) );
+                // Stage 5 -- link relationship chains together
+                nodeRelationshipCache.clearRelationships();
+                executeStages( new RelationshipLinkbackStage( config, neoStore.getRelationshipStore(),
+                        nodeRelationshipCache, firstNewRelationshipId ) );
+
+                // Release this potentially really big piece of cached data
+                nodeRelationshipCache.close();
+                nodeRelationshipCache = null;
+
+                // Stage 5b -- relationships to existing nodes, linked into the existing chains of those nodes
+                if ( relationshipsTouchingExistingNodes.get() > 0 )
+                {
+                    if ( config.checkpoints() )
+                    {
+                        checkpoint.write( ImportCheckpoint.Stage.LINKING_EXISTING_NODES, neoStore,
+                                relationshipsTouchingExistingNodes.get(),
+                                previousBadEntries + badCollector.badEntries(), null, null );
+                    }
+                    executeStages( new ExistingNodesRelationshipStage( config, cachedRelationships, idMapper,
+                            neoStore, firstNewNodeId, storeUpdateMonitor ) );
+                }
+                if ( config.checkpoints() )
+                {
+                    checkpoint.write( ImportCheckpoint.Stage.LINKED, neoStore,
+                            relationshipsTouchingExistingNodes.get(), previousBadEntries + badCollector.badEntries(),
+                            null, null );
+                }
             }
             else
-            {   // The id mapper of choice doesn't need any preparation, so we can go ahead and execute
-                // the node and calc dense node stages in parallel.
-                executeStages( nodeStage, calculateDenseNodesStage );
+            {
+                nodeRelationshipCache.close();
+                nodeRelationshipCache = null;
             }
-            nodeRelationshipCache.fixateNodes();
 
-            // Stage 3 -- relationships, properties
-            final RelationshipStage relationshipStage = new RelationshipStage( config, writeMonitor,
-                    relationships.supportsMultiplePasses() ? relationships : inputCache.relationships(),
-                    idMapper, neoStore, nodeRelationshipCache, input.specificRelationshipIds(), storeUpdateMonitor );
-            executeStages( relationshipStage );
-            nodeRelationshipCache.fixateGroups();
-
-            // Stage 4 -- set node nextRel fields
-            executeStages( new NodeFirstRelationshipStage( config, neoStore.getNodeStore(),
-                    neoStore.getRelationshipGroupStore(), nodeRelationshipCache, badCollector,
-                    neoStore.getLabelScanStore() ) );
-            // Stage 5 -- link relationship chains together
-            nodeRelationshipCache.clearRelationships();
-            executeStages( new RelationshipLinkbackStage( config, neoStore.getRelationshipStore(),
-                    nodeRelationshipCache ) );
-
-            // Release this potentially really big piece of cached data
-            nodeRelationshipCache.close();
-            nodeRelationshipCache = null;
-
-            // Stage 6 -- count nodes per label and labels per node
-            nodeLabelsCache = new NodeLabelsCache( AUTO, neoStore.getLabelRepository().getHighId() );
-            memoryUsageStats = new MemoryUsageStatsProvider( nodeLabelsCache );
-            executeStages( new NodeCountsStage( config, nodeLabelsCache, neoStore.getNodeStore(),
-                    neoStore.getLabelRepository().getHighId(), countsUpdater, memoryUsageStats ) );
-            // Stage 7 -- count label-[type]->label
-            executeStages( new RelationshipCountsStage( config, nodeLabelsCache, neoStore.getRelationshipStore(),
-                    neoStore.getLabelRepository().getHighId(),
-                    neoStore.getRelationshipTypeRepository().getHighId(), countsUpdater, AUTO ) );
+            // A resetting counts updater only keeps the last value written for any given key, so counts of
+            // imported nodes and relationships are added to the counts of existing data in memory first.
+            // A failed import may have left the counts store partly updated, so when resuming all data is counted
+            boolean recount = resumeCheckpoint != null;
+            long firstCountedNodeId = recount ? 0 : firstNewNodeId;
+            long firstCountedRelationshipId = recount ? 0 : firstNewRelationshipId;
+            final CountsRecordState existingCounts =
+                    importMode.isIncremental() && !recount ? new CountsRecordState() : null;
+            if ( existingCounts != null )
+            {
+                neoStore.getCountsStore().accept( new CountsAccessor.Initializer( existingCounts, existingCounts ) );
+            }
+            try ( final CountsAccessor.Updater countsUpdater = neoStore.getCountsStore().reset(
+                    neoStore.getLastCommittedTransactionId() ) )
+            {
+                CountsAccessor.Updater counts = existingCounts != null ? existingCounts : countsUpdater;
+                // Stage 6 -- count nodes per label and labels per node
+                nodeLabelsCache = new NodeLabelsCache( config.cacheFactory(),
+                        neoStore.getLabelRepository().getHighId() );
+                memoryUsageStats = new MemoryUsageStatsProvider( nodeLabelsCache );
+                executeStages( new NodeCountsStage( config, nodeLabelsCache, neoStore.getNodeStore(),
+                        neoStore.getLabelRepository().getHighId(), counts, firstCountedNodeId, memoryUsageStats ) );
+                // Stage 7 -- count label-[type]->label
+                executeStages( new RelationshipCountsStage( config, nodeLabelsCache, neoStore.getRelationshipStore(),
+                        neoStore.getLabelRepository().getHighId(),
+                        neoStore.getRelationshipTypeRepository().getHighId(), counts, config.cacheFactory(),
+                        firstCountedRelationshipId ) );
+
+                if ( existingCounts != null )
+                {
+                    existingCounts.accept( new CountsVisitor.Adapter()
+                    {
+                        @Override
+                        public void visitNodeCount( int labelId, long count )
+                        {
+                            countsUpdater.incrementNodeCount( labelId, count );
+                        }
+
+                        @Override
+                        public void visitRelationshipCount( int startLabelId, int typeId, int endLabelId,
+                                long count )
+                        {
+                            countsUpdater.incrementRelationshipCount( startLabelId, typeId, endLabelId, count );
+                        }
+                    } );
+                }
+            }
+            if ( existingCounts != null )
+            {
+                // Statistics of existing indexes are carried over too
+                try ( final CountsAccessor.IndexStatsUpdater indexStats =
+                        neoStore.getCountsStore().updateIndexCounts() )
+                {
+                    existingCounts.accept( new CountsVisitor.Adapter()
+                    {
+                        @Override
+                        public void visitIndexStatistics( int labelId, int propertyKeyId, long updates, long size )
+                        {
+                            indexStats.replaceIndexUpdateAndSize( labelId, propertyKeyId, updates, size );
+                        }
+
+                        @Override
+                        public void visitIndexSample( int labelId, int propertyKeyId, long unique, long size )
+                        {
+                            indexStats.replaceIndexSample( labelId, propertyKeyId, unique, size );
+                        }
+                    } );
+                }
+            }
+
+            // Stage 8 -- schema indexes, with their statistics recorded in the counts store reset above
+            populateIndexes( neoStore, importMode, resumeCheckpoint != null );
 
             // We're done, do some final logging about it
             long totalTimeMillis = currentTimeMillis() - startTime;
             executionMonitor.done( totalTimeMillis, storeUpdateMonitor.toString() );
             log.info( "Import completed, took " + Format.duration( totalTimeMillis ) + ". " + storeUpdateMonitor );
-            hasBadEntries = badCollector.badEntries() > 0;
+            long badEntries = previousBadEntries + badCollector.badEntries();
+            hasBadEntries = badEntries > 0;
             if ( hasBadEntries )
             {
-                log.warn( "There were " + badCollector.badEntries() + " bad entries which were skipped " +
+                log.warn( "There were " + badEntries + " bad entries which were skipped " +
                              "and logged into " + badFile.getAbsolutePath() );
             }
         }
         catch ( Throwable t )
         {
             log.error( "Error during import", t );
+            // Bad entries found before the last checkpoint are kept for when resuming
+            resumable = checkpoint != null && checkpoint.stage() != null;
             throw Exceptions.launderedException( IOException.class, t );
         }
         finally
@@ -218,11 +468,150 @@ public class ParallelBatchImporter implements BatchImporter
             {
                 nodeLabelsCache.close();
             }
-            if ( !hasBadEntries )
+            if ( !hasBadEntries && !resumable )
             {
                 fileSystem.deleteFile( badFile );
             }
         }
+        // Only after the store has been closed, since all its changes are in it by then
+        if ( config.checkpoints() || resumeCheckpoint != null )
+        {
+            checkpoint.delete();
+        }
+    }
+
+    private void populateIndexes( BatchingNeoStore neoStore, ImportMode importMode, boolean resumed )
+            throws IOException, IndexEntryConflictException, IndexCapacityExceededException
+    {
+        SchemaIndexProvider provider = neoStore.getSchemaIndexProvider();
+        List<IndexRule> existingRules = importMode.isIncremental() || resumed
+                ? neoStore.getIndexRules() : Collections.<IndexRule>emptyList();
+        List<IndexRule> rules = new ArrayList<>();
+        // Online indexes of an existing store are populated anew, with imported nodes and all. This way
+        // uniqueness constraints are verified across existing and imported nodes too. Indexes created by
+        // a failed import which is now resumed may not have been populated yet
+        for ( IndexRule rule : existingRules )
+        {
+            InternalIndexState state = provider.getInitialState( rule.getId() );
+            if ( rule.getProviderDescriptor().equals( provider.getProviderDescriptor() ) &&
+                 (state == InternalIndexState.ONLINE || (resumed && state == InternalIndexState.POPULATING)) )
+            {
+                rules.add( rule );
+            }
+        }
+        for ( InputIndex index : indexes )
+        {
+            int labelId = neoStore.getLabelRepository().getOrCreateId( index.label() );
+            int propertyKeyId = neoStore.getPropertyKeyRepository().getOrCreateId( index.propertyKey() );
+            if ( !containsIndex( existingRules, labelId, propertyKeyId ) )
+            {
+                rules.add( neoStore.createIndexRule( labelId, propertyKeyId, index.isUnique() ) );
+            }
+        }
+        if ( rules.isEmpty() )
+        {
+            return;
+        }
+
+        int[] labelIds = new int[rules.size()];
+        int[] propertyKeyIds = new int[rules.size()];
+        IndexDescriptor[] descriptors = new IndexDescriptor[rules.size()];
+        IndexPopulator[] populators = new IndexPopulator[rules.size()];
+        IndexSamplingConfig samplingConfig = new IndexSamplingConfig( new Config() );
+        for ( int i = 0; i < populators.length; i++ )
+        {
+            IndexRule rule = rules.get( i );
+            labelIds[i] = rule.getLabel();
+            propertyKeyIds[i] = rule.getPropertyKey();
+            descriptors[i] = new IndexDescriptor( labelIds[i], propertyKeyIds[i] );
+            populators[i] = provider.getPopulator( rule.getId(), descriptors[i],
+                    new IndexConfiguration( rule.isConstraintIndex() ), samplingConfig );
+            populators[i].create();
+        }
+
+        int closed = 0;
+        try
+        {
+            executeStages( new SchemaIndexStage( config, neoStore.getNodeStore(), neoStore.getPropertyStore(),
+                    labelIds, propertyKeyIds, populators ) );
+
+            // The store is uncontended at this point, so a local LockService is safe
+            IndexStoreView storeView = new NeoStoreIndexStoreView( new ReentrantLockService(), neoStore.get() );
+            DoubleLongRegister sample = Registers.newDoubleLongRegister();
+            for ( ; closed < populators.length; closed++ )
+            {
+                IndexPopulator populator = populators[closed];
+                populator.verifyDeferredConstraints( storeView );
+                long indexSize = populator.sampleResult( sample );
+                storeView.replaceIndexCounts( descriptors[closed], sample.readFirst(), sample.readSecond(),
+                        indexSize );
+                populator.close( true );
+            }
+        }
+        finally
+        {
+            // Leaves the indexes that didn't make it in their populating state, so that they get
+            // populated when the database starts instead
+            for ( ; closed < populators.length; closed++ )
+            {
+                populators[closed].close( false );
+            }
+        }
+    }
+
+    private static boolean containsIndex( List<IndexRule> rules, int labelId, int propertyKeyId )
+    {
+        for ( IndexRule rule : rules )
+        {
+            if ( rule.getLabel() == labelId && rule.getPropertyKey() == propertyKeyId )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Imported nodes get ids from {@code firstNewNodeId} and up, so that they don't overwrite any existing node.
+     * Generators not depending on input are therefore replaced, whereas ids from input are verified.
+     */
+    private static IdGenerator idGenerator( final IdGenerator idGenerator, final long firstNewNodeId )
+    {
+        if ( firstNewNodeId == 0 )
+        {
+            return idGenerator;
+        }
+        if ( !idGenerator.dependsOnInput() )
+        {
+            return IdGenerators.startingFrom( firstNewNodeId );
+        }
+        return new IdGenerator()
+        {
+            @Override
+            public long generate( Object inputId )
+            {
+                long id = idGenerator.generate( inputId );
+                if ( id < firstNewNodeId )
+                {
+                    throw new IllegalArgumentException( "Node id " + id + " is already in use in the store, " +
+                            "imported nodes must have ids from " + firstNewNodeId + " and up" );
+                }
+                return id;
+            }
+
+            @Override
+            public boolean dependsOnInput()
+            {
+                return true;
+            }
+        };
+    }
+
+    private static int idPropertyKeyId( BatchingNeoStore neoStore, ImportMode importMode )
+    {
+        return importMode.idPropertyKey() != null
+                ? neoStore.getPropertyKeyRepository().getOrCreateId( importMode.idPropertyKey() )
+                : -1;
     }
 
     private void executeStages( Stage... stages )
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.unsafe.impl.batchimport.IndexEntriesStep.Entries;
+import org.neo4j.unsafe.impl.batchimport.staging.BatchSender;
+import org.neo4j.unsafe.impl.batchimport.staging.ProcessorStep;
+import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
+
+/**
+ * Adds the {@link Entries} of one index to its {@link IndexPopulator}. There's one such step per index in a stage,
+ * so that indexes are populated in parallel with each other, each by a single thread since populators
+ * aren't thread safe.
+ */
+public class PopulateIndexStep extends ProcessorStep<Entries>
+{
+    private final int index;
+    private final IndexPopulator populator;
+    private final boolean endOfLine;
+
+    public PopulateIndexStep( StageControl control, Configuration config, int index, IndexPopulator populator,
+            boolean endOfLine )
+    {
+        super( control, "INDEX" + index, config, 1 );
+        this.index = index;
+        this.populator = populator;
+        this.endOfLine = endOfLine;
+    }
+
+    @Override
+    protected void process( Entries entries, BatchSender sender ) throws Throwable
+    {
+        for ( int i = 0, size = entries.size( index ); i < size; i++ )
+        {
+            populator.add( entries.nodeId( index, i ), entries.value( index, i ) );
+        }
+
+        if ( !endOfLine )
+        {
+            sender.send( entries );
+        }
+    }
+}
@@ -39,10 +39,20 @@ public class ReadNodeRecordsStep extends IoProducerStep
     private long id;
 
     public ReadNodeRecordsStep( StageControl control, Configuration config, NodeStore nodeStore )
+    {
+        this( control, config, nodeStore, 0 );
+    }
+
+    /**
+     * @param fromId id of the first node to read, f.ex. the first node imported into a store which
+     * had nodes in it before the import.
+     */
+    public ReadNodeRecordsStep( StageControl control, Configuration config, NodeStore nodeStore, long fromId )
     {
         super( control, config );
         this.nodeStore = nodeStore;
         this.highId = nodeStore.getHighId();
+        this.id = fromId;
     }
 
     @Override
@@ -36,14 +36,25 @@ public class ReadRelationshipCountsDataStep extends IoProducerStep
     private final RelationshipStore store;
     private final RelationshipRecord record = new RelationshipRecord( -1 );
     private final long highestId;
-    private long id = -1;
+    private long id;
 
     public ReadRelationshipCountsDataStep( StageControl control, Configuration config,
             RelationshipStore store )
+    {
+        this( control, config, store, 0 );
+    }
+
+    /**
+     * @param fromId id of the first relationship to read, f.ex. the first relationship imported into a store
+     * which had relationships in it before the import.
+     */
+    public ReadRelationshipCountsDataStep( StageControl control, Configuration config,
+            RelationshipStore store, long fromId )
     {
         super( control, config );
         this.store = store;
         this.highestId = store.getHighestPossibleIdInUse();
+        this.id = fromId - 1;
     }
 
     @Override
@@ -25,6 +25,7 @@ import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.unsafe.impl.batchimport.staging.IoProducerStep;
 import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
 
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 /**
@@ -35,20 +36,32 @@ public class ReadRelationshipRecordsBackwardsStep extends IoProducerStep
 {
     private final RelationshipStore store;
     private final long highId;
+    private final long lowestId;
     private long id;
 
     public ReadRelationshipRecordsBackwardsStep( StageControl control, Configuration config,
             RelationshipStore store )
+    {
+        this( control, config, store, 0 );
+    }
+
+    /**
+     * @param lowestId id of the last relationship to read, f.ex. the first relationship imported into a store
+     * which had relationships in it before the import.
+     */
+    public ReadRelationshipRecordsBackwardsStep( StageControl control, Configuration config,
+            RelationshipStore store, long lowestId )
     {
         super( control, config );
         this.store = store;
         this.highId = this.id = store.getHighId();
+        this.lowestId = lowestId;
     }
 
     @Override
     protected Object nextBatchOrNull( long ticket, int batchSize )
     {
-        int size = (int) min( batchSize, id );
+        int size = (int) max( 0, min( batchSize, id - lowestId ) );
         RelationshipRecord[] batch = new RelationshipRecord[size];
         for ( int i = 0; i < size; i++ )
         {
@@ -34,9 +34,20 @@ public class RelationshipCountsStage extends Stage
     public RelationshipCountsStage( Configuration config, NodeLabelsCache cache, RelationshipStore relationshipStore,
             int highLabelId, int highRelationshipTypeId, CountsAccessor.Updater countsUpdater,
             NumberArrayFactory cacheFactory )
+    {
+        this( config, cache, relationshipStore, highLabelId, highRelationshipTypeId, countsUpdater,
+                cacheFactory, 0 );
+    }
+
+    /**
+     * @param fromRelationshipId id of the first relationship to count.
+     */
+    public RelationshipCountsStage( Configuration config, NodeLabelsCache cache, RelationshipStore relationshipStore,
+            int highLabelId, int highRelationshipTypeId, CountsAccessor.Updater countsUpdater,
+            NumberArrayFactory cacheFactory, long fromRelationshipId )
     {
         super( "Relationship counts", config );
-        add( new ReadRelationshipCountsDataStep( control(), config, relationshipStore ) );
+        add( new ReadRelationshipCountsDataStep( control(), config, relationshipStore, fromRelationshipId ) );
         add( new ProcessRelationshipCountsDataStep( control(), cache, config,
                 highLabelId, highRelationshipTypeId, countsUpdater, cacheFactory ) );
     }
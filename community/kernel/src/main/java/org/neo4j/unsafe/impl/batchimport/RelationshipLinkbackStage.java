@@ -30,10 +30,11 @@ import org.neo4j.unsafe.impl.batchimport.staging.Stage;
  */
 public class RelationshipLinkbackStage extends Stage
 {
-    public RelationshipLinkbackStage( Configuration config, RelationshipStore store, NodeRelationshipCache cache )
+    public RelationshipLinkbackStage( Configuration config, RelationshipStore store, NodeRelationshipCache cache,
+            long fromRelationshipId )
     {
         super( "Relationship --> Relationship", config );
-        add( new ReadRelationshipRecordsBackwardsStep( control(), config, store ) );
+        add( new ReadRelationshipRecordsBackwardsStep( control(), config, store, fromRelationshipId ) );
         add( new RecordProcessorStep<>( control(), "LINK", config,
                 new RelationshipLinkbackProcessor( cache ), false ) );
         add( new UpdateRecordsStep<>( control(), config, store ) );
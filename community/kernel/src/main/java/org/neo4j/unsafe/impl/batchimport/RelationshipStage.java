@@ -19,6 +19,8 @@
  */
 package org.neo4j.unsafe.impl.batchimport;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.unsafe.impl.batchimport.cache.NodeRelationshipCache;
@@ -40,7 +42,7 @@ public class RelationshipStage extends Stage
     public RelationshipStage( Configuration config, IoMonitor writeMonitor,
             InputIterable<InputRelationship> relationships, IdMapper idMapper,
             BatchingNeoStore neoStore, NodeRelationshipCache cache, boolean specificIds,
-            EntityStoreUpdaterStep.Monitor storeUpdateMonitor )
+            EntityStoreUpdaterStep.Monitor storeUpdateMonitor, long firstNewNodeId, long firstRelationshipId )
     {
         super( "Relationships", config, ORDER_SEND_DOWNSTREAM | ORDER_PROCESS );
         add( new InputIteratorBatcherStep<>( control(), config, relationships.iterator(), InputRelationship.class ) );
@@ -48,8 +50,12 @@ public class RelationshipStage extends Stage
         RelationshipStore relationshipStore = neoStore.getRelationshipStore();
         PropertyStore propertyStore = neoStore.getPropertyStore();
         add( new RelationshipPreparationStep( control(), config, idMapper ) );
+        if ( firstNewNodeId > 0 )
+        {
+            add( new ExistingNodesFilterStep( control(), config, firstNewNodeId, false, new AtomicLong() ) );
+        }
         add( new PropertyEncoderStep<>( control(), config, neoStore.getPropertyKeyRepository(), propertyStore ) );
-        add( new ParallelizeByNodeIdStep( control(), config ) );
+        add( new ParallelizeByNodeIdStep( control(), config, firstRelationshipId ) );
         add( new RelationshipEncoderStep( control(), config,
                 neoStore.getRelationshipTypeRepository(), cache, specificIds ) );
         add( new EntityStoreUpdaterStep<>( control(), config,
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.unsafe.impl.batchimport.staging.Stage;
+
+/**
+ * Reads all records from {@link NodeStore} and populates schema indexes with the values of the indexed
+ * properties of them, one {@link IndexPopulator} per index.
+ */
+public class SchemaIndexStage extends Stage
+{
+    public SchemaIndexStage( Configuration config, NodeStore nodeStore, PropertyStore propertyStore,
+            int[] labelIds, int[] propertyKeyIds, IndexPopulator[] populators )
+    {
+        super( "Schema indexes", config );
+        add( new ReadNodeRecordsStep( control(), config, nodeStore ) );
+        add( new IndexEntriesStep( control(), config, nodeStore, propertyStore, labelIds, propertyKeyIds ) );
+        for ( int i = 0; i < populators.length; i++ )
+        {
+            add( new PopulateIndexStep( control(), config, i, populators[i], i == populators.length - 1 ) );
+        }
+    }
+}
@@ -26,7 +26,7 @@ import static org.neo4j.helpers.Format.bytes;
  */
 public class GatheringMemoryStatsVisitor implements MemoryStatsVisitor
 {
-    private long heapUsage, offHeapUsage;
+    private long heapUsage, offHeapUsage, diskUsage;
 
     @Override
     public void heapUsage( long bytes )
@@ -40,6 +40,12 @@ public class GatheringMemoryStatsVisitor implements MemoryStatsVisitor
         offHeapUsage += bytes;
     }
 
+    @Override
+    public void diskUsage( long bytes )
+    {
+        diskUsage += bytes;
+    }
+
     public long getHeapUsage()
     {
         return heapUsage;
@@ -50,9 +56,15 @@ public class GatheringMemoryStatsVisitor implements MemoryStatsVisitor
         return offHeapUsage;
     }
 
+    public long getDiskUsage()
+    {
+        return diskUsage;
+    }
+
     @Override
     public String toString()
     {
-        return "Memory usage[heap:" + bytes( heapUsage ) + ", off-heap:" + bytes( offHeapUsage ) + "]";
+        return "Memory usage[heap:" + bytes( heapUsage ) + ", off-heap:" + bytes( offHeapUsage ) +
+                ", disk:" + bytes( diskUsage ) + "]";
     }
 }
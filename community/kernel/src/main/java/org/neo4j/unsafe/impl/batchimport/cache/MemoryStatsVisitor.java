@@ -32,4 +32,9 @@ public interface MemoryStatsVisitor
     void heapUsage( long bytes );
 
     void offHeapUsage( long bytes );
+
+    /**
+     * Memory mapped from files on disk, which the OS pages in and out of RAM as it's accessed.
+     */
+    void diskUsage( long bytes );
 }
@@ -19,9 +19,12 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache;
 
+import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
 
 /**
  * Caches of parts of node store and relationship group store. A crucial part of batch import where
@@ -34,13 +37,24 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
     private LongArray array;
     private final int denseNodeThreshold;
     private final RelGroupCache relGroupCache;
+    private final long firstNodeId;
 
     public NodeRelationshipCache( NumberArrayFactory arrayFactory, int denseNodeThreshold )
+    {
+        this( arrayFactory, denseNodeThreshold, 0 );
+    }
+
+    /**
+     * @param firstNodeId lowest node id to cache, such that no memory is spent on nodes with lower ids,
+     * f.ex. nodes which existed in the store before an incremental import.
+     */
+    public NodeRelationshipCache( NumberArrayFactory arrayFactory, int denseNodeThreshold, long firstNodeId )
     {
         int chunkSize = 1_000_000;
         this.array = arrayFactory.newDynamicLongArray( chunkSize, IdFieldManipulator.emptyField() );
         this.denseNodeThreshold = denseNodeThreshold;
         this.relGroupCache = new RelGroupCache( arrayFactory, chunkSize );
+        this.firstNodeId = firstNodeId;
     }
 
     /**
@@ -50,15 +64,16 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
      */
     public int incrementCount( long nodeId )
     {
-        long field = array.get( nodeId );
+        long index = nodeId - firstNodeId;
+        long field = array.get( index );
         field = IdFieldManipulator.changeCount( field, 1 );
-        array.set( nodeId, field );
+        array.set( index, field );
         return IdFieldManipulator.getCount( field );
     }
 
     public boolean isDense( long nodeId )
     {
-        return fieldIsDense( array.get( nodeId ) );
+        return fieldIsDense( array.get( nodeId - firstNodeId ) );
     }
 
     private boolean fieldIsDense( long field )
@@ -81,7 +96,8 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
          * not increment the global count, but it should increment the type/direction counts.
          */
 
-        long field = array.get( nodeId );
+        long index = nodeId - firstNodeId;
+        long field = array.get( index );
         long existingId = IdFieldManipulator.getId( field );
         if ( fieldIsDense( field ) )
         {
@@ -89,7 +105,7 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
             {
                 existingId = relGroupCache.allocate( type, direction, firstRelId, incrementCount );
                 field = IdFieldManipulator.setId( field, existingId );
-                array.set( nodeId, field );
+                array.set( index, field );
                 return EMPTY;
             }
             return relGroupCache.putRelationship( existingId, type, direction, firstRelId, incrementCount );
@@ -97,7 +113,7 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
 
         field = IdFieldManipulator.setId( field, firstRelId );
         // Don't increment count for sparse node since that has already been done in a previous pass
-        array.set( nodeId, field );
+        array.set( index, field );
         return existingId;
     }
 
@@ -107,7 +123,7 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
      */
     public long getFirstRel( long nodeId, GroupVisitor visitor )
     {
-        long field = array.get( nodeId );
+        long field = array.get( nodeId - firstNodeId );
         if ( fieldIsDense( field ) )
         {   // Indirection into rel group cache
             long relGroupIndex = IdFieldManipulator.getId( field );
@@ -134,7 +150,7 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
 
     public int getCount( long nodeId, int type, Direction direction )
     {
-        long field = array.get( nodeId );
+        long field = array.get( nodeId - firstNodeId );
         if ( fieldIsDense( field ) )
         {   // Indirection into rel group cache
             long relGroupIndex = IdFieldManipulator.getId( field );
@@ -163,6 +179,44 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
         relGroupCache.fixate();
     }
 
+    /**
+     * Writes the state of this cache to {@code channel}, f.ex. as part of a checkpoint of an import,
+     * so that it can later be read back using {@link #readFrom(ReadableLogChannel)}.
+     */
+    public void writeTo( WritableLogChannel channel ) throws IOException
+    {
+        writeArray( array, array.length(), channel );
+        relGroupCache.writeTo( channel );
+    }
+
+    /**
+     * Reads state previously written by {@link #writeTo(WritableLogChannel)} into this cache,
+     * which is expected to be empty, i.e. not yet fixated.
+     */
+    public void readFrom( ReadableLogChannel channel ) throws IOException
+    {
+        readArray( array, channel );
+        relGroupCache.readFrom( channel );
+    }
+
+    private static void writeArray( LongArray array, long length, WritableLogChannel channel ) throws IOException
+    {
+        channel.putLong( length );
+        for ( long i = 0; i < length; i++ )
+        {
+            channel.putLong( array.get( i ) );
+        }
+    }
+
+    private static void readArray( LongArray array, ReadableLogChannel channel ) throws IOException
+    {
+        long length = channel.getLong();
+        for ( long i = 0; i < length; i++ )
+        {
+            array.set( i, channel.getLong() );
+        }
+    }
+
     public interface GroupVisitor
     {
         /**
@@ -378,6 +432,19 @@ public class NodeRelationshipCache implements MemoryStatsVisitor.Home
         {
             array = array.fixate();
         }
+
+        void writeTo( WritableLogChannel channel ) throws IOException
+        {
+            int groups = nextFreeId.get();
+            channel.putInt( groups );
+            writeArray( array, groups * (long) ENTRY_SIZE, channel );
+        }
+
+        void readFrom( ReadableLogChannel channel ) throws IOException
+        {
+            nextFreeId.set( channel.getInt() );
+            readArray( array, channel );
+        }
     }
 
     @Override
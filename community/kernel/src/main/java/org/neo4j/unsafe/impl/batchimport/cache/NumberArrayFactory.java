@@ -19,10 +19,13 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache;
 
+import java.io.File;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.helpers.Exceptions;
 
+import static java.lang.Math.max;
 import static java.lang.String.format;
 
 import static org.neo4j.helpers.Format.bytes;
@@ -31,7 +34,8 @@ import static org.neo4j.unsafe.impl.batchimport.Utils.safeCastLongToInt;
 /**
  * Factory of {@link LongArray} and {@link IntArray} instances. Users can select in which type of memory
  * the arrays will be placed, either in {@link #HEAP} or {@link #OFF_HEAP}, or even {@link #AUTO} which
- * will have each instance placed where it fits best, favoring off-heap.
+ * will have each instance placed where it fits best, favoring off-heap. Arrays which don't fit in memory
+ * can be placed in files, see {@link MemoryMapped} and {@link RamBudget}.
  */
 public interface NumberArrayFactory
 {
@@ -241,6 +245,223 @@ public interface NumberArrayFactory
         }
     };
 
+    /**
+     * Memory-maps arrays from files in a directory, such that the OS pages parts of them in and out of RAM
+     * as they are accessed. This makes room for arrays bigger than the available memory, at the cost of
+     * disk I/O. The files are deleted right after being mapped and their disk space is released when
+     * the arrays are closed.
+     */
+    public static class MemoryMapped extends Adapter
+    {
+        // A single mapping can be at most Integer.MAX_VALUE bytes, so bigger arrays are made up of chunks
+        private static final long MAX_MAPPING_SIZE = 1L << 30;
+
+        private final File directory;
+
+        public MemoryMapped( File directory )
+        {
+            this.directory = directory;
+        }
+
+        @Override
+        public LongArray newLongArray( long length, long defaultValue )
+        {
+            if ( length << 3 <= MAX_MAPPING_SIZE )
+            {
+                return new OffHeapLongArray( length, defaultValue, directory() );
+            }
+            DynamicLongArray array = new DynamicLongArray( this, MAX_MAPPING_SIZE >> 3, defaultValue );
+            array.ensureChunkAt( length-1 );
+            return array.fixate();
+        }
+
+        @Override
+        public IntArray newIntArray( long length, int defaultValue )
+        {
+            if ( length << 2 <= MAX_MAPPING_SIZE )
+            {
+                return new OffHeapIntArray( length, defaultValue, directory() );
+            }
+            DynamicIntArray array = new DynamicIntArray( this, MAX_MAPPING_SIZE >> 2, defaultValue );
+            array.ensureChunkAt( length-1 );
+            return array.fixate();
+        }
+
+        private File directory()
+        {
+            directory.mkdirs();
+            return directory;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "MEMORY_MAPPED[" + directory + "]";
+        }
+    }
+
+    /**
+     * Places arrays off-heap for as long as they fit within a budget of RAM and in {@code overflow},
+     * f.ex. {@link MemoryMapped}, after that. Arrays bigger than what's left of the budget are split up
+     * into chunks, where the chunks fitting within the budget are placed off-heap and the rest in
+     * {@code overflow}. The same goes for the chunks of dynamic arrays. Memory of closed arrays is given
+     * back to the budget.
+     */
+    public static class RamBudget extends Adapter
+    {
+        private final long budget;
+        private final AtomicLong left;
+        private final NumberArrayFactory overflow;
+        // Places each chunk as a whole, either off-heap or in overflow
+        private final NumberArrayFactory chunks = new Adapter()
+        {
+            @Override
+            public LongArray newLongArray( long length, long defaultValue )
+            {
+                LongArray array = offHeapLongArray( length, defaultValue );
+                return array != null ? array : overflow.newLongArray( length, defaultValue );
+            }
+
+            @Override
+            public IntArray newIntArray( long length, int defaultValue )
+            {
+                IntArray array = offHeapIntArray( length, defaultValue );
+                return array != null ? array : overflow.newIntArray( length, defaultValue );
+            }
+        };
+
+        public RamBudget( long budget, NumberArrayFactory overflow )
+        {
+            this.budget = budget;
+            this.left = new AtomicLong( budget );
+            this.overflow = overflow;
+        }
+
+        @Override
+        public LongArray newLongArray( long length, long defaultValue )
+        {
+            long chunkSize = fractionOf( length, 3 );
+            if ( chunkSize == length )
+            {
+                return chunks.newLongArray( length, defaultValue );
+            }
+            DynamicLongArray array = new DynamicLongArray( chunks, chunkSize, defaultValue );
+            array.ensureChunkAt( length-1 );
+            return array.fixate();
+        }
+
+        @Override
+        public IntArray newIntArray( long length, int defaultValue )
+        {
+            long chunkSize = fractionOf( length, 2 );
+            if ( chunkSize == length )
+            {
+                return chunks.newIntArray( length, defaultValue );
+            }
+            DynamicIntArray array = new DynamicIntArray( chunks, chunkSize, defaultValue );
+            array.ensureChunkAt( length-1 );
+            return array.fixate();
+        }
+
+        @Override
+        public LongArray newDynamicLongArray( long chunkSize, long defaultValue )
+        {
+            return chunks.newDynamicLongArray( chunkSize, defaultValue );
+        }
+
+        @Override
+        public IntArray newDynamicIntArray( long chunkSize, int defaultValue )
+        {
+            return chunks.newDynamicIntArray( chunkSize, defaultValue );
+        }
+
+        private long fractionOf( long length, int itemSizeShift )
+        {
+            // The whole array, unless a part of it fits in what's left of the budget while the whole doesn't
+            long remaining = left.get();
+            if ( (length << itemSizeShift) <= remaining )
+            {
+                return length;
+            }
+            long chunkSize = max( length / 10, 1 );
+            return (chunkSize << itemSizeShift) <= remaining ? chunkSize : length;
+        }
+
+        private LongArray offHeapLongArray( long length, long defaultValue )
+        {
+            final long bytes = length << 3;
+            if ( !reserve( bytes ) )
+            {
+                return null;
+            }
+            try
+            {
+                return new OffHeapLongArray( length, defaultValue )
+                {
+                    @Override
+                    protected void free()
+                    {
+                        super.free();
+                        left.addAndGet( bytes );
+                    }
+                };
+            }
+            catch ( OutOfMemoryError e )
+            {   // The budget is more than there's memory for, use overflow instead
+                left.addAndGet( bytes );
+                return null;
+            }
+        }
+
+        private IntArray offHeapIntArray( long length, int defaultValue )
+        {
+            final long bytes = length << 2;
+            if ( !reserve( bytes ) )
+            {
+                return null;
+            }
+            try
+            {
+                return new OffHeapIntArray( length, defaultValue )
+                {
+                    @Override
+                    protected void free()
+                    {
+                        super.free();
+                        left.addAndGet( bytes );
+                    }
+                };
+            }
+            catch ( OutOfMemoryError e )
+            {   // The budget is more than there's memory for, use overflow instead
+                left.addAndGet( bytes );
+                return null;
+            }
+        }
+
+        private boolean reserve( long bytes )
+        {
+            while ( true )
+            {
+                long current = left.get();
+                if ( bytes > current )
+                {
+                    return false;
+                }
+                if ( left.compareAndSet( current, current - bytes ) )
+                {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return "RAM_BUDGET[" + bytes( budget ) + ", overflow:" + overflow + "]";
+        }
+    }
+
     /**
      * {@link Auto} factory which uses JVM stats for gathering information about available memory.
      */
@@ -19,11 +19,13 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache;
 
+import java.io.File;
+
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 /**
  * Off-heap version of {@link IntArray} using {@code sun.misc.Unsafe}. Supports arrays with length beyond
- * Integer.MAX_VALUE.
+ * Integer.MAX_VALUE. Can also be memory-mapped from a file, see {@link NumberArrayFactory.MemoryMapped}.
  */
 public class OffHeapIntArray extends OffHeapNumberArray implements IntArray
 {
@@ -31,9 +33,21 @@ public class OffHeapIntArray extends OffHeapNumberArray implements IntArray
 
     public OffHeapIntArray( long length, int defaultValue )
     {
-        super( length, 2 );
+        this( length, defaultValue, null );
+    }
+
+    /**
+     * @param directory directory to create a file in, to memory-map this array from,
+     * or {@code null} for allocating it in memory.
+     */
+    public OffHeapIntArray( long length, int defaultValue, File directory )
+    {
+        super( length, 2, directory );
         this.defaultValue = defaultValue;
-        clear();
+        if ( !isMapped() || defaultValue != 0 )
+        {   // A new file is all zeros already, no need to touch all of it
+            clear();
+        }
     }
 
     @Override
@@ -19,11 +19,13 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache;
 
+import java.io.File;
+
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 /**
  * Off-heap version of {@link LongArray} using {@code sun.misc.Unsafe}. Supports arrays with length beyond
- * Integer.MAX_VALUE.
+ * Integer.MAX_VALUE. Can also be memory-mapped from a file, see {@link NumberArrayFactory.MemoryMapped}.
  */
 public class OffHeapLongArray extends OffHeapNumberArray implements LongArray
 {
@@ -31,9 +33,21 @@ public class OffHeapLongArray extends OffHeapNumberArray implements LongArray
 
     public OffHeapLongArray( long length, long defaultValue )
     {
-        super( length, 3 );
+        this( length, defaultValue, null );
+    }
+
+    /**
+     * @param directory directory to create a file in, to memory-map this array from,
+     * or {@code null} for allocating it in memory.
+     */
+    public OffHeapLongArray( long length, long defaultValue, File directory )
+    {
+        super( length, 3, directory );
         this.defaultValue = defaultValue;
-        clear();
+        if ( !isMapped() || defaultValue != 0 )
+        {   // A new file is all zeros already, no need to touch all of it
+            clear();
+        }
     }
 
     @Override
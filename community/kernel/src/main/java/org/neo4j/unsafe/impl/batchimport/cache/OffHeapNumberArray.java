@@ -19,10 +19,18 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 /**
- * Base class for common functionality for any {@link NumberArray} where the data lives off-heap.
+ * Base class for common functionality for any {@link NumberArray} where the data lives off-heap,
+ * either allocated in memory or memory-mapped from a file.
  */
 abstract class OffHeapNumberArray implements NumberArray
 {
@@ -30,15 +38,65 @@ abstract class OffHeapNumberArray implements NumberArray
     protected final long length;
     protected final int shift;
     protected final int stride;
+    // Set if the memory is mapped from a file instead of allocated
+    private final MappedByteBuffer mapping;
     private boolean closed;
 
     protected OffHeapNumberArray( long length, int shift )
+    {
+        this( length, shift, null );
+    }
+
+    /**
+     * @param directory directory to create a file in, to memory-map the data of this array from,
+     * or {@code null} for allocating it in memory.
+     */
+    protected OffHeapNumberArray( long length, int shift, File directory )
     {
         UnsafeUtil.assertHasUnsafe();
         this.length = length;
         this.shift = shift;
         this.stride = 1 << shift;
-        this.address = UnsafeUtil.allocateMemory( length << shift );
+        if ( directory != null )
+        {
+            this.mapping = map( directory, length << shift );
+            this.address = UnsafeUtil.getDirectByteBufferAddress( mapping );
+        }
+        else
+        {
+            this.mapping = null;
+            this.address = UnsafeUtil.allocateMemory( length << shift );
+        }
+    }
+
+    private static MappedByteBuffer map( File directory, long size )
+    {
+        try
+        {
+            File file = File.createTempFile( "neo4j-import", ".cache", directory );
+            try ( RandomAccessFile raf = new RandomAccessFile( file, "rw" ) )
+            {
+                // The mapping stays valid after the file has been closed and deleted, and the disk space
+                // is released when the mapping is cleaned.
+                return raf.getChannel().map( FileChannel.MapMode.READ_WRITE, 0, size );
+            }
+            finally
+            {
+                file.delete();
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    /**
+     * @return whether or not the data of this array is memory-mapped from a file.
+     */
+    protected boolean isMapped()
+    {
+        return mapping != null;
     }
 
     @Override
@@ -77,7 +135,14 @@ abstract class OffHeapNumberArray implements NumberArray
     @Override
     public void acceptMemoryStatsVisitor( MemoryStatsVisitor visitor )
     {
-        visitor.offHeapUsage( length * stride );
+        if ( mapping != null )
+        {
+            visitor.diskUsage( length * stride );
+        }
+        else
+        {
+            visitor.offHeapUsage( length * stride );
+        }
     }
 
     @Override
@@ -85,8 +150,23 @@ abstract class OffHeapNumberArray implements NumberArray
     {
         if ( !closed )
         {
-            UnsafeUtil.free( address );
+            free();
             closed = true;
         }
     }
+
+    /**
+     * Releases the memory of this array. Called once, when closing it.
+     */
+    protected void free()
+    {
+        if ( mapping != null )
+        {
+            UnsafeUtil.invokeCleaner( mapping );
+        }
+        else
+        {
+            UnsafeUtil.free( address );
+        }
+    }
 }
@@ -19,7 +19,11 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache.idmapping;
 
+import java.io.IOException;
+
 import org.neo4j.helpers.progress.ProgressListener;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
 import org.neo4j.unsafe.impl.batchimport.InputIterable;
 import org.neo4j.unsafe.impl.batchimport.cache.MemoryStatsVisitor;
 import org.neo4j.unsafe.impl.batchimport.input.Collector;
@@ -74,4 +78,23 @@ public interface IdMapper extends MemoryStatsVisitor.Home
      * @return the actual node id previously specified by {@link #put(Object, long, Group)}, or {@code -1} if not found.
      */
     long get( Object inputId, Group group );
+
+    /**
+     * Writes the state of this id mapper, after {@link #prepare(InputIterable, Collector, ProgressListener) prepared},
+     * to {@code channel}. An import can then be resumed with an id mapper {@link #readFrom(ReadableLogChannel) read}
+     * from it instead of putting all ids anew.
+     *
+     * @param channel channel to write the state to.
+     * @throws IOException on I/O error.
+     */
+    void writeTo( WritableLogChannel channel ) throws IOException;
+
+    /**
+     * Reads state previously {@link #writeTo(WritableLogChannel) written}, after which this id mapper is
+     * prepared and ready for calls to {@link #get(Object, Group)}.
+     *
+     * @param channel channel to read the state from.
+     * @throws IOException on I/O error.
+     */
+    void readFrom( ReadableLogChannel channel ) throws IOException;
 }
@@ -20,6 +20,8 @@
 package org.neo4j.unsafe.impl.batchimport.cache.idmapping;
 
 import org.neo4j.helpers.progress.ProgressListener;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
 import org.neo4j.unsafe.impl.batchimport.InputIterable;
 import org.neo4j.unsafe.impl.batchimport.cache.MemoryStatsVisitor;
 import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
@@ -68,6 +70,16 @@ public class IdMappers
         {   // No memory usage
         }
 
+        @Override
+        public void writeTo( WritableLogChannel channel )
+        {   // No state to write
+        }
+
+        @Override
+        public void readFrom( ReadableLogChannel channel )
+        {   // No state to read
+        }
+
         @Override
         public String toString()
         {
@@ -19,6 +19,11 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache.idmapping.string;
 
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
+
 /**
  * Encodes a {@link Object} into a long. The implementation should be designed to return as few collisions
  * as possible, i.e. different incoming values being encoded into the same long.
@@ -27,4 +32,15 @@ package org.neo4j.unsafe.impl.batchimport.cache.idmapping.string;
 public interface Encoder
 {
     long encode( Object value );
+
+    /**
+     * Writes any state affecting how values are encoded, such that an encoder reading it back
+     * using {@link #readFrom(ReadableLogChannel)} encodes values the same way as this encoder.
+     */
+    void writeTo( WritableLogChannel channel ) throws IOException;
+
+    /**
+     * Reads state previously written by {@link #writeTo(WritableLogChannel)} into this encoder.
+     */
+    void readFrom( ReadableLogChannel channel ) throws IOException;
 }
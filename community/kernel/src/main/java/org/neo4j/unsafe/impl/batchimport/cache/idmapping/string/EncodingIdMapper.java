@@ -19,6 +19,7 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache.idmapping.string;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -26,6 +27,8 @@ import java.util.List;
 
 import org.neo4j.function.Factory;
 import org.neo4j.helpers.progress.ProgressListener;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
 import org.neo4j.unsafe.impl.batchimport.InputIterable;
 import org.neo4j.unsafe.impl.batchimport.InputIterator;
 import org.neo4j.unsafe.impl.batchimport.Utils.CompareType;
@@ -38,6 +41,7 @@ import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.string.ParallelSort.Comparator;
 import org.neo4j.unsafe.impl.batchimport.input.Collector;
 import org.neo4j.unsafe.impl.batchimport.input.Group;
+import org.neo4j.unsafe.impl.batchimport.input.ValueType;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -765,6 +769,128 @@ public class EncodingIdMapper implements IdMapper
         // TODO mention anything about the collisionValues data structure?
     }
 
+    /**
+     * Format:
+     * <pre>
+     * - encoder state, see {@link Encoder#writeTo(WritableLogChannel)}
+     * - 8B highest set index, h
+     * - (h+1) * 8B encoded values, in data index order
+     * - (h+1) * 4B tracker entries, i.e. data indexes in sorted order
+     * - 4B number of sort buckets, each:
+     *   - 4B length, followed by that many 8B values
+     * - 4B number of groups, each:
+     *   - 4B group id, string group name, 8B low data index, 8B high data index
+     * - 4B number of collisions, each:
+     *   - 8B data index, 1B value type, ?B input id value, see {@link ValueType}
+     * </pre>
+     */
+    @Override
+    public void writeTo( WritableLogChannel channel ) throws IOException
+    {
+        assert readyForUse;
+        encoder.writeTo( channel );
+        channel.putLong( highestSetIndex );
+        for ( long i = 0; i <= highestSetIndex; i++ )
+        {
+            channel.putLong( dataCache.get( i ) );
+        }
+        for ( long i = 0; i <= highestSetIndex; i++ )
+        {
+            channel.putInt( trackerCache.get( i ) );
+        }
+
+        channel.putInt( sortBuckets.length );
+        for ( long[] bucket : sortBuckets )
+        {
+            channel.putInt( bucket.length );
+            for ( long value : bucket )
+            {
+                channel.putLong( value );
+            }
+        }
+
+        int groups = 0;
+        for ( IdGroup group : idGroups )
+        {
+            groups += group != null ? 1 : 0;
+        }
+        channel.putInt( groups );
+        for ( IdGroup group : idGroups )
+        {
+            if ( group != null )
+            {
+                channel.putInt( group.id() );
+                ValueType.stringType().write( group.name(), channel );
+                channel.putLong( group.lowDataIndex() );
+                channel.putLong( group.highDataIndex() );
+            }
+        }
+
+        channel.putInt( collisionValues.size() );
+        for ( int i = 0; i < collisionValues.size(); i++ )
+        {
+            Object value = collisionValues.get( i );
+            ValueType type = ValueType.typeOf( value );
+            channel.putLong( collisionNodeIdCache.get( i ) );
+            channel.put( type.id() );
+            type.write( value, channel );
+        }
+    }
+
+    @Override
+    public void readFrom( ReadableLogChannel channel ) throws IOException
+    {
+        encoder.readFrom( channel );
+        highestSetIndex = channel.getLong();
+        LongArray data = cacheFactory.newLongArray( highestSetIndex+1, GAP_VALUE );
+        for ( long i = 0; i <= highestSetIndex; i++ )
+        {
+            long eId = channel.getLong();
+            data.set( i, eId );
+            // Some radix calculators adapt to the values registered, so register them like #put did
+            radix.registerRadixOf( clearCollision( eId ) );
+        }
+        dataCache.close();
+        dataCache = data;
+        trackerCache = cacheFactory.newIntArray( highestSetIndex+1, -1 );
+        for ( long i = 0; i <= highestSetIndex; i++ )
+        {
+            trackerCache.set( i, channel.getInt() );
+        }
+
+        sortBuckets = new long[channel.getInt()][];
+        for ( int i = 0; i < sortBuckets.length; i++ )
+        {
+            sortBuckets[i] = new long[channel.getInt()];
+            for ( int j = 0; j < sortBuckets[i].length; j++ )
+            {
+                sortBuckets[i][j] = channel.getLong();
+            }
+        }
+
+        int groups = channel.getInt();
+        for ( int i = 0; i < groups; i++ )
+        {
+            int groupId = channel.getInt();
+            String name = (String) ValueType.stringType().read( channel );
+            IdGroup group = new IdGroup( new Group.Adapter( groupId, name ), channel.getLong() );
+            group.setHighDataIndex( channel.getLong() );
+            if ( groupId >= idGroups.length )
+            {
+                idGroups = Arrays.copyOf( idGroups, max( groupId+1, idGroups.length*2 ) );
+            }
+            idGroups[groupId] = currentIdGroup = group;
+        }
+
+        int collisions = channel.getInt();
+        for ( int i = 0; i < collisions; i++ )
+        {
+            collisionNodeIdCache.set( i, channel.getLong() );
+            collisionValues.add( ValueType.typeOf( channel.get() ).read( channel ) );
+        }
+        readyForUse = true;
+    }
+
     private void nullSafeAcceptMemoryStatsVisitor( MemoryStatsVisitor visitor, MemoryStatsVisitor.Home mem )
     {
         if ( mem != null )
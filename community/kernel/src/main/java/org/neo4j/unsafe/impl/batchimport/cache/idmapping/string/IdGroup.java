@@ -43,6 +43,16 @@ class IdGroup
         this.highDataIndex = index;
     }
 
+    long lowDataIndex()
+    {
+        return lowDataIndex;
+    }
+
+    long highDataIndex()
+    {
+        return highDataIndex;
+    }
+
     boolean covers( long index )
     {
         return index >= lowDataIndex && index <= highDataIndex;
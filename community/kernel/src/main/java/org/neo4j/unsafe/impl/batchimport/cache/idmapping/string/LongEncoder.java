@@ -19,6 +19,9 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache.idmapping.string;
 
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
+
 import static java.lang.Math.log10;
 import static java.lang.Math.max;
 
@@ -37,6 +40,16 @@ public class LongEncoder implements Encoder
         return returnVal;
     }
 
+    @Override
+    public void writeTo( WritableLogChannel channel )
+    {   // No state
+    }
+
+    @Override
+    public void readFrom( ReadableLogChannel channel )
+    {   // No state
+    }
+
     private static int numberOfDigits( long value )
     {
         return max( 1, (int)(log10( value ) + 1) );
@@ -19,8 +19,12 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache.idmapping.string;
 
+import java.io.IOException;
 import java.util.Arrays;
 
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
+
 /**
  * Encodes String into a long with very small chance of collision, i.e. two different Strings encoded into
  * the same long value.
@@ -165,6 +169,24 @@ public class StringEncoder implements Encoder
         return (int) code;
     }
 
+    /**
+     * Writes the character re-mapping built up from the strings encoded so far, which is needed to
+     * encode strings the same way after reading it back.
+     */
+    @Override
+    public void writeTo( WritableLogChannel channel ) throws IOException
+    {
+        channel.putInt( numChars );
+        channel.put( reMap, reMap.length );
+    }
+
+    @Override
+    public void readFrom( ReadableLogChannel channel ) throws IOException
+    {
+        numChars = channel.getInt();
+        channel.get( reMap, reMap.length );
+    }
+
     @Override
     public String toString()
     {
@@ -37,11 +37,27 @@ import static org.neo4j.helpers.Format.KB;
  * Useful since {@link ParallelBatchImporter} may require multiple passes over the input data and so
  * consecutive passes will be served by this thing instead.
  *
+ * Property keys, labels, relationship types and group names are dictionary-encoded as token ids,
+ * where the token string->id mapping is in a header file. Entities are written in blocks, each of which
+ * can be decoded independently of the others and so in parallel, and may be compressed.
+ * "var" below means a variable-length value, see {@link InputCacheBlock#putVarLong(long)}.
+ *
+ * <pre>
+ * Block format:
+ * - 4B entity count, or {@link #END_OF_BLOCKS}
+ * - 4B uncompressed length
+ * - 4B stored length, less than uncompressed length if the block is compressed
+ * - entities, see "Node format" or "Relationship format". Any diff state, f.ex. previous group, is reset
+ *   at the start of each block
+ * </pre>
+ *
  * <pre>
  * Properties format:
- * - 2B property count, or {@link #HAS_FIRST_PROPERTY_ID} or {@link #END_OF_ENTITIES}
+ * - var property count, or {@link #HAS_FIRST_PROPERTY_ID}
+ *   IF {@link #HAS_FIRST_PROPERTY_ID}
+ *   - var first property id
  * - property...:
- *   - 4B token id (token string->id mapping is in header file)
+ *   - var token id
  *   - ?B value, see {@link ValueType}
  * </pre>
  *
@@ -49,21 +65,28 @@ import static org.neo4j.helpers.Format.KB;
  * Group format:
  * - 1B, {@link #SAME_GROUP} or {@link #NEW_GROUP}
  *   IF {@link #NEW_GROUP}
- *   - 4B group if (if {@link #NEW_GROUP}
- *   - 4B token id
+ *   - var group id
+ *   - var token id
+ * </pre>
+ *
+ * <pre>
+ * Id format:
+ * - 1B value type, see {@link ValueType}
+ * - var id, if long, otherwise ?B id value, see {@link ValueType}
  * </pre>
  *
  * <pre>
  * Node format:
  * - properties (see "Properties format")
  * - group (see "Group format")
- * - id
- *   - ?B id value, see {@link ValueType}
+ * - id (see "Id format")
  * - labels
  *   - 1B label mode, {@link #HAS_LABEL_FIELD} or {@link #LABEL_ADDITION} or {@link #LABEL_REMOVAL} or
  *     {@link #END_OF_LABEL_CHANGES}
+ *     IF {@link #HAS_LABEL_FIELD}
+ *     - var label field
  *     WHILE NOT {@link #END_OF_LABEL_CHANGES}
- *     - 4B token id, to add or remove
+ *     - var token id, to add or remove
  *     - 1B label mode, next mode
  * </pre>
  *
@@ -73,19 +96,17 @@ import static org.neo4j.helpers.Format.KB;
  * - specific id:
  *   - 1B specific id boolean, {@link #SPECIFIC_ID} or {@link #UNSPECIFIED_ID}
  *     IF {@link #SPECIFIC_ID}
- *     - 8B specific relationship id
+ *     - var specific relationship id
  * - start node group (see "Group format")
  * - end node group (see "Group format")
- * - start node id
- *   - ?B id value, see {@link ValueType}
- * - end node id
- *   - ?B id value, see {@link ValueType}
+ * - start node id (see "Id format")
+ * - end node id (see "Id format")
  * - type
  *   - 1B mode, {@link #SAME_TYPE} or {@link #NEW_TYPE} or {@link #HAS_TYPE_ID}
  *     IF {@link #HAS_TYPE_ID}
- *     4B type id
+ *     var type id
  *     ELSE IF {@link #NEW_TYPE}
- *     4B token id
+ *     var token id
  * </pre>
  */
 public class InputCache implements Closeable
@@ -99,7 +120,7 @@ public class InputCache implements Closeable
     static final byte SAME_GROUP = 0;
     static final byte NEW_GROUP = 1;
     static final byte TOKEN = 1;
-    static final short HAS_FIRST_PROPERTY_ID = -1;
+    static final int HAS_FIRST_PROPERTY_ID = -1;
     static final byte HAS_LABEL_FIELD = 3;
     static final byte LABEL_REMOVAL = 1;
     static final byte LABEL_ADDITION = 2;
@@ -110,11 +131,14 @@ public class InputCache implements Closeable
     static final byte SAME_TYPE = 0;
     static final byte NEW_TYPE = 1;
     static final byte END_OF_HEADER = 0;
-    static final short END_OF_ENTITIES = -2;
+    static final int END_OF_BLOCKS = 0;
+    static final ValueType LONG_TYPE = ValueType.typeOf( Long.class );
 
     private final FileSystemAbstraction fs;
     private final File cacheDirectory;
     private final int bufferSize;
+    private final boolean compress;
+    private final int decoders;
 
     public InputCache( FileSystemAbstraction fs, File cacheDirectory )
     {
@@ -122,21 +146,41 @@ public class InputCache implements Closeable
     }
 
     public InputCache( FileSystemAbstraction fs, File cacheDirectory, int bufferSize )
+    {
+        this( fs, cacheDirectory, bufferSize, false, Runtime.getRuntime().availableProcessors() );
+    }
+
+    public InputCache( FileSystemAbstraction fs, File cacheDirectory, boolean compress, int decoders )
+    {
+        this( fs, cacheDirectory, 512*KB, compress, decoders );
+    }
+
+    /**
+     * @param fs {@link FileSystemAbstraction} to create the cache files in.
+     * @param cacheDirectory directory to create the cache files in.
+     * @param bufferSize size of read/write buffers, also the rough size of each block of cached entities.
+     * @param compress whether or not to compress each block of cached entities.
+     * @param decoders number of threads decoding blocks in parallel when reading from the cache.
+     */
+    public InputCache( FileSystemAbstraction fs, File cacheDirectory, int bufferSize, boolean compress,
+            int decoders )
     {
         this.fs = fs;
         this.cacheDirectory = cacheDirectory;
         this.bufferSize = bufferSize;
+        this.compress = compress;
+        this.decoders = decoders;
     }
 
     public Receiver<InputNode[],IOException> cacheNodes() throws IOException
     {
-        return new InputNodeCacher( channel( NODES, "rw" ), channel( NODES_HEADER, "rw" ), bufferSize );
+        return new InputNodeCacher( channel( NODES, "rw" ), channel( NODES_HEADER, "rw" ), bufferSize, compress );
     }
 
     public Receiver<InputRelationship[],IOException> cacheRelationships() throws IOException
     {
         return new InputRelationshipCacher( channel( RELATIONSHIPS, "rw" ),
-                channel( RELATIONSHIPS_HEADER, "rw" ), bufferSize );
+                channel( RELATIONSHIPS_HEADER, "rw" ), bufferSize, compress );
     }
 
     private StoreChannel channel( String type, String mode ) throws IOException
@@ -156,7 +200,8 @@ public class InputCache implements Closeable
             @Override
             public InputIterator<InputNode> get() throws IOException
             {
-                return new InputNodeReader( channel( NODES, "r" ), channel( NODES_HEADER, "r" ), bufferSize );
+                return new InputNodeReader( channel( NODES, "r" ), channel( NODES_HEADER, "r" ),
+                        bufferSize, decoders );
             }
         } );
     }
@@ -169,7 +214,7 @@ public class InputCache implements Closeable
             public InputIterator<InputRelationship> get() throws IOException
             {
                 return new InputRelationshipReader( channel( RELATIONSHIPS, "r" ),
-                        channel( RELATIONSHIPS_HEADER, "r" ), bufferSize );
+                        channel( RELATIONSHIPS_HEADER, "r" ), bufferSize, decoders );
             }
         } );
     }
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport.input;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.kernel.impl.transaction.log.ReadPastEndException;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
+
+/**
+ * One block of cached entities in {@link InputCache}, kept in memory. Entities are written into a block
+ * by {@link InputEntityCacher} until it reaches its size and read back from it by {@link InputEntityReader},
+ * where each block can be decoded independently of, and in parallel with, other blocks.
+ *
+ * Apart from the fixed-size values of the log channels there are variable-length values,
+ * see {@link #putVarLong(long)}.
+ */
+class InputCacheBlock implements WritableLogChannel, ReadableLogChannel
+{
+    private static final Flushable NO_OP_FLUSHABLE = new Flushable()
+    {
+        @Override
+        public void flush() throws IOException
+        {
+        }
+    };
+
+    private ByteBuffer buffer;
+
+    /**
+     * Creates an empty block to write into.
+     */
+    InputCacheBlock( int initialSize )
+    {
+        this.buffer = ByteBuffer.allocate( initialSize );
+    }
+
+    /**
+     * Creates a block to read from, containing the first {@code length} bytes of {@code bytes}.
+     */
+    InputCacheBlock( byte[] bytes, int length )
+    {
+        this.buffer = ByteBuffer.wrap( bytes, 0, length );
+    }
+
+    /**
+     * @return the bytes of this block, where the number of written bytes is {@link #size()}.
+     */
+    byte[] array()
+    {
+        return buffer.array();
+    }
+
+    int size()
+    {
+        return buffer.position();
+    }
+
+    void clear()
+    {
+        buffer.clear();
+    }
+
+    /**
+     * Writes a non-negative value using 7 bits per byte, where the high bit says whether or not more bytes
+     * follow, i.e. 1B for values < 128, 2B for values < 16384 a.s.o. Negative values take 10B.
+     */
+    InputCacheBlock putVarLong( long value )
+    {
+        while ( (value & ~0x7FL) != 0 )
+        {
+            ensureRoom( 1 ).put( (byte) ((value & 0x7F) | 0x80) );
+            value >>>= 7;
+        }
+        ensureRoom( 1 ).put( (byte) value );
+        return this;
+    }
+
+    long getVarLong() throws IOException
+    {
+        long value = 0;
+        for ( int shift = 0; ; shift += 7 )
+        {
+            byte b = get();
+            value |= (b & 0x7FL) << shift;
+            if ( (b & 0x80) == 0 )
+            {
+                return value;
+            }
+        }
+    }
+
+    InputCacheBlock putVarInt( int value )
+    {
+        return putVarLong( value & 0xFFFFFFFFL );
+    }
+
+    int getVarInt() throws IOException
+    {
+        return (int) getVarLong();
+    }
+
+    private ByteBuffer ensureRoom( int bytes )
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            ByteBuffer larger = ByteBuffer.allocate( Math.max( buffer.capacity() << 1, buffer.position() + bytes ) );
+            buffer.flip();
+            larger.put( buffer );
+            buffer = larger;
+        }
+        return buffer;
+    }
+
+    @Override
+    public Flushable emptyBufferIntoChannelAndClearIt() throws IOException
+    {
+        return NO_OP_FLUSHABLE;
+    }
+
+    @Override
+    public InputCacheBlock put( byte value ) throws IOException
+    {
+        ensureRoom( 1 ).put( value );
+        return this;
+    }
+
+    @Override
+    public InputCacheBlock putShort( short value ) throws IOException
+    {
+        ensureRoom( 2 ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public InputCacheBlock putInt( int value ) throws IOException
+    {
+        ensureRoom( 4 ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public InputCacheBlock putLong( long value ) throws IOException
+    {
+        ensureRoom( 8 ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public InputCacheBlock putFloat( float value ) throws IOException
+    {
+        ensureRoom( 4 ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public InputCacheBlock putDouble( double value ) throws IOException
+    {
+        ensureRoom( 8 ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public InputCacheBlock put( byte[] value, int length ) throws IOException
+    {
+        ensureRoom( length ).put( value, 0, length );
+        return this;
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        try
+        {
+            return buffer.get();
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        try
+        {
+            return buffer.getShort();
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        try
+        {
+            return buffer.getInt();
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        try
+        {
+            return buffer.getLong();
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        try
+        {
+            return buffer.getFloat();
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        try
+        {
+            return buffer.getDouble();
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        try
+        {
+            buffer.get( bytes, 0, length );
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+    }
+
+    @Override
+    public LogPositionMarker getCurrentPosition( LogPositionMarker positionMarker ) throws IOException
+    {
+        positionMarker.mark( 0, buffer.position() );
+        return positionMarker;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -22,6 +22,7 @@ package org.neo4j.unsafe.impl.batchimport.input;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.Deflater;
 
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
@@ -29,33 +30,44 @@ import org.neo4j.kernel.impl.transaction.log.PhysicalWritableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
 
 import static org.neo4j.helpers.Format.KB;
-import static org.neo4j.unsafe.impl.batchimport.Utils.safeCastLongToShort;
+import static org.neo4j.unsafe.impl.batchimport.input.InputCache.END_OF_BLOCKS;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.HAS_FIRST_PROPERTY_ID;
+import static org.neo4j.unsafe.impl.batchimport.input.InputCache.LONG_TYPE;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.NEW_GROUP;
-import static org.neo4j.unsafe.impl.batchimport.input.InputCache.END_OF_ENTITIES;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.END_OF_HEADER;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.TOKEN;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.SAME_GROUP;
 
 /**
  * Abstract class for caching {@link InputEntity} or derivative to disk using a binary format.
+ * Entities are written into {@link InputCacheBlock blocks} of roughly the buffer size, optionally
+ * compressed, where any diff state, f.ex. previous group, is reset at the start of each block
+ * so that blocks can be decoded independently of each other.
  */
 abstract class InputEntityCacher<ENTITY extends InputEntity> implements Receiver<ENTITY[],IOException>
 {
-    protected final WritableLogChannel channel;
+    protected final InputCacheBlock block;
+    private final WritableLogChannel channel;
     private final WritableLogChannel header;
     private final StoreChannel storeChannel;
     private final StoreChannel headerChannel;
+    private final int blockSize;
+    private final Deflater deflater;
+    private byte[] compressed = new byte[0];
+    private int entitiesInBlock;
     private final int[] previousGroupIds;
 
-    private short nextKeyId;
-    private final Map<String,Short> tokens = new HashMap<>();
+    private int nextKeyId;
+    private final Map<String,Integer> tokens = new HashMap<>();
 
-    protected InputEntityCacher( StoreChannel channel, StoreChannel header, int bufferSize, int groupSlots )
-            throws IOException
+    protected InputEntityCacher( StoreChannel channel, StoreChannel header, int bufferSize, int groupSlots,
+            boolean compress ) throws IOException
     {
         this.storeChannel = channel;
         this.headerChannel = header;
+        this.blockSize = bufferSize;
+        this.block = new InputCacheBlock( bufferSize );
+        this.deflater = compress ? new Deflater( Deflater.BEST_SPEED ) : null;
         this.previousGroupIds = new int[groupSlots];
         for ( int i = 0; i < groupSlots; i++ )
         {
@@ -75,7 +87,52 @@ abstract class InputEntityCacher<ENTITY extends InputEntity> implements Receiver
         for ( ENTITY entity : batch )
         {
             writeEntity( entity );
+            entitiesInBlock++;
+            if ( block.size() >= blockSize )
+            {
+                writeBlock();
+            }
+        }
+    }
+
+    /**
+     * Resets the diff state, called at the start of each new block.
+     */
+    protected void startBlock()
+    {
+        for ( int i = 0; i < previousGroupIds.length; i++ )
+        {
+            previousGroupIds[i] = Group.GLOBAL.id();
+        }
+    }
+
+    private void writeBlock() throws IOException
+    {
+        byte[] data = block.array();
+        int rawLength = block.size();
+        int length = rawLength;
+        if ( deflater != null )
+        {
+            if ( compressed.length < rawLength )
+            {
+                compressed = new byte[rawLength];
+            }
+            deflater.reset();
+            deflater.setInput( data, 0, rawLength );
+            deflater.finish();
+            int compressedLength = deflater.deflate( compressed, 0, rawLength );
+            if ( deflater.finished() && compressedLength < rawLength )
+            {   // Only keep the compressed data if it actually got smaller
+                data = compressed;
+                length = compressedLength;
+            }
         }
+
+        channel.putInt( entitiesInBlock ).putInt( rawLength ).putInt( length );
+        channel.put( data, length );
+        block.clear();
+        entitiesInBlock = 0;
+        startBlock();
     }
 
     protected void writeEntity( ENTITY entity ) throws IOException
@@ -83,12 +140,20 @@ abstract class InputEntityCacher<ENTITY extends InputEntity> implements Receiver
         // properties
         if ( entity.hasFirstPropertyId() )
         {
-            channel.putShort( HAS_FIRST_PROPERTY_ID ).putLong( entity.firstPropertyId() );
+            block.putVarInt( HAS_FIRST_PROPERTY_ID ).putVarLong( entity.firstPropertyId() );
         }
         else
         {
             Object[] properties = entity.properties();
-            channel.putShort( safeCastLongToShort( properties.length/2 ) );
+            int count = 0;
+            for ( int i = 1; i < properties.length; i += 2 )
+            {
+                if ( properties[i] != null )
+                {
+                    count++;
+                }
+            }
+            block.putVarInt( count );
             for ( int i = 0; i < properties.length; i++ )
             {
                 String key = (String) properties[i++];
@@ -107,12 +172,12 @@ abstract class InputEntityCacher<ENTITY extends InputEntity> implements Receiver
     {
         if ( group.id() == previousGroupIds[slot] )
         {
-            channel.put( SAME_GROUP );
+            block.put( SAME_GROUP );
         }
         else
         {
-            channel.put( NEW_GROUP );
-            channel.putInt( previousGroupIds[slot] = group.id() );
+            block.put( NEW_GROUP );
+            block.putVarInt( previousGroupIds[slot] = group.id() );
             writeToken( group.name() );
         }
     }
@@ -120,33 +185,53 @@ abstract class InputEntityCacher<ENTITY extends InputEntity> implements Receiver
     protected void writeValue( Object value ) throws IOException
     {
         ValueType type = ValueType.typeOf( value );
-        channel.put( type.id() );
-        type.write( value, channel );
+        block.put( type.id() );
+        type.write( value, block );
+    }
+
+    protected void writeId( Object id ) throws IOException
+    {
+        ValueType type = ValueType.typeOf( id );
+        block.put( type.id() );
+        if ( type == LONG_TYPE )
+        {   // Most ids are positive and a lot smaller than Long.MAX_VALUE
+            block.putVarLong( (Long) id );
+        }
+        else
+        {
+            type.write( id, block );
+        }
     }
 
     protected void writeToken( String key ) throws IOException
     {
-        Short id = tokens.get( key );
+        Integer id = tokens.get( key );
         if ( id == null )
         {
             tokens.put( key, id = nextKeyId++ );
             header.put( TOKEN );
             ValueType.stringType().write( key, header );
         }
-        channel.putShort( id );
+        block.putVarInt( id );
     }
 
     @Override
     public void close() throws IOException
     {
+        if ( entitiesInBlock > 0 )
+        {
+            writeBlock();
+        }
         header.put( END_OF_HEADER );
-        // This is a special value denoting the end of the stream. This is done like this since
-        // properties are the first thing read for every entity.
-        channel.putShort( END_OF_ENTITIES );
+        channel.putInt( END_OF_BLOCKS );
 
         channel.close();
         header.close();
         storeChannel.close();
         headerChannel.close();
+        if ( deflater != null )
+        {
+            deflater.end();
+        }
     }
 }
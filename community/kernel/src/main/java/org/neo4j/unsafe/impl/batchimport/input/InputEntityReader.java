@@ -20,6 +20,15 @@
 package org.neo4j.unsafe.impl.batchimport.input;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveIntObjectMap;
@@ -32,34 +41,44 @@ import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.unsafe.impl.batchimport.InputIterator;
 
 import static org.neo4j.helpers.Format.KB;
+import static org.neo4j.helpers.NamedThreadFactory.daemon;
 import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
-import static org.neo4j.unsafe.impl.batchimport.input.InputCache.END_OF_ENTITIES;
+import static org.neo4j.unsafe.impl.batchimport.input.InputCache.END_OF_BLOCKS;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.HAS_FIRST_PROPERTY_ID;
+import static org.neo4j.unsafe.impl.batchimport.input.InputCache.LONG_TYPE;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.NEW_GROUP;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.SAME_GROUP;
 import static org.neo4j.unsafe.impl.batchimport.input.InputCache.TOKEN;
 
 /**
  * Abstract class for reading cached entities previously stored using {@link InputEntityCacher} or derivative.
+ * Blocks are read from the channel by the thread iterating over this reader, but decoded by a number of
+ * decoder threads in parallel, ahead of the iteration. Entities are returned in the order they were cached.
  */
 abstract class InputEntityReader<ENTITY extends InputEntity> extends PrefetchingIterator<ENTITY>
         implements InputIterator<ENTITY>
 {
-    protected final ReadableLogChannel channel;
+    private final ReadableLogChannel channel;
     private final LogPositionMarker positionMarker = new LogPositionMarker();
-    private int lineNumber;
-    private final Group[] previousGroups;
+    private final int groupSlots;
     private final PrimitiveIntObjectMap<String> tokens = Primitive.intObjectMap();
+    private final ExecutorService decoders;
+    private final int maxBlocksAhead;
+    private final Deque<Future<ENTITY[]>> blocksAhead = new ArrayDeque<>();
+    private boolean endOfBlocks;
+    private ENTITY[] block;
+    private int cursor;
+    private long lineNumber;
+    private long blockLineNumber;
 
-    InputEntityReader( StoreChannel channel, StoreChannel header, int bufferSize, int groupSlots ) throws IOException
+    InputEntityReader( StoreChannel channel, StoreChannel header, int bufferSize, int groupSlots, int decoders )
+            throws IOException
     {
-        this.previousGroups = new Group[groupSlots];
-        for ( int i = 0; i < groupSlots; i++ )
-        {
-            previousGroups[i] = Group.GLOBAL;
-        }
+        this.groupSlots = groupSlots;
         this.channel = reader( channel, bufferSize );
         readHeader( header );
+        this.decoders = Executors.newFixedThreadPool( decoders, daemon( "InputCacheDecoder" ) );
+        this.maxBlocksAhead = decoders * 2;
     }
 
     private ReadAheadLogChannel reader( StoreChannel channel, int bufferSize ) throws IOException
@@ -72,7 +91,7 @@ abstract class InputEntityReader<ENTITY extends InputEntity> extends Prefetching
     {
         try ( ReadableLogChannel reader = reader( header, 8*KB ) )
         {
-            for ( short id = 0; reader.get() == TOKEN; id++ )
+            for ( int id = 0; reader.get() == TOKEN; id++ )
             {
                 tokens.put( id, (String) ValueType.stringType().read( reader ) );
             }
@@ -84,14 +103,15 @@ abstract class InputEntityReader<ENTITY extends InputEntity> extends Prefetching
     {
         try
         {
-            lineNumber++;
-            Object properties = readProperties();
-            if ( properties == null )
+            while ( block == null || cursor == block.length )
             {
-                return null;
+                if ( !nextBlock() )
+                {
+                    return null;
+                }
             }
-
-            return readNextOrNull( properties );
+            lineNumber++;
+            return block[cursor++];
         }
         catch ( IOException e )
         {
@@ -99,53 +119,183 @@ abstract class InputEntityReader<ENTITY extends InputEntity> extends Prefetching
         }
     }
 
-    protected abstract ENTITY readNextOrNull( Object properties ) throws IOException;
+    private boolean nextBlock() throws IOException
+    {
+        // Keep the decoders busy with the blocks coming up next
+        while ( !endOfBlocks && blocksAhead.size() < maxBlocksAhead )
+        {
+            readBlock();
+        }
+
+        Future<ENTITY[]> next = blocksAhead.poll();
+        if ( next == null )
+        {
+            return false;
+        }
+        try
+        {
+            block = next.get();
+            cursor = 0;
+            return true;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InputException( "Interrupted while decoding cached data", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new InputException( "Couldn't decode cached data", e.getCause() );
+        }
+    }
 
-    private Object readProperties() throws IOException
+    private void readBlock() throws IOException
     {
-        short count = channel.getShort();
-        switch ( count )
-        {
-        // This is a special value denoting the end of the stream. This is done like this since
-        // properties are the first thing read for every entity.
-        case END_OF_ENTITIES: return null;
-        case HAS_FIRST_PROPERTY_ID: return channel.getLong();
-        case 0: return InputEntity.NO_PROPERTIES;
-        default:
-            Object[] properties = new Object[count*2];
-            for ( int i = 0; i < properties.length; i++ )
+        final int entityCount = channel.getInt();
+        if ( entityCount == END_OF_BLOCKS )
+        {
+            endOfBlocks = true;
+            return;
+        }
+        final int rawLength = channel.getInt();
+        final int length = channel.getInt();
+        final byte[] data = new byte[length];
+        channel.get( data, length );
+        final long firstLineNumber = blockLineNumber + 1;
+        final long position = position();
+        blockLineNumber += entityCount;
+        blocksAhead.add( decoders.submit( new Callable<ENTITY[]>()
+        {
+            @Override
+            public ENTITY[] call() throws Exception
             {
-                properties[i++] = readToken();
-                properties[i] = readValue();
+                return decode( entityCount, data, length, rawLength, firstLineNumber, position );
             }
-            return properties;
-        }
+        } ) );
     }
 
-    protected String readToken() throws IOException
+    private ENTITY[] decode( int entityCount, byte[] data, int length, int rawLength,
+            long firstLineNumber, long position ) throws IOException
     {
-        short id = channel.getShort();
-        String name = tokens.get( id );
-        if ( name == null )
+        if ( length < rawLength )
+        {
+            data = inflate( data, length, rawLength );
+        }
+        BlockDecoder decoder = decoder( new InputCacheBlock( data, rawLength ) );
+        @SuppressWarnings( "unchecked" )
+        ENTITY[] entities = (ENTITY[]) new InputEntity[entityCount];
+        for ( int i = 0; i < entityCount; i++ )
         {
-            throw new IllegalArgumentException( "Unknown token " + id );
+            entities[i] = decoder.readEntity( firstLineNumber + i, position );
         }
-        return name;
+        return entities;
     }
 
-    protected Object readValue() throws IOException
+    private static byte[] inflate( byte[] data, int length, int rawLength ) throws IOException
     {
-        return ValueType.typeOf( channel.get() ).read( channel );
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput( data, 0, length );
+            byte[] raw = new byte[rawLength];
+            if ( inflater.inflate( raw ) != rawLength )
+            {
+                throw new IOException( "Expected " + rawLength + " bytes in cached block, but only got " +
+                        inflater.getTotalOut() );
+            }
+            return raw;
+        }
+        catch ( DataFormatException e )
+        {
+            throw new IOException( "Couldn't decompress cached block", e );
+        }
+        finally
+        {
+            inflater.end();
+        }
     }
 
-    protected Group readGroup( int slot ) throws IOException
+    /**
+     * @return a {@link BlockDecoder} for decoding the entities of the given block.
+     */
+    protected abstract BlockDecoder decoder( InputCacheBlock block );
+
+    /**
+     * Decodes entities of one block, keeping the diff state of that block. One instance per block and so
+     * decoders of different blocks can run in parallel.
+     */
+    protected abstract class BlockDecoder
     {
-        byte groupMode = channel.get();
-        switch ( groupMode )
+        protected final InputCacheBlock block;
+        private final Group[] previousGroups;
+
+        protected BlockDecoder( InputCacheBlock block )
+        {
+            this.block = block;
+            this.previousGroups = new Group[groupSlots];
+            for ( int i = 0; i < groupSlots; i++ )
+            {
+                previousGroups[i] = Group.GLOBAL;
+            }
+        }
+
+        ENTITY readEntity( long lineNumber, long position ) throws IOException
+        {
+            return readEntity( readProperties(), lineNumber, position );
+        }
+
+        protected abstract ENTITY readEntity( Object properties, long lineNumber, long position )
+                throws IOException;
+
+        private Object readProperties() throws IOException
         {
-        case SAME_GROUP: return previousGroups[slot];
-        case NEW_GROUP: return previousGroups[slot] = new Group.Adapter( channel.getInt(), readToken() );
-        default: throw new IllegalArgumentException( "Unknown group mode " + groupMode );
+            int count = block.getVarInt();
+            switch ( count )
+            {
+            case HAS_FIRST_PROPERTY_ID: return block.getVarLong();
+            case 0: return InputEntity.NO_PROPERTIES;
+            default:
+                Object[] properties = new Object[count*2];
+                for ( int i = 0; i < properties.length; i++ )
+                {
+                    properties[i++] = readToken();
+                    properties[i] = readValue();
+                }
+                return properties;
+            }
+        }
+
+        protected String readToken() throws IOException
+        {
+            int id = block.getVarInt();
+            String name = tokens.get( id );
+            if ( name == null )
+            {
+                throw new IllegalArgumentException( "Unknown token " + id );
+            }
+            return name;
+        }
+
+        protected Object readValue() throws IOException
+        {
+            return ValueType.typeOf( block.get() ).read( block );
+        }
+
+        protected Object readId() throws IOException
+        {
+            ValueType type = ValueType.typeOf( block.get() );
+            return type == LONG_TYPE ? block.getVarLong() : type.read( block );
+        }
+
+        protected Group readGroup( int slot ) throws IOException
+        {
+            byte groupMode = block.get();
+            switch ( groupMode )
+            {
+            case SAME_GROUP: return previousGroups[slot];
+            case NEW_GROUP: return previousGroups[slot] = new Group.Adapter( block.getVarInt(), readToken() );
+            default: throw new IllegalArgumentException( "Unknown group mode " + groupMode );
+            }
         }
     }
 
@@ -177,6 +327,7 @@ abstract class InputEntityReader<ENTITY extends InputEntity> extends Prefetching
     @Override
     public void close()
     {
+        decoders.shutdownNow();
         try
         {
             channel.close();
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport.input;
+
+import org.neo4j.unsafe.impl.batchimport.BatchImporter;
+
+/**
+ * A schema index, or uniqueness constraint, to have a {@link BatchImporter} create and populate as part
+ * of an import, so that it's online when the database is started on the imported store.
+ */
+public class InputIndex
+{
+    private final String label;
+    private final String propertyKey;
+    private final boolean unique;
+
+    private InputIndex( String label, String propertyKey, boolean unique )
+    {
+        this.label = label;
+        this.propertyKey = propertyKey;
+        this.unique = unique;
+    }
+
+    public static InputIndex index( String label, String propertyKey )
+    {
+        return new InputIndex( label, propertyKey, false );
+    }
+
+    public static InputIndex uniquenessConstraint( String label, String propertyKey )
+    {
+        return new InputIndex( label, propertyKey, true );
+    }
+
+    public String label()
+    {
+        return label;
+    }
+
+    public String propertyKey()
+    {
+        return propertyKey;
+    }
+
+    /**
+     * @return whether or not this is the index of a uniqueness constraint.
+     */
+    public boolean isUnique()
+    {
+        return unique;
+    }
+
+    @Override
+    public String toString()
+    {
+        return (unique ? "UNIQUE " : "") + ":" + label + "(" + propertyKey + ")";
+    }
+}
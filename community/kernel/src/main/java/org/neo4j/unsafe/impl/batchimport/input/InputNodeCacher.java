@@ -36,9 +36,17 @@ public class InputNodeCacher extends InputEntityCacher<InputNode>
 {
     private String[] previousLabels = InputEntity.NO_LABELS;
 
-    public InputNodeCacher( StoreChannel channel, StoreChannel header, int bufferSize ) throws IOException
+    public InputNodeCacher( StoreChannel channel, StoreChannel header, int bufferSize, boolean compress )
+            throws IOException
     {
-        super( channel, header, bufferSize, 1 );
+        super( channel, header, bufferSize, 1, compress );
+    }
+
+    @Override
+    protected void startBlock()
+    {
+        super.startBlock();
+        previousLabels = InputEntity.NO_LABELS;
     }
 
     @Override
@@ -51,20 +59,20 @@ public class InputNodeCacher extends InputEntityCacher<InputNode>
         writeGroup( node.group(), 0 );
 
         // id
-        writeValue( node.id() );
+        writeId( node.id() );
 
         // labels
         if ( node.hasLabelField() )
         {   // label field
-            channel.put( HAS_LABEL_FIELD );
-            channel.putLong( node.labelField() );
+            block.put( HAS_LABEL_FIELD );
+            block.putVarLong( node.labelField() );
         }
         else
         {   // diff from previous node
             String[] labels = node.labels();
             writeDiff( LABEL_REMOVAL, previousLabels, labels );
             writeDiff( LABEL_ADDITION, labels, previousLabels );
-            channel.put( END_OF_LABEL_CHANGES );
+            block.put( END_OF_LABEL_CHANGES );
             previousLabels = labels;
         }
     }
@@ -75,7 +83,7 @@ public class InputNodeCacher extends InputEntityCacher<InputNode>
         {
             if ( !contains( with, compare[i] ) )
             {
-                channel.put( mode );
+                block.put( mode );
                 writeToken( compare[i] );
             }
         }
@@ -36,57 +36,72 @@ import static org.neo4j.unsafe.impl.batchimport.input.InputEntity.NO_PROPERTIES;
  */
 public class InputNodeReader extends InputEntityReader<InputNode>
 {
-    private String[] previousLabels = InputNode.NO_LABELS;
-
-    public InputNodeReader( StoreChannel channel, StoreChannel header, int bufferSize ) throws IOException
+    public InputNodeReader( StoreChannel channel, StoreChannel header, int bufferSize, int decoders )
+            throws IOException
     {
-        super( channel, header, bufferSize, 1 );
+        super( channel, header, bufferSize, 1, decoders );
     }
 
     @Override
-    protected InputNode readNextOrNull( Object properties ) throws IOException
+    protected BlockDecoder decoder( InputCacheBlock block )
     {
-        // group
-        Group group = readGroup( 0 );
+        return new NodeDecoder( block );
+    }
 
-        // id
-        Object id = readValue();
+    private class NodeDecoder extends BlockDecoder
+    {
+        private String[] previousLabels = InputNode.NO_LABELS;
 
-        // labels (diff from previous node)
-        byte labelsMode = channel.get();
-        Object labels;
-        if ( labelsMode == HAS_LABEL_FIELD )
+        NodeDecoder( InputCacheBlock block )
         {
-            labels = channel.getLong();
+            super( block );
         }
-        else if ( labelsMode == END_OF_LABEL_CHANGES )
-        {   // Same as for previous node
-            labels = previousLabels;
-        }
-        else
+
+        @Override
+        protected InputNode readEntity( Object properties, long lineNumber, long position ) throws IOException
         {
-            String[] newLabels = previousLabels.clone();
-            int cursor = newLabels.length;
-            while ( labelsMode != END_OF_LABEL_CHANGES )
+            // group
+            Group group = readGroup( 0 );
+
+            // id
+            Object id = readId();
+
+            // labels (diff from previous node)
+            byte labelsMode = block.get();
+            Object labels;
+            if ( labelsMode == HAS_LABEL_FIELD )
+            {
+                labels = block.getVarLong();
+            }
+            else if ( labelsMode == END_OF_LABEL_CHANGES )
+            {   // Same as for previous node
+                labels = previousLabels;
+            }
+            else
             {
-                switch ( labelsMode )
+                String[] newLabels = previousLabels.clone();
+                int cursor = newLabels.length;
+                while ( labelsMode != END_OF_LABEL_CHANGES )
                 {
-                case LABEL_REMOVAL: remove( readToken(), newLabels, cursor-- ); break;
-                case LABEL_ADDITION:
-                    (newLabels = ensureRoomForOneMore( newLabels, cursor ))[cursor++] = readToken(); break;
-                default: throw new IllegalArgumentException( "Unrecognized label mode " + labelsMode );
+                    switch ( labelsMode )
+                    {
+                    case LABEL_REMOVAL: remove( readToken(), newLabels, cursor-- ); break;
+                    case LABEL_ADDITION:
+                        (newLabels = ensureRoomForOneMore( newLabels, cursor ))[cursor++] = readToken(); break;
+                    default: throw new IllegalArgumentException( "Unrecognized label mode " + labelsMode );
+                    }
+                    labelsMode = block.get();
                 }
-                labelsMode = channel.get();
+                labels = previousLabels = cursor == newLabels.length ? newLabels : Arrays.copyOf( newLabels, cursor );
             }
-            labels = previousLabels = cursor == newLabels.length ? newLabels : Arrays.copyOf( newLabels, cursor );
-        }
 
-        return new InputNode( sourceDescription(), lineNumber(), position(),
-                group, id,
-                properties.getClass().isArray() ? (Object[]) properties : NO_PROPERTIES,
-                properties.getClass().isArray() ? null : (Long) properties,
-                labels.getClass().isArray() ? (String[]) labels : NO_LABELS,
-                labels.getClass().isArray() ? null : (Long) labels );
+            return new InputNode( sourceDescription(), lineNumber, position,
+                    group, id,
+                    properties.getClass().isArray() ? (Object[]) properties : NO_PROPERTIES,
+                    properties.getClass().isArray() ? null : (Long) properties,
+                    labels.getClass().isArray() ? (String[]) labels : NO_LABELS,
+                    labels.getClass().isArray() ? null : (Long) labels );
+        }
     }
 
     private String[] ensureRoomForOneMore( String[] labels, int cursor )
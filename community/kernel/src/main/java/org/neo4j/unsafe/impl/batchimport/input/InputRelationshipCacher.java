@@ -36,9 +36,17 @@ public class InputRelationshipCacher extends InputEntityCacher<InputRelationship
 {
     private String previousType;
 
-    public InputRelationshipCacher( StoreChannel channel, StoreChannel header, int bufferSize ) throws IOException
+    public InputRelationshipCacher( StoreChannel channel, StoreChannel header, int bufferSize, boolean compress )
+            throws IOException
     {
-        super( channel, header, bufferSize, 2 );
+        super( channel, header, bufferSize, 2, compress );
+    }
+
+    @Override
+    protected void startBlock()
+    {
+        super.startBlock();
+        previousType = null;
     }
 
     @Override
@@ -50,12 +58,12 @@ public class InputRelationshipCacher extends InputEntityCacher<InputRelationship
         // id
         if ( relationship.hasSpecificId() )
         {
-            channel.put( SPECIFIC_ID );
-            channel.putLong( relationship.specificId() );
+            block.put( SPECIFIC_ID );
+            block.putVarLong( relationship.specificId() );
         }
         else
         {
-            channel.put( UNSPECIFIED_ID );
+            block.put( UNSPECIFIED_ID );
         }
 
         // groups
@@ -63,24 +71,24 @@ public class InputRelationshipCacher extends InputEntityCacher<InputRelationship
         writeGroup( relationship.endNodeGroup(), 1 );
 
         // ids
-        writeValue( relationship.startNode() );
-        writeValue( relationship.endNode() );
+        writeId( relationship.startNode() );
+        writeId( relationship.endNode() );
 
         // type
         if ( relationship.hasTypeId() )
         {
-            channel.put( HAS_TYPE_ID );
-            channel.putInt( relationship.typeId() );
+            block.put( HAS_TYPE_ID );
+            block.putVarInt( relationship.typeId() );
         }
         else
         {
             if ( previousType != null && relationship.type().equals( previousType ) )
             {
-                channel.put( SAME_TYPE );
+                block.put( SAME_TYPE );
             }
             else
             {
-                channel.put( NEW_TYPE );
+                block.put( NEW_TYPE );
                 writeToken( previousType = relationship.type() );
             }
         }
@@ -34,45 +34,61 @@ import static org.neo4j.unsafe.impl.batchimport.input.InputEntity.NO_PROPERTIES;
  */
 public class InputRelationshipReader extends InputEntityReader<InputRelationship>
 {
-    private String previousType;
-
-    public InputRelationshipReader( StoreChannel channel, StoreChannel header, int bufferSize ) throws IOException
+    public InputRelationshipReader( StoreChannel channel, StoreChannel header, int bufferSize, int decoders )
+            throws IOException
     {
-        super( channel, header, bufferSize, 2 );
+        super( channel, header, bufferSize, 2, decoders );
     }
 
     @Override
-    protected InputRelationship readNextOrNull( Object properties ) throws IOException
+    protected BlockDecoder decoder( InputCacheBlock block )
     {
-        // id
-        long specificId = channel.get() == SPECIFIC_ID ? channel.getLong() : -1;
-
-        // groups
-        Group startNodeGroup = readGroup( 0 );
-        Group endNodeGroup = readGroup( 1 );
+        return new RelationshipDecoder( block );
+    }
 
-        // ids
-        Object startNodeId = readValue();
-        Object endNodeId = readValue();
+    private class RelationshipDecoder extends BlockDecoder
+    {
+        private String previousType;
 
-        // type
-        byte typeMode = channel.get();
-        Object type;
-        switch ( typeMode )
+        RelationshipDecoder( InputCacheBlock block )
         {
-        case SAME_TYPE: type = previousType; break;
-        case NEW_TYPE: type = previousType = readToken(); break;
-        case HAS_TYPE_ID: type = channel.getInt(); break;
-        default: throw new IllegalArgumentException( "Unrecognized type mode " + typeMode );
+            super( block );
         }
 
-        InputRelationship relationship = new InputRelationship( sourceDescription(), lineNumber(), position(),
-                properties.getClass().isArray() ? (Object[]) properties : NO_PROPERTIES,
-                properties.getClass().isArray() ? null : (Long) properties,
-                startNodeGroup, startNodeId,
-                endNodeGroup, endNodeId,
-                type instanceof String ? (String) type : null,
-                type instanceof String ? null : (Integer) type );
-        return specificId != -1 ? relationship.setSpecificId( specificId ) : relationship;
+        @Override
+        protected InputRelationship readEntity( Object properties, long lineNumber, long position )
+                throws IOException
+        {
+            // id
+            long specificId = block.get() == SPECIFIC_ID ? block.getVarLong() : -1;
+
+            // groups
+            Group startNodeGroup = readGroup( 0 );
+            Group endNodeGroup = readGroup( 1 );
+
+            // ids
+            Object startNodeId = readId();
+            Object endNodeId = readId();
+
+            // type
+            byte typeMode = block.get();
+            Object type;
+            switch ( typeMode )
+            {
+            case SAME_TYPE: type = previousType; break;
+            case NEW_TYPE: type = previousType = readToken(); break;
+            case HAS_TYPE_ID: type = block.getVarInt(); break;
+            default: throw new IllegalArgumentException( "Unrecognized type mode " + typeMode );
+            }
+
+            InputRelationship relationship = new InputRelationship( sourceDescription(), lineNumber, position,
+                    properties.getClass().isArray() ? (Object[]) properties : NO_PROPERTIES,
+                    properties.getClass().isArray() ? null : (Long) properties,
+                    startNodeGroup, startNodeId,
+                    endNodeGroup, endNodeId,
+                    type instanceof String ? (String) type : null,
+                    type instanceof String ? null : (Integer) type );
+            return specificId != -1 ? relationship.setSpecificId( specificId ) : relationship;
+        }
     }
 }
@@ -29,6 +29,7 @@ import org.neo4j.kernel.impl.util.Validator;
 import org.neo4j.kernel.impl.util.Validators;
 import org.neo4j.unsafe.impl.batchimport.InputIterable;
 import org.neo4j.unsafe.impl.batchimport.InputIterator;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdGenerator;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
 import org.neo4j.unsafe.impl.batchimport.input.Collector;
@@ -38,6 +39,8 @@ import org.neo4j.unsafe.impl.batchimport.input.InputNode;
 import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
 import org.neo4j.unsafe.impl.batchimport.input.MissingRelationshipDataException;
 
+import static org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory.AUTO;
+
 /**
  * Provides {@link Input} from data contained in tabular/csv form. Expects factories for instantiating
  * the {@link CharSeeker} objects seeking values in the csv data and header factories for how to
@@ -53,6 +56,7 @@ public class CsvInput implements Input
     private final Configuration config;
     private final Groups groups = new Groups();
     private final Function<OutputStream,Collector> collectorFactory;
+    private final NumberArrayFactory cacheFactory;
 
     /**
      * @param nodeDataFactory multiple {@link DataFactory} instances providing data, each {@link DataFactory}
@@ -70,6 +74,20 @@ public class CsvInput implements Input
             Iterable<DataFactory<InputNode>> nodeDataFactory, Header.Factory nodeHeaderFactory,
             Iterable<DataFactory<InputRelationship>> relationshipDataFactory, Header.Factory relationshipHeaderFactory,
             IdType idType, Configuration config, Function<OutputStream,Collector> collectorFactory )
+    {
+        this( nodeDataFactory, nodeHeaderFactory, relationshipDataFactory, relationshipHeaderFactory,
+                idType, config, collectorFactory, AUTO );
+    }
+
+    /**
+     * Same as {@link #CsvInput(Iterable, Header.Factory, Iterable, Header.Factory, IdType, Configuration,
+     * Function)}, but with the cache of the {@link IdMapper} allocated by {@code cacheFactory}.
+     */
+    public CsvInput(
+            Iterable<DataFactory<InputNode>> nodeDataFactory, Header.Factory nodeHeaderFactory,
+            Iterable<DataFactory<InputRelationship>> relationshipDataFactory, Header.Factory relationshipHeaderFactory,
+            IdType idType, Configuration config, Function<OutputStream,Collector> collectorFactory,
+            NumberArrayFactory cacheFactory )
     {
         assertSaneConfiguration( config );
 
@@ -80,6 +98,7 @@ public class CsvInput implements Input
         this.idType = idType;
         this.config = config;
         this.collectorFactory = collectorFactory;
+        this.cacheFactory = cacheFactory;
     }
 
     private void assertSaneConfiguration( Configuration config )
@@ -184,7 +203,7 @@ public class CsvInput implements Input
     @Override
     public IdMapper idMapper()
     {
-        return idType.idMapper();
+        return idType.idMapper( cacheFactory );
     }
 
     @Override
@@ -21,6 +21,7 @@ package org.neo4j.unsafe.impl.batchimport.input.csv;
 
 import org.neo4j.csv.reader.Extractor;
 import org.neo4j.csv.reader.Extractors;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdGenerator;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdGenerators;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMapper;
@@ -49,9 +50,9 @@ public enum IdType
         }
 
         @Override
-        public IdMapper idMapper()
+        public IdMapper idMapper( NumberArrayFactory cacheFactory )
         {
-            return IdMappers.strings( AUTO );
+            return IdMappers.strings( cacheFactory );
         }
 
         @Override
@@ -74,9 +75,9 @@ public enum IdType
         }
 
         @Override
-        public IdMapper idMapper()
+        public IdMapper idMapper( NumberArrayFactory cacheFactory )
         {
-            return IdMappers.longs( AUTO );
+            return IdMappers.longs( cacheFactory );
         }
 
         @Override
@@ -99,7 +100,7 @@ public enum IdType
         }
 
         @Override
-        public IdMapper idMapper()
+        public IdMapper idMapper( NumberArrayFactory cacheFactory )
         {
             return IdMappers.actual();
         }
@@ -118,7 +119,15 @@ public enum IdType
         this.idsAreExternal = idsAreExternal;
     }
 
-    public abstract IdMapper idMapper();
+    public IdMapper idMapper()
+    {
+        return idMapper( AUTO );
+    }
+
+    /**
+     * @param cacheFactory {@link NumberArrayFactory} for allocating memory for the cache of the id mapper, if any.
+     */
+    public abstract IdMapper idMapper( NumberArrayFactory cacheFactory );
 
     public abstract IdGenerator idGenerator();
 
@@ -21,6 +21,9 @@ package org.neo4j.unsafe.impl.batchimport.store;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Service;
@@ -28,6 +31,8 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.IdType;
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
@@ -42,9 +47,14 @@ import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.SchemaStore;
 import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
 import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.IndexRule;
+import org.neo4j.kernel.impl.store.record.SchemaRule;
+import org.neo4j.kernel.impl.store.record.UniquePropertyConstraintRule;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreSupplier;
 import org.neo4j.kernel.impl.util.Dependencies;
 import org.neo4j.kernel.lifecycle.LifeSupport;
@@ -83,11 +93,25 @@ public class BatchingNeoStore implements AutoCloseable, NeoStoreSupplier
     private final NeoStore neoStore;
     private final LifeSupport life = new LifeSupport();
     private final LabelScanStore labelScanStore;
+    private final SchemaIndexProvider schemaIndexProvider;
     private final IoTracer ioTracer;
+    private final BatchingIdGeneratorFactory idGeneratorFactory;
 
     public BatchingNeoStore( FileSystemAbstraction fileSystem, File storeDir,
                              Configuration config, LogService logService,
                              Monitors monitors, AdditionalInitialIds initialIds )
+    {
+        this( fileSystem, storeDir, config, logService, monitors, initialIds, false );
+    }
+
+    /**
+     * @param existingData whether or not to open a store which already contains data, for an incremental import.
+     * Tokens existing in such a store are read into the token repositories and its last committed transaction
+     * is kept, whereas {@code initialIds} are ignored.
+     */
+    public BatchingNeoStore( FileSystemAbstraction fileSystem, File storeDir,
+                             Configuration config, LogService logService,
+                             Monitors monitors, AdditionalInitialIds initialIds, boolean existingData )
     {
         this.fileSystem = fileSystem;
         this.monitors = monitors;
@@ -107,8 +131,9 @@ public class BatchingNeoStore implements AutoCloseable, NeoStoreSupplier
                 return tracer.countBytesWritten();
             }
         };
-        this.neoStore = newNeoStore( pageCache );
-        if ( alreadyContainsData( neoStore ) )
+        this.idGeneratorFactory = new BatchingIdGeneratorFactory( fileSystem );
+        this.neoStore = newNeoStore( pageCache, idGeneratorFactory );
+        if ( !existingData && alreadyContainsData( neoStore ) )
         {
             neoStore.close();
             throw new IllegalStateException( storeDir + " already contains data, cannot do import here" );
@@ -121,15 +146,30 @@ public class BatchingNeoStore implements AutoCloseable, NeoStoreSupplier
         {
             throw new UnderlyingStorageException( e );
         }
-        neoStore.setLastCommittedAndClosedTransactionId(
-                initialIds.lastCommittedTransactionId(), initialIds.lastCommittedTransactionChecksum(),
-                initialIds.lastCommittedTransactionLogVersion(), initialIds.lastCommittedTransactionLogByteOffset() );
-        this.propertyKeyRepository = new BatchingPropertyKeyTokenRepository(
-                neoStore.getPropertyKeyTokenStore(), initialIds.highPropertyKeyTokenId() );
-        this.labelRepository = new BatchingLabelTokenRepository(
-                neoStore.getLabelTokenStore(), initialIds.highLabelTokenId() );
-        this.relationshipTypeRepository = new BatchingRelationshipTypeTokenRepository(
-                neoStore.getRelationshipTypeTokenStore(), initialIds.highRelationshipTypeTokenId() );
+        if ( existingData )
+        {
+            this.propertyKeyRepository = new BatchingPropertyKeyTokenRepository(
+                    neoStore.getPropertyKeyTokenStore(), 0 );
+            this.labelRepository = new BatchingLabelTokenRepository( neoStore.getLabelTokenStore(), 0 );
+            this.relationshipTypeRepository = new BatchingRelationshipTypeTokenRepository(
+                    neoStore.getRelationshipTypeTokenStore(), 0 );
+            propertyKeyRepository.readExistingTokens();
+            labelRepository.readExistingTokens();
+            relationshipTypeRepository.readExistingTokens();
+        }
+        else
+        {
+            neoStore.setLastCommittedAndClosedTransactionId(
+                    initialIds.lastCommittedTransactionId(), initialIds.lastCommittedTransactionChecksum(),
+                    initialIds.lastCommittedTransactionLogVersion(),
+                    initialIds.lastCommittedTransactionLogByteOffset() );
+            this.propertyKeyRepository = new BatchingPropertyKeyTokenRepository(
+                    neoStore.getPropertyKeyTokenStore(), initialIds.highPropertyKeyTokenId() );
+            this.labelRepository = new BatchingLabelTokenRepository(
+                    neoStore.getLabelTokenStore(), initialIds.highLabelTokenId() );
+            this.relationshipTypeRepository = new BatchingRelationshipTypeTokenRepository(
+                    neoStore.getRelationshipTypeTokenStore(), initialIds.highRelationshipTypeTokenId() );
+        }
 
         // Initialze kernel extensions
         Dependencies dependencies = new Dependencies();
@@ -158,6 +198,8 @@ public class BatchingNeoStore implements AutoCloseable, NeoStoreSupplier
         life.start();
         labelScanStore = life.add( extensions.resolveDependency( LabelScanStoreProvider.class,
                 LabelScanStoreProvider.HIGHEST_PRIORITIZED ).getLabelScanStore() );
+        schemaIndexProvider = extensions.resolveDependency( SchemaIndexProvider.class,
+                SchemaIndexProvider.HIGHEST_PRIORITIZED_OR_NONE );
     }
 
     private static PageCache createPageCache( FileSystemAbstraction fileSystem, Config config, LogProvider log,
@@ -189,9 +231,8 @@ public class BatchingNeoStore implements AutoCloseable, NeoStoreSupplier
         }
     }
 
-    private NeoStore newNeoStore( PageCache pageCache )
+    private NeoStore newNeoStore( PageCache pageCache, BatchingIdGeneratorFactory idGeneratorFactory )
     {
-        BatchingIdGeneratorFactory idGeneratorFactory = new BatchingIdGeneratorFactory( fileSystem );
         StoreFactory storeFactory = new StoreFactory(
                 storeDir, neo4jConfig, idGeneratorFactory, pageCache, fileSystem, logProvider, monitors );
         return storeFactory.newNeoStore( true );
@@ -242,6 +283,36 @@ public class BatchingNeoStore implements AutoCloseable, NeoStoreSupplier
         return neoStore.getCounts();
     }
 
+    /**
+     * @return high id of the store with the given {@link IdType}.
+     */
+    public long getHighId( IdType idType )
+    {
+        return idGeneratorFactory.get( idType ).getHighId();
+    }
+
+    /**
+     * Sets the high id of the store with the given {@link IdType}, also to a lower id than the current one.
+     * Used when resuming an import, to have records written after the last checkpoint overwritten.
+     */
+    public void resetHighId( IdType idType, long highId )
+    {
+        idGeneratorFactory.get( idType ).setHighId( highId );
+    }
+
+    /**
+     * Writes created tokens and forces all changes made so far to the store files and the label scan store,
+     * such that the store can be opened again after a failure with everything up to this point in it.
+     */
+    public void flush() throws IOException
+    {
+        propertyKeyRepository.flush();
+        labelRepository.flush();
+        relationshipTypeRepository.flush();
+        labelScanStore.force();
+        pageCache.flushAndForce();
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -256,6 +327,64 @@ public class BatchingNeoStore implements AutoCloseable, NeoStoreSupplier
         pageCache.close();
     }
 
+    public SchemaIndexProvider getSchemaIndexProvider()
+    {
+        return schemaIndexProvider;
+    }
+
+    /**
+     * Writes the schema rule of an index on the given label and property key, together with the rule of
+     * its owning uniqueness constraint if {@code unique}, using the highest prioritized schema index provider.
+     * The index itself is left for the caller to populate.
+     */
+    public IndexRule createIndexRule( int labelId, int propertyKeyId, boolean unique )
+    {
+        SchemaStore schemaStore = neoStore.getSchemaStore();
+        long indexRuleId = schemaStore.nextId();
+        if ( !unique )
+        {
+            IndexRule indexRule = IndexRule.indexRule( indexRuleId, labelId, propertyKeyId,
+                    schemaIndexProvider.getProviderDescriptor() );
+            writeSchemaRule( schemaStore, indexRule );
+            return indexRule;
+        }
+
+        long constraintRuleId = schemaStore.nextId();
+        IndexRule indexRule = IndexRule.constraintIndexRule( indexRuleId, labelId, propertyKeyId,
+                schemaIndexProvider.getProviderDescriptor(), constraintRuleId );
+        writeSchemaRule( schemaStore, UniquePropertyConstraintRule.uniquenessConstraintRule(
+                constraintRuleId, labelId, propertyKeyId, indexRuleId ) );
+        writeSchemaRule( schemaStore, indexRule );
+        return indexRule;
+    }
+
+    /**
+     * @return all {@link IndexRule index rules} existing in the store, i.e. both those of plain indexes and
+     * those of uniqueness constraint indexes.
+     */
+    public List<IndexRule> getIndexRules()
+    {
+        List<IndexRule> rules = new ArrayList<>();
+        Iterator<SchemaRule> allRules = neoStore.getSchemaStore().loadAllSchemaRules();
+        while ( allRules.hasNext() )
+        {
+            SchemaRule rule = allRules.next();
+            if ( rule instanceof IndexRule )
+            {
+                rules.add( (IndexRule) rule );
+            }
+        }
+        return rules;
+    }
+
+    private void writeSchemaRule( SchemaStore schemaStore, SchemaRule rule )
+    {
+        for ( DynamicRecord record : schemaStore.allocateFrom( rule ) )
+        {
+            schemaStore.updateRecord( record );
+        }
+    }
+
     public long getLastCommittedTransactionId()
     {
         return neoStore.getLastCommittedTransactionId();
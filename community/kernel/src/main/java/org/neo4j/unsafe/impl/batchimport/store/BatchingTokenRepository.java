@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.store.TokenStore;
 import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
 import org.neo4j.kernel.impl.store.record.PropertyBlock;
@@ -45,12 +46,27 @@ public abstract class BatchingTokenRepository<T extends TokenRecord>
     private final Map<String,Integer> tokens = new HashMap<>();
     private final TokenStore<T> store;
     private int highId;
+    // Tokens with ids lower than this already exist in the store and are not created when closing
+    private int firstCreatedId;
 
     public BatchingTokenRepository( TokenStore<T> store, int highId )
     {
         this.store = store;
-        // TODO read the store into the repository, i.e. into existing?
         this.highId = highId;
+        this.firstCreatedId = highId;
+    }
+
+    /**
+     * Reads the tokens already existing in the store into this repository, so that they resolve to their
+     * existing ids instead of being created anew. Ids of created tokens will continue from the store's high id.
+     */
+    public void readExistingTokens()
+    {
+        for ( Token token : store.getTokens( Integer.MAX_VALUE ) )
+        {
+            tokens.put( token.name(), token.id() );
+        }
+        highId = firstCreatedId = max( highId, (int) store.getHighId() );
     }
 
     public int getOrCreateId( String name )
@@ -115,6 +131,15 @@ public abstract class BatchingTokenRepository<T extends TokenRecord>
     protected abstract T createRecord( int key );
 
     public void close()
+    {
+        flush();
+    }
+
+    /**
+     * Writes tokens created since the last flush to the store, such that the store contains all tokens
+     * created up to this point, f.ex. when checkpointing an import.
+     */
+    public void flush()
     {
         // Batch-friendly record access
         BatchingRecordAccess<Integer, T, Void> recordAccess = new BatchingRecordAccess<Integer, T, Void>()
@@ -143,6 +168,7 @@ public abstract class BatchingTokenRepository<T extends TokenRecord>
             highestId = max( highestId, record.getId() );
         }
         store.setHighestPossibleIdInUse( highestId );
+        firstCreatedId = highId;
     }
 
     private Iterable<Map.Entry<Integer,String>> sortCreatedTokensById()
@@ -150,7 +176,10 @@ public abstract class BatchingTokenRepository<T extends TokenRecord>
         Map<Integer,String> sorted = new TreeMap<>();
         for ( Map.Entry<String,Integer> entry : tokens.entrySet() )
         {
-            sorted.put( entry.getValue(), entry.getKey() );
+            if ( entry.getValue() >= firstCreatedId )
+            {
+                sorted.put( entry.getValue(), entry.getKey() );
+            }
         }
         return sorted.entrySet();
     }
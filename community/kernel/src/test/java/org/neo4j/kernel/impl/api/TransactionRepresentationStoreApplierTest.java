@@ -26,6 +26,9 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.helpers.Provider;
 import org.neo4j.helpers.collection.MapUtil;
@@ -50,6 +53,7 @@ import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
 import org.neo4j.kernel.impl.util.IdOrderingQueue;
 import org.neo4j.unsafe.batchinsert.LabelScanWriter;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -58,6 +62,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.api.TransactionApplicationMode.INTERNAL;
 import static org.neo4j.kernel.impl.util.function.Optionals.some;
@@ -168,6 +173,71 @@ public class TransactionRepresentationStoreApplierTest
         }
     }
 
+    @Test
+    public void shouldWriteRecordsOfExternalTransactionsOnMultipleThreads() throws Exception
+    {
+        // GIVEN
+        NodeStore nodeStore = mock( NodeStore.class );
+        when( neoStore.getNodeStore() ).thenReturn( nodeStore );
+        final AtomicInteger handedOffPartitions = new AtomicInteger();
+        Executor executor = new Executor()
+        {
+            @Override
+            public void execute( Runnable command )
+            {
+                handedOffPartitions.incrementAndGet();
+                command.run();
+            }
+        };
+        TransactionRepresentationStoreApplier applier =
+                new TransactionRepresentationStoreApplier( indexService, labelScanStore, neoStore, cacheAccess,
+                        lockService, legacyIndexProviderLookup, indexConfigStore, kernelHealth, queue,
+                        executor, 4, 1 );
+        List<Command> commands = Arrays.asList(
+                createNodeCommand( 0 ), createNodeCommand( 64 ), createNodeCommand( 128 ), createNodeCommand( 192 ) );
+        TransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+
+        // WHEN
+        try ( LockGroup locks = new LockGroup() )
+        {
+            applier.apply( transaction, ValidatedIndexUpdates.NONE, locks, transactionId,
+                    TransactionApplicationMode.EXTERNAL );
+        }
+
+        // THEN
+        assertEquals( 3, handedOffPartitions.get() );
+        for ( Command command : commands )
+        {
+            verify( nodeStore, times( 1 ) ).updateRecord( ((NodeCommand) command).getAfter() );
+        }
+        verify( nodeStore, times( 1 ) ).setHighestPossibleIdInUse( 192 );
+    }
+
+    @Test
+    public void shouldWriteRecordsOfInternalTransactionsOnTheCommittingThread() throws Exception
+    {
+        // GIVEN
+        NodeStore nodeStore = mock( NodeStore.class );
+        when( neoStore.getNodeStore() ).thenReturn( nodeStore );
+        Executor executor = mock( Executor.class );
+        TransactionRepresentationStoreApplier applier =
+                new TransactionRepresentationStoreApplier( indexService, labelScanStore, neoStore, cacheAccess,
+                        lockService, legacyIndexProviderLookup, indexConfigStore, kernelHealth, queue,
+                        executor, 4, 1 );
+        TransactionRepresentation transaction = new PhysicalTransactionRepresentation( Arrays.asList(
+                createNodeCommand( 0 ), createNodeCommand( 64 ) ) );
+
+        // WHEN
+        try ( LockGroup locks = new LockGroup() )
+        {
+            applier.apply( transaction, ValidatedIndexUpdates.NONE, locks, transactionId, INTERNAL );
+        }
+
+        // THEN
+        verifyZeroInteractions( executor );
+        verify( nodeStore, times( 2 ) ).updateRecord( any( NodeRecord.class ) );
+    }
+
     private Collection<Command> indexTransaction()
     {
         IndexDefineCommand definitions = new IndexDefineCommand();
@@ -27,6 +27,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
@@ -140,6 +142,46 @@ class HashBasedIndex extends InMemoryIndexImplementation
         return toPrimitiveIterator( nodeIds.iterator() );
     }
 
+    @Override
+    public PrimitiveLongIterator rangeSeekByNumberInclusiveInOrder( Number lower, Number upper )
+    {
+        return inValueOrder( rangeSeekByNumberInclusive( lower, upper ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByStringInOrder( String lower, boolean includeLower,
+                                                           String upper, boolean includeUpper )
+    {
+        return inValueOrder( rangeSeekByString( lower, includeLower, upper, includeUpper ) );
+    }
+
+    private PrimitiveLongIterator inValueOrder( PrimitiveLongIterator nodeIds )
+    {
+        Set<Long> matches = new HashSet<>();
+        while ( nodeIds.hasNext() )
+        {
+            matches.add( nodeIds.next() );
+        }
+        SortedMap<Object,Set<Long>> ordered = new TreeMap<>( COMPARE_VALUES );
+        for ( Map.Entry<Object,Set<Long>> entry : data.entrySet() )
+        {
+            for ( Long nodeId : entry.getValue() )
+            {
+                if ( matches.contains( nodeId ) )
+                {
+                    Set<Long> nodes = ordered.get( entry.getKey() );
+                    if ( nodes == null )
+                    {
+                        ordered.put( entry.getKey(), nodes = new HashSet<>() );
+                    }
+                    nodes.add( nodeId );
+                }
+            }
+        }
+        Iterable<Long> all = Iterables.flattenIterable( ordered.values() );
+        return toPrimitiveIterator( all.iterator() );
+    }
+
     @Override
     public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
     {
@@ -64,4 +64,55 @@ public class RelationshipChangesForNodeTest
         assertEquals( REL_1, iterator.next() );
         assertEquals( "should have no next relationships but has ", false, iterator.hasNext() );
     }
+
+    @Test
+    public void shouldNotSeeRelationshipsAddedAfterTheIteratorWasCreated() throws Exception
+    {
+        RelationshipChangesForNode changes = new RelationshipChangesForNode(
+                RelationshipChangesForNode.DiffStrategy.ADD, mock( RelationshipVisitor.Home.class ) );
+        changes.addRelationship( REL_0, TYPE_DIR, Direction.OUTGOING );
+
+        RelationshipIterator iterator = changes.augmentRelationships( Direction.OUTGOING, EMPTY );
+        changes.addRelationship( REL_1, TYPE_DIR, Direction.OUTGOING );
+
+        // Iterators see the relationships that were there when they were created, even if the set grows since
+        int count = 0;
+        while ( iterator.hasNext() )
+        {
+            iterator.next();
+            count++;
+        }
+        assertEquals( 1, count );
+    }
+
+    @Test
+    public void shouldMoveLargeSetsOffHeapAndFreeThemWhenEmptied() throws Exception
+    {
+        TxStateLongSets longSets = new TxStateLongSets( 10 );
+        RelationshipChangesForNode changes = new RelationshipChangesForNode(
+                RelationshipChangesForNode.DiffStrategy.ADD, mock( RelationshipVisitor.Home.class ), longSets );
+        for ( int rel = 0; rel < 100; rel++ )
+        {
+            changes.addRelationship( rel, TYPE_DIR, Direction.OUTGOING );
+        }
+        assertEquals( 1, longSets.offHeapSets() );
+        assertEquals( 100, changes.augmentDegree( Direction.OUTGOING, 0, TYPE_DIR ) );
+
+        RelationshipIterator iterator = changes.augmentRelationships( Direction.OUTGOING, EMPTY );
+        for ( int rel = 0; rel < 100; rel++ )
+        {
+            changes.removeRelationship( rel, TYPE_DIR, Direction.OUTGOING );
+        }
+        assertEquals( 0, longSets.offHeapSets() );
+
+        // Iterators see the relationships that were there when they were created, even if the set is freed since
+        int count = 0;
+        while ( iterator.hasNext() )
+        {
+            iterator.next();
+            count++;
+        }
+        assertEquals( 100, count );
+        longSets.release();
+    }
 }
@@ -28,15 +28,20 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.cursor.Cursor;
 import org.neo4j.helpers.collection.IteratorUtil;
 import org.neo4j.kernel.api.constraints.NodePropertyConstraint;
 import org.neo4j.kernel.api.constraints.PropertyConstraint;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
+import org.neo4j.kernel.api.cursor.LabelItem;
+import org.neo4j.kernel.api.cursor.NodeItem;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.txstate.TransactionState;
 import org.neo4j.kernel.impl.api.KernelStatement;
@@ -46,11 +51,14 @@ import org.neo4j.kernel.impl.api.StateHandlingStatementOperations;
 import org.neo4j.kernel.impl.api.store.StoreReadLayer;
 import org.neo4j.kernel.impl.api.store.StoreStatement;
 import org.neo4j.kernel.impl.index.LegacyIndexStore;
+import org.neo4j.kernel.impl.util.Cursors;
 import org.neo4j.kernel.impl.util.PrimitiveLongResourceIterator;
 import org.neo4j.kernel.impl.util.diffsets.DiffSets;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
@@ -62,7 +70,9 @@ import static org.mockito.Mockito.when;
 import static org.neo4j.helpers.collection.IteratorUtil.asIterable;
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 import static org.neo4j.kernel.impl.api.StatementOperationsTestHelper.mockedState;
+import static org.neo4j.kernel.api.properties.Property.stringProperty;
 import static org.neo4j.kernel.impl.api.state.StubCursors.asNodeCursor;
+import static org.neo4j.kernel.impl.api.state.StubCursors.asPropertyCursor;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest( { LookupFilter.class })
@@ -349,6 +359,72 @@ public class StateHandlingStatementOperationsTest
         assertEquals( asSet( 42L, 43L ), asSet( results ) );
     }
 
+    @Test
+    public void shouldMergeTransactionStateLazilyInPropertyValueOrderDuringOrderedIndexRangeSeekByString()
+            throws Exception
+    {
+        // Given
+        TransactionState txState = mock( TransactionState.class );
+        KernelStatement statement = mock( KernelStatement.class );
+        when( statement.hasTxStateWithChanges() ).thenReturn( true );
+        when( statement.txState() ).thenReturn( txState );
+        final IndexDescriptor index = new IndexDescriptor( 1, 2 );
+        when( txState.indexUpdatesForRangeSeekByString( index, "Ann", true, "Bill", false ) ).thenReturn(
+                new DiffSets<>( asSet( 42L, 48L ), Collections.singleton( 44L ) )
+        );
+        when( txState.addedAndRemovedNodes() ).thenReturn(
+                new DiffSets<>( Collections.singleton( 42L ), Collections.singleton( 46L ) )
+        );
+        when( txState.augmentSingleNodeCursor( any( Cursor.class ), anyLong() ) ).thenAnswer( new Answer<Object>()
+        {
+            @Override
+            public Object answer( InvocationOnMock invocation ) throws Throwable
+            {
+                return invocation.getArguments()[0];
+            }
+        } );
+
+        final Map<Long,String> names = new HashMap<>();
+        names.put( 42L, "Bea" );
+        names.put( 43L, "Anna" );
+        names.put( 44L, "Anne" );
+        names.put( 46L, "Bart" );
+        names.put( 47L, "Bert" );
+        names.put( 48L, "Ann" );
+        StoreStatement storeStatement = mock( StoreStatement.class );
+        when( statement.getStoreStatement() ).thenReturn( storeStatement );
+        when( storeStatement.acquireSingleNodeCursor( anyLong() ) ).thenAnswer( new Answer<Cursor<NodeItem>>()
+        {
+            @Override
+            public Cursor<NodeItem> answer( InvocationOnMock invocation ) throws Throwable
+            {
+                long nodeId = (Long) invocation.getArguments()[0];
+                return asNodeCursor( nodeId,
+                        asPropertyCursor( stringProperty( index.getPropertyKeyId(), names.get( nodeId ) ) ),
+                        Cursors.<LabelItem>empty() );
+            }
+        } );
+
+        StoreReadLayer storeReadLayer = mock( StoreReadLayer.class );
+        PrimitiveLongIterator committed = PrimitiveLongCollections.iterator( 43L, 44L, 46L, 47L );
+        when( storeReadLayer.nodesGetFromIndexRangeSeekByStringInOrder( statement, index, "Ann", true, "Bill",
+                false ) ).thenReturn( IteratorUtil.resourceIterator( committed, null ) );
+
+        StateHandlingStatementOperations context = newTxStateOps( storeReadLayer );
+
+        // When
+        PrimitiveLongIterator results = context.nodesGetFromIndexRangeSeekByStringInOrder( statement, index, "Ann",
+                true, "Bill", false );
+
+        // Then
+        assertEquals( 48L, results.next() );
+        assertEquals( 43L, results.next() );
+        assertTrue( "the committed hits should be read lazily", committed.hasNext() );
+        assertEquals( 42L, results.next() );
+        assertEquals( 47L, results.next() );
+        assertFalse( results.hasNext() );
+    }
+
     private static <T> Answer<Iterator<T>> asAnswer( final Iterable<T> values )
     {
         return new Answer<Iterator<T>>()
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.performance;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.locking.community.CommunityLockManger;
+import org.neo4j.kernel.impl.locking.community.StripedLockManager;
+
+/**
+ * Compares the community lock managers on a hot node workload: every "transaction" takes a shared lock on the same
+ * node, like when many transactions add relationships to a dense node, plus exclusive locks on a couple of random
+ * other nodes. Performance numbers show the number of transactions per second.
+ */
+// TODO We should move our benchmarks, like this one, to a dedicated repository or maven module.
+public class HotNodeLocksBenchmark
+{
+    // Measured on a single core machine, so this mostly shows the single threaded overhead
+    //
+    //  threads | CommunityLockManger | StripedLockManager
+    //        1 |           313 283/s |        1 005 025/s
+    //        2 |           397 456/s |          874 508/s
+    //        4 |           479 444/s |        1 480 385/s
+    //        8 |           345 349/s |        1 007 684/s
+
+    private static final long HOT_NODE = 0;
+
+    public static void main( String... args ) throws InterruptedException
+    {
+        final int iterations = 1_000_000,
+             exclusiveLocks = 2,
+                   numNodes = 100_000;
+
+        for ( int numThreads = 1; numThreads <= 8; numThreads *= 2 )
+        {
+            run( "CommunityLockManger", new CommunityLockManger(), numThreads, iterations, exclusiveLocks, numNodes );
+            run( "StripedLockManager", new StripedLockManager( ResourceTypes.values() ), numThreads, iterations,
+                    exclusiveLocks, numNodes );
+        }
+    }
+
+    private static void run( String name, final Locks locks, int numThreads, final int iterations,
+            final int exclusiveLocks, final int numNodes ) throws InterruptedException
+    {
+        final AtomicLong deadlocks = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool( numThreads );
+        long start = System.currentTimeMillis();
+        for ( int i = numThreads; i --> 0; )
+        {
+            executor.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    ThreadLocalRandom rand = ThreadLocalRandom.current();
+                    try ( Locks.Client client = locks.newClient() )
+                    {
+                        for ( int i = iterations; i --> 0; )
+                        {
+                            try
+                            {
+                                client.acquireShared( ResourceTypes.NODE, HOT_NODE );
+                                for ( int j = 0; j < exclusiveLocks; j++ )
+                                {
+                                    client.acquireExclusive( ResourceTypes.NODE, 1 + rand.nextInt( numNodes ) );
+                                }
+                            }
+                            catch ( DeadlockDetectedException e )
+                            {
+                                deadlocks.incrementAndGet();
+                            }
+                            finally
+                            {
+                                client.releaseAll();
+                            }
+                        }
+                    }
+                }
+            } );
+        }
+
+        executor.shutdown();
+        executor.awaitTermination( 1, TimeUnit.HOURS );
+        long delta = System.currentTimeMillis() - start;
+        double txPerSecond = ((double) numThreads * iterations) / (delta / 1000.0);
+
+        System.out.println( String.format( "%-20s %2d threads: %,12.0f tx/s, deadlocks: %d",
+                name, numThreads, txPerSecond, deadlocks.get() ) );
+    }
+}
@@ -29,6 +29,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.logging.NullLog;
@@ -38,6 +40,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_eviction_policy;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.helpers.collection.MapUtil.stringMap;
@@ -138,6 +141,26 @@ public class ConfiguringPageCacheFactoryTest
         }
     }
 
+    @Test
+    public void mustUseConfiguredEvictionPolicy() throws Exception
+    {
+        // Given
+        Config config = new Config();
+        config.applyChanges( stringMap(
+                pagecache_memory.name(), "8m",
+                pagecache_eviction_policy.name(), EvictionPolicy.SCAN_RESISTANT.name() ) );
+
+        // When
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory(
+                fsRule.get(), config, PageCacheTracer.NULL, NullLog.getInstance() );
+
+        // Then
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( ((MuninnPageCache) cache).getEvictionPolicy(), is( EvictionPolicy.SCAN_RESISTANT ) );
+        }
+    }
+
     public static class PageSwapperFactoryForTesting
             extends SingleFilePageSwapperFactory
             implements ConfigurablePageSwapperFactory
@@ -26,7 +26,9 @@ import java.io.File;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.helpers.Settings;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.impl.store.NeoStore;
@@ -93,6 +95,47 @@ public class KernelRecoveryTest
         );
     }
 
+    @Test
+    public void shouldHandleWritesProperlyAfterRecoveryOfPreallocatedLog() throws Exception
+    {
+        // Given
+        EphemeralFileSystemAbstraction fs = fsRule.get();
+        GraphDatabaseService db = newPreallocatingDB( fs );
+
+        long node1 = createNode( db );
+
+        // And given the power goes out, leaving the log with its preallocated zeros at the end
+        EphemeralFileSystemAbstraction crashedFs = fs.snapshot();
+        db.shutdown();
+        db = newPreallocatingDB( crashedFs );
+
+        long node2 = createNode( db );
+        db.shutdown();
+
+        // Then the logical log should be in sync
+        File logFile = new File( storeDir,
+                PhysicalLogFile.DEFAULT_NAME + PhysicalLogFile.DEFAULT_VERSION_SUFFIX + "0" );
+        assertThat(
+                logEntries( crashedFs, logFile ),
+                containsExactly(
+                    // Tx before recovery
+                    startEntry( -1, -1 ),
+                    commandEntry( node1, NodeCommand.class ),
+                    commandEntry( ReadOperations.ANY_LABEL, NodeCountsCommand.class ),
+                    commitEntry( 2 ),
+
+                    // Tx after recovery
+                    startEntry( -1, -1 ),
+                    commandEntry( node2, NodeCommand.class ),
+                    commandEntry( ReadOperations.ANY_LABEL, NodeCountsCommand.class ),
+                    commitEntry( 3 ),
+
+                    // checkpoint
+                    checkPoint( new LogPosition(0, 250) )
+                )
+        );
+    }
+
     @Test
     public void shouldBeAbleToApplyRecoveredTransactionsEvenIfIdGeneratorOpenedFine() throws Exception
     {
@@ -143,6 +186,18 @@ public class KernelRecoveryTest
                     .newImpermanentDatabase( storeDir );
     }
 
+    private GraphDatabaseService newPreallocatingDB( EphemeralFileSystemAbstraction fs )
+    {
+        fs.mkdirs( storeDir );
+        // The log is preallocated up to the rotation threshold, which is lowered to keep the in-memory files small
+        return new TestGraphDatabaseFactory()
+                    .setFileSystem( fs )
+                    .newImpermanentDatabaseBuilder( storeDir )
+                    .setConfig( GraphDatabaseSettings.logical_log_preallocation, Settings.TRUE )
+                    .setConfig( GraphDatabaseSettings.logical_log_rotation_threshold, "1M" )
+                    .newGraphDatabase();
+    }
+
     private long createNode( GraphDatabaseService db )
     {
         long node1;
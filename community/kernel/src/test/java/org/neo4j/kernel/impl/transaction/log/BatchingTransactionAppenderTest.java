@@ -28,14 +28,18 @@ import org.mockito.stubbing.Answer;
 import java.io.Flushable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.kernel.KernelHealth;
@@ -58,7 +62,9 @@ import org.neo4j.kernel.lifecycle.LifeRule;
 import org.neo4j.test.CleanupRule;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -451,6 +457,137 @@ public class BatchingTransactionAppenderTest
         verify( kernelHealth, times( 1 ) ).panic( ioex );
     }
 
+    @Test
+    public void concurrentForcesMustAllCompleteAndBeBatchedWithGroupCommit() throws Throwable
+    {
+        // Given
+        final BatchingTransactionAppender appender = new BatchingTransactionAppender( logFile, NO_ROTATION,
+                positionCache, transactionIdStore, BYPASS, kernelHealth, 5000, 4 );
+
+        WritableLogChannel channel = mock( WritableLogChannel.class, RETURNS_MOCKS );
+        final AtomicInteger forces = new AtomicInteger();
+        Flushable flushable = new Flushable()
+        {
+            @Override
+            public void flush() throws IOException
+            {
+                forces.incrementAndGet();
+                LockSupport.parkNanos( MILLISECONDS.toNanos( 2 ) );
+            }
+        };
+        when( channel.emptyBufferIntoChannelAndClearIt() ).thenReturn( flushable );
+        when( channel.putLong( anyLong() ) ).thenReturn( channel );
+        when( logFile.getWriter() ).thenReturn( channel );
+
+        appender.start();
+
+        // When
+        final int threads = 8, checkPointsPerThread = 50;
+        ExecutorService executor = cleanup.add( Executors.newFixedThreadPool( threads ) );
+        Collection<Future<Void>> futures = new ArrayList<>();
+        for ( int i = 0; i < threads; i++ )
+        {
+            futures.add( executor.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    for ( int j = 0; j < checkPointsPerThread; j++ )
+                    {
+                        appender.checkPoint( new LogPosition( 1l, j ), LogCheckPointEvent.NULL );
+                    }
+                    return null;
+                }
+            } ) );
+        }
+
+        // Then
+        for ( Future<Void> future : futures )
+        {
+            future.get( 1, MINUTES );
+        }
+        assertThat( forces.get(), lessThan( threads * checkPointsPerThread ) );
+        verifyZeroInteractions( kernelHealth );
+    }
+
+    @Test
+    public void groupCommitMustWaitForCommittersArrivingWhileOthersAreQueuedForTheForce() throws Throwable
+    {
+        // Given two committers queued up behind a slow force, and a third one arriving after that force is done
+        int forcesWithoutWaiting = forcesWithCommitterArrivingAfterQueuedCommitters( 0 );
+        int forcesWithWaiting = forcesWithCommitterArrivingAfterQueuedCommitters( MINUTES.toMicros( 1 ) );
+
+        // Then the third committer joins the batch of the queued ones only when group commit waits for it
+        assertEquals( 3, forcesWithoutWaiting );
+        assertEquals( 2, forcesWithWaiting );
+        verifyZeroInteractions( kernelHealth );
+    }
+
+    private int forcesWithCommitterArrivingAfterQueuedCommitters( long groupCommitMaxWaitMicros ) throws Throwable
+    {
+        final BatchingTransactionAppender appender = new BatchingTransactionAppender( logFile, NO_ROTATION,
+                positionCache, transactionIdStore, BYPASS, kernelHealth, groupCommitMaxWaitMicros, 3 );
+
+        WritableLogChannel channel = mock( WritableLogChannel.class, RETURNS_MOCKS );
+        final AtomicInteger forces = new AtomicInteger();
+        final CountDownLatch firstForceRelease = new CountDownLatch( 1 );
+        Flushable flushable = new Flushable()
+        {
+            @Override
+            public void flush() throws IOException
+            {
+                if ( forces.incrementAndGet() == 1 )
+                {
+                    try
+                    {
+                        firstForceRelease.await();
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        throw new IOException( e );
+                    }
+                }
+            }
+        };
+        when( channel.emptyBufferIntoChannelAndClearIt() ).thenReturn( flushable );
+        when( channel.putLong( anyLong() ) ).thenReturn( channel );
+        when( logFile.getWriter() ).thenReturn( channel );
+
+        appender.start();
+
+        ExecutorService executor = cleanup.add( Executors.newCachedThreadPool() );
+        Callable<Void> checkPoint = new Callable<Void>()
+        {
+            @Override
+            public Void call() throws Exception
+            {
+                appender.checkPoint( new LogPosition( 1l, 1l ), LogCheckPointEvent.NULL );
+                return null;
+            }
+        };
+
+        // The first force is slow, which also makes the group commit wait allow for up to half of that
+        Future<Void> first = executor.submit( checkPoint );
+        while ( forces.get() == 0 )
+        {
+            LockSupport.parkNanos( MILLISECONDS.toNanos( 1 ) );
+        }
+        Future<Void> second = executor.submit( checkPoint );
+        Future<Void> third = executor.submit( checkPoint );
+        LockSupport.parkNanos( MILLISECONDS.toNanos( 1000 ) );
+        firstForceRelease.countDown();
+
+        // The last committer arrives well after the queued committers have got to force the log
+        LockSupport.parkNanos( MILLISECONDS.toNanos( 200 ) );
+        Future<Void> fourth = executor.submit( checkPoint );
+
+        for ( Future<Void> future : Arrays.asList( first, second, third, fourth ) )
+        {
+            future.get( 1, MINUTES );
+        }
+        return forces.get();
+    }
+
     private TransactionRepresentation transactionWithLegacyIndexCommand()
     {
         Collection<Command> commands = new ArrayList<>();
@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.transaction.DeadSimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.DeadSimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.LogFile.LogFileVisitor;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.Monitor;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.rotation.StoreFlusher;
 import org.neo4j.kernel.lifecycle.LifeSupport;
@@ -44,6 +45,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 
 public class PhysicalLogFileTest
@@ -211,6 +213,77 @@ public class PhysicalLogFileTest
         return result;
     }
 
+    @Test
+    public void shouldPreallocateNewLogFilesAndTruncateThemOnShutdown() throws Exception
+    {
+        // GIVEN
+        String name = "log";
+        LifeSupport life = new LifeSupport();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        LogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 10_000, true,
+                transactionIdStore, logVersionRepository, mock( Monitor.class ),
+                new TransactionMetadataCache( 10, 100 ) ) );
+        File file = logFiles.getLogFileForVersion( 1L );
+
+        // WHEN
+        life.start();
+        try
+        {
+            assertEquals( 10_000, fs.getFileSize( file ) );
+            WritableLogChannel writer = logFile.getWriter();
+            writer.putLong( 1 );
+            writer.putLong( 2 );
+            writer.emptyBufferIntoChannelAndClearIt().flush();
+            assertEquals( 10_000, fs.getFileSize( file ) );
+        }
+        finally
+        {
+            life.shutdown();
+        }
+
+        // THEN
+        assertEquals( LOG_HEADER_SIZE + 16, fs.getFileSize( file ) );
+    }
+
+    @Test
+    public void shouldContinueAfterTheLastEntryOfPreallocatedLogThatWasNotTruncated() throws Exception
+    {
+        // GIVEN a preallocated log with some entries in it, that is never shut down
+        String name = "log";
+        LifeSupport crashedLife = new LifeSupport();
+        PhysicalLogFiles logFiles = new PhysicalLogFiles( directory.directory(), name, fs );
+        LogFile crashedLogFile = crashedLife.add( new PhysicalLogFile( fs, logFiles, 10_000, true,
+                transactionIdStore, logVersionRepository, mock( Monitor.class ),
+                new TransactionMetadataCache( 10, 100 ) ) );
+        crashedLife.start();
+        WritableLogChannel crashedWriter = crashedLogFile.getWriter();
+        TransactionLogWriter transactionLogWriter =
+                new TransactionLogWriter( new LogEntryWriter( crashedWriter, new CommandWriter( crashedWriter ) ) );
+        transactionLogWriter.checkPoint( new LogPosition( 1, LOG_HEADER_SIZE ) );
+        transactionLogWriter.checkPoint( new LogPosition( 1, LOG_HEADER_SIZE ) );
+        crashedWriter.emptyBufferIntoChannelAndClearIt().flush();
+        LogPosition endOfEntries = crashedWriter.getCurrentPosition( new LogPositionMarker() ).newPosition();
+
+        // WHEN
+        LifeSupport life = new LifeSupport();
+        LogFile logFile = life.add( new PhysicalLogFile( fs, logFiles, 10_000, true,
+                transactionIdStore, logVersionRepository, mock( Monitor.class ),
+                new TransactionMetadataCache( 10, 100 ) ) );
+        try
+        {
+            life.start();
+
+            // THEN
+            assertEquals( endOfEntries,
+                    logFile.getWriter().getCurrentPosition( new LogPositionMarker() ).newPosition() );
+        }
+        finally
+        {
+            life.shutdown();
+            crashedLife.shutdown();
+        }
+    }
+
     private byte[] someBytes( int length )
     {
         byte[] result = new byte[length];
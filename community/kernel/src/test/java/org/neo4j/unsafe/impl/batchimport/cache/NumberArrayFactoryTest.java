@@ -19,8 +19,13 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache;
 
+import org.junit.Rule;
 import org.junit.Test;
 
+import org.neo4j.test.TargetDirectory;
+import org.neo4j.test.TargetDirectory.TestDirectory;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -30,6 +35,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class NumberArrayFactoryTest
 {
@@ -121,4 +127,87 @@ public class NumberArrayFactoryTest
         assertTrue( array instanceof HeapIntArray );
         assertEquals( 12345, array.get( 1*KILO-10 ) );
     }
+
+    @Test
+    public void shouldMemoryMapArraysFromFilesWhichAreDeletedRightAway() throws Exception
+    {
+        // GIVEN
+        NumberArrayFactory factory = new NumberArrayFactory.MemoryMapped( directory.directory( "caches" ) );
+
+        // WHEN
+        LongArray longs = factory.newLongArray( 1*KILO, -1 );
+        IntArray ints = factory.newIntArray( 1*KILO, 0 );
+        longs.set( 1*KILO-10, 12345 );
+        ints.set( 1*KILO-10, 123 );
+
+        // THEN
+        assertEquals( 12345, longs.get( 1*KILO-10 ) );
+        assertEquals( -1, longs.get( 1*KILO-11 ) );
+        assertEquals( 123, ints.get( 1*KILO-10 ) );
+        assertEquals( 0, ints.get( 1*KILO-11 ) );
+        GatheringMemoryStatsVisitor usage = usageOf( longs, ints );
+        assertEquals( 0, usage.getOffHeapUsage() );
+        assertEquals( 12*KILO, usage.getDiskUsage() );
+        assertArrayEquals( new String[0], directory.directory( "caches" ).list() );
+        longs.close();
+        ints.close();
+    }
+
+    @Test
+    public void shouldPlaceArraysOffHeapWithinRamBudgetAndSplitArraysExceedingIt() throws Exception
+    {
+        // GIVEN
+        NumberArrayFactory factory = new NumberArrayFactory.RamBudget( 10*KILO,
+                new NumberArrayFactory.MemoryMapped( directory.directory( "caches" ) ) );
+
+        // WHEN
+        LongArray first = factory.newLongArray( 1*KILO, -1 );
+        LongArray second = factory.newLongArray( 1*KILO, -1 );
+        for ( int i = 0; i < 1*KILO; i++ )
+        {
+            second.set( i, i );
+        }
+
+        // THEN
+        assertEquals( 8*KILO, usageOf( first ).getOffHeapUsage() );
+        GatheringMemoryStatsVisitor secondUsage = usageOf( second );
+        assertTrue( secondUsage.getOffHeapUsage() > 0 );
+        assertTrue( secondUsage.getOffHeapUsage() <= 2*KILO );
+        assertTrue( secondUsage.getDiskUsage() >= 6*KILO );
+        for ( int i = 0; i < 1*KILO; i++ )
+        {
+            assertEquals( i, second.get( i ) );
+        }
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void shouldGiveBackRamBudgetOfClosedArrays() throws Exception
+    {
+        // GIVEN
+        NumberArrayFactory overflow = mock( NumberArrayFactory.class );
+        NumberArrayFactory factory = new NumberArrayFactory.RamBudget( 8*KILO, overflow );
+        factory.newLongArray( 1*KILO, -1 ).close();
+
+        // WHEN
+        IntArray array = factory.newIntArray( 2*KILO, -1 );
+
+        // THEN
+        assertEquals( 8*KILO, usageOf( array ).getOffHeapUsage() );
+        verifyZeroInteractions( overflow );
+        array.close();
+    }
+
+    private GatheringMemoryStatsVisitor usageOf( NumberArray... arrays )
+    {
+        GatheringMemoryStatsVisitor visitor = new GatheringMemoryStatsVisitor();
+        for ( NumberArray array : arrays )
+        {
+            array.acceptMemoryStatsVisitor( visitor );
+        }
+        return visitor;
+    }
+
+    public final @Rule TestDirectory directory = TargetDirectory.testDirForTest( getClass() );
 }
@@ -19,6 +19,11 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache.idmapping.string;
 
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.kernel.impl.transaction.log.WritableLogChannel;
+
 public class ControlledEncoder implements Encoder
 {
     private final Encoder actual;
@@ -49,4 +54,16 @@ public class ControlledEncoder implements Encoder
             overrideId = null;
         }
     }
+
+    @Override
+    public void writeTo( WritableLogChannel channel ) throws IOException
+    {
+        actual.writeTo( channel );
+    }
+
+    @Override
+    public void readFrom( ReadableLogChannel channel ) throws IOException
+    {
+        actual.readFrom( channel );
+    }
 }
@@ -40,6 +40,7 @@ import org.neo4j.function.Factory;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.helpers.collection.PrefetchingIterator;
 import org.neo4j.helpers.progress.ProgressListener;
+import org.neo4j.kernel.impl.transaction.log.InMemoryLogChannel;
 import org.neo4j.test.RandomRule;
 import org.neo4j.test.RepeatRule;
 import org.neo4j.unsafe.impl.batchimport.InputIterable;
@@ -365,6 +366,73 @@ public class EncodingIdMapperTest
         assertEquals( 5L, mapper.get( f, groupB ) );
     }
 
+    @Test
+    public void shouldReadBackWrittenStateIncludingGroupsAndCollisions() throws Exception
+    {
+        // GIVEN
+        Encoder encoder = mock( Encoder.class );
+        String a = new String( "a" );
+        String b = new String( "b" );
+        String c = new String( "c" );
+        String a2 = new String( "a" );
+        when( encoder.encode( a ) ).thenReturn( 1L );
+        when( encoder.encode( b ) ).thenReturn( 1L );
+        when( encoder.encode( c ) ).thenReturn( 3L );
+        when( encoder.encode( a2 ) ).thenReturn( 1L );
+        IdMapper mapper = mapper( encoder, Radix.STRING, NO_MONITOR );
+        InputIterable<Object> ids = wrap( "source", Arrays.<Object>asList( "a", "b", "c", "a" ) );
+        Group.Adapter groupA = new Group.Adapter( 1, "A" );
+        Group.Adapter groupB = new Group.Adapter( 2, "B" );
+        Group[] groups = new Group[] {groupA, groupA, groupB, groupB};
+        try ( ResourceIterator<Object> iterator = ids.iterator() )
+        {
+            for ( int i = 0; iterator.hasNext(); i++ )
+            {
+                mapper.put( iterator.next(), i, groups[i] );
+            }
+        }
+        mapper.prepare( ids, mock( Collector.class ), NONE );
+
+        // WHEN
+        InMemoryLogChannel channel = new InMemoryLogChannel();
+        mapper.writeTo( channel );
+        IdMapper readMapper = mapper( encoder, Radix.STRING, NO_MONITOR );
+        readMapper.readFrom( channel );
+
+        // THEN
+        assertEquals( 0L, readMapper.get( a, groupA ) );
+        assertEquals( 1L, readMapper.get( b, groupA ) );
+        assertEquals( 2L, readMapper.get( c, groupB ) );
+        assertEquals( 3L, readMapper.get( a2, groupB ) );
+        assertEquals( -1L, readMapper.get( c, groupA ) );
+    }
+
+    @Test
+    public void shouldFindIdsAfterReadingBackStateIntoMapperWithNewEncoder() throws Exception
+    {
+        // GIVEN
+        IdMapper mapper = mapper( new StringEncoder(), Radix.STRING, NO_MONITOR );
+        List<Object> values = Arrays.<Object>asList( "abcdefghij", "klmnopqrst", "uvwxyz0123", "4567890abc" );
+        InputIterable<Object> ids = wrap( "source", values );
+        for ( int i = 0; i < values.size(); i++ )
+        {
+            mapper.put( values.get( i ), i, GLOBAL );
+        }
+        mapper.prepare( ids, mock( Collector.class ), NONE );
+
+        // WHEN
+        InMemoryLogChannel channel = new InMemoryLogChannel();
+        mapper.writeTo( channel );
+        IdMapper readMapper = mapper( new StringEncoder(), Radix.STRING, NO_MONITOR );
+        readMapper.readFrom( channel );
+
+        // THEN
+        for ( int i = values.size() - 1; i >= 0; i-- )
+        {
+            assertEquals( i, readMapper.get( values.get( i ), GLOBAL ) );
+        }
+    }
+
     @Test
     public void shouldBeAbleToHaveDuplicateInputIdButInDifferentGroups() throws Exception
     {
@@ -53,9 +53,32 @@ public class InputCacheTest
 
     @Test
     public void shouldCacheAndRetrieveNodes() throws Exception
+    {
+        shouldCacheAndRetrieveNodes( new InputCache( fs, dir.directory(), 8*KB ) );
+    }
+
+    @Test
+    public void shouldCacheAndRetrieveRelationships() throws Exception
+    {
+        shouldCacheAndRetrieveRelationships( new InputCache( fs, dir.directory(), 8*KB ) );
+    }
+
+    @Test
+    public void shouldCacheAndRetrieveCompressedNodesDecodedInParallel() throws Exception
+    {
+        shouldCacheAndRetrieveNodes( new InputCache( fs, dir.directory(), 8*KB, true, 4 ) );
+    }
+
+    @Test
+    public void shouldCacheAndRetrieveCompressedRelationshipsDecodedInParallel() throws Exception
+    {
+        shouldCacheAndRetrieveRelationships( new InputCache( fs, dir.directory(), 8*KB, true, 4 ) );
+    }
+
+    private void shouldCacheAndRetrieveNodes( InputCache inputCache ) throws Exception
     {
         // GIVEN
-        try ( InputCache cache = new InputCache( fs, dir.directory(), 8*KB ) )
+        try ( InputCache cache = inputCache )
         {
             List<InputNode> nodes = new ArrayList<>();
             Randoms random = new Randoms( randomRule.random(), Randoms.DEFAULT );
@@ -91,11 +114,10 @@ public class InputCacheTest
         assertNoFilesLeftBehind();
     }
 
-    @Test
-    public void shouldCacheAndRetrieveRelationships() throws Exception
+    private void shouldCacheAndRetrieveRelationships( InputCache inputCache ) throws Exception
     {
         // GIVEN
-        try ( InputCache cache = new InputCache( fs, dir.directory(), 8*KB ) )
+        try ( InputCache cache = inputCache )
         {
             List<InputRelationship> relationships = new ArrayList<>();
             Randoms random = new Randoms( randomRule.random(), Randoms.DEFAULT );
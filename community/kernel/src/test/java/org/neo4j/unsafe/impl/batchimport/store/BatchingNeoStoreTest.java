@@ -35,6 +35,7 @@ import org.neo4j.test.PageCacheRule;
 import org.neo4j.test.TestGraphDatabaseFactory;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -63,6 +64,26 @@ public class BatchingNeoStoreTest
         }
     }
 
+    @Test
+    public void shouldOpenStoreWithExistingDataAndItsTokensWhenAddingToIt() throws Exception
+    {
+        // GIVEN
+        someDataInTheDatabase();
+
+        // WHEN
+        try ( BatchingNeoStore store = new BatchingNeoStore( fsr.get(), storeDir, DEFAULT,
+                NullLogService.getInstance(), new Monitors(), EMPTY, true ) )
+        {
+            // THEN
+            assertEquals( 2, store.getNodeStore().getHighId() );
+            assertEquals( 1, store.getRelationshipStore().getHighId() );
+            int existingTypeId = store.getRelationshipTypeRepository().getOrCreateId( MyRelTypes.TEST.name() );
+            assertEquals( 0, existingTypeId );
+            assertEquals( existingTypeId + 1,
+                    store.getRelationshipTypeRepository().getOrCreateId( MyRelTypes.TEST2.name() ) );
+        }
+    }
+
     private void someDataInTheDatabase()
     {
         GraphDatabaseService db = new TestGraphDatabaseFactory().setFileSystem( fsr.get() )
@@ -26,6 +26,8 @@ import org.apache.lucene.index.FieldInfo.IndexOptions;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.NumericUtils;
@@ -287,6 +289,20 @@ public class LuceneDocumentStructure
         return new PrefixQuery( new Term( ValueEncoding.String.key(), prefix ) );
     }
 
+    /**
+     * Numbers are indexed prefix coded, and prefix coded numbers sort as strings in the same order as the numbers
+     * they encode, so both numeric and string hits can be ordered by their indexed term.
+     */
+    public Sort newNumericValueSort()
+    {
+        return new Sort( new SortField( ValueEncoding.Number.key(), SortField.STRING ) );
+    }
+
+    public Sort newStringValueSort()
+    {
+        return new Sort( new SortField( ValueEncoding.String.key(), SortField.STRING ) );
+    }
+
     public Term newTermForChangeOrRemove( long nodeId )
     {
         return new Term( NODE_ID_KEY, "" + nodeId );
@@ -25,6 +25,7 @@ import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TermQuery;
 
 import java.io.Closeable;
@@ -106,6 +107,21 @@ class LuceneIndexAccessorReader implements IndexReader
         return query( documentLogic.newRangeSeekByStringQuery( lower, includeLower, upper, includeUpper ) );
     }
 
+    @Override
+    public PrimitiveLongIterator rangeSeekByNumberInclusiveInOrder( Number lower, Number upper )
+    {
+        return query( documentLogic.newInclusiveNumericRangeSeekQuery( lower, upper ),
+                documentLogic.newNumericValueSort() );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByStringInOrder( String lower, boolean includeLower,
+                                                           String upper, boolean includeUpper )
+    {
+        return query( documentLogic.newRangeSeekByStringQuery( lower, includeLower, upper, includeUpper ),
+                documentLogic.newStringValueSort() );
+    }
+
     @Override
     public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
     {
@@ -214,4 +230,21 @@ class LuceneIndexAccessorReader implements IndexReader
             throw new RuntimeException( e );
         }
     }
+
+    /**
+     * Sorted hits are fetched from the searcher a page at a time, with each page twice the size of the previous one,
+     * so a reader that stops early never keeps more than twice the hits it consumed in sorted order.
+     */
+    protected PrimitiveLongIterator query( Query query, Sort sort )
+    {
+        try
+        {
+            Hits hits = new Hits( searcher, query, null, sort, false );
+            return new HitsPrimitiveLongIterator( hits, documentLogic );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
 }
@@ -46,12 +46,14 @@ import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
 import org.neo4j.register.Registers;
 import org.neo4j.test.ThreadingRule;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import static org.neo4j.collection.primitive.PrimitiveLongCollections.asArray;
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 import static org.neo4j.helpers.collection.IteratorUtil.asUniqueSet;
 import static org.neo4j.helpers.collection.IteratorUtil.emptySetOf;
@@ -77,6 +79,38 @@ public class LuceneIndexAccessorTest
         reader.close();
     }
 
+    @Test
+    public void indexReaderShouldReturnNumericRangeInValueOrder() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList( add( 1, 30 ), add( 2, -5 ), add( 3, 12.5 ), add( 4, 1000L ), add( 5, "12" ),
+                add( 6, 7 ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // WHEN
+        PrimitiveLongIterator results = reader.rangeSeekByNumberInclusiveInOrder( -5, 100 );
+
+        // THEN
+        assertArrayEquals( new long[]{2, 6, 3, 1}, asArray( results ) );
+        reader.close();
+    }
+
+    @Test
+    public void indexReaderShouldReturnStringRangeInValueOrder() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList( add( 1, "Bertil" ), add( 2, "Anna" ), add( 3, "Cecilia" ), add( 4, "Adam" ),
+                add( 5, 42 ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // WHEN
+        PrimitiveLongIterator results = reader.rangeSeekByStringInOrder( "Anna", true, null, false );
+
+        // THEN
+        assertArrayEquals( new long[]{2, 1, 3}, asArray( results ) );
+        reader.close();
+    }
+
     @Test
     public void indexReaderShouldHonorRepeatableReads() throws Exception
     {
@@ -19,12 +19,16 @@
  */
 package org.neo4j.server.database;
 
+import java.util.concurrent.TimeUnit;
+
 import org.neo4j.cypher.javacompat.internal.ServerExecutionEngine;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
 public class CypherExecutor extends LifecycleAdapter
 {
+    private static final long WARM_UP_TIMEOUT_MINUTES = 5;
+
     private final Database database;
     private ServerExecutionEngine executionEngine;
 
@@ -43,6 +47,8 @@ public class CypherExecutor extends LifecycleAdapter
     {
         this.executionEngine = (ServerExecutionEngine) database.getGraph().getDependencyResolver()
                                                                .resolveDependency( QueryExecutionEngine.class );
+        // plan the queries that were cached before the last restart, before any requests arrive
+        this.executionEngine.awaitQueryCacheWarmUp( WARM_UP_TIMEOUT_MINUTES, TimeUnit.MINUTES );
     }
 
     @Override
@@ -45,6 +45,8 @@ public final class UnsafeUtil
     private static final MethodHandle getAndAddInt;
     private static final MethodHandle getAndSetObject;
     private static final MethodHandle sharedStringConstructor;
+    private static final MethodHandle directBufferCleaner;
+    private static final MethodHandle cleanerClean;
     private static final String allowUnalignedMemoryAccessProperty =
             "org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.allowUnalignedMemoryAccess";
 
@@ -69,6 +71,8 @@ public final class UnsafeUtil
         getAndAddInt = getGetAndAddIntMethodHandle( lookup );
         getAndSetObject = getGetAndSetObjectMethodHandle( lookup );
         sharedStringConstructor = getSharedStringConstructorMethodHandle( lookup );
+        directBufferCleaner = getDirectBufferCleanerMethodHandle( lookup );
+        cleanerClean = getCleanerCleanMethodHandle( lookup );
 
         Class<?> dbbClass = null;
         Constructor<?> ctor = null;
@@ -228,6 +232,39 @@ public final class UnsafeUtil
         }
     }
 
+    private static MethodHandle getDirectBufferCleanerMethodHandle(
+            MethodHandles.Lookup lookup )
+    {
+        // sun.misc.Cleaner sun.nio.ch.DirectBuffer.cleaner()
+        try
+        {
+            Class<?> directBuffer = Class.forName( "sun.nio.ch.DirectBuffer" );
+            Class<?> cleaner = Class.forName( "sun.misc.Cleaner" );
+            return lookup.findVirtual( directBuffer, "cleaner", MethodType.methodType( cleaner ) )
+                    .asType( MethodType.methodType( Object.class, ByteBuffer.class ) );
+        }
+        catch ( Exception e )
+        {
+            return null;
+        }
+    }
+
+    private static MethodHandle getCleanerCleanMethodHandle(
+            MethodHandles.Lookup lookup )
+    {
+        // void sun.misc.Cleaner.clean()
+        try
+        {
+            Class<?> cleaner = Class.forName( "sun.misc.Cleaner" );
+            return lookup.findVirtual( cleaner, "clean", MethodType.methodType( Void.TYPE ) )
+                    .asType( MethodType.methodType( Void.TYPE, Object.class ) );
+        }
+        catch ( Exception e )
+        {
+            return null;
+        }
+    }
+
     /**
      * Get the object-relative field offset.
      */
@@ -295,6 +332,15 @@ public final class UnsafeUtil
         return unsafe.compareAndSwapLong( obj, offset, expected, update );
     }
 
+    /**
+     * Same as compareAndSwapLong, but for int fields.
+     */
+    public static boolean compareAndSwapInt(
+            Object obj, long offset, int expected, int update )
+    {
+        return unsafe.compareAndSwapInt( obj, offset, expected, update );
+    }
+
     /**
      * Same as compareAndSwapLong, but for object references.
      */
@@ -757,6 +803,45 @@ public final class UnsafeUtil
         return (ByteBuffer) directByteBufferCtor.newInstance( addr, cap );
     }
 
+    /**
+     * Get the native address of the memory that backs the given direct ByteBuffer, which may also be a
+     * MappedByteBuffer of a memory mapped file.
+     */
+    public static long getDirectByteBufferAddress( ByteBuffer dbb )
+    {
+        if ( !dbb.isDirect() )
+        {
+            throw new IllegalArgumentException( "Not a direct ByteBuffer: " + dbb );
+        }
+        return unsafe.getLong( dbb, directByteBufferAddressOffset );
+    }
+
+    /**
+     * Release the memory of the given direct ByteBuffer, or unmap the given MappedByteBuffer, right away instead of
+     * when the buffer is garbage collected. The buffer, and any pointers into its memory, must not be used afterwards.
+     * <p>
+     * If the cleaner of the buffer cannot be reached on this JVM, then the memory is left to the garbage collector.
+     */
+    public static void invokeCleaner( ByteBuffer dbb )
+    {
+        if ( directBufferCleaner == null || cleanerClean == null || !dbb.isDirect() )
+        {
+            return;
+        }
+        try
+        {
+            Object cleaner = directBufferCleaner.invokeExact( dbb );
+            if ( cleaner != null )
+            {
+                cleanerClean.invokeExact( cleaner );
+            }
+        }
+        catch ( Throwable throwable )
+        {
+            throw new LinkageError( "Unexpected 'Cleaner.clean' failure", throwable );
+        }
+    }
+
     /**
      * Initialize (simulate calling the constructor of) the given DirectByteBuffer.
      */
@@ -458,4 +458,25 @@ public class UnsafeUtilTest
             free( address );
         }
     }
+
+    @Test
+    public void mustGetAddressOfDirectByteBufferAndCleanIt() throws Exception
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect( 16 );
+        buffer.put( 3, (byte) 42 );
+        long address = getDirectByteBufferAddress( buffer );
+        assertThat( getByte( address + 3 ), is( (byte) 42 ) );
+        putByte( address + 4, (byte) 43 );
+        assertThat( buffer.get( 4 ), is( (byte) 43 ) );
+        invokeCleaner( buffer );
+        // Cleaning again, or cleaning a heap buffer, must do nothing.
+        invokeCleaner( buffer );
+        invokeCleaner( ByteBuffer.allocate( 16 ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void mustNotGetAddressOfHeapByteBuffer() throws Exception
+    {
+        getDirectByteBufferAddress( ByteBuffer.allocate( 16 ) );
+    }
 }
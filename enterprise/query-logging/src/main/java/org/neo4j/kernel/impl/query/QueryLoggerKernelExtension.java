@@ -26,6 +26,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Clock;
 import org.neo4j.helpers.Service;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.impl.logging.LogService;
@@ -106,6 +107,8 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
     {
         private static final MetadataKey<Long> START_TIME = new MetadataKey<>( Long.class, "start time" );
         private static final MetadataKey<String> QUERY_STRING = new MetadataKey<>( String.class, "query string" );
+        private static final MetadataKey<PageCursorCounters> PAGE_CURSOR_COUNTERS =
+                new MetadataKey<>( PageCursorCounters.class, "page cursor counters" );
 
         private final Clock clock;
         private final Log log;
@@ -124,6 +127,7 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
             long startTime = clock.currentTimeMillis();
             Object oldTime = session.put( START_TIME, startTime );
             Object oldQuery = session.put( QUERY_STRING, query );
+            session.put( PAGE_CURSOR_COUNTERS, PageCursorCounters.forCurrentThread().snapshot() );
             if ( oldTime != null || oldQuery != null )
             {
                 log.error( "Concurrent queries for session %s: \"%s\" @ %s and \"%s\" @ %s",
@@ -136,6 +140,7 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
         {
             String query = session.remove( QUERY_STRING );
             Long startTime = session.remove( START_TIME );
+            session.remove( PAGE_CURSOR_COUNTERS );
             if ( startTime != null )
             {
                 long time = clock.currentTimeMillis() - startTime;
@@ -149,13 +154,26 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
         {
             String query = session.remove( QUERY_STRING );
             Long startTime = session.remove( START_TIME );
+            PageCursorCounters startCounters = session.remove( PAGE_CURSOR_COUNTERS );
             if ( startTime != null )
             {
                 long time = clock.currentTimeMillis() - startTime;
                 if ( time >= thresholdMillis )
                 {
-                    log.info( "%d ms: %s - %s", time, session.toString(),
-                            query == null ? "<unknown query>" : query );
+                    query = query == null ? "<unknown query>" : query;
+                    // The page cache counts per thread, so only a query that ends on the thread it started on
+                    // can be told what it did to the page cache.
+                    if ( startCounters != null && startCounters.isForCurrentThread() )
+                    {
+                        PageCursorCounters io = PageCursorCounters.forCurrentThread().since( startCounters );
+                        log.info( "%d ms: %s - %s - page hits: %d, page faults: %d, bytes read: %d, evictions: %d",
+                                time, session.toString(), query,
+                                io.hits(), io.faults(), io.bytesRead(), io.evictions() );
+                    }
+                    else
+                    {
+                        log.info( "%d ms: %s - %s", time, session.toString(), query );
+                    }
                 }
             }
         }
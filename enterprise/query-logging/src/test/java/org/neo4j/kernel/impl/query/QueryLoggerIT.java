@@ -94,7 +94,7 @@ public class QueryLoggerIT
             }
 
             assertEquals( 1, logLines.size() );
-            assertThat( logLines.get( 0 ), Matchers.endsWith( String.format( " ms: %s - %s",
+            assertThat( logLines.get( 0 ), Matchers.containsString( String.format( " ms: %s - %s - page hits: ",
                     QueryEngineProvider.embeddedSession(), QUERY ) ) );
         }
     }
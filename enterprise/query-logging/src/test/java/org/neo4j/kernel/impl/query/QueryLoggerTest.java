@@ -39,6 +39,8 @@ public class QueryLoggerTest
     public static final String QUERY_1 = "MATCH (n) RETURN n";
     public static final String QUERY_2 = "MATCH (a)--(b) RETURN b.name";
     public static final String QUERY_3 = "MATCH (c)-[:FOO]->(d) RETURN d.size";
+    private static final String FORMAT_WITH_IO =
+            "%d ms: %s - %s - page hits: %d, page faults: %d, bytes read: %d, evictions: %d";
 
     @Test
     public void shouldLogQuerySlowerThanThreshold() throws Exception
@@ -56,7 +58,7 @@ public class QueryLoggerTest
 
         // then
         logProvider.assertExactly(
-                inLog( getClass() ).info( "%d ms: %s - %s", 11L, SESSION_1_NAME, QUERY_1 )
+                inLog( getClass() ).info( FORMAT_WITH_IO, 11L, SESSION_1_NAME, QUERY_1, 0L, 0L, 0L, 0L )
         );
     }
 
@@ -104,8 +106,37 @@ public class QueryLoggerTest
 
         // then
         logProvider.assertExactly(
-                inLog( getClass() ).info( "%d ms: %s - %s", 15L, SESSION_2_NAME, QUERY_2 ),
-                inLog( getClass() ).info( "%d ms: %s - %s", 23L, SESSION_1_NAME, QUERY_1 )
+                inLog( getClass() ).info( FORMAT_WITH_IO, 15L, SESSION_2_NAME, QUERY_2, 0L, 0L, 0L, 0L ),
+                inLog( getClass() ).info( FORMAT_WITH_IO, 23L, SESSION_1_NAME, QUERY_1, 0L, 0L, 0L, 0L )
+        );
+    }
+
+    @Test
+    public void shouldLeaveOutPageCacheCountsOfQueryThatEndsOnAnotherThread() throws Exception
+    {
+        // given
+        final AssertableLogProvider logProvider = new AssertableLogProvider();
+        final QuerySession session = session( SESSION_1_NAME );
+        FakeClock clock = new FakeClock();
+        final QueryLogger queryLogger = new QueryLogger( clock, logProvider.getLog( getClass() ), 10/*ms*/ );
+
+        // when
+        queryLogger.startQueryExecution( session, QUERY_1 );
+        clock.forward( 11, TimeUnit.MILLISECONDS );
+        Thread otherThread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                queryLogger.endSuccess( session );
+            }
+        };
+        otherThread.start();
+        otherThread.join();
+
+        // then
+        logProvider.assertExactly(
+                inLog( getClass() ).info( "%d ms: %s - %s", 11L, SESSION_1_NAME, QUERY_1 )
         );
     }
 